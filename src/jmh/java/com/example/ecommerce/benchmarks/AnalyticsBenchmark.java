@@ -0,0 +1,137 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.analytics.OrderAnalytics;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.repositories.OrderRepository;
+import com.example.ecommerce.services.AnalyticsService;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Measures grouping the Orders in the seeded H2 database by month, with their revenue and units,
+ * and their Items by Product, with their units, out of 10000 or 50000 Orders of 500 Customers over
+ * three years, each Order with two Items, from a day within the first month on: from the
+ * OrderColumnStore, as GET /analytics/orders does, and with the same GROUP BY queries run on the
+ * orders and items tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsBenchmark {
+
+  private static final int DAYS = 3 * 365;
+  private static final int CUSTOMERS = 500;
+  private static final int PRODUCTS = 200;
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+  @Param({"10000", "50000"})
+  private int orders;
+
+  private ConfigurableApplicationContext context;
+  private AnalyticsService analyticsService;
+  private EntityManager entityManager;
+  private TransactionTemplate transactionTemplate;
+  private long start;
+  private int shift;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    analyticsService = context.getBean(AnalyticsService.class);
+    entityManager = context.getBean(EntityManager.class);
+    transactionTemplate = context.getBean(TransactionTemplate.class);
+    OrderRepository orderRepository = context.getBean(OrderRepository.class);
+    start = System.currentTimeMillis() / DAY * DAY - DAYS * DAY;
+    List<Order> batch = new ArrayList<>();
+    for (int i = 0; i < orders; i++) {
+      Order order = new Order(100L + i % CUSTOMERS, new Date(start + i % DAYS * DAY),
+          new ArrayList<>(), Money.ofMinor(1000 + i % 9000));
+      order.addItemToOrder(new Item(1L + i % PRODUCTS, 1, null));
+      order.addItemToOrder(new Item(1L + i * 7 % PRODUCTS, 2, null));
+      batch.add(order);
+      if (batch.size() == 1000) {
+        orderRepository.saveAllAndFlush(batch);
+        batch.clear();
+      }
+    }
+    orderRepository.saveAllAndFlush(batch);
+    analyticsService.rebuild();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public OrderAnalytics columnStoreByMonth() {
+    return analyticsService.queryOrders("month", nextFrom(), null, null, null, 1000);
+  }
+
+  @Benchmark
+  public OrderAnalytics columnStoreByProduct() {
+    return analyticsService.queryOrders("product", nextFrom(), null, null, null, 1000);
+  }
+
+  @Benchmark
+  public int databaseByMonth() {
+    Date from = toDate(nextFrom());
+    return transactionTemplate.execute(status -> {
+      List<?> months = entityManager.createQuery("select year(o.date), month(o.date), count(o),"
+              + " sum(o.orderTotal) from Order o where o.date >= :from"
+              + " group by year(o.date), month(o.date)")
+          .setParameter("from", from).getResultList();
+      List<?> units = entityManager.createQuery("select year(o.date), month(o.date),"
+              + " sum(i.quantity) from Item i join i.order o where o.date >= :from"
+              + " group by year(o.date), month(o.date)")
+          .setParameter("from", from).getResultList();
+      return months.size() + units.size();
+    });
+  }
+
+  @Benchmark
+  public int databaseByProduct() {
+    Date from = toDate(nextFrom());
+    return transactionTemplate.execute(status -> entityManager.createQuery(
+            "select i.productId, count(i), sum(i.quantity) from Item i join i.order o"
+                + " where o.date >= :from group by i.productId order by sum(i.quantity) desc")
+        .setParameter("from", from).getResultList().size());
+  }
+
+  /**
+   * Moves the first day analyzed by a day every time, within the first month, so that H2 cannot
+   * answer a query with the result it returned for the same parameters before.
+   */
+  private LocalDate nextFrom() {
+    shift = (shift + 1) % 30;
+    return LocalDate.ofEpochDay(start / DAY + shift);
+  }
+
+  private static Date toDate(LocalDate day) {
+    return Date.from(day.atStartOfDay().toInstant(ZoneOffset.UTC));
+  }
+}
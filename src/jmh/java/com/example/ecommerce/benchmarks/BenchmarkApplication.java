@@ -0,0 +1,63 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.EcommerceApplication;
+import java.util.Arrays;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against an in-memory H2 database, seeded by the DataLoader, for the
+ * benchmarks that need the real repositories and services, and, for those that send it requests,
+ * with a web server on a random port.
+ */
+public final class BenchmarkApplication {
+
+  private BenchmarkApplication() {
+  }
+
+  /**
+   * Starts the application.
+   *
+   * @param args further command line arguments (i.e. "--some.property=value"), which take
+   *             precedence over application.yml.
+   * @return the started application context, to be closed by the caller.
+   */
+  public static ConfigurableApplicationContext start(String... args) {
+    return start(WebApplicationType.NONE, args);
+  }
+
+  /**
+   * Starts the application with a web server on a random port, which can be read from the
+   * "local.server.port" property of the context.
+   *
+   * @param type the web stack to serve requests with, SERVLET or REACTIVE.
+   * @param args further command line arguments (i.e. "--some.property=value"), which take
+   *             precedence over application.yml.
+   * @return the started application context, to be closed by the caller.
+   */
+  public static ConfigurableApplicationContext startServer(WebApplicationType type,
+      String... args) {
+    String[] all = Arrays.copyOf(args, args.length + 2);
+    all[args.length] = "--server.port=0";
+    all[args.length + 1] = "--spring.main.web-application-type=" + type.name().toLowerCase();
+    return start(type, all);
+  }
+
+  private static ConfigurableApplicationContext start(WebApplicationType type, String... args) {
+    String[] defaults = {
+        "--spring.datasource.url=jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.jpa.database=H2",
+        "--spring.jpa.show-sql=false",
+        "--logging.file.name=target/benchmarks.log",
+        "--logging.level.root=WARN"
+    };
+    String[] all = Arrays.copyOf(defaults, defaults.length + args.length);
+    System.arraycopy(args, 0, all, defaults.length, args.length);
+    return new SpringApplicationBuilder(EcommerceApplication.class)
+        .web(type)
+        .run(all);
+  }
+}
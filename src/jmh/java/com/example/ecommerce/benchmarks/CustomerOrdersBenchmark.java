@@ -0,0 +1,135 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.pagination.Cursors;
+import com.example.ecommerce.repositories.OrderRepository;
+import com.example.ecommerce.services.OrderService;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Measures reading a page of 20 of the Orders of a Customer who placed 100 or 5000 of the 20000
+ * Orders in the seeded H2 database, each Order with two Items, newest first: through the
+ * (customer_id, date, id) index with keyset pagination, as GET /customers/{id}/orders does, and
+ * through a query by Example with offset pagination, as GET /orders?customerId= does. Both the
+ * first and the last page are read, and the Items of every Order are loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerOrdersBenchmark {
+
+  private static final long CUSTOMER_ID = 2L;
+  private static final int TOTAL_ORDERS = 20000;
+  private static final int PAGE_SIZE = 20;
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+  @Param({"100", "5000"})
+  private int customerOrders;
+
+  private ConfigurableApplicationContext context;
+  private OrderService orderService;
+  private TransactionTemplate transactionTemplate;
+  private String lastPageCursor;
+  private Pageable lastPage;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    orderService = context.getBean(OrderService.class);
+    transactionTemplate = context.getBean(TransactionTemplate.class);
+    OrderRepository orderRepository = context.getBean(OrderRepository.class);
+    long start = System.currentTimeMillis() - TOTAL_ORDERS * DAY;
+    List<Order> orders = new ArrayList<>();
+    for (int i = 0; i < TOTAL_ORDERS; i++) {
+      // every Customer's Orders are spread over the whole table, as they would be over time
+      long customerId = i % (TOTAL_ORDERS / customerOrders) == 0 ? CUSTOMER_ID : 100L + i % 50;
+      Order order = new Order(customerId, new Date(start + i * DAY), new ArrayList<>(),
+          Money.of("10.00"));
+      order.addItemToOrder(new Item(1L, 1, null));
+      order.addItemToOrder(new Item(2L, 2, null));
+      orders.add(order);
+      if (orders.size() == 1000) {
+        orderRepository.saveAllAndFlush(orders);
+        orders.clear();
+      }
+    }
+    orderRepository.saveAllAndFlush(orders);
+    Sort newestFirst = Sort.by(Direction.DESC, "date", "id");
+    List<Order> allButLastPage = orderRepository.findByCustomerId(CUSTOMER_ID,
+        PageRequest.of(0, customerOrders - PAGE_SIZE, newestFirst)).getContent();
+    Order last = allButLastPage.get(allButLastPage.size() - 1);
+    lastPageCursor = Cursors.encodeDateAndId(last.getDate(), last.getId());
+    lastPage = PageRequest.of(customerOrders / PAGE_SIZE - 1, PAGE_SIZE, newestFirst);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int keysetFirstPage() {
+    return items(orderService.queryOrdersByCustomer(CUSTOMER_ID, null, PAGE_SIZE).getContent());
+  }
+
+  @Benchmark
+  public int keysetLastPage() {
+    return items(orderService.queryOrdersByCustomer(CUSTOMER_ID, lastPageCursor, PAGE_SIZE)
+        .getContent());
+  }
+
+  @Benchmark
+  public int exampleFirstPage() {
+    return byExample(PageRequest.of(0, PAGE_SIZE, Sort.by(Direction.DESC, "date", "id")));
+  }
+
+  @Benchmark
+  public int exampleLastPage() {
+    return byExample(lastPage);
+  }
+
+  private int byExample(Pageable pageable) {
+    Order probe = new Order();
+    probe.setCustomerId(CUSTOMER_ID);
+    probe.setItems(null);
+    return transactionTemplate.execute(status -> {
+      Slice<Order> orders = orderService.queryOrders(probe, pageable, false);
+      return items(orders.getContent());
+    });
+  }
+
+  private static int items(List<Order> orders) {
+    int items = 0;
+    for (Order order : orders) {
+      items += order.getItems().size();
+    }
+    return items;
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.models.Address;
+import com.example.ecommerce.models.Customer;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Bean Validation of a Customer and of its Address, including the State validator, for
+ * both valid input and input that fails several constraints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerValidationBenchmark {
+
+  private ValidatorFactory validatorFactory;
+  private Validator validator;
+  private Customer validCustomer;
+  private Customer invalidCustomer;
+  private Address validAddress;
+
+  @Setup
+  public void setUp() {
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    validAddress = new Address("1 Test Street", "Testown", "TX", "11111");
+    validCustomer = new Customer("Test Testerton", "test@test.com", validAddress);
+    invalidCustomer = new Customer("", "not-an-email",
+        new Address("1 Test Street", "Testown", "XX", "1111"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<Customer>> validCustomer() {
+    return validator.validate(validCustomer);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<Customer>> invalidCustomer() {
+    return validator.validate(invalidCustomer);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<Address>> validAddress() {
+    return validator.validate(validAddress);
+  }
+}
@@ -0,0 +1,102 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.cache.ProductCache;
+import com.example.ecommerce.exceptions.ResourceNotFound;
+import com.example.ecommerce.models.Customer;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.repositories.CustomerRepository;
+import com.example.ecommerce.repositories.ProductRepository;
+import com.example.ecommerce.services.CustomerServiceImpl;
+import com.example.ecommerce.services.ProductServiceImpl;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Measures the throughput of getProductById and getCustomerById when the id does not exist, which
+ * ends in a ResourceNotFound, next to a cached hit. The repositories are stubs that answer from
+ * memory, so the cost measured is that of the service and the exception path rather than of the
+ * database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupMissBenchmark {
+
+  private ProductServiceImpl productService;
+  private CustomerServiceImpl customerService;
+
+  @Setup
+  public void setUp() {
+    Product product = new Product("MD5-354", "Women's Fashion", "Wide Brim Sunhat",
+        "UPF 50+ Sun Hat to protect against UV rays", "Keeper's", null);
+    product.setId(1L);
+
+    productService = new ProductServiceImpl();
+    ReflectionTestUtils.setField(productService, "productRepository",
+        findByIdStub(ProductRepository.class, 1L, product));
+    ReflectionTestUtils.setField(productService, "productCache",
+        new ProductCache(10_000, Duration.ofMinutes(10)));
+
+    customerService = new CustomerServiceImpl();
+    ReflectionTestUtils.setField(customerService, "customerRepository",
+        findByIdStub(CustomerRepository.class, 1L, new Customer()));
+  }
+
+  @Benchmark
+  public Object productMiss() {
+    try {
+      return productService.getProductById(999L);
+    } catch (ResourceNotFound e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object customerMiss() {
+    try {
+      return customerService.getCustomerById(999L);
+    } catch (ResourceNotFound e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object productHit() {
+    return productService.getProductById(1L);
+  }
+
+  /**
+   * Returns a repository whose findById only knows the one entity given, and which fails on any
+   * other repository method.
+   */
+  private static <R> R findByIdStub(Class<R> repository, Long id, Object entity) {
+    return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(),
+        new Class<?>[] {repository}, (proxy, method, args) -> {
+          if (method.getName().equals("findById")) {
+            return id.equals(args[0]) ? Optional.of(entity) : Optional.empty();
+          }
+          if (method.getDeclaringClass() == Object.class) {
+            return method.getName().equals("toString") ? repository.getSimpleName() + "Stub"
+                : method.getName().equals("hashCode") ? System.identityHashCode(proxy)
+                : proxy == args[0];
+          }
+          throw new UnsupportedOperationException(method.getName());
+        }));
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.models.DailySales;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.services.OrderTotals;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the arithmetic on amounts of money alone, without a database: totalling a batch of 1000
+ * Orders of 1 to 50 lines each from the prices of 200 Products, with the cents held in a long by
+ * OrderTotals, and, for comparison, with BigDecimal, as OrderTotals did before; and adding up the
+ * revenue of ten years of days, as ReportServiceImpl does for a sales report, both ways. Run with
+ * -prof gc to see the bytes each allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+  private static final int ORDERS = 1000;
+  private static final int PRODUCTS = 200;
+  private static final int DAYS = 3650;
+
+  @Param({"1", "10", "50"})
+  private int lines;
+
+  private List<Order> orders;
+  private Map<Long, Money> prices;
+  private Map<Long, BigDecimal> decimalPrices;
+  private BigDecimal[] decimalTotals;
+  private List<DailySales> days;
+  private List<BigDecimal> decimalRevenues;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    prices = new HashMap<>();
+    decimalPrices = new HashMap<>();
+    for (long id = 1; id <= PRODUCTS; id++) {
+      Money price = Money.ofMinor(99 + random.nextInt(20000));
+      prices.put(id, price);
+      decimalPrices.put(id, price.toBigDecimal());
+    }
+    orders = new ArrayList<>(ORDERS);
+    for (int i = 0; i < ORDERS; i++) {
+      Order order = new Order(1L, new Date(), new ArrayList<>(), null);
+      for (int line = 0; line < lines; line++) {
+        order.addItemToOrder(new Item(1L + random.nextInt(PRODUCTS), 1 + random.nextInt(5), null));
+      }
+      orders.add(order);
+    }
+    decimalTotals = new BigDecimal[ORDERS];
+    days = new ArrayList<>(DAYS);
+    decimalRevenues = new ArrayList<>(DAYS);
+    LocalDate first = LocalDate.of(2015, 1, 1);
+    for (int i = 0; i < DAYS; i++) {
+      Money revenue = Money.ofMinor(random.nextInt(10_000_000));
+      days.add(new DailySales(first.plusDays(i), revenue, 1 + random.nextInt(100)));
+      decimalRevenues.add(revenue.toBigDecimal());
+    }
+  }
+
+  @Benchmark
+  public Money totalInCents() {
+    OrderTotals.total(orders, prices);
+    return orders.get(ORDERS - 1).getOrderTotal();
+  }
+
+  @Benchmark
+  public BigDecimal totalInBigDecimal() {
+    for (int i = 0; i < ORDERS; i++) {
+      BigDecimal total = BigDecimal.ZERO;
+      for (Item item : orders.get(i).getItems()) {
+        total = total.add(decimalPrices.get(item.getProductId())
+            .multiply(BigDecimal.valueOf(item.getQuantity())));
+      }
+      decimalTotals[i] = total.setScale(2, RoundingMode.HALF_UP);
+    }
+    return decimalTotals[ORDERS - 1];
+  }
+
+  @Benchmark
+  public long sumRevenueInCents() {
+    long revenue = 0;
+    for (DailySales day : days) {
+      revenue = Math.addExact(revenue, day.getRevenue().getMinorUnits());
+    }
+    return revenue;
+  }
+
+  @Benchmark
+  public BigDecimal sumRevenueInBigDecimal() {
+    BigDecimal revenue = BigDecimal.ZERO;
+    for (BigDecimal dayRevenue : decimalRevenues) {
+      revenue = revenue.add(dayRevenue);
+    }
+    return revenue;
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.data.DataLoader;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures the Jackson serialization and deserialization of an Order with a growing number of
+ * Items, using an ObjectMapper built the same way as the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderJsonBenchmark {
+
+  @Param({"1", "10", "100"})
+  private int items;
+
+  private ObjectMapper objectMapper;
+  private Order order;
+  private byte[] json;
+
+  @Setup
+  public void setUp() throws Exception {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    order = new Order(1L, new DataLoader().createDate("2022-04-22"), new ArrayList<>(),
+        Money.of("23.99"));
+    order.setId(1L);
+    for (int i = 1; i <= items; i++) {
+      Item item = new Item((long) i, i % 10 + 1, null);
+      item.setId((long) i);
+      order.addItemToOrder(item);
+    }
+    json = objectMapper.writeValueAsBytes(order);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws Exception {
+    return objectMapper.writeValueAsBytes(order);
+  }
+
+  @Benchmark
+  public Order deserialize() throws Exception {
+    return objectMapper.readValue(json, Order.class);
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.cache.ProductCache;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.repositories.ProductRepository;
+import com.example.ecommerce.services.OrderTotals;
+import com.example.ecommerce.services.ProductService;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures totalling an Order of 1 to 500 lines, each for a different Product, against the seeded
+ * H2 database: with every price read in one IN query, as OrderServiceImpl reads those of the
+ * Products the ProductCache does not hold, with every Product in the ProductCache, and, for
+ * comparison, with one findById per line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+  @Param({"1", "10", "100", "500"})
+  private int lines;
+
+  private ConfigurableApplicationContext context;
+  private ProductRepository productRepository;
+  private ProductCache productCache;
+  private Order order;
+  private Set<Long> productIds;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    productRepository = context.getBean(ProductRepository.class);
+    productCache = context.getBean(ProductCache.class);
+    List<Product> products = new ArrayList<>(lines);
+    for (int i = 0; i < lines; i++) {
+      products.add(new Product("OT-" + i, "Type", "Product " + i, "Description", "Manufacturer",
+          Money.ofMinor(100 + i)));
+    }
+    products = context.getBean(ProductService.class).addProducts(products);
+    order = new Order(1L, new Date(), new ArrayList<>(), null);
+    for (Product product : products) {
+      order.addItemToOrder(new Item(product.getId(), 3, null));
+    }
+    productIds = OrderTotals.productIds(List.of(order));
+    productCache.getAllById(productIds, productRepository::findAllById);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Money totalWithOneQuery() {
+    Map<Long, Money> prices = new HashMap<>();
+    productRepository.findPricesByIdIn(productIds)
+        .forEach(price -> prices.put(price.getId(), price.getPrice()));
+    OrderTotals.total(List.of(order), prices);
+    return order.getOrderTotal();
+  }
+
+  @Benchmark
+  public Money totalWithCachedPrices() {
+    Map<Long, Money> prices = new HashMap<>();
+    for (Long productId : productIds) {
+      prices.put(productId, productCache.getIfPresent(productId).getPrice());
+    }
+    OrderTotals.total(List.of(order), prices);
+    return order.getOrderTotal();
+  }
+
+  @Benchmark
+  public Money totalWithOneQueryPerLine() {
+    Map<Long, Money> prices = new HashMap<>();
+    for (Long productId : productIds) {
+      productRepository.findById(productId)
+          .ifPresent(product -> prices.put(product.getId(), product.getPrice()));
+    }
+    OrderTotals.total(List.of(order), prices);
+    return order.getOrderTotal();
+  }
+}
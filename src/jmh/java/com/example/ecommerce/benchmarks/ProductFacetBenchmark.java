@@ -0,0 +1,70 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.search.ProductFacetIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Measures the facet counts of a filtered product listing, and of an unfiltered one, read from the
+ * ProductFacetIndex over a catalog of generated Products with 50 types and 500 manufacturers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductFacetBenchmark {
+
+  @Param({"10000", "100000"})
+  private int products;
+
+  private ProductFacetIndex facetIndex;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    List<Product> catalog = new ArrayList<>(products);
+    for (int i = 1; i <= products; i++) {
+      Product product = new Product("SKU-" + i, "Type " + random.nextInt(50), "Product " + i,
+          "Description " + i, "Manufacturer " + random.nextInt(500),
+          Money.ofMinor(random.nextInt(20000)));
+      product.setId((long) i);
+      catalog.add(product);
+    }
+    facetIndex = new ProductFacetIndex();
+    facetIndex.rebuild(pageable -> new SliceImpl<>(catalog, pageable, false));
+  }
+
+  @Benchmark
+  public Map<String, Map<String, Integer>> countFilteredByType() {
+    return facetIndex.count(facetIndex.matching("Type 7", null));
+  }
+
+  @Benchmark
+  public Map<String, Map<String, Integer>> countFilteredByTypeAndManufacturer() {
+    return facetIndex.count(facetIndex.matching("Type 7", "Manufacturer 42"));
+  }
+
+  @Benchmark
+  public Map<String, Map<String, Integer>> countAll() {
+    return facetIndex.count(facetIndex.matching(null, null));
+  }
+}
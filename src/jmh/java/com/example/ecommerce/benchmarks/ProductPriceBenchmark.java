@@ -0,0 +1,88 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.search.ProductPriceIndex;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort.Direction;
+
+/**
+ * Measures a page of a price range, cheapest and dearest first, the ids of a whole price range, and
+ * repricing one Product, read from and written to the ProductPriceIndex over a catalog of generated
+ * Products priced from 0.00 to 199.99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductPriceBenchmark {
+
+  private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(25);
+  private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(50);
+
+  @Param({"10000", "100000"})
+  private int products;
+
+  private final Pageable pageable = PageRequest.of(5, 20);
+  private ProductPriceIndex priceIndex;
+  private Product repriced;
+  private Random random;
+
+  @Setup
+  public void setUp() {
+    random = new Random(42);
+    List<Product> catalog = new ArrayList<>(products);
+    for (int i = 1; i <= products; i++) {
+      Product product = new Product("SKU-" + i, "Type", "Product " + i, "Description",
+          "Manufacturer", Money.ofMinor(random.nextInt(20000)));
+      product.setId((long) i);
+      catalog.add(product);
+    }
+    priceIndex = new ProductPriceIndex();
+    priceIndex.rebuild(pageable -> new SliceImpl<>(catalog, pageable, false));
+    repriced = catalog.get(products / 2);
+  }
+
+  @Benchmark
+  public Slice<Long> pageCheapestFirst() {
+    return priceIndex.between(MIN_PRICE, MAX_PRICE, Direction.ASC, pageable, true);
+  }
+
+  @Benchmark
+  public Slice<Long> pageDearestFirst() {
+    return priceIndex.between(MIN_PRICE, MAX_PRICE, Direction.DESC, pageable, true);
+  }
+
+  @Benchmark
+  public RoaringBitmap idsInRange() {
+    return priceIndex.idsBetween(MIN_PRICE, MAX_PRICE);
+  }
+
+  @Benchmark
+  public void repriceProduct() {
+    repriced.setPrice(Money.ofMinor(random.nextInt(20000)));
+    priceIndex.index(repriced);
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.services.ProductService;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Measures ProductServiceImpl.queryProducts against the seeded H2 database, and, on its own, the
+ * building of the criteria query for a query by Example, which is the part that does not depend
+ * on the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductQueryBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private ProductService productService;
+  private EntityManager entityManager;
+  private Product probe;
+  private Example<Product> example;
+  private Pageable pageable;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    productService = context.getBean(ProductService.class);
+    entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+    probe = new Product();
+    probe.setType("Women's Fashion");
+    probe.setManufacturer("Keeper's");
+    example = Example.of(probe);
+    pageable = PageRequest.of(0, 100, Sort.by("id"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    entityManager.close();
+    context.close();
+  }
+
+  @Benchmark
+  public TypedQuery<Product> buildExampleQuery() {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Product> query = builder.createQuery(Product.class);
+    Root<Product> root = query.from(Product.class);
+    query.where(QueryByExamplePredicateBuilder.getPredicate(root, builder, example,
+        EscapeCharacter.DEFAULT));
+    query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+    return entityManager.createQuery(query).setMaxResults(pageable.getPageSize() + 1);
+  }
+
+  @Benchmark
+  public Slice<Product> queryProductsByExample() {
+    return productService.queryProducts(probe, pageable, false);
+  }
+
+  @Benchmark
+  public Slice<Product> queryAllProducts() {
+    return productService.queryProducts(new Product(), pageable, false);
+  }
+}
@@ -0,0 +1,85 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.search.ProductSuggester;
+import com.example.ecommerce.search.Suggestion;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Measures prefix suggestions, one character long and longer, read from the ProductSuggester over
+ * a catalog of generated Products named after 1000 words, ranked by random quantities ordered, as
+ * well as updating one Product in it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSuggestBenchmark {
+
+  @Param({"10000", "100000"})
+  private int products;
+
+  private ProductSuggester suggester;
+  private Product updated;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    List<String> words = new ArrayList<>(1000);
+    for (int i = 0; i < 1000; i++) {
+      StringBuilder word = new StringBuilder();
+      for (int j = 0; j < 4 + random.nextInt(5); j++) {
+        word.append((char) ('a' + random.nextInt(26)));
+      }
+      words.add(word.toString());
+    }
+    List<Product> catalog = new ArrayList<>(products);
+    Map<Long, Long> quantities = new HashMap<>();
+    for (int i = 1; i <= products; i++) {
+      Product product = new Product("SKU-" + i, "Type", words.get(random.nextInt(1000)) + " "
+          + words.get(random.nextInt(1000)) + " " + i, "Description", "Manufacturer",
+          Money.of("1.00"));
+      product.setId((long) i);
+      catalog.add(product);
+      quantities.put((long) i, (long) random.nextInt(1000));
+    }
+    suggester = new ProductSuggester("units-ordered");
+    suggester.rebuild(pageable -> new SliceImpl<>(catalog, pageable, false), () -> quantities);
+    updated = catalog.get(products / 2);
+  }
+
+  @Benchmark
+  public List<Suggestion> suggestOneCharacter() {
+    return suggester.suggest("s", ProductSuggester.MAX_SUGGESTIONS);
+  }
+
+  @Benchmark
+  public List<Suggestion> suggestSku() {
+    return suggester.suggest("sku-123", ProductSuggester.MAX_SUGGESTIONS);
+  }
+
+  @Benchmark
+  public void updateProduct() {
+    suggester.index(updated);
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.ecommerce.benchmarks;
+
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.models.SalesReport;
+import com.example.ecommerce.repositories.OrderRepository;
+import com.example.ecommerce.services.ReportService;
+import com.example.ecommerce.services.SalesDelta;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Measures reporting the revenue of every day of a quarter and the 10 Products ordered most in it,
+ * out of a year of 10000 or 50000 Orders of 50 Products in the seeded H2 database, each Order with
+ * two Items: from the daily rollups, as GET /reports/sales does, and by grouping the Orders and
+ * Items themselves, as a report run on a dump of /orders would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesReportBenchmark {
+
+  private static final LocalDate FIRST_DAY = LocalDate.of(2022, 1, 1);
+  private static final LocalDate FROM = LocalDate.of(2022, 4, 1);
+  private static final int DAYS = 365;
+  private static final int PRODUCTS = 50;
+  private static final int LIMIT = 10;
+
+  @Param({"10000", "50000"})
+  private int orders;
+
+  private ConfigurableApplicationContext context;
+  private ReportService reportService;
+  private EntityManager entityManager;
+  private TransactionTemplate transactionTemplate;
+  private int shift;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    reportService = context.getBean(ReportService.class);
+    entityManager = context.getBean(EntityManager.class);
+    transactionTemplate = context.getBean(TransactionTemplate.class);
+    OrderRepository orderRepository = context.getBean(OrderRepository.class);
+    List<Order> batch = new ArrayList<>();
+    for (int i = 0; i < orders; i++) {
+      Order order = new Order((long) i % 1000, date(FIRST_DAY.plusDays(i % DAYS)),
+          new ArrayList<>(), Money.of("24.95"));
+      order.addItemToOrder(new Item(1L + i % PRODUCTS, 1, null));
+      order.addItemToOrder(new Item(1L + i * 7 % PRODUCTS, 2, null));
+      batch.add(order);
+      if (batch.size() == 1000 || i == orders - 1) {
+        List<Order> saved = orderRepository.saveAllAndFlush(batch);
+        reportService.applySales(SalesDelta.of(saved));
+        batch.clear();
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public SalesReport fromRollups() {
+    LocalDate from = nextFrom();
+    return reportService.getSalesReport(from, from.plusDays(90), LIMIT);
+  }
+
+  @Benchmark
+  public int fromOrdersAndItems() {
+    LocalDate from = nextFrom();
+    Date first = date(from);
+    Date last = date(from.plusDays(90));
+    // every Order is placed at midnight, so grouping by its date groups by day
+    return transactionTemplate.execute(status -> {
+      List<?> days = entityManager.createQuery("select o.date, sum(o.orderTotal), count(o)"
+              + " from Order o where o.date between :from and :to group by o.date order by o.date")
+          .setParameter("from", first).setParameter("to", last)
+          .getResultList();
+      List<?> products = entityManager.createQuery("select i.productId, sum(i.quantity)"
+              + " from Item i join i.order o where o.date between :from and :to"
+              + " group by i.productId order by sum(i.quantity) desc, i.productId")
+          .setParameter("from", first).setParameter("to", last)
+          .setMaxResults(LIMIT).getResultList();
+      return days.size() + products.size();
+    });
+  }
+
+  /**
+   * Moves the quarter reported on by a day every time, so that H2 cannot answer a query with the
+   * result it returned for the same parameters before.
+   */
+  private LocalDate nextFrom() {
+    shift = (shift + 1) % 30;
+    return FROM.plusDays(shift);
+  }
+
+  private static Date date(LocalDate day) {
+    return Date.from(day.atStartOfDay().toInstant(ZoneOffset.UTC));
+  }
+}
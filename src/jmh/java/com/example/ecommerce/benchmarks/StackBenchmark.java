@@ -0,0 +1,85 @@
+package com.example.ecommerce.benchmarks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Sends the same bursts of concurrent requests to the servlet stack (Tomcat, JPA over JDBC) and to
+ * the reactive stack (Netty, R2DBC) over HTTP, both against the seeded H2 database. The product
+ * listing and the order lookup both reach the database on every request, on either stack. The
+ * score is the time to answer a whole burst.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StackBenchmark {
+
+  @Param({"SERVLET", "REACTIVE"})
+  private WebApplicationType stack;
+
+  @Param({"64", "512"})
+  private int concurrency;
+
+  @Param({"/products?size=4", "/orders/1"})
+  private String path;
+
+  private ConfigurableApplicationContext context;
+  private ConnectionProvider connections;
+  private WebClient client;
+
+  @Setup
+  public void setUp() {
+    context = stack == WebApplicationType.REACTIVE
+        ? BenchmarkApplication.startServer(stack,
+            "--spring.profiles.active=reactive",
+            "--spring.r2dbc.url=r2dbc:h2:mem:///benchmarks?options=DB_CLOSE_DELAY=-1",
+            "--spring.r2dbc.username=sa",
+            "--spring.r2dbc.password=")
+        : BenchmarkApplication.startServer(stack,
+            "--ecommerce.access-log.sample-rate=0");
+    connections = ConnectionProvider.builder("benchmark")
+        .maxConnections(concurrency)
+        .pendingAcquireTimeout(Duration.ofMinutes(1))
+        .build();
+    client = WebClient.builder()
+        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+        .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    connections.dispose();
+    context.close();
+  }
+
+  @Benchmark
+  public long burst() {
+    return Flux.range(0, concurrency)
+        .flatMap(i -> client.get().uri(path).retrieve().toBodilessEntity(), concurrency)
+        .count()
+        .block();
+  }
+}
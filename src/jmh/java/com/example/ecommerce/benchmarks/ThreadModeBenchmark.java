@@ -0,0 +1,134 @@
+package com.example.ecommerce.benchmarks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.h2.api.Trigger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Sends a burst of concurrent clients, each asking for one Order over HTTP, to the servlet stack
+ * started with ecommerce.threads.mode "platform", where Tomcat serves them on its default pool of
+ * 200 worker threads, or "virtual", where the VirtualThreadConfig serves each on its own virtual
+ * thread. A slow database is simulated by a trigger that sleeps before every select of the orders
+ * table, so the request holds its thread and its connection for the injected latency as it would
+ * on a slow MySQL. The score is the time to answer the whole burst. The "virtual" mode needs a Java
+ * 21 or later runtime; on older JVMs the application fails to start in those runs and the others
+ * still run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+  @Param({"platform", "virtual"})
+  private String mode;
+
+  @Param({"1000", "5000", "10000"})
+  private int clients;
+
+  @Param({"10"})
+  private int latencyMillis;
+
+  @Param({"1000"})
+  private int poolSize;
+
+  private ConfigurableApplicationContext context;
+  private ConnectionProvider connections;
+  private WebClient client;
+
+  @Setup
+  public void setUp() throws SQLException {
+    context = BenchmarkApplication.startServer(WebApplicationType.SERVLET,
+        "--ecommerce.threads.mode=" + mode,
+        "--ecommerce.access-log.sample-rate=0",
+        "--server.tomcat.max-connections=" + clients,
+        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+        "--spring.datasource.hikari.connection-timeout=120000");
+    InjectLatency.millis = latencyMillis;
+    try (Connection connection = context.getBean(DataSource.class).getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TRIGGER IF NOT EXISTS INJECT_LATENCY BEFORE SELECT ON ORDERS"
+          + " CALL \"" + InjectLatency.class.getName() + "\"");
+    }
+    connections = ConnectionProvider.builder("benchmark")
+        .maxConnections(clients)
+        .pendingAcquireTimeout(Duration.ofMinutes(1))
+        .build();
+    client = WebClient.builder()
+        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)
+            .responseTimeout(Duration.ofMinutes(2))))
+        .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    connections.dispose();
+    context.close();
+  }
+
+  @Benchmark
+  public long serveClients() {
+    return Flux.range(0, clients)
+        .flatMap(i -> client.get().uri("/orders/{id}", i % 4 + 1)
+            .retrieve().toBodilessEntity(), clients)
+        .count()
+        .block();
+  }
+
+  /**
+   * Called by H2 once before every statement that selects from the orders table.
+   */
+  public static class InjectLatency implements Trigger {
+
+    static volatile int millis;
+
+    @Override
+    public void init(Connection connection, String schemaName, String triggerName,
+        String tableName, boolean before, int type) {
+    }
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException(e);
+      }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.ecommerce.analytics;
+
+import com.example.ecommerce.models.Money;
+
+/**
+ * One group of the Orders matched by an analytics query, with its sums: i.e. a day, a Customer or a
+ * Product.
+ */
+public class AnalyticsGroup {
+
+  private final String key;
+  private final long orders;
+  private final long units;
+  private final Money revenue;
+
+  public AnalyticsGroup(String key, long orders, long units, Money revenue) {
+    this.key = key;
+    this.orders = orders;
+    this.units = units;
+    this.revenue = revenue;
+  }
+
+  /**
+   * @return what the group is of: a day (2022-04-22), a month (2022-04), the id of a Customer or a
+   * Product, or "all" when the Orders are not grouped.
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * @return the number of Orders in the group; for a Product, the number of Items of it.
+   */
+  public long getOrders() {
+    return orders;
+  }
+
+  public long getUnits() {
+    return units;
+  }
+
+  /**
+   * @return the sum of the totals of the Orders in the group, or null for a Product, whose share of
+   * an Order's total is not kept.
+   */
+  public Money getRevenue() {
+    return revenue;
+  }
+
+  @Override
+  public String toString() {
+    return "AnalyticsGroup{" +
+        "key='" + key + '\'' +
+        ", orders=" + orders +
+        ", units=" + units +
+        ", revenue=" + revenue +
+        '}';
+  }
+}
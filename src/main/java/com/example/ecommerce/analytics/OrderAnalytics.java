@@ -0,0 +1,42 @@
+package com.example.ecommerce.analytics;
+
+import java.util.List;
+
+/**
+ * The answer to an analytics query: the groups of the matching Orders, and how many Orders and
+ * Items the snapshot it was run on holds.
+ */
+public class OrderAnalytics {
+
+  private final long orderRows;
+  private final long itemRows;
+  private final int groupCount;
+  private final List<AnalyticsGroup> groups;
+
+  public OrderAnalytics(long orderRows, long itemRows, int groupCount,
+      List<AnalyticsGroup> groups) {
+    this.orderRows = orderRows;
+    this.itemRows = itemRows;
+    this.groupCount = groupCount;
+    this.groups = groups;
+  }
+
+  public long getOrderRows() {
+    return orderRows;
+  }
+
+  public long getItemRows() {
+    return itemRows;
+  }
+
+  /**
+   * @return the number of groups matched, of which only the first are returned.
+   */
+  public int getGroupCount() {
+    return groupCount;
+  }
+
+  public List<AnalyticsGroup> getGroups() {
+    return groups;
+  }
+}
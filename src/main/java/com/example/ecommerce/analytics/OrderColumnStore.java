@@ -0,0 +1,533 @@
+package com.example.ecommerce.analytics;
+
+import com.example.ecommerce.models.ItemFact;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.OrderFact;
+import com.example.ecommerce.services.SalesDelta;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+/**
+ * An in-memory column store of every Order and Item, for analytics that would otherwise scan the
+ * orders and items tables. Each column is an array of primitives: the Customer, UTC day, month and
+ * total in cents of every Order, and the Product, quantity and Order (by row) of every Item. A
+ * query filters, groups and sums them in parallel on the common fork-join pool, so it uses every
+ * core and never touches the database. Rows are only ever appended, by reading the Orders and Items
+ * whose ids are above the highest ones already held (the high-water marks). An Order that is
+ * updated or deleted keeps the columns it was read with, and the Items an update replaces are
+ * counted along with the new ones, until the store is rebuilt.
+ */
+@Component
+public class OrderColumnStore {
+
+  // the fewest rows a scan is split into parallel tasks for
+  private static final int SCAN_THRESHOLD = 1 << 15;
+  // the most distinct keys a grouping can span for its sums to be held in arrays indexed by key
+  private static final int MAX_DENSE_KEYS = 1 << 12;
+  private static final String ALL = "all";
+
+  /**
+   * What the Orders matched by a query are grouped by.
+   */
+  public enum GroupBy {
+    NONE, DAY, MONTH, CUSTOMER, PRODUCT
+  }
+
+  // appended to while refreshing, but never within the rows of the published snapshot, so a query
+  // reads the snapshot without taking a lock
+  private long[] customerIds = new long[16];
+  private int[] days = new int[16];
+  private int[] months = new int[16];
+  private long[] cents = new long[16];
+  private int orderRows;
+  private long lastOrderId;
+  private long[] productIds = new long[16];
+  private int[] quantities = new int[16];
+  private int[] itemOrders = new int[16];
+  private int itemRows;
+  private long lastItemId;
+  // the lowest and highest key of every grouping, which the groups of a query are sized by
+  private final long[] minKeys = new long[GroupBy.values().length];
+  private final long[] maxKeys = new long[GroupBy.values().length];
+  // the row of every Order held, by id; only read while refreshing
+  private Map<Long, Integer> rowsByOrderId = new HashMap<>();
+  private volatile Snapshot snapshot;
+
+  public OrderColumnStore() {
+    clearKeyRanges();
+    snapshot = new Snapshot(this);
+  }
+
+  /**
+   * Appends the Orders and Items saved since the last refresh, read page by page from the loaders.
+   * Orders are read first, so that the Order of every Item read is already held. An Item whose
+   * Order was saved after the Orders were read is left for the next refresh; one whose Order was
+   * missed, because it was saved out of id order or has been deleted, is skipped until the store is
+   * rebuilt.
+   *
+   * @param orderLoader reads a page of the Orders after the given id, in id order.
+   * @param itemLoader  reads a page of the Items after the given id, in id order.
+   * @return the number of Orders and Items appended.
+   */
+  public synchronized long refresh(Function<Long, List<OrderFact>> orderLoader,
+      Function<Long, List<ItemFact>> itemLoader) {
+    long appended = 0;
+    for (List<OrderFact> page = orderLoader.apply(lastOrderId); !page.isEmpty();
+        page = orderLoader.apply(lastOrderId)) {
+      for (OrderFact order : page) {
+        appended += appendOrder(order);
+      }
+    }
+    pages:
+    for (List<ItemFact> page = itemLoader.apply(lastItemId); !page.isEmpty();
+        page = itemLoader.apply(lastItemId)) {
+      for (ItemFact item : page) {
+        if (item.getOrderId() == null || item.getOrderId() > lastOrderId) {
+          break pages;
+        }
+        appended += appendItem(item);
+      }
+    }
+    snapshot = new Snapshot(this);
+    return appended;
+  }
+
+  /**
+   * Replaces the whole store with every Order and Item read page by page from the loaders, which
+   * brings in the Orders that were updated or deleted since they were first read. Queries keep
+   * reading the previous snapshot until it is done.
+   *
+   * @param orderLoader reads a page of the Orders after the given id, in id order.
+   * @param itemLoader  reads a page of the Items after the given id, in id order.
+   * @return the number of Orders and Items read.
+   */
+  public synchronized long rebuild(Function<Long, List<OrderFact>> orderLoader,
+      Function<Long, List<ItemFact>> itemLoader) {
+    customerIds = new long[16];
+    days = new int[16];
+    months = new int[16];
+    cents = new long[16];
+    orderRows = 0;
+    lastOrderId = 0;
+    productIds = new long[16];
+    quantities = new int[16];
+    itemOrders = new int[16];
+    itemRows = 0;
+    lastItemId = 0;
+    clearKeyRanges();
+    rowsByOrderId = new HashMap<>();
+    return refresh(orderLoader, itemLoader);
+  }
+
+  /**
+   * Groups and sums the Orders matching the given filters. Orders are counted and their totals
+   * summed from the Order columns, and units from the Item columns; grouping or filtering by
+   * Product scans the Items alone, and counts each Item of the Product as an Order of it.
+   *
+   * @param groupBy    what the matching Orders are grouped by.
+   * @param from       the first day of the Orders matched, or null for no lower bound.
+   * @param to         the last day of the Orders matched, or null for no upper bound.
+   * @param customerId the Customer whose Orders are matched, or null for every Customer.
+   * @param productId  the Product the Items matched are for, or null for every Product.
+   * @return the groups, in order of their day, month or id, and the size of the snapshot scanned.
+   */
+  public OrderAnalytics query(GroupBy groupBy, LocalDate from, LocalDate to, Long customerId,
+      Long productId) {
+    Snapshot columns = snapshot;
+    Filter filter = new Filter(columns, groupBy, from, to, customerId, productId);
+    Groups groups;
+    boolean byProduct = groupBy == GroupBy.PRODUCT || productId != null;
+    if (byProduct) {
+      groups = scan(columns, filter, true);
+    } else {
+      groups = scan(columns, filter, false);
+      groups.addUnits(scan(columns, filter, true));
+    }
+    List<AnalyticsGroup> result = groups.toList(groupBy, !byProduct);
+    return new OrderAnalytics(columns.orderRows, columns.itemRows, result.size(), result);
+  }
+
+  private int appendOrder(OrderFact order) {
+    lastOrderId = Math.max(lastOrderId, order.getId());
+    if (order.getDate() == null) {
+      return 0;
+    }
+    if (orderRows == days.length) {
+      int capacity = orderRows * 2;
+      customerIds = Arrays.copyOf(customerIds, capacity);
+      days = Arrays.copyOf(days, capacity);
+      months = Arrays.copyOf(months, capacity);
+      cents = Arrays.copyOf(cents, capacity);
+    }
+    LocalDate day = SalesDelta.dayOf(order.getDate());
+    customerIds[orderRows] = order.getCustomerId() == null ? 0 : order.getCustomerId();
+    days[orderRows] = Math.toIntExact(day.toEpochDay());
+    months[orderRows] = day.getYear() * 12 + day.getMonthValue() - 1;
+    cents[orderRows] = order.getOrderTotal() == null ? 0 : order.getOrderTotal().getMinorUnits();
+    widenKeyRange(GroupBy.DAY, days[orderRows]);
+    widenKeyRange(GroupBy.MONTH, months[orderRows]);
+    widenKeyRange(GroupBy.CUSTOMER, customerIds[orderRows]);
+    rowsByOrderId.put(order.getId(), orderRows);
+    orderRows++;
+    return 1;
+  }
+
+  private int appendItem(ItemFact item) {
+    lastItemId = Math.max(lastItemId, item.getId());
+    Integer row = rowsByOrderId.get(item.getOrderId());
+    if (row == null || item.getProductId() == null) {
+      return 0;
+    }
+    if (itemRows == productIds.length) {
+      int capacity = itemRows * 2;
+      productIds = Arrays.copyOf(productIds, capacity);
+      quantities = Arrays.copyOf(quantities, capacity);
+      itemOrders = Arrays.copyOf(itemOrders, capacity);
+    }
+    productIds[itemRows] = item.getProductId();
+    quantities[itemRows] = item.getQuantity() == null ? 0 : item.getQuantity();
+    itemOrders[itemRows] = row;
+    widenKeyRange(GroupBy.PRODUCT, productIds[itemRows]);
+    itemRows++;
+    return 1;
+  }
+
+  private void widenKeyRange(GroupBy groupBy, long key) {
+    minKeys[groupBy.ordinal()] = Math.min(minKeys[groupBy.ordinal()], key);
+    maxKeys[groupBy.ordinal()] = Math.max(maxKeys[groupBy.ordinal()], key);
+  }
+
+  private void clearKeyRanges() {
+    Arrays.fill(minKeys, Long.MAX_VALUE);
+    Arrays.fill(maxKeys, Long.MIN_VALUE);
+    // the Orders are all in one group when they are not grouped
+    minKeys[GroupBy.NONE.ordinal()] = 0;
+    maxKeys[GroupBy.NONE.ordinal()] = 0;
+  }
+
+  private static Groups scan(Snapshot columns, Filter filter, boolean items) {
+    Scan scan = new Scan(columns, filter, items, 0, items ? columns.itemRows : columns.orderRows);
+    return ForkJoinPool.commonPool().invoke(scan);
+  }
+
+  /**
+   * The columns as they were after a refresh. The arrays may have been appended to since, or
+   * replaced by larger copies, but only beyond the rows counted here.
+   */
+  private static final class Snapshot {
+
+    private final long[] customerIds;
+    private final int[] days;
+    private final int[] months;
+    private final long[] cents;
+    private final int orderRows;
+    private final long[] productIds;
+    private final int[] quantities;
+    private final int[] itemOrders;
+    private final int itemRows;
+    private final long[] minKeys;
+    private final long[] maxKeys;
+
+    Snapshot(OrderColumnStore store) {
+      customerIds = store.customerIds;
+      days = store.days;
+      months = store.months;
+      cents = store.cents;
+      orderRows = store.orderRows;
+      productIds = store.productIds;
+      quantities = store.quantities;
+      itemOrders = store.itemOrders;
+      itemRows = store.itemRows;
+      minKeys = store.minKeys.clone();
+      maxKeys = store.maxKeys.clone();
+    }
+  }
+
+  /**
+   * The filters and grouping of a query, with every bound in the units of the columns.
+   */
+  private static final class Filter {
+
+    private final GroupBy groupBy;
+    private final int fromDay;
+    private final int toDay;
+    private final boolean byCustomer;
+    private final long customerId;
+    private final boolean byProduct;
+    private final long productId;
+    private final long minKey;
+    private final long maxKey;
+
+    Filter(Snapshot columns, GroupBy groupBy, LocalDate from, LocalDate to, Long customerId,
+        Long productId) {
+      this.groupBy = groupBy;
+      minKey = columns.minKeys[groupBy.ordinal()];
+      maxKey = columns.maxKeys[groupBy.ordinal()];
+      fromDay = from == null ? Integer.MIN_VALUE : Math.toIntExact(from.toEpochDay());
+      toDay = to == null ? Integer.MAX_VALUE : Math.toIntExact(to.toEpochDay());
+      byCustomer = customerId != null;
+      this.customerId = byCustomer ? customerId : 0;
+      byProduct = productId != null;
+      this.productId = byProduct ? productId : 0;
+    }
+
+    boolean matchesOrder(Snapshot columns, int row) {
+      int day = columns.days[row];
+      return day >= fromDay && day <= toDay
+          && (!byCustomer || columns.customerIds[row] == customerId);
+    }
+
+    long orderKey(Snapshot columns, int row) {
+      switch (groupBy) {
+        case DAY:
+          return columns.days[row];
+        case MONTH:
+          return columns.months[row];
+        case CUSTOMER:
+          return columns.customerIds[row];
+        default:
+          return 0;
+      }
+    }
+  }
+
+  /**
+   * Scans a range of the Order or Item rows, split in halves on the fork-join pool until each is
+   * small enough to be scanned by one thread into groups of its own, which are then merged.
+   */
+  private static final class Scan extends RecursiveTask<Groups> {
+
+    private final Snapshot columns;
+    private final Filter filter;
+    private final boolean items;
+    private final int from;
+    private final int to;
+
+    Scan(Snapshot columns, Filter filter, boolean items, int from, int to) {
+      this.columns = columns;
+      this.filter = filter;
+      this.items = items;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Groups compute() {
+      if (to - from > SCAN_THRESHOLD) {
+        int middle = (from + to) >>> 1;
+        Scan left = new Scan(columns, filter, items, from, middle);
+        left.fork();
+        Groups right = new Scan(columns, filter, items, middle, to).compute();
+        return left.join().merge(right);
+      }
+      Groups groups = new Groups(filter.minKey, filter.maxKey);
+      if (items) {
+        scanItems(groups);
+      } else {
+        scanOrders(groups);
+      }
+      return groups;
+    }
+
+    // the rows of a group are mostly adjacent, i.e. the Orders of a day, so each scan sums a run of
+    // rows with the same key in locals, and only adds it to the groups when the key changes
+
+    private void scanOrders(Groups groups) {
+      long[] cents = columns.cents;
+      long runKey = 0;
+      long runOrders = 0;
+      long runCents = 0;
+      for (int row = from; row < to; row++) {
+        if (filter.matchesOrder(columns, row)) {
+          long key = filter.orderKey(columns, row);
+          if (key != runKey && runOrders > 0) {
+            groups.add(runKey, runOrders, 0, runCents);
+            runOrders = 0;
+            runCents = 0;
+          }
+          runKey = key;
+          runOrders++;
+          runCents += cents[row];
+        }
+      }
+      if (runOrders > 0) {
+        groups.add(runKey, runOrders, 0, runCents);
+      }
+    }
+
+    private void scanItems(Groups groups) {
+      boolean byProduct = filter.groupBy == GroupBy.PRODUCT;
+      long[] productIds = columns.productIds;
+      int[] quantities = columns.quantities;
+      int[] itemOrders = columns.itemOrders;
+      long runKey = 0;
+      long runItems = 0;
+      long runUnits = 0;
+      for (int row = from; row < to; row++) {
+        int order = itemOrders[row];
+        if ((!filter.byProduct || productIds[row] == filter.productId)
+            && filter.matchesOrder(columns, order)) {
+          long key = byProduct ? productIds[row] : filter.orderKey(columns, order);
+          if (key != runKey && runItems > 0) {
+            groups.add(runKey, runItems, runUnits, 0);
+            runItems = 0;
+            runUnits = 0;
+          }
+          runKey = key;
+          runItems++;
+          runUnits += quantities[row];
+        }
+      }
+      if (runItems > 0) {
+        groups.add(runKey, runItems, runUnits, 0);
+      }
+    }
+  }
+
+  /**
+   * The sums of every group found by a scan, in arrays of primitive keys and sums, so that adding a
+   * row to a group allocates nothing. When the keys span few enough values, such as the days of a
+   * few years, the slot of a key is its offset from the lowest; otherwise the arrays are an open
+   * addressing hash table.
+   */
+  private static final class Groups {
+
+    private final boolean dense;
+    private final long lowestKey;
+    private long[] keys;
+    private boolean[] used;
+    private long[] orders;
+    private long[] units;
+    private long[] cents;
+    private int size;
+
+    Groups(long minKey, long maxKey) {
+      dense = maxKey >= minKey && Long.compareUnsigned(maxKey - minKey, MAX_DENSE_KEYS) < 0;
+      lowestKey = minKey;
+      int capacity = dense ? (int) (maxKey - minKey + 1) : 16;
+      keys = new long[capacity];
+      used = new boolean[capacity];
+      orders = new long[capacity];
+      units = new long[capacity];
+      cents = new long[capacity];
+    }
+
+    void add(long key, long orderCount, long unitCount, long centCount) {
+      int slot = slot(key);
+      if (!used[slot]) {
+        if (!dense && (size + 1) * 2 > keys.length) {
+          resize();
+          slot = slot(key);
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        size++;
+      }
+      orders[slot] += orderCount;
+      units[slot] += unitCount;
+      cents[slot] += centCount;
+    }
+
+    Groups merge(Groups other) {
+      for (int i = 0; i < other.keys.length; i++) {
+        if (other.used[i]) {
+          add(other.keys[i], other.orders[i], other.units[i], other.cents[i]);
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Adds the units of the groups of an Item scan to those of an Order scan with the same filters,
+     * whose groups hold every Order the Items belong to.
+     */
+    void addUnits(Groups items) {
+      for (int i = 0; i < items.keys.length; i++) {
+        if (items.used[i]) {
+          add(items.keys[i], 0, items.units[i], 0);
+        }
+      }
+    }
+
+    List<AnalyticsGroup> toList(GroupBy groupBy, boolean withRevenue) {
+      long[] sortedKeys = new long[size];
+      int n = 0;
+      for (int i = 0; i < keys.length; i++) {
+        if (used[i]) {
+          sortedKeys[n++] = keys[i];
+        }
+      }
+      Arrays.sort(sortedKeys);
+      List<AnalyticsGroup> groups = new ArrayList<>(size);
+      for (long key : sortedKeys) {
+        int slot = slot(key);
+        groups.add(new AnalyticsGroup(format(groupBy, key), orders[slot], units[slot],
+            withRevenue ? Money.ofMinor(cents[slot]) : null));
+      }
+      return groups;
+    }
+
+    private static String format(GroupBy groupBy, long key) {
+      switch (groupBy) {
+        case DAY:
+          return LocalDate.ofEpochDay(key).toString();
+        case MONTH:
+          return YearMonth.of((int) (key / 12), (int) (key % 12) + 1).toString();
+        case CUSTOMER:
+        case PRODUCT:
+          return Long.toString(key);
+        default:
+          return ALL;
+      }
+    }
+
+    /**
+     * Finds the slot of the key, or the free slot it would take.
+     */
+    private int slot(long key) {
+      if (dense) {
+        return (int) (key - lowestKey);
+      }
+      int mask = keys.length - 1;
+      int hash = Long.hashCode(key) * 0x9E3779B9;
+      int slot = (hash ^ (hash >>> 16)) & mask;
+      while (used[slot] && keys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private void resize() {
+      long[] oldKeys = keys;
+      boolean[] oldUsed = used;
+      long[] oldOrders = orders;
+      long[] oldUnits = units;
+      long[] oldCents = cents;
+      int capacity = oldKeys.length * 2;
+      keys = new long[capacity];
+      used = new boolean[capacity];
+      orders = new long[capacity];
+      units = new long[capacity];
+      cents = new long[capacity];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldUsed[i]) {
+          int slot = slot(oldKeys[i]);
+          used[slot] = true;
+          keys[slot] = oldKeys[i];
+          orders[slot] = oldOrders[i];
+          units[slot] = oldUnits[i];
+          cents[slot] = oldCents[i];
+        }
+      }
+    }
+  }
+}
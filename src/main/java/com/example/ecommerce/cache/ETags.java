@@ -0,0 +1,103 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.models.Versioned;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * This class builds the validators (ETag and Last-Modified) of the responses that carry versioned
+ * Entities, so that clients and CDNs can revalidate them with If-None-Match and If-Modified-Since.
+ * A response built here is answered with 304 by Spring, without serializing the body, when the
+ * request's validators still match.
+ */
+public final class ETags {
+
+  private ETags() {
+  }
+
+  /**
+   * Returns the strong ETag of one Entity, which is its version quoted.
+   */
+  public static String eTag(Versioned entity) {
+    return "\"" + entity.getVersion() + "\"";
+  }
+
+  /**
+   * Returns the strong ETag of a list of Entities, which changes whenever any of them is updated,
+   * or when the list gains, loses or reorders an Entity.
+   */
+  public static String eTag(Collection<? extends Versioned> entities) {
+    StringBuilder versions = new StringBuilder();
+    for (Versioned entity : entities) {
+      versions.append(entity.getId()).append(':').append(entity.getVersion()).append(';');
+    }
+    return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8))
+        + "\"";
+  }
+
+  /**
+   * Returns the time the Entity was last written, in milliseconds, or -1 if it is not known.
+   */
+  public static long lastModified(Versioned entity) {
+    return entity.getLastModified() == null ? -1 : entity.getLastModified().getTime();
+  }
+
+  /**
+   * Tells whether the request names a copy the client already has, with If-None-Match or
+   * If-Modified-Since, and so might be answered with 304.
+   */
+  public static boolean isConditional(HttpServletRequest request) {
+    return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+        || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+  }
+
+  /**
+   * Checks the request's If-None-Match and If-Modified-Since headers against a version of an
+   * Entity, without touching the response.
+   *
+   * @param request the request being answered.
+   * @param version the current version of the requested Entity.
+   * @return true if the client's copy is still current and can be answered with 304.
+   */
+  public static boolean isNotModified(HttpServletRequest request, Versioned version) {
+    return new ServletWebRequest(request).checkNotModified(eTag(version), lastModified(version));
+  }
+
+  public static <T> ResponseEntity<T> notModified(Versioned version) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers(version)).build();
+  }
+
+  public static <T extends Versioned> ResponseEntity<T> ok(T entity) {
+    return ResponseEntity.ok().headers(headers(entity)).body(entity);
+  }
+
+  /**
+   * Sets the ETag of a list of Entities. No Last-Modified is sent for lists: removing an Entity
+   * from a list leaves the latest modification time unchanged, so it cannot tell a client that its
+   * copy is stale.
+   *
+   * @param headers  the other headers of the response, such as those of the page.
+   * @param entities the Entities in the response body.
+   * @return the same headers.
+   */
+  public static HttpHeaders withETag(HttpHeaders headers,
+      Collection<? extends Versioned> entities) {
+    headers.setETag(eTag(entities));
+    return headers;
+  }
+
+  private static HttpHeaders headers(Versioned version) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(eTag(version));
+    if (version.getLastModified() != null) {
+      headers.setLastModified(lastModified(version));
+    }
+    return headers;
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.models.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * A bounded read-through cache in front of the Product lookups by id and by sku. Products are held
+ * once, keyed by id; the sku cache only maps a sku to an id, and a sku hit is only trusted when the
+ * cached Product still carries that sku. That way evicting a Product by id is enough to drop every
+ * way of reaching it, and a stale sku mapping left behind by an update can never serve old data.
+ * Both caches evict by size (W-TinyLFU) and by time since the entry was written.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+  public static final String PRODUCTS_BY_ID = "products";
+  public static final String PRODUCT_IDS_BY_SKU = "productSkus";
+
+  private final Cache<Long, Product> productsById;
+  private final Cache<String, Long> productIdsBySku;
+
+  public ProductCache(
+      @Value("${ecommerce.cache.products.maximum-size:10000}") long maximumSize,
+      @Value("${ecommerce.cache.products.expire-after-write:10m}") Duration expireAfterWrite) {
+    productsById = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+    productIdsBySku = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the cached Product with the given id, loading it on a miss.
+   *
+   * @param id     the id of the Product.
+   * @param loader looks the Product up in the database, returning null if there is none.
+   * @return the Product, or null if the loader found nothing. Misses are not cached.
+   */
+  public Product getById(Long id, Function<Long, Product> loader) {
+    Product product = productsById.get(id, loader);
+    if (product != null && product.getSku() != null) {
+      productIdsBySku.put(product.getSku(), id);
+    }
+    return product;
+  }
+
+  /**
+   * Returns the cached Products with the given ids, loading all the misses at once.
+   *
+   * @param ids    the ids of the Products.
+   * @param loader looks up the Products with the ids it is given in the database, in one query.
+   * @return the Products that were found, in no particular order. Misses are not cached.
+   */
+  public Collection<Product> getAllById(Collection<Long> ids,
+      Function<List<Long>, List<Product>> loader) {
+    Map<Long, Product> products = productsById.getAll(ids, missingIds -> {
+      List<Long> idsToLoad = new ArrayList<>();
+      missingIds.forEach(idsToLoad::add);
+      Map<Long, Product> loaded = new HashMap<>();
+      for (Product product : loader.apply(idsToLoad)) {
+        loaded.put(product.getId(), product);
+      }
+      return loaded;
+    });
+    for (Product product : products.values()) {
+      if (product.getSku() != null) {
+        productIdsBySku.put(product.getSku(), product.getId());
+      }
+    }
+    return products.values();
+  }
+
+  /**
+   * Returns the cached Product with the given sku, loading it on a miss.
+   *
+   * @param sku    the sku of the Product.
+   * @param loader looks the Product up in the database, returning null if there is none.
+   * @return the Product, or null if the loader found nothing. Misses are not cached.
+   */
+  public Product getBySku(String sku, Function<String, Product> loader) {
+    Long id = productIdsBySku.getIfPresent(sku);
+    if (id != null) {
+      Product product = productsById.getIfPresent(id);
+      if (product != null && sku.equals(product.getSku())) {
+        return product;
+      }
+    }
+    Product product = loader.apply(sku);
+    if (product == null) {
+      productIdsBySku.invalidate(sku);
+      return null;
+    }
+    productsById.put(product.getId(), product);
+    productIdsBySku.put(sku, product.getId());
+    return product;
+  }
+
+  /**
+   * Returns the cached Product with the given id, without loading it on a miss.
+   *
+   * @param id the id of the Product.
+   * @return the Product, or null if it is not cached.
+   */
+  public Product getIfPresent(Long id) {
+    return productsById.getIfPresent(id);
+  }
+
+  /**
+   * Drops the Product with the given id, and with it every sku that points at it. Must be called
+   * once a write to that Product has been committed.
+   *
+   * @param id the id of the Product that changed.
+   */
+  public void evict(Long id) {
+    if (id == null) {
+      return;
+    }
+    Product product = productsById.asMap().remove(id);
+    if (product != null && product.getSku() != null) {
+      productIdsBySku.asMap().remove(product.getSku(), id);
+    }
+  }
+
+  public CacheStats byIdStats() {
+    return productsById.stats();
+  }
+
+  public CacheStats bySkuStats() {
+    return productIdsBySku.stats();
+  }
+
+  /**
+   * Publishes the hit, miss, eviction and size meters of both caches as cache.gets, cache.evictions
+   * and cache.size, tagged with the cache name.
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, productsById, PRODUCTS_BY_ID);
+    CaffeineCacheMetrics.monitor(registry, productIdsBySku, PRODUCT_IDS_BY_SKU);
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * Configures the reactive stack, which serves the product and order APIs when the application runs
+ * with the "reactive" profile. Pageable and Sort parameters are resolved as they are by the servlet
+ * stack, with the same default and maximum page sizes. Reactive transactions have a transaction
+ * manager of their own, which is not a bean, so that @Transactional keeps using the JPA one.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig implements WebFluxConfigurer {
+
+  @Value("${spring.data.web.pageable.default-page-size:20}")
+  private int defaultPageSize;
+
+  @Value("${spring.data.web.pageable.max-page-size:2000}")
+  private int maxPageSize;
+
+  /**
+   * Spring Boot does not configure a DataSource once there is an R2DBC ConnectionFactory, but the
+   * JPA repositories, which the DataLoader and the other services still use, need one.
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource dataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+    return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+  }
+
+  @Override
+  public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+    ReactiveSortHandlerMethodArgumentResolver sortResolver =
+        new ReactiveSortHandlerMethodArgumentResolver();
+    ReactivePageableHandlerMethodArgumentResolver pageableResolver =
+        new ReactivePageableHandlerMethodArgumentResolver(sortResolver);
+    pageableResolver.setFallbackPageable(PageRequest.of(0, defaultPageSize));
+    pageableResolver.setMaxPageSize(maxPageSize);
+    configurer.addCustomResolver(sortResolver, pageableResolver);
+  }
+}
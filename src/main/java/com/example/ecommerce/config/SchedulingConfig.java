@@ -0,0 +1,13 @@
+package com.example.ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the methods annotated with @Scheduled, such as the refresh of the analytics column store, on
+ * Spring Boot's single-threaded task scheduler.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,14 +1,23 @@
 package com.example.ecommerce.config;
 
+import com.example.ecommerce.models.Money;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 
 /**
  * This class configures the swagger documentation for the project, which can also be used for
@@ -22,6 +31,8 @@ public class SwaggerConfig {
     return new Docket(DocumentationType.SWAGGER_2)
         .useDefaultResponseMessages(false)
         .pathMapping("/").enableUrlTemplating(true)
+        // amounts of money are written as decimal numbers, not as the Money objects holding them
+        .directModelSubstitute(Money.class, BigDecimal.class)
         .select()
         .apis(RequestHandlerSelectors.withClassAnnotation(RestController.class))
         .paths(PathSelectors.any())
@@ -29,6 +40,36 @@ public class SwaggerConfig {
         .apiInfo(apiDetails());
   }
 
+  /**
+   * Springfox 3 cannot read handler mappings that use the PathPatternParser, which the actuator
+   * endpoints always do on Spring Boot 2.6. This drops those mappings from what springfox scans so
+   * the documentation still starts up; the actuator endpoints are not part of the API docs anyway.
+   */
+  @Bean
+  public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof WebMvcRequestHandlerProvider) {
+          List<RequestMappingInfoHandlerMapping> mappings = handlerMappings(bean);
+          List<RequestMappingInfoHandlerMapping> antMappings = mappings.stream()
+              .filter(mapping -> mapping.getPatternParser() == null)
+              .collect(Collectors.toList());
+          mappings.clear();
+          mappings.addAll(antMappings);
+        }
+        return bean;
+      }
+
+      @SuppressWarnings("unchecked")
+      private List<RequestMappingInfoHandlerMapping> handlerMappings(Object bean) {
+        Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+        ReflectionUtils.makeAccessible(field);
+        return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+      }
+    };
+  }
+
   private ApiInfo apiDetails() {
     return new ApiInfo(
         "Ecommerce REST API",
@@ -0,0 +1,41 @@
+package com.example.ecommerce.config;
+
+import java.util.concurrent.ExecutorService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs request handling on virtual threads when ecommerce.threads.mode is "virtual". Tomcat hands
+ * every request to a new virtual thread instead of one of its fixed pool of worker threads, and the
+ * controllers, services and repositories run on that thread, so a request blocked on JDBC no longer
+ * holds a platform thread. Asynchronous responses, such as the order export, are written on virtual
+ * threads as well. Concurrency is then capped by server.tomcat.max-connections and by the size of
+ * the connection pool rather than by server.tomcat.threads.max.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.threads.mode", havingValue = "virtual")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService virtualThreadExecutor() {
+    return VirtualThreads.newExecutor();
+  }
+
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+    ExecutorService executor = virtualThreadExecutor();
+    return factory -> factory.addProtocolHandlerCustomizers(
+        protocolHandler -> protocolHandler.setExecutor(executor));
+  }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreadExecutor()));
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.ecommerce.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors that start a new virtual thread for every task. Virtual threads are only final
+ * from Java 21, while the build still targets Java 17, so the factory method is looked up when the
+ * application runs rather than linked at compile time.
+ */
+public final class VirtualThreads {
+
+  private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookUp();
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * @return true if the running JVM can create virtual threads.
+   */
+  public static boolean isSupported() {
+    return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null && Runtime.version().feature() >= 21;
+  }
+
+  /**
+   * Creates an executor that runs every task on its own new virtual thread.
+   *
+   * @return the executor, to be shut down by the caller.
+   * @throws IllegalStateException if the running JVM does not support virtual threads.
+   */
+  public static ExecutorService newExecutor() {
+    if (!isSupported()) {
+      throw new IllegalStateException(
+          "Virtual threads need Java 21 or later, but this is Java " + Runtime.version());
+    }
+    try {
+      return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Virtual threads could not be started", e);
+    }
+  }
+
+  private static Method lookUp() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
@@ -18,14 +18,22 @@ public class StringConstants {
   public static final String UNEXPECTED_ERROR = "Unexpected server error";
 
   public static final String CONFLICT = "Conflict";
+  public static final String INVALID_SORT = "sort must name a property of the resource";
 
   //endpoint constants
+  public static final String CONTEXT_ANALYTICS = "/analytics";
   public static final String CONTEXT_GREETINGS = "/greetings";
   public static final String CONTEXT_CUSTOMERS = "/customers";
   public static final String CONTEXT_ORDERS = "/orders";
   public static final String CONTEXT_PRODUCTS = "/products";
+  public static final String CONTEXT_REPORTS = "/reports";
   public static final String CONTEXT_USERS = "/users";
 
+  //header constants
+  public static final String NEXT_CURSOR = "X-Next-Cursor";
+  public static final String HAS_NEXT = "X-Has-Next";
+  public static final String TOTAL_COUNT = "X-Total-Count";
+
   //roles
   public static final String EMPLOYEE = "employee";
   public static final String ADMIN = "admin";
@@ -0,0 +1,84 @@
+package com.example.ecommerce.controllers;
+
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_ANALYTICS;
+import static com.example.ecommerce.constants.StringConstants.QUERY_REQUEST;
+
+import com.example.ecommerce.analytics.OrderAnalytics;
+import com.example.ecommerce.services.AnalyticsService;
+import io.swagger.annotations.Api;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This controller takes methods from the AnalyticsServiceImpl class through AnalyticsService, and
+ * uses these methods to run ad hoc analytics on Orders. It handles requests for analytics, which
+ * the user can send via URL.
+ */
+@Api(value = "Analytics Controller")
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@RequestMapping(CONTEXT_ANALYTICS)
+public class AnalyticsController {
+
+  private final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
+
+  @Autowired
+  private AnalyticsService analyticsService;
+
+  /**
+   * Groups and sums the Orders matching the given filters, i.e.
+   * "?groupBy=month&from=2022-01-01&to=2022-12-31".
+   *
+   * @param groupBy    none (the default), day, month, customer or product.
+   * @param from       the first day of the Orders matched, or none for no lower bound.
+   * @param to         the last day of the Orders matched, or none for no upper bound.
+   * @param customerId the Customer whose Orders are matched, or none for every Customer.
+   * @param productId  the Product the Items matched are for, or none for every Product.
+   * @param limit      the most groups to return, 100 by default and at most 1000.
+   * @return the number of Orders, units and revenue of every group.
+   */
+  @GetMapping("/orders")
+  @Operation(summary = "Analyze orders",
+      description = "count the orders and sum the units and revenue of the orders matching the "
+          + "filters, grouped by day, month, customer or product, from an in-memory snapshot",
+      parameters = {
+          @Parameter(name = "groupBy", description = "none, day, month, customer or product"),
+          @Parameter(name = "from", description = "The first day, i.e. 2022-01-01"),
+          @Parameter(name = "to", description = "The last day, i.e. 2022-12-31"),
+          @Parameter(name = "customerId", description = "The customer ordering"),
+          @Parameter(name = "productId", description = "The product ordered"),
+          @Parameter(name = "limit", description = "The most groups to return")
+      },
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Grouped orders"),
+          @ApiResponse(responseCode = "400", description = "Invalid grouping, day, range or limit")
+      })
+  public ResponseEntity<OrderAnalytics> queryOrders(
+      @RequestParam(required = false) String groupBy,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+      @RequestParam(required = false) Long customerId,
+      @RequestParam(required = false) Long productId,
+      @RequestParam(required = false) Integer limit) {
+    logger.debug(QUERY_REQUEST + "order analytics grouped by {}", groupBy);
+
+    return new ResponseEntity<>(
+        analyticsService.queryOrders(groupBy, from, to, customerId, productId, limit),
+        HttpStatus.OK);
+  }
+}
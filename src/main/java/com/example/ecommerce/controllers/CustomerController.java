@@ -2,22 +2,39 @@ package com.example.ecommerce.controllers;
 
 import static com.example.ecommerce.constants.StringConstants.CONTEXT_CUSTOMERS;
 import static com.example.ecommerce.constants.StringConstants.DELETE_REQUEST;
+import static com.example.ecommerce.constants.StringConstants.HAS_NEXT;
+import static com.example.ecommerce.constants.StringConstants.NEXT_CURSOR;
 import static com.example.ecommerce.constants.StringConstants.POST_REQUEST;
 import static com.example.ecommerce.constants.StringConstants.QUERY_REQUEST;
 import static com.example.ecommerce.constants.StringConstants.UPDATE_REQUEST;
 
+import com.example.ecommerce.cache.ETags;
 import com.example.ecommerce.models.Customer;
+import com.example.ecommerce.models.EntityVersion;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.models.Partial;
+import com.example.ecommerce.pagination.KeysetPage;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.pagination.Pages;
 import com.example.ecommerce.services.CustomerService;
+import com.example.ecommerce.services.OrderService;
+import com.example.ecommerce.validators.BatchValidator;
 import io.swagger.annotations.Api;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
-import java.util.Date;
 import java.util.List;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,6 +44,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -36,6 +54,7 @@ import org.springframework.web.bind.annotation.RestController;
  */
 @Api(value = "Customer Controller")
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping(CONTEXT_CUSTOMERS)
 public class CustomerController {
 
@@ -44,30 +63,96 @@ public class CustomerController {
   @Autowired
   private CustomerService customerService;
 
+  @Autowired
+  private OrderService orderService;
+
+  @Autowired
+  private BatchValidator batchValidator;
+
   /**
    * Queries Customers.
    *
    * @param customer the Customer(s) matching the user's supplied information.
-   * @return a list of Customers, containing Objects which match the information supplied, or a list
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Customers should be returned.
+   * @return a page of Customers, containing Objects which match the information supplied, or a page
    * of all Customers if the query is empty.
    */
   @GetMapping
   @Operation(summary = "Query Customers",
       description = "get all customers, or customers filtered according to custom query",
       responses = {
-          @ApiResponse(responseCode = "200", description = "List of Customers")
+          @ApiResponse(responseCode = "200", description = "List of Customers"),
+          @ApiResponse(responseCode = "400", description = "Invalid sort property")
+      })
+  public ResponseEntity<List<Customer>> queryCustomers(Customer customer,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "{}", customer);
+
+    Slice<Customer> customers = customerService.queryCustomers(customer, pageable, count);
+    return new ResponseEntity<>(customers.getContent(),
+        ETags.withETag(Pages.headers(customers), customers.getContent()), HttpStatus.OK);
+  }
+
+  /**
+   * Queries Customers, reading only the given fields of each, i.e. "?fields=id,name". Fields of an
+   * embedded Object can be named with a dot, i.e. "address.city".
+   *
+   * @param customer the Customer(s) matching the user's supplied information.
+   * @param fields   the fields to be returned.
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Customers should be returned.
+   * @return a page of the selected fields of the Customers which match the information supplied.
+   */
+  @GetMapping(params = {"fields", "!ids"})
+  @Operation(summary = "Query fields of Customers",
+      description = "get the given comma separated fields of all customers, or of customers "
+          + "filtered according to custom query",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of selected fields of Customers"),
+          @ApiResponse(responseCode = "400", description = "Unknown field or sort property")
       })
-  public ResponseEntity<List<Customer>> queryCustomers(Customer customer) {
-    logger.info(new Date() + QUERY_REQUEST + customer.toString());
+  public ResponseEntity<List<Partial>> queryCustomerFields(Customer customer,
+      @RequestParam List<String> fields,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "fields {} of {}", fields, customer);
 
-    return new ResponseEntity<>(customerService.queryCustomers(customer), HttpStatus.OK);
+    Slice<Partial> customers =
+        customerService.queryCustomerFields(customer, fields, pageable, count);
+    return new ResponseEntity<>(customers.getContent(),
+        ETags.withETag(Pages.headers(customers), customers.getContent()), HttpStatus.OK);
   }
 
   /**
-   * Retrieves the Customer tht has the given id.
+   * Retrieves the Customers with the given ids in one query, i.e. "?ids=1,2,3". The ids that match
+   * no Customer are listed in the response, rather than failing the whole request.
    *
-   * @param id the id of the Customer to be retrieved.
-   * @return a Customer Object with the given id, if it exists.
+   * @param ids the ids of the Customers to be retrieved, at most 1000.
+   * @return the Customers found, in the order of their ids in the request, and the missing ids.
+   */
+  @GetMapping(params = "ids")
+  @Operation(summary = "get Customers by ids",
+      description = "get the customers with the given comma separated ids",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Customers found and ids missing"),
+          @ApiResponse(responseCode = "400", description = "Ids must be positive, at most 1000")
+      })
+  public ResponseEntity<MultiGet<Customer>> getCustomersByIds(@RequestParam List<Long> ids) {
+    logger.debug(QUERY_REQUEST + "customers with ids {}", ids);
+
+    return new ResponseEntity<>(customerService.getCustomersByIds(ids), HttpStatus.OK);
+  }
+
+  /**
+   * Retrieves the Customer tht has the given id. When the request names the client's copy, with
+   * If-None-Match or If-Modified-Since, the version of the Customer is read first, and if the copy
+   * is still current, 304 is returned without reading the rest.
+   *
+   * @param id      the id of the Customer to be retrieved.
+   * @param request the request, whose conditional headers are checked.
+   * @return a Customer Object with the given id, if it exists, with its ETag and Last-Modified.
    */
   @GetMapping("/{id}")
   @Operation(summary = "get Customer by customer id",
@@ -77,13 +162,83 @@ public class CustomerController {
       },
       responses = {
           @ApiResponse(responseCode = "200", description = "Customer with identical id"),
+          @ApiResponse(responseCode = "304", description = "Customer not modified"),
           @ApiResponse(responseCode = "400", description = "Id must be positive"),
           @ApiResponse(responseCode = "404", description = "Customer with given id not found")
       })
-  public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
-    logger.info(new Date() + QUERY_REQUEST + "customer with id " + id);
+  public ResponseEntity<Customer> getCustomerById(@PathVariable Long id,
+      HttpServletRequest request) {
+    logger.debug(QUERY_REQUEST + "customer with id {}", id);
 
-    return new ResponseEntity<>(customerService.getCustomerById(id), HttpStatus.OK);
+    if (ETags.isConditional(request)) {
+      EntityVersion version = customerService.getCustomerVersionById(id);
+      if (ETags.isNotModified(request, version)) {
+        return ETags.notModified(version);
+      }
+    }
+    return ETags.ok(customerService.getCustomerById(id));
+  }
+
+  /**
+   * Retrieves only the given fields of the Customer that has the given id, i.e. "?fields=id,name".
+   *
+   * @param id     the id of the Customer to be retrieved.
+   * @param fields the fields to be returned.
+   * @return the selected fields of the Customer with the given id, if it exists, with its ETag and
+   * Last-Modified.
+   */
+  @GetMapping(value = "/{id}", params = "fields")
+  @Operation(summary = "get fields of Customer by customer id",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Selected fields of the Customer"),
+          @ApiResponse(responseCode = "304", description = "Customer not modified"),
+          @ApiResponse(responseCode = "400", description = "Id must be positive, or unknown field"),
+          @ApiResponse(responseCode = "404", description = "Customer with given id not found")
+      })
+  public ResponseEntity<Partial> getCustomerFieldsById(@PathVariable Long id,
+      @RequestParam List<String> fields) {
+    logger.debug(QUERY_REQUEST + "fields {} of customer with id {}", fields, id);
+
+    return ETags.ok(customerService.getCustomerFieldsById(id, fields));
+  }
+
+  /**
+   * Retrieves the Orders of the Customer that has the given id, newest first, with keyset
+   * pagination. The cursor of the next page is returned in the X-Next-Cursor header, and is sent
+   * back as "after" to retrieve it.
+   *
+   * @param id    the id of the Customer whose Orders are to be retrieved.
+   * @param after the cursor returned in the X-Next-Cursor header of the previous page.
+   * @param size  the maximum number of Orders to return, 100 by default and at most 1000.
+   * @return a page of the Customer's Orders, with their Items.
+   */
+  @GetMapping("/{id}/orders")
+  @Operation(summary = "get Orders of Customer by customer id",
+      description = "get a page of the orders of the customer, newest first",
+      parameters = {
+          @Parameter(name = "id", required = true,
+              description = "The id of the customer whose orders are retrieved",
+              allowEmptyValue = false),
+          @Parameter(name = "after", description = "The cursor of the page to be retrieved")
+      },
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of the Customer's Orders"),
+          @ApiResponse(responseCode = "400", description = "Id must be positive, or invalid "
+              + "cursor or size"),
+          @ApiResponse(responseCode = "404", description = "Customer with given id not found")
+      })
+  public ResponseEntity<List<Order>> getCustomerOrders(@PathVariable Long id,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer size) {
+    logger.debug(QUERY_REQUEST + "orders of customer with id {}", id);
+
+    KeysetPage<Order> page = orderService.queryOrdersByCustomer(id, after, size);
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HAS_NEXT, String.valueOf(page.hasNext()));
+    if (page.hasNext()) {
+      headers.set(NEXT_CURSOR, page.getNextCursor());
+    }
+    return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
   }
 
   /**
@@ -100,11 +255,34 @@ public class CustomerController {
           @ApiResponse(responseCode = "409", description = "Customer email already in use")
       })
   public ResponseEntity<Customer> postCustomer(@Valid @RequestBody Customer customer) {
-    logger.info(new Date() + POST_REQUEST + "customer");
+    logger.debug(POST_REQUEST + "customer");
 
     return new ResponseEntity<Customer>(customerService.addCustomer(customer), HttpStatus.CREATED);
   }
 
+  /**
+   * Saves a batch of Customer Objects to the database in one transaction. The whole batch is
+   * validated first, and nothing is saved if any element is invalid. Any ids in the request body
+   * are ignored.
+   *
+   * @param customers the Customers to be saved.
+   * @return the data of the Customers that were saved to the database, if successful.
+   */
+  @PostMapping("/batch")
+  @Operation(summary = "post Customers",
+      description = "Creates every customer of the array in the request body",
+      responses = {
+          @ApiResponse(responseCode = "201", description = "Customers created"),
+          @ApiResponse(responseCode = "400", description = "Invalid Customers, listed by index"),
+          @ApiResponse(responseCode = "409", description = "Customer email already in use")
+      })
+  public ResponseEntity<List<Customer>> postCustomers(@RequestBody List<Customer> customers) {
+    logger.debug(POST_REQUEST + "batch of customers");
+
+    batchValidator.validate("customers", customers);
+    return new ResponseEntity<>(customerService.addCustomers(customers), HttpStatus.CREATED);
+  }
+
   /**
    * Finds and replaces a Customer Object with another, based on the id and data/state supplied by
    * the user.
@@ -123,7 +301,7 @@ public class CustomerController {
       })
   public ResponseEntity<Customer> updateCustomerById(@PathVariable Long id,
       @Valid @RequestBody Customer customer) {
-    logger.info(new Date() + UPDATE_REQUEST + "customer with id " + id);
+    logger.debug(UPDATE_REQUEST + "customer with id {}", id);
 
     return new ResponseEntity<Customer>(customerService.updateCustomerById(id, customer),
         HttpStatus.OK);
@@ -143,7 +321,7 @@ public class CustomerController {
           @ApiResponse(responseCode = "400", description = "id must be positive")
       })
   public ResponseEntity<Customer> deleteCustomerById(@PathVariable Long id) {
-    logger.info(new Date() + DELETE_REQUEST + "customer with id " + id);
+    logger.debug(DELETE_REQUEST + "customer with id {}", id);
 
     customerService.deleteCustomerById(id);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -8,8 +8,8 @@ import static com.example.ecommerce.constants.StringConstants.UPDATE_REQUEST;
 
 import com.example.ecommerce.exceptions.BadDataResponse;
 import com.example.ecommerce.models.Greeting;
+import com.example.ecommerce.pagination.Pages;
 import com.example.ecommerce.services.GreetingService;
-import java.util.Date;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -17,6 +17,11 @@ import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -26,6 +31,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -34,6 +40,7 @@ import org.springframework.web.bind.annotation.RestController;
  * information, which the user can send via URL.
  */
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping(CONTEXT_GREETINGS)
 public class GreetingController {
 
@@ -46,14 +53,19 @@ public class GreetingController {
    * Queries Greetings.
    *
    * @param greeting the Greeting(s) matching the user's supplied information.
-   * @return a list of Greetings, containing Objects which match the information supplied, or a list
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Greetings should be returned.
+   * @return a page of Greetings, containing Objects which match the information supplied, or a page
    * of all Greetings if the query is empty.
    */
   @GetMapping
-  public ResponseEntity<List<Greeting>> queryGreetings(Greeting greeting) {
-    logger.info(new Date() + QUERY_REQUEST + greeting.toString());
+  public ResponseEntity<List<Greeting>> queryGreetings(Greeting greeting,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "{}", greeting);
 
-    return new ResponseEntity<>(greetingService.queryGreetings(greeting), HttpStatus.OK);
+    Slice<Greeting> greetings = greetingService.queryGreetings(greeting, pageable, count);
+    return new ResponseEntity<>(greetings.getContent(), Pages.headers(greetings), HttpStatus.OK);
   }
 
   /**
@@ -64,7 +76,7 @@ public class GreetingController {
    */
   @GetMapping("/{id}")
   public ResponseEntity<Greeting> getGreetingById(@PathVariable Long id) {
-    logger.info(new Date() + QUERY_REQUEST + "greeting with id " + id);
+    logger.debug(QUERY_REQUEST + "greeting with id {}", id);
 
     return new ResponseEntity<>(greetingService.getGreetingById(id), HttpStatus.OK);
   }
@@ -77,7 +89,7 @@ public class GreetingController {
    */
   @PostMapping
   public ResponseEntity<Greeting> postGreeting(@Valid @RequestBody Greeting greeting) {
-    logger.info(new Date() + POST_REQUEST + "greeting");
+    logger.debug(POST_REQUEST + "greeting");
 
     String pattern = "[^A-Za-z\\s\\?!.]";
     Pattern notAGreeting = Pattern.compile(pattern);
@@ -99,7 +111,7 @@ public class GreetingController {
   @PutMapping("/{id}")
   public ResponseEntity<Greeting> updateGreetingById(@PathVariable Long id,
       @Valid @RequestBody Greeting greeting) {
-    logger.info(new Date() + UPDATE_REQUEST + "greeting with id " + id);
+    logger.debug(UPDATE_REQUEST + "greeting with id {}", id);
 
     return new ResponseEntity<Greeting>(greetingService.updateGreetingById(id, greeting),
         HttpStatus.OK);
@@ -113,7 +125,7 @@ public class GreetingController {
    */
   @DeleteMapping("/{id}")
   public ResponseEntity<Greeting> deleteGreetingById(@PathVariable Long id) {
-    logger.info(new Date() + DELETE_REQUEST + "greeting with id " + id);
+    logger.debug(DELETE_REQUEST + "greeting with id {}", id);
 
     greetingService.deleteGreetingById(id);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
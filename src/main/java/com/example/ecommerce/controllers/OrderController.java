@@ -2,23 +2,36 @@ package com.example.ecommerce.controllers;
 
 import static com.example.ecommerce.constants.StringConstants.CONTEXT_ORDERS;
 import static com.example.ecommerce.constants.StringConstants.DELETE_REQUEST;
+import static com.example.ecommerce.constants.StringConstants.HAS_NEXT;
+import static com.example.ecommerce.constants.StringConstants.NEXT_CURSOR;
 import static com.example.ecommerce.constants.StringConstants.POST_REQUEST;
 import static com.example.ecommerce.constants.StringConstants.QUERY_REQUEST;
 import static com.example.ecommerce.constants.StringConstants.UPDATE_REQUEST;
 
 import com.example.ecommerce.models.Order;
+import com.example.ecommerce.pagination.KeysetPage;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.pagination.Pages;
 import com.example.ecommerce.services.OrderService;
+import com.example.ecommerce.validators.BatchValidator;
 import io.swagger.annotations.Api;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
-import java.util.Date;
 import java.util.List;
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -27,7 +40,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * This controller takes methods from the OrderServiceImpl class through OrderService, and uses
@@ -36,6 +51,7 @@ import org.springframework.web.bind.annotation.RestController;
  */
 @Api(value = "Order Controller")
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping(CONTEXT_ORDERS)
 public class OrderController {
 
@@ -44,23 +60,88 @@ public class OrderController {
   @Autowired
   private OrderService orderService;
 
+  @Autowired
+  private BatchValidator batchValidator;
+
   /**
-   * Queries Orders.
+   * Queries Orders. A plain listing in id order is served with keyset pagination, and the cursor of
+   * the next page is returned in the X-Next-Cursor header. Any other page, sort order or query uses
+   * offset pagination.
    *
-   * @param order the Order(s) matching the user's supplied information.
-   * @return a list of Orders, containing Objects which match the information supplied, or a list of
-   * all Orders if the query is empty.
+   * @param order    the Order(s) matching the user's supplied information.
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Orders should be returned.
+   * @param after    the cursor returned in the X-Next-Cursor header of the previous page.
+   * @return a page of Orders, containing Objects which match the information supplied, or a page
+   * of all Orders if the query is empty.
    */
   @GetMapping
   @Operation(summary = "Query Orders",
-      description = "get all orders, or orders filtered according to custom query",
+      description = "get a page of all orders, or orders filtered according to custom query",
+      parameters = {
+          @Parameter(name = "after", description = "The cursor of the page to be retrieved")
+      },
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of Orders"),
+          @ApiResponse(responseCode = "400", description = "Invalid cursor, size or sort property")
+      })
+  public ResponseEntity<List<Order>> queryOrders(Order order,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count,
+      @RequestParam(required = false) String after) {
+    logger.debug(QUERY_REQUEST + "{}", order);
+
+    if (order.isEmpty() && (after != null || (!count && isFirstPageInIdOrder(pageable)))) {
+      KeysetPage<Order> page = orderService.queryOrdersAfter(after, pageable.getPageSize());
+      HttpHeaders headers = new HttpHeaders();
+      headers.set(HAS_NEXT, String.valueOf(page.hasNext()));
+      if (page.hasNext()) {
+        headers.set(NEXT_CURSOR, page.getNextCursor());
+      }
+      return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+    Slice<Order> orders = orderService.queryOrders(order, pageable, count);
+    return new ResponseEntity<>(orders.getContent(), Pages.headers(orders), HttpStatus.OK);
+  }
+
+  /**
+   * Exports every Order as newline delimited JSON, one Order with its Items per line. The response
+   * is streamed while the Orders are read from the database, so it can be used to retrieve the
+   * full order history regardless of its size.
+   *
+   * @return a stream of all Orders, in id order.
+   */
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Export Orders",
+      description = "stream all orders as newline delimited JSON",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Stream of Orders")
+      })
+  public ResponseEntity<StreamingResponseBody> exportOrders() {
+    logger.debug(QUERY_REQUEST + "order export");
+
+    StreamingResponseBody body = orderService::exportOrders;
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Retrieves the Orders with the given ids in one query, i.e. "?ids=1,2,3". The ids that match
+   * no Order are listed in the response, rather than failing the whole request.
+   *
+   * @param ids the ids of the Orders to be retrieved, at most 1000.
+   * @return the Orders found, in the order of their ids in the request, and the missing ids.
+   */
+  @GetMapping(params = "ids")
+  @Operation(summary = "get Orders by ids",
+      description = "get the orders with the given comma separated ids",
       responses = {
-          @ApiResponse(responseCode = "200", description = "List of Orders")
+          @ApiResponse(responseCode = "200", description = "Orders found and ids missing"),
+          @ApiResponse(responseCode = "400", description = "Ids must be positive, at most 1000")
       })
-  public ResponseEntity<List<Order>> queryOrders(Order order) {
-    logger.info(new Date() + QUERY_REQUEST + order.toString());
+  public ResponseEntity<MultiGet<Order>> getOrdersByIds(@RequestParam List<Long> ids) {
+    logger.debug(QUERY_REQUEST + "orders with ids {}", ids);
 
-    return new ResponseEntity<>(orderService.queryOrders(order), HttpStatus.OK);
+    return new ResponseEntity<>(orderService.getOrdersByIds(ids), HttpStatus.OK);
   }
 
   /**
@@ -81,7 +162,7 @@ public class OrderController {
           @ApiResponse(responseCode = "404", description = "Order with given id not found")
       })
   public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-    logger.info(new Date() + QUERY_REQUEST + "order with id " + id);
+    logger.debug(QUERY_REQUEST + "order with id {}", id);
 
     return new ResponseEntity<>(orderService.getOrderById(id), HttpStatus.OK);
   }
@@ -99,11 +180,33 @@ public class OrderController {
           @ApiResponse(responseCode = "400", description = "Invalid Order data"),
       })
   public ResponseEntity<Order> postOrder(@Valid @RequestBody Order order) {
-    logger.info(new Date() + POST_REQUEST + "order");
+    logger.debug(POST_REQUEST + "order");
 
     return new ResponseEntity<Order>(orderService.addOrder(order), HttpStatus.CREATED);
   }
 
+  /**
+   * Saves a batch of Order Objects to the database in one transaction. The whole batch is
+   * validated first, and nothing is saved if any element is invalid. Any ids in the request body
+   * are ignored.
+   *
+   * @param orders the Orders to be saved.
+   * @return the data of the Orders that were saved to the database, if successful.
+   */
+  @PostMapping("/batch")
+  @Operation(summary = "post Orders",
+      description = "Creates every order of the array in the request body",
+      responses = {
+          @ApiResponse(responseCode = "201", description = "Orders created"),
+          @ApiResponse(responseCode = "400", description = "Invalid Orders, listed by index"),
+      })
+  public ResponseEntity<List<Order>> postOrders(@RequestBody List<Order> orders) {
+    logger.debug(POST_REQUEST + "batch of orders");
+
+    batchValidator.validate("orders", orders);
+    return new ResponseEntity<>(orderService.addOrders(orders), HttpStatus.CREATED);
+  }
+
   /**
    * Finds and replaces a Order Object with another, based on the id and data/state supplied by the
    * user.
@@ -121,7 +224,7 @@ public class OrderController {
       })
   public ResponseEntity<Order> updateOrderById(@PathVariable Long id,
       @Valid @RequestBody Order order) {
-    logger.info(new Date() + UPDATE_REQUEST + "order with id " + id);
+    logger.debug(UPDATE_REQUEST + "order with id {}", id);
 
     return new ResponseEntity<Order>(orderService.updateOrderById(id, order),
         HttpStatus.OK);
@@ -141,9 +244,13 @@ public class OrderController {
           @ApiResponse(responseCode = "400", description = "id must be positive")
       })
   public ResponseEntity<Order> deleteOrderById(@PathVariable Long id) {
-    logger.info(new Date() + DELETE_REQUEST + "order with id " + id);
+    logger.debug(DELETE_REQUEST + "order with id {}", id);
 
     orderService.deleteOrderById(id);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
+
+  private boolean isFirstPageInIdOrder(Pageable pageable) {
+    return pageable.getPageNumber() == 0 && pageable.getSort().equals(Sort.by("id"));
+  }
 }
@@ -6,18 +6,32 @@ import static com.example.ecommerce.constants.StringConstants.POST_REQUEST;
 import static com.example.ecommerce.constants.StringConstants.QUERY_REQUEST;
 import static com.example.ecommerce.constants.StringConstants.UPDATE_REQUEST;
 
+import com.example.ecommerce.cache.ETags;
+import com.example.ecommerce.models.EntityVersion;
+import com.example.ecommerce.models.Partial;
 import com.example.ecommerce.models.Product;
+import com.example.ecommerce.pagination.Faceted;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.pagination.Pages;
+import com.example.ecommerce.search.Suggestion;
 import com.example.ecommerce.services.ProductService;
+import com.example.ecommerce.validators.BatchValidator;
 import io.swagger.annotations.Api;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
-import java.util.Date;
+import java.math.BigDecimal;
 import java.util.List;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,6 +41,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -36,6 +51,7 @@ import org.springframework.web.bind.annotation.RestController;
  */
 @Api(value = "Product Controller")
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping(CONTEXT_PRODUCTS)
 public class ProductController {
 
@@ -44,30 +60,210 @@ public class ProductController {
   @Autowired
   private ProductService productService;
 
+  @Autowired
+  private BatchValidator batchValidator;
+
   /**
    * Queries Products.
    *
-   * @param product the Product(s) matching the user's supplied information.
-   * @return a list of Products, containing Objects which match the information supplied, or a list
+   * @param product  the Product(s) matching the user's supplied information.
+   * @param minPrice the lowest price, inclusive, if any.
+   * @param maxPrice the highest price, inclusive, if any.
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Products should be returned.
+   * @return a page of Products, containing Objects which match the information supplied, or a page
    * of all Products if the query is empty.
    */
   @GetMapping
   @Operation(summary = "Query Products",
-      description = "get all products, or products filtered according to custom query",
+      description = "get all products, or products filtered according to custom query and price "
+          + "range",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of Products"),
+          @ApiResponse(responseCode = "400", description = "Invalid sort property or price range")
+      })
+  public ResponseEntity<List<Product>> queryProducts(Product product,
+      @RequestParam(required = false) BigDecimal minPrice,
+      @RequestParam(required = false) BigDecimal maxPrice,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "{} priced from {} to {}", product, minPrice, maxPrice);
+
+    Slice<Product> products = productService.queryProducts(product, minPrice, maxPrice, pageable,
+        count);
+    return new ResponseEntity<>(products.getContent(),
+        ETags.withETag(Pages.headers(products), products.getContent()), HttpStatus.OK);
+  }
+
+  /**
+   * Queries Products, and counts all the matching Products by type, manufacturer and price bucket.
+   *
+   * @param product  the Product(s) matching the user's supplied information.
+   * @param minPrice the lowest price, inclusive, if any.
+   * @param maxPrice the highest price, inclusive, if any.
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Products should be returned.
+   * @return a page of Products which match the information supplied, under "results", and the
+   * facet counts of all of them, under "facets".
+   */
+  @GetMapping(params = {"facets=true", "!ids", "!fields"})
+  @Operation(summary = "Query Products with facet counts",
+      description = "get all products, or products filtered according to custom query, with the "
+          + "number of matching products of each type, manufacturer and price bucket",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of Products and facet counts"),
+          @ApiResponse(responseCode = "400", description = "Invalid sort property or price range")
+      })
+  public ResponseEntity<Faceted<Product>> queryProductsWithFacets(Product product,
+      @RequestParam(required = false) BigDecimal minPrice,
+      @RequestParam(required = false) BigDecimal maxPrice,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "{} priced from {} to {} with facets", product, minPrice,
+        maxPrice);
+
+    Slice<Product> products = productService.queryProducts(product, minPrice, maxPrice, pageable,
+        count);
+    return new ResponseEntity<>(new Faceted<>(products.getContent(),
+        productService.countProductFacets(product, minPrice, maxPrice)),
+        Pages.headers(products), HttpStatus.OK);
+  }
+
+  /**
+   * Queries Products, reading only the given fields of each, i.e. "?fields=id,name". Fields of an
+   * embedded Object can be named with a dot, i.e. "address.city".
+   *
+   * @param product  the Product(s) matching the user's supplied information.
+   * @param fields   the fields to be returned.
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Products should be returned.
+   * @return a page of the selected fields of the Products which match the information supplied.
+   */
+  @GetMapping(params = {"fields", "!ids"})
+  @Operation(summary = "Query fields of Products",
+      description = "get the given comma separated fields of all products, or of products filtered "
+          + "according to custom query",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of selected fields of Products"),
+          @ApiResponse(responseCode = "400", description = "Unknown field or sort property")
+      })
+  public ResponseEntity<List<Partial>> queryProductFields(Product product,
+      @RequestParam List<String> fields,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "fields {} of {}", fields, product);
+
+    Slice<Partial> products = productService.queryProductFields(product, fields, pageable, count);
+    return new ResponseEntity<>(products.getContent(),
+        ETags.withETag(Pages.headers(products), products.getContent()), HttpStatus.OK);
+  }
+
+  /**
+   * Searches the name, description, manufacturer and type of the Products for the given words.
+   *
+   * @param q        the words to search for, i.e. "?q=sun hat".
+   * @param pageable the page and size requested by the user.
+   * @param count    whether the total number of matching Products should be returned.
+   * @return a page of the matching Products, the most relevant first.
+   */
+  @GetMapping("/search")
+  @Operation(summary = "Search Products",
+      description = "get the products whose name, description, manufacturer or type match the "
+          + "given words, ranked by relevance",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of matching Products"),
+          @ApiResponse(responseCode = "400", description = "Search text is blank")
+      })
+  public ResponseEntity<List<Product>> searchProducts(@RequestParam String q,
+      @PageableDefault Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "search for {}", q);
+
+    Slice<Product> products = productService.searchProducts(q, pageable, count);
+    return new ResponseEntity<>(products.getContent(),
+        ETags.withETag(Pages.headers(products), products.getContent()), HttpStatus.OK);
+  }
+
+  /**
+   * Searches the Products for the given words, and counts all the matching Products by type,
+   * manufacturer and price bucket.
+   *
+   * @param q        the words to search for, i.e. "?q=sun hat".
+   * @param pageable the page and size requested by the user.
+   * @param count    whether the total number of matching Products should be returned.
+   * @return a page of the matching Products, the most relevant first, under "results", and the
+   * facet counts of all of them, under "facets".
+   */
+  @GetMapping(value = "/search", params = "facets=true")
+  @Operation(summary = "Search Products with facet counts",
+      description = "get the products whose name, description, manufacturer or type match the "
+          + "given words, ranked by relevance, with the number of matching products of each type, "
+          + "manufacturer and price bucket",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of Products and facet counts"),
+          @ApiResponse(responseCode = "400", description = "Search text is blank")
+      })
+  public ResponseEntity<Faceted<Product>> searchProductsWithFacets(@RequestParam String q,
+      @PageableDefault Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "search for {} with facets", q);
+
+    Slice<Product> products = productService.searchProducts(q, pageable, count);
+    return new ResponseEntity<>(
+        new Faceted<>(products.getContent(), productService.countSearchFacets(q)),
+        Pages.headers(products), HttpStatus.OK);
+  }
+
+  /**
+   * Suggests the Products whose name or sku starts with the given prefix, as the user types it.
+   *
+   * @param prefix the start of a name or sku, i.e. "?prefix=VG8-" or "?prefix=hydro".
+   * @param limit  the most suggestions to be returned, up to 10.
+   * @return the id, sku and name of the matching Products, the best ranked first.
+   */
+  @GetMapping("/suggest")
+  @Operation(summary = "Suggest Products",
+      description = "get the products whose name or sku starts with the given prefix, ignoring "
+          + "case, ranked by the quantity ordered",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of suggested Products"),
+          @ApiResponse(responseCode = "400", description = "Prefix is blank or limit is invalid")
+      })
+  public ResponseEntity<List<Suggestion>> suggestProducts(@RequestParam String prefix,
+      @RequestParam(defaultValue = "10") int limit) {
+    logger.debug(QUERY_REQUEST + "suggestions for {}", prefix);
+
+    return new ResponseEntity<>(productService.suggestProducts(prefix, limit), HttpStatus.OK);
+  }
+
+  /**
+   * Retrieves the Products with the given ids in one query, i.e. "?ids=1,2,3". The ids that match
+   * no Product are listed in the response, rather than failing the whole request.
+   *
+   * @param ids the ids of the Products to be retrieved, at most 1000.
+   * @return the Products found, in the order of their ids in the request, and the missing ids.
+   */
+  @GetMapping(params = "ids")
+  @Operation(summary = "get Products by ids",
+      description = "get the products with the given comma separated ids",
       responses = {
-          @ApiResponse(responseCode = "200", description = "List of Products")
+          @ApiResponse(responseCode = "200", description = "Products found and ids missing"),
+          @ApiResponse(responseCode = "400", description = "Ids must be positive, at most 1000")
       })
-  public ResponseEntity<List<Product>> queryProducts(Product product) {
-    logger.info(new Date() + QUERY_REQUEST + product.toString());
+  public ResponseEntity<MultiGet<Product>> getProductsByIds(@RequestParam List<Long> ids) {
+    logger.debug(QUERY_REQUEST + "products with ids {}", ids);
 
-    return new ResponseEntity<>(productService.queryProducts(product), HttpStatus.OK);
+    return new ResponseEntity<>(productService.getProductsByIds(ids), HttpStatus.OK);
   }
 
   /**
-   * Retrieves the Product tht has the given id.
+   * Retrieves the Product tht has the given id. When the request names the client's copy, with
+   * If-None-Match or If-Modified-Since, the version of the Product is read first, and if the copy
+   * is still current, 304 is returned without reading the rest.
    *
-   * @param id the id of the Product to be retrieved.
-   * @return a Product Object with the given id, if it exists.
+   * @param id      the id of the Product to be retrieved.
+   * @param request the request, whose conditional headers are checked.
+   * @return a Product Object with the given id, if it exists, with its ETag and Last-Modified.
    */
   @GetMapping("/{id}")
   @Operation(summary = "get Product by product id",
@@ -77,13 +273,66 @@ public class ProductController {
       },
       responses = {
           @ApiResponse(responseCode = "200", description = "Product with identical id"),
+          @ApiResponse(responseCode = "304", description = "Product not modified"),
           @ApiResponse(responseCode = "400", description = "Id must be positive"),
           @ApiResponse(responseCode = "404", description = "Product with given id not found")
       })
-  public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-    logger.info(new Date() + QUERY_REQUEST + "product with id " + id);
+  public ResponseEntity<Product> getProductById(@PathVariable Long id,
+      HttpServletRequest request) {
+    logger.debug(QUERY_REQUEST + "product with id {}", id);
+
+    if (ETags.isConditional(request)) {
+      EntityVersion version = productService.getProductVersionById(id);
+      if (ETags.isNotModified(request, version)) {
+        return ETags.notModified(version);
+      }
+    }
+    return ETags.ok(productService.getProductById(id));
+  }
+
+  /**
+   * Retrieves only the given fields of the Product that has the given id, i.e. "?fields=id,name".
+   *
+   * @param id     the id of the Product to be retrieved.
+   * @param fields the fields to be returned.
+   * @return the selected fields of the Product with the given id, if it exists, with its ETag and
+   * Last-Modified.
+   */
+  @GetMapping(value = "/{id}", params = "fields")
+  @Operation(summary = "get fields of Product by product id",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Selected fields of the Product"),
+          @ApiResponse(responseCode = "304", description = "Product not modified"),
+          @ApiResponse(responseCode = "400", description = "Id must be positive, or unknown field"),
+          @ApiResponse(responseCode = "404", description = "Product with given id not found")
+      })
+  public ResponseEntity<Partial> getProductFieldsById(@PathVariable Long id,
+      @RequestParam List<String> fields) {
+    logger.debug(QUERY_REQUEST + "fields {} of product with id {}", fields, id);
 
-    return new ResponseEntity<>(productService.getProductById(id), HttpStatus.OK);
+    return ETags.ok(productService.getProductFieldsById(id, fields));
+  }
+
+  /**
+   * Retrieves the Product that has the given sku.
+   *
+   * @param sku the sku of the Product to be retrieved.
+   * @return a Product Object with the given sku, if it exists, with its ETag and Last-Modified.
+   */
+  @GetMapping("/sku/{sku}")
+  @Operation(summary = "get Product by sku",
+      parameters = {
+          @Parameter(name = "sku", required = true,
+              description = "The sku of the product to be retrieved", allowEmptyValue = false),
+      },
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Product with identical sku"),
+          @ApiResponse(responseCode = "404", description = "Product with given sku not found")
+      })
+  public ResponseEntity<Product> getProductBySku(@PathVariable String sku) {
+    logger.debug(QUERY_REQUEST + "product with sku {}", sku);
+
+    return ETags.ok(productService.getProductBySku(sku));
   }
 
   /**
@@ -100,11 +349,34 @@ public class ProductController {
           @ApiResponse(responseCode = "409", description = "Product sku already in use")
       })
   public ResponseEntity<Product> postProduct(@Valid @RequestBody Product product) {
-    logger.info(new Date() + POST_REQUEST + "product");
+    logger.debug(POST_REQUEST + "product");
 
     return new ResponseEntity<Product>(productService.addProduct(product), HttpStatus.CREATED);
   }
 
+  /**
+   * Saves a batch of Product Objects to the database in one transaction. The whole batch is
+   * validated first, and nothing is saved if any element is invalid. Any ids in the request body
+   * are ignored.
+   *
+   * @param products the Products to be saved.
+   * @return the data of the Products that were saved to the database, if successful.
+   */
+  @PostMapping("/batch")
+  @Operation(summary = "post Products",
+      description = "Creates every product of the array in the request body",
+      responses = {
+          @ApiResponse(responseCode = "201", description = "Products created"),
+          @ApiResponse(responseCode = "400", description = "Invalid Products, listed by index"),
+          @ApiResponse(responseCode = "409", description = "Product sku already in use")
+      })
+  public ResponseEntity<List<Product>> postProducts(@RequestBody List<Product> products) {
+    logger.debug(POST_REQUEST + "batch of products");
+
+    batchValidator.validate("products", products);
+    return new ResponseEntity<>(productService.addProducts(products), HttpStatus.CREATED);
+  }
+
   /**
    * Finds and replaces a Product Object with another, based on the id and data/state supplied by
    * the user.
@@ -123,7 +395,7 @@ public class ProductController {
       })
   public ResponseEntity<Product> updateProductById(@PathVariable Long id,
       @Valid @RequestBody Product product) {
-    logger.info(new Date() + UPDATE_REQUEST + "product with id " + id);
+    logger.debug(UPDATE_REQUEST + "product with id {}", id);
 
     return new ResponseEntity<Product>(productService.updateProductById(id, product),
         HttpStatus.OK);
@@ -143,7 +415,7 @@ public class ProductController {
           @ApiResponse(responseCode = "400", description = "id must be positive")
       })
   public ResponseEntity<Product> deleteProductById(@PathVariable Long id) {
-    logger.info(new Date() + DELETE_REQUEST + "product with id " + id);
+    logger.debug(DELETE_REQUEST + "product with id {}", id);
 
     productService.deleteProductById(id);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
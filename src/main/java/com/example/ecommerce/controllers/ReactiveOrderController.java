@@ -0,0 +1,255 @@
+package com.example.ecommerce.controllers;
+
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_ORDERS;
+import static com.example.ecommerce.constants.StringConstants.DELETE_REQUEST;
+import static com.example.ecommerce.constants.StringConstants.HAS_NEXT;
+import static com.example.ecommerce.constants.StringConstants.NEXT_CURSOR;
+import static com.example.ecommerce.constants.StringConstants.POST_REQUEST;
+import static com.example.ecommerce.constants.StringConstants.QUERY_REQUEST;
+import static com.example.ecommerce.constants.StringConstants.UPDATE_REQUEST;
+
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.pagination.Pages;
+import com.example.ecommerce.services.ReactiveOrderService;
+import com.example.ecommerce.validators.BatchValidator;
+import io.swagger.annotations.Api;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.util.List;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This controller serves the same requests as the OrderController, at the same URLs and with the
+ * same validation and error responses, on the reactive stack. It replaces the OrderController when
+ * the application runs with the "reactive" profile.
+ */
+@Api(value = "Order Controller")
+@RestController
+@RequestMapping(CONTEXT_ORDERS)
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveOrderController {
+
+  private final Logger logger = LoggerFactory.getLogger(ReactiveOrderController.class);
+
+  @Autowired
+  private ReactiveOrderService orderService;
+
+  @Autowired
+  private BatchValidator batchValidator;
+
+  /**
+   * Queries Orders. A plain listing in id order is served with keyset pagination, and the cursor of
+   * the next page is returned in the X-Next-Cursor header. Any other page, sort order or query uses
+   * offset pagination.
+   *
+   * @param order    the Order(s) matching the user's supplied information.
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Orders should be returned.
+   * @param after    the cursor returned in the X-Next-Cursor header of the previous page.
+   * @return a page of Orders, containing Objects which match the information supplied, or a page
+   * of all Orders if the query is empty.
+   */
+  @GetMapping
+  @Operation(summary = "Query Orders",
+      description = "get a page of all orders, or orders filtered according to custom query",
+      parameters = {
+          @Parameter(name = "after", description = "The cursor of the page to be retrieved")
+      },
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of Orders"),
+          @ApiResponse(responseCode = "400", description = "Invalid cursor, size or sort property")
+      })
+  public Mono<ResponseEntity<List<Order>>> queryOrders(Order order,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count,
+      @RequestParam(required = false) String after) {
+    logger.debug(QUERY_REQUEST + "{}", order);
+
+    if (order.isEmpty() && (after != null || (!count && isFirstPageInIdOrder(pageable)))) {
+      return orderService.queryOrdersAfter(after, pageable.getPageSize()).map(page -> {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HAS_NEXT, String.valueOf(page.hasNext()));
+        if (page.hasNext()) {
+          headers.set(NEXT_CURSOR, page.getNextCursor());
+        }
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+      });
+    }
+    return orderService.queryOrders(order, pageable, count)
+        .map(orders -> new ResponseEntity<>(orders.getContent(), Pages.headers(orders),
+            HttpStatus.OK));
+  }
+
+  /**
+   * Exports every Order as newline delimited JSON, one Order with its Items per line. The Orders
+   * are written as they are read from the database, so it can be used to retrieve the full order
+   * history regardless of its size.
+   *
+   * @return a stream of all Orders, in id order.
+   */
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Export Orders",
+      description = "stream all orders as newline delimited JSON",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Stream of Orders")
+      })
+  public Flux<Order> exportOrders() {
+    logger.debug(QUERY_REQUEST + "order export");
+
+    return orderService.exportOrders();
+  }
+
+  /**
+   * Retrieves the Orders with the given ids in one query, i.e. "?ids=1,2,3". The ids that match
+   * no Order are listed in the response, rather than failing the whole request.
+   *
+   * @param ids the ids of the Orders to be retrieved, at most 1000.
+   * @return the Orders found, in the order of their ids in the request, and the missing ids.
+   */
+  @GetMapping(params = "ids")
+  @Operation(summary = "get Orders by ids",
+      description = "get the orders with the given comma separated ids",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Orders found and ids missing"),
+          @ApiResponse(responseCode = "400", description = "Ids must be positive, at most 1000")
+      })
+  public Mono<ResponseEntity<MultiGet<Order>>> getOrdersByIds(@RequestParam List<Long> ids) {
+    logger.debug(QUERY_REQUEST + "orders with ids {}", ids);
+
+    return orderService.getOrdersByIds(ids)
+        .map(orders -> new ResponseEntity<>(orders, HttpStatus.OK));
+  }
+
+  /**
+   * Retrieves the Order that has the given id.
+   *
+   * @param id the id of the Order to be retrieved.
+   * @return a Order Object with the given id, if it exists.
+   */
+  @GetMapping("/{id}")
+  @Operation(summary = "get Order by order id",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Order with identical id"),
+          @ApiResponse(responseCode = "400", description = "Id must be positive"),
+          @ApiResponse(responseCode = "404", description = "Order with given id not found")
+      })
+  public Mono<ResponseEntity<Order>> getOrderById(@PathVariable Long id) {
+    logger.debug(QUERY_REQUEST + "order with id {}", id);
+
+    return orderService.getOrderById(id).map(order -> new ResponseEntity<>(order, HttpStatus.OK));
+  }
+
+  /**
+   * Saves a Order Object with the data/state provided by the user to the database.
+   *
+   * @param order the Order to be saved.
+   * @return the data of the Order that was saved to the database, if successful.
+   */
+  @PostMapping
+  @Operation(summary = "post Order", description = "Creates a order from the request body",
+      responses = {
+          @ApiResponse(responseCode = "201", description = "Order created"),
+          @ApiResponse(responseCode = "400", description = "Invalid Order data"),
+      })
+  public Mono<ResponseEntity<Order>> postOrder(@Valid @RequestBody Order order) {
+    logger.debug(POST_REQUEST + "order");
+
+    return orderService.addOrder(order)
+        .map(savedOrder -> new ResponseEntity<>(savedOrder, HttpStatus.CREATED));
+  }
+
+  /**
+   * Saves a batch of Order Objects to the database in one transaction. The whole batch is
+   * validated first, and nothing is saved if any element is invalid. Any ids in the request body
+   * are ignored.
+   *
+   * @param orders the Orders to be saved.
+   * @return the data of the Orders that were saved to the database, if successful.
+   */
+  @PostMapping("/batch")
+  @Operation(summary = "post Orders",
+      description = "Creates every order of the array in the request body",
+      responses = {
+          @ApiResponse(responseCode = "201", description = "Orders created"),
+          @ApiResponse(responseCode = "400", description = "Invalid Orders, listed by index"),
+      })
+  public Mono<ResponseEntity<List<Order>>> postOrders(@RequestBody List<Order> orders) {
+    logger.debug(POST_REQUEST + "batch of orders");
+
+    batchValidator.validate("orders", orders);
+    return orderService.addOrders(orders)
+        .map(savedOrders -> new ResponseEntity<>(savedOrders, HttpStatus.CREATED));
+  }
+
+  /**
+   * Finds and replaces a Order Object with another, based on the id and data/state supplied by the
+   * user. The Items of the Order are replaced by those supplied.
+   *
+   * @param id    the id of the Order to be updated.
+   * @param order the Order data which will replace the old Order data.
+   * @return the successfully updated Order
+   */
+  @PutMapping("/{id}")
+  @Operation(summary = "put Order", description = "Updates a Order based on the request body",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Order updated successfully"),
+          @ApiResponse(responseCode = "400", description = "Invalid Order data"),
+          @ApiResponse(responseCode = "404", description = "Order not found")
+      })
+  public Mono<ResponseEntity<Order>> updateOrderById(@PathVariable Long id,
+      @Valid @RequestBody Order order) {
+    logger.debug(UPDATE_REQUEST + "order with id {}", id);
+
+    return orderService.updateOrderById(id, order)
+        .map(updatedOrder -> new ResponseEntity<>(updatedOrder, HttpStatus.OK));
+  }
+
+  /**
+   * Finds and deletes a Order, with its Items, from the database with the id given by the user.
+   *
+   * @param id the id of the Order to be deleted.
+   * @return a deleted status, if the id exists in the database.
+   */
+  @DeleteMapping("/{id}")
+  @Operation(summary = "delete Order", description = "Deletes a order with matching id",
+      responses = {
+          @ApiResponse(responseCode = "204", description = "No Content. Order deleted"),
+          @ApiResponse(responseCode = "404", description = "Order not found"),
+          @ApiResponse(responseCode = "400", description = "id must be positive")
+      })
+  public Mono<ResponseEntity<Order>> deleteOrderById(@PathVariable Long id) {
+    logger.debug(DELETE_REQUEST + "order with id {}", id);
+
+    return orderService.deleteOrderById(id)
+        .then(Mono.just(new ResponseEntity<>(HttpStatus.NO_CONTENT)));
+  }
+
+  private boolean isFirstPageInIdOrder(Pageable pageable) {
+    return pageable.getPageNumber() == 0 && pageable.getSort().equals(Sort.by("id"));
+  }
+}
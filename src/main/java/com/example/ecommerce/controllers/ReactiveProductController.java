@@ -0,0 +1,233 @@
+package com.example.ecommerce.controllers;
+
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_PRODUCTS;
+import static com.example.ecommerce.constants.StringConstants.DELETE_REQUEST;
+import static com.example.ecommerce.constants.StringConstants.POST_REQUEST;
+import static com.example.ecommerce.constants.StringConstants.QUERY_REQUEST;
+import static com.example.ecommerce.constants.StringConstants.UPDATE_REQUEST;
+
+import com.example.ecommerce.cache.ETags;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.pagination.Pages;
+import com.example.ecommerce.services.ReactiveProductService;
+import com.example.ecommerce.validators.BatchValidator;
+import io.swagger.annotations.Api;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.util.List;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * This controller serves the same requests as the ProductController, at the same URLs and with the
+ * same validation and error responses, on the reactive stack. It replaces the ProductController
+ * when the application runs with the "reactive" profile.
+ */
+@Api(value = "Product Controller")
+@RestController
+@RequestMapping(CONTEXT_PRODUCTS)
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveProductController {
+
+  private final Logger logger = LoggerFactory.getLogger(ReactiveProductController.class);
+
+  @Autowired
+  private ReactiveProductService productService;
+
+  @Autowired
+  private BatchValidator batchValidator;
+
+  /**
+   * Queries Products.
+   *
+   * @param product  the Product(s) matching the user's supplied information.
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Products should be returned.
+   * @return a page of Products, containing Objects which match the information supplied, or a page
+   * of all Products if the query is empty.
+   */
+  @GetMapping
+  @Operation(summary = "Query Products",
+      description = "get all products, or products filtered according to custom query",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "List of Products"),
+          @ApiResponse(responseCode = "400", description = "Invalid sort property")
+      })
+  public Mono<ResponseEntity<List<Product>>> queryProducts(Product product,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "{}", product);
+
+    return productService.queryProducts(product, pageable, count)
+        .map(products -> new ResponseEntity<>(products.getContent(),
+            ETags.withETag(Pages.headers(products), products.getContent()),
+            HttpStatus.OK));
+  }
+
+  /**
+   * Retrieves the Products with the given ids in one query, i.e. "?ids=1,2,3". The ids that match
+   * no Product are listed in the response, rather than failing the whole request.
+   *
+   * @param ids the ids of the Products to be retrieved, at most 1000.
+   * @return the Products found, in the order of their ids in the request, and the missing ids.
+   */
+  @GetMapping(params = "ids")
+  @Operation(summary = "get Products by ids",
+      description = "get the products with the given comma separated ids",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Products found and ids missing"),
+          @ApiResponse(responseCode = "400", description = "Ids must be positive, at most 1000")
+      })
+  public Mono<ResponseEntity<MultiGet<Product>>> getProductsByIds(@RequestParam List<Long> ids) {
+    logger.debug(QUERY_REQUEST + "products with ids {}", ids);
+
+    return productService.getProductsByIds(ids)
+        .map(products -> new ResponseEntity<>(products, HttpStatus.OK));
+  }
+
+  /**
+   * Retrieves the Product that has the given id.
+   *
+   * @param id the id of the Product to be retrieved.
+   * @return a Product Object with the given id, if it exists, with its ETag and Last-Modified. It
+   * is answered with 304 instead when the client's copy is still current.
+   */
+  @GetMapping("/{id}")
+  @Operation(summary = "get Product by product id",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Product with identical id"),
+          @ApiResponse(responseCode = "304", description = "Product not modified"),
+          @ApiResponse(responseCode = "400", description = "Id must be positive"),
+          @ApiResponse(responseCode = "404", description = "Product with given id not found")
+      })
+  public Mono<ResponseEntity<Product>> getProductById(@PathVariable Long id) {
+    logger.debug(QUERY_REQUEST + "product with id {}", id);
+
+    return productService.getProductById(id).map(ETags::ok);
+  }
+
+  /**
+   * Retrieves the Product that has the given sku.
+   *
+   * @param sku the sku of the Product to be retrieved.
+   * @return a Product Object with the given sku, if it exists, with its ETag and Last-Modified.
+   */
+  @GetMapping("/sku/{sku}")
+  @Operation(summary = "get Product by sku",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Product with identical sku"),
+          @ApiResponse(responseCode = "404", description = "Product with given sku not found")
+      })
+  public Mono<ResponseEntity<Product>> getProductBySku(@PathVariable String sku) {
+    logger.debug(QUERY_REQUEST + "product with sku {}", sku);
+
+    return productService.getProductBySku(sku).map(ETags::ok);
+  }
+
+  /**
+   * Saves a Product Object with the data/state provided by the user to the database.
+   *
+   * @param product the Product to be saved.
+   * @return the data of the Product that was saved to the database, if successful.
+   */
+  @PostMapping
+  @Operation(summary = "post Product", description = "Creates a product from the request body",
+      responses = {
+          @ApiResponse(responseCode = "201", description = "Product created"),
+          @ApiResponse(responseCode = "400", description = "Invalid Product data"),
+          @ApiResponse(responseCode = "409", description = "Product sku already in use")
+      })
+  public Mono<ResponseEntity<Product>> postProduct(@Valid @RequestBody Product product) {
+    logger.debug(POST_REQUEST + "product");
+
+    return productService.addProduct(product)
+        .map(savedProduct -> new ResponseEntity<>(savedProduct, HttpStatus.CREATED));
+  }
+
+  /**
+   * Saves a batch of Product Objects to the database in one transaction. The whole batch is
+   * validated first, and nothing is saved if any element is invalid. Any ids in the request body
+   * are ignored.
+   *
+   * @param products the Products to be saved.
+   * @return the data of the Products that were saved to the database, if successful.
+   */
+  @PostMapping("/batch")
+  @Operation(summary = "post Products",
+      description = "Creates every product of the array in the request body",
+      responses = {
+          @ApiResponse(responseCode = "201", description = "Products created"),
+          @ApiResponse(responseCode = "400", description = "Invalid Products, listed by index"),
+          @ApiResponse(responseCode = "409", description = "Product sku already in use")
+      })
+  public Mono<ResponseEntity<List<Product>>> postProducts(@RequestBody List<Product> products) {
+    logger.debug(POST_REQUEST + "batch of products");
+
+    batchValidator.validate("products", products);
+    return productService.addProducts(products)
+        .map(savedProducts -> new ResponseEntity<>(savedProducts, HttpStatus.CREATED));
+  }
+
+  /**
+   * Finds and replaces a Product Object with another, based on the id and data/state supplied by
+   * the user.
+   *
+   * @param id      the id of the Product to be updated.
+   * @param product the Product data which will replace the old Product data.
+   * @return the successfully updated Product
+   */
+  @PutMapping("/{id}")
+  @Operation(summary = "put Product", description = "Updates a Product based on the request body",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Product updated successfully"),
+          @ApiResponse(responseCode = "400", description = "Invalid Product data"),
+          @ApiResponse(responseCode = "409", description = "Product sku already in use"),
+          @ApiResponse(responseCode = "404", description = "Product not found")
+      })
+  public Mono<ResponseEntity<Product>> updateProductById(@PathVariable Long id,
+      @Valid @RequestBody Product product) {
+    logger.debug(UPDATE_REQUEST + "product with id {}", id);
+
+    return productService.updateProductById(id, product)
+        .map(updatedProduct -> new ResponseEntity<>(updatedProduct, HttpStatus.OK));
+  }
+
+  /**
+   * Finds and deletes a Product from the database with the id given by the user.
+   *
+   * @param id the id of the Product to be deleted.
+   * @return a deleted status, if the id exists in the database.
+   */
+  @DeleteMapping("/{id}")
+  @Operation(summary = "delete Product", description = "Deletes a product with matching id",
+      responses = {
+          @ApiResponse(responseCode = "204", description = "No Content. Product deleted"),
+          @ApiResponse(responseCode = "404", description = "Product not found"),
+          @ApiResponse(responseCode = "400", description = "id must be positive")
+      })
+  public Mono<ResponseEntity<Product>> deleteProductById(@PathVariable Long id) {
+    logger.debug(DELETE_REQUEST + "product with id {}", id);
+
+    return productService.deleteProductById(id)
+        .then(Mono.just(new ResponseEntity<>(HttpStatus.NO_CONTENT)));
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.ecommerce.controllers;
+
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_REPORTS;
+import static com.example.ecommerce.constants.StringConstants.QUERY_REQUEST;
+
+import com.example.ecommerce.models.SalesReport;
+import com.example.ecommerce.services.ReportService;
+import io.swagger.annotations.Api;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This controller takes methods from the ReportServiceImpl class through ReportService, and uses
+ * these methods to report on sales. It handles requests for reports, which the user can send via
+ * URL.
+ */
+@Api(value = "Report Controller")
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@RequestMapping(CONTEXT_REPORTS)
+public class ReportController {
+
+  private final Logger logger = LoggerFactory.getLogger(ReportController.class);
+
+  @Autowired
+  private ReportService reportService;
+
+  /**
+   * Reports the sales of a range of days, i.e. "?from=2022-01-01&to=2022-12-31".
+   *
+   * @param from  the first day reported on, or none to start with the first sale.
+   * @param to    the last day reported on, or none to end with the last sale.
+   * @param limit the most Products to list, 100 by default and at most 1000.
+   * @return the revenue and number of Orders of every day and of the whole range, and the units of
+   * the Products ordered most in it.
+   */
+  @GetMapping("/sales")
+  @Operation(summary = "Report sales",
+      description = "get the revenue and number of orders by day, and the units ordered by "
+          + "product, of a range of days",
+      parameters = {
+          @Parameter(name = "from", description = "The first day, i.e. 2022-01-01"),
+          @Parameter(name = "to", description = "The last day, i.e. 2022-12-31"),
+          @Parameter(name = "limit", description = "The most products to list")
+      },
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Sales report"),
+          @ApiResponse(responseCode = "400", description = "Invalid day, range or limit")
+      })
+  public ResponseEntity<SalesReport> getSalesReport(
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+      @RequestParam(required = false) Integer limit) {
+    logger.debug(QUERY_REQUEST + "sales report from {} to {}", from, to);
+
+    return new ResponseEntity<>(reportService.getSalesReport(from, to, limit), HttpStatus.OK);
+  }
+}
@@ -7,17 +7,23 @@ import static com.example.ecommerce.constants.StringConstants.QUERY_REQUEST;
 import static com.example.ecommerce.constants.StringConstants.UPDATE_REQUEST;
 
 import com.example.ecommerce.models.User;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.pagination.Pages;
 import com.example.ecommerce.services.UserService;
 import io.swagger.annotations.Api;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
-import java.util.Date;
 import java.util.List;
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,6 +33,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -36,6 +43,7 @@ import org.springframework.web.bind.annotation.RestController;
  */
 @Api(value = "User Controller")
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping(CONTEXT_USERS)
 public class UserController {
 
@@ -47,20 +55,46 @@ public class UserController {
   /**
    * Queries Users.
    *
-   * @param user the User(s) matching the user's supplied information.
-   * @return a list of Users, containing Objects which match the information supplied, or a list of
-   * all Users if the query is empty.
+   * @param user     the User(s) matching the user's supplied information.
+   * @param pageable the page, size and sort order requested by the user.
+   * @param count    whether the total number of matching Users should be returned.
+   * @return a page of Users, containing Objects which match the information supplied, or a page
+   * of all Users if the query is empty.
    */
   @GetMapping
   @Operation(summary = "Query Users",
       description = "get all users, or users filtered according to custom query",
       responses = {
-          @ApiResponse(responseCode = "200", description = "List of Users")
+          @ApiResponse(responseCode = "200", description = "List of Users"),
+          @ApiResponse(responseCode = "400", description = "Invalid sort property")
       })
-  public ResponseEntity<List<User>> queryUsers(User user) {
-    logger.info(new Date() + QUERY_REQUEST + user.toString());
+  public ResponseEntity<List<User>> queryUsers(User user,
+      @PageableDefault(sort = "id") Pageable pageable,
+      @RequestParam(defaultValue = "false") boolean count) {
+    logger.debug(QUERY_REQUEST + "{}", user);
 
-    return new ResponseEntity<>(userService.queryUsers(user), HttpStatus.OK);
+    Slice<User> users = userService.queryUsers(user, pageable, count);
+    return new ResponseEntity<>(users.getContent(), Pages.headers(users), HttpStatus.OK);
+  }
+
+  /**
+   * Retrieves the Users with the given ids in one query, i.e. "?ids=1,2,3". The ids that match
+   * no User are listed in the response, rather than failing the whole request.
+   *
+   * @param ids the ids of the Users to be retrieved, at most 1000.
+   * @return the Users found, in the order of their ids in the request, and the missing ids.
+   */
+  @GetMapping(params = "ids")
+  @Operation(summary = "get Users by ids",
+      description = "get the users with the given comma separated ids",
+      responses = {
+          @ApiResponse(responseCode = "200", description = "Users found and ids missing"),
+          @ApiResponse(responseCode = "400", description = "Ids must be positive, at most 1000")
+      })
+  public ResponseEntity<MultiGet<User>> getUsersByIds(@RequestParam List<Long> ids) {
+    logger.debug(QUERY_REQUEST + "users with ids {}", ids);
+
+    return new ResponseEntity<>(userService.getUsersByIds(ids), HttpStatus.OK);
   }
 
   /**
@@ -81,7 +115,7 @@ public class UserController {
           @ApiResponse(responseCode = "404", description = "User with given id not found")
       })
   public ResponseEntity<User> getUserById(@PathVariable Long id) {
-    logger.info(new Date() + QUERY_REQUEST + "user with id " + id);
+    logger.debug(QUERY_REQUEST + "user with id {}", id);
 
     return new ResponseEntity<>(userService.getUserById(id), HttpStatus.OK);
   }
@@ -100,7 +134,7 @@ public class UserController {
           @ApiResponse(responseCode = "409", description = "User email already in use")
       })
   public ResponseEntity<User> postUser(@Valid @RequestBody User user) {
-    logger.info(new Date() + POST_REQUEST + "user");
+    logger.debug(POST_REQUEST + "user");
 
     return new ResponseEntity<User>(userService.addUser(user), HttpStatus.CREATED);
   }
@@ -123,7 +157,7 @@ public class UserController {
       })
   public ResponseEntity<User> updateUserById(@PathVariable Long id,
       @Valid @RequestBody User user) {
-    logger.info(new Date() + UPDATE_REQUEST + "user with id " + id);
+    logger.debug(UPDATE_REQUEST + "user with id {}", id);
 
     return new ResponseEntity<User>(userService.updateUserById(id, user),
         HttpStatus.OK);
@@ -143,7 +177,7 @@ public class UserController {
           @ApiResponse(responseCode = "400", description = "id must be positive")
       })
   public ResponseEntity<User> deleteUserById(@PathVariable Long id) {
-    logger.info(new Date() + DELETE_REQUEST + "user with id " + id);
+    logger.debug(DELETE_REQUEST + "user with id {}", id);
 
     userService.deleteUserById(id);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -7,6 +7,7 @@ import com.example.ecommerce.models.Address;
 import com.example.ecommerce.models.Customer;
 import com.example.ecommerce.models.Greeting;
 import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
 import com.example.ecommerce.models.Order;
 import com.example.ecommerce.models.Product;
 import com.example.ecommerce.models.User;
@@ -16,10 +17,14 @@ import com.example.ecommerce.repositories.ItemRepository;
 import com.example.ecommerce.repositories.OrderRepository;
 import com.example.ecommerce.repositories.ProductRepository;
 import com.example.ecommerce.repositories.UserRepository;
-import java.math.BigDecimal;
+import com.example.ecommerce.services.OrderTotals;
+import com.example.ecommerce.services.ReportService;
+import com.example.ecommerce.services.SalesDelta;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,6 +51,8 @@ public class DataLoader implements CommandLineRunner {
   private ProductRepository productRepository;
   @Autowired
   private UserRepository userRepository;
+  @Autowired
+  private ReportService reportService;
 
   private Greeting greeting;
   private Greeting greetingTwo;
@@ -85,9 +92,9 @@ public class DataLoader implements CommandLineRunner {
   public void run(String... args) throws Exception {
     loadGreetings();
     loadCustomers();
+    loadProducts();
     loadOrders();
     loadItems();
-    loadProducts();
     loadUsers();
   }
 
@@ -129,42 +136,46 @@ public class DataLoader implements CommandLineRunner {
   }
 
   private void loadOrders() {
-    order = new Order(1L, createDate("2022-04-22"), new ArrayList<>(), new BigDecimal("23.99"));
+    order = new Order(1L, createDate("2022-04-22"), new ArrayList<>(), null);
     order.addItemToOrder(item);
 
-    orderTwo = new Order(2L, createDate("2021-06-12"), new ArrayList<>(),
-        new BigDecimal("23.99"));
+    orderTwo = new Order(2L, createDate("2021-06-12"), new ArrayList<>(), null);
     orderTwo.addItemToOrder(itemTwo);
 
-    orderThree = new Order(3L, createDate("2020-12-09"), new ArrayList<>(),
-        new BigDecimal("23.99"));
+    orderThree = new Order(3L, createDate("2020-12-09"), new ArrayList<>(), null);
     orderThree.addItemToOrder(itemThree);
 
-    orderFour = new Order(4L, createDate("2022-05-01"), new ArrayList<>(),
-        new BigDecimal("23.99"));
+    orderFour = new Order(4L, createDate("2022-05-01"), new ArrayList<>(), null);
     orderFour.addItemToOrder(itemFour);
 
+    OrderTotals.total(List.of(order, orderTwo, orderThree, orderFour), Map.of(
+        product.getId(), product.getPrice(),
+        productTwo.getId(), productTwo.getPrice(),
+        productThree.getId(), productThree.getPrice(),
+        productFour.getId(), productFour.getPrice()));
+
     orderRepository.save(order);
     orderRepository.save(orderTwo);
     orderRepository.save(orderThree);
     orderRepository.save(orderFour);
+    reportService.applySales(SalesDelta.of(List.of(order, orderTwo, orderThree, orderFour)));
   }
 
   private void loadProducts() {
     product = productRepository.save(new Product("MD5-354", "Women's Fashion", "Wide Brim Sunhat",
-        "UPF 50+ Sun Hat to protect against UV rays", "Keeper's", new BigDecimal("15.95")));
+        "UPF 50+ Sun Hat to protect against UV rays", "Keeper's", Money.of("15.95")));
     productTwo = productRepository.save(
         new Product("VG8-771", "Video Game Consoles And Accessories", "Deep, Dark Sea",
             "Explore 8 levels of fun in this thrilling deep sea adventure!", "Tinker Entertainment",
-            new BigDecimal("49.99")));
+            Money.of("49.99")));
     productThree = productRepository.save(
         new Product("CS4-956", "Kitchen Cookware", "Hydro-dynamic Spatula",
             "Comes with port and starboard attachments, and turbo-drive setting", "Barg N' Mart",
-            new BigDecimal("2.79")));
+            Money.of("2.79")));
     productFour = productRepository.save(
         new Product("FP-857", "Grocery", "Chester O's",
             "A great part of any winner's complete breakfast!", "Chester Cereals INC",
-            new BigDecimal("24.95")));
+            Money.of("24.95")));
   }
 
   private void loadUsers() {
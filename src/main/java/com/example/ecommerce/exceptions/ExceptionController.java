@@ -13,12 +13,15 @@ import java.util.List;
 import org.hibernate.JDBCException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 /**
  * This controller is used for intercepting and routing exceptions across the entire application.
@@ -32,10 +35,25 @@ public class ExceptionController {
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Object> handleValidationExceptions(
       MethodArgumentNotValidException ex) {
+    return validationErrors(ex.getParameter(), ex.getBindingResult());
+  }
+
+  /**
+   * The reactive stack reports an invalid request body with a WebExchangeBindException instead of a
+   * MethodArgumentNotValidException, and is answered in the same way.
+   */
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<Object> handleReactiveValidationExceptions(WebExchangeBindException ex) {
+    return validationErrors(ex.getMethodParameter(), ex.getBindingResult());
+  }
+
+  private ResponseEntity<Object> validationErrors(MethodParameter parameter,
+      BindingResult bindingResult) {
     List<String> errors = new ArrayList<>();
-    String method = ex.getParameter().getMethod().getName();
-    String controller = ex.getParameter().getDeclaringClass().getSimpleName();
-    ex.getBindingResult().getAllErrors().forEach(error -> {
+    String method = parameter.getMethod().getName();
+    String controller = parameter.getDeclaringClass().getSimpleName();
+    bindingResult.getAllErrors().forEach(error -> {
       String errorMessage = error.getDefaultMessage();
       errors.add(errorMessage);
     });
@@ -47,6 +65,14 @@ public class ExceptionController {
     return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(InvalidBatch.class)
+  protected ResponseEntity<ValidationExceptionResponse> invalidBatch(InvalidBatch exception) {
+    ValidationExceptionResponse response = new ValidationExceptionResponse(VALIDATION_ERROR,
+        new Date(), exception.getMessage(), exception.getErrors());
+
+    return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+  }
+
   @ExceptionHandler(ResourceNotFound.class)
   protected ResponseEntity<ExceptionResponse> resourceNotFound(ResourceNotFound exception) {
     ExceptionResponse response = new ExceptionResponse(NOT_FOUND, new Date(),
@@ -0,0 +1,31 @@
+package com.example.ecommerce.exceptions;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Exceptions handled by the ExceptionController never leave the DispatcherServlet, so the request
+ * timers would tag them as exception "None". This resolver runs before the ExceptionController and
+ * only records the exception on the request, where the http.server.requests timer looks for it; it
+ * leaves the handling itself to the ExceptionController.
+ */
+@Component
+public class ExceptionMetricsResolver implements HandlerExceptionResolver, Ordered {
+
+  @Override
+  public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception exception) {
+    request.setAttribute(ErrorAttributes.ERROR_ATTRIBUTE, exception);
+    return null;
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+}
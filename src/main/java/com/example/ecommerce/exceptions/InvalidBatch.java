@@ -0,0 +1,21 @@
+package com.example.ecommerce.exceptions;
+
+import java.util.List;
+
+/**
+ * This class contains custom exception info to be incorporated in the Exception Controller. It
+ * carries one message per invalid field of every invalid element of a batch.
+ */
+public class InvalidBatch extends RuntimeException {
+
+  private final List<String> errors;
+
+  public InvalidBatch(String message, List<String> errors) {
+    super(message);
+    this.errors = errors;
+  }
+
+  public List<String> getErrors() {
+    return errors;
+  }
+}
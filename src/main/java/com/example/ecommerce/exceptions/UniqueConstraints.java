@@ -0,0 +1,41 @@
+package com.example.ecommerce.exceptions;
+
+import java.util.Locale;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * This class tells a violation of a named unique constraint apart from the other integrity
+ * violations a write can fail with, such as a missing value or a dangling foreign key, which are
+ * not conflicts with another row. The name is matched without regard to case, and as part of the
+ * name the database reports, as H2 reports the index behind the constraint and MySQL prefixes the
+ * table.
+ */
+public final class UniqueConstraints {
+
+  private UniqueConstraints() {
+  }
+
+  /**
+   * @param exception      the exception a save failed with.
+   * @param constraintName the name of the unique constraint, i.e. Product.SKU_UNIQUE.
+   * @return true if the exception is a DataIntegrityViolationException caused by that constraint.
+   */
+  public static boolean isViolated(Throwable exception, String constraintName) {
+    if (!(exception instanceof DataIntegrityViolationException)) {
+      return false;
+    }
+    String name = constraintName.toLowerCase(Locale.ROOT);
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException
+          && ((ConstraintViolationException) cause).getConstraintName() != null) {
+        return ((ConstraintViolationException) cause).getConstraintName()
+            .toLowerCase(Locale.ROOT).contains(name);
+      }
+      if (cause.getCause() == null && cause.getMessage() != null) {
+        return cause.getMessage().toLowerCase(Locale.ROOT).contains(name);
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,40 @@
+package com.example.ecommerce.logging;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.DiscardingAsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.apache.logging.log4j.util.PropertiesUtil;
+
+/**
+ * What the asynchronous loggers do when their ring buffer is full: events at or below the
+ * log4j2.discardThreshold level (INFO by default) are dropped rather than making the request thread
+ * wait, and every drop is counted. More severe events are still queued. Log4j2 creates this policy
+ * itself through its no-arg constructor, so the count is kept statically and published by the
+ * LoggingMetrics binder.
+ */
+public class CountingDiscardPolicy extends DiscardingAsyncQueueFullPolicy {
+
+  private static final LongAdder DROPPED = new LongAdder();
+
+  public CountingDiscardPolicy() {
+    super(Level.toLevel(
+        PropertiesUtil.getProperties().getStringProperty("log4j2.discardThreshold"), Level.INFO));
+  }
+
+  @Override
+  public EventRoute getRoute(long backgroundThreadId, Level level) {
+    EventRoute route = super.getRoute(backgroundThreadId, level);
+    if (route == EventRoute.DISCARD) {
+      DROPPED.increment();
+    }
+    return route;
+  }
+
+  /**
+   * @return the number of log events dropped since the application started.
+   */
+  public static long dropped() {
+    return DROPPED.sum();
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.ecommerce.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the number of log events the asynchronous loggers dropped because their ring buffer was
+ * full as logging.events.dropped. Anything above zero means the log files are incomplete.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+  public static final String EVENTS_DROPPED = "logging.events.dropped";
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder(EVENTS_DROPPED, CountingDiscardPolicy.class,
+            policy -> CountingDiscardPolicy.dropped())
+        .description("Log events dropped because the async logger ring buffer was full")
+        .register(registry);
+  }
+}
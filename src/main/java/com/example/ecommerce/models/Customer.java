@@ -3,27 +3,48 @@ package com.example.ecommerce.models;
 import static com.example.ecommerce.constants.StringConstants.REQUIRED_FIELD;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import java.util.Date;
 import java.util.Objects;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import javax.validation.Valid;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
 /**
  * This Customer Entity contains all information and properties about a Customer Object(in this
  */
 @Entity
-@Table(name = "customers")
-public class Customer {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customers")
+@Table(name = "customers",
+    uniqueConstraints = @UniqueConstraint(name = Customer.EMAIL_UNIQUE, columnNames = "email"))
+public class Customer implements Versioned {
+
+  /**
+   * The name of the unique constraint that keeps two Customers from sharing an email.
+   */
+  public static final String EMAIL_UNIQUE = "uk_customers_email";
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+  @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank(message = "name " + REQUIRED_FIELD)
@@ -32,13 +53,23 @@ public class Customer {
 
   @NotBlank(message = "email " + REQUIRED_FIELD)
   @Email
-  @Column(unique = true)
   private String email;
 
+  // cached as part of the Customer entry; an embeddable has no cache region of its own
   @Embedded
   @Valid
   private Address address;
 
+  // raised by Hibernate on every update; any version sent in a request body is ignored
+  @Version
+  @JsonProperty(access = Access.READ_ONLY)
+  private Long version;
+
+  @UpdateTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  @JsonProperty(access = Access.READ_ONLY)
+  private Date lastModified;
+
   public Customer() {
   }
 
@@ -48,6 +79,7 @@ public class Customer {
     this.address = address;
   }
 
+  @Override
   public Long getId() {
     return id;
   }
@@ -80,6 +112,24 @@ public class Customer {
     this.address = address;
   }
 
+  @Override
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  @Override
+  public Date getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(Date lastModified) {
+    this.lastModified = lastModified;
+  }
+
   @Override
   public String toString() {
     return "Customer{" +
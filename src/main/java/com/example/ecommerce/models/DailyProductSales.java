@@ -0,0 +1,129 @@
+package com.example.ecommerce.models;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+/**
+ * This DailyProductSales Entity holds the units of one Product ordered on one day, a rollup kept up
+ * to date whenever an Order is saved or deleted, so sales reports never read Items.
+ */
+@Entity
+@Table(name = "daily_product_sales")
+@IdClass(DailyProductSales.Key.class)
+public class DailyProductSales {
+
+  @Id
+  private LocalDate date;
+
+  @Id
+  private Long productId;
+
+  private long units;
+
+  public DailyProductSales() {
+  }
+
+  public DailyProductSales(LocalDate date, Long productId, long units) {
+    this.date = date;
+    this.productId = productId;
+    this.units = units;
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+
+  public void setDate(LocalDate date) {
+    this.date = date;
+  }
+
+  public Long getProductId() {
+    return productId;
+  }
+
+  public void setProductId(Long productId) {
+    this.productId = productId;
+  }
+
+  public long getUnits() {
+    return units;
+  }
+
+  public void setUnits(long units) {
+    this.units = units;
+  }
+
+  @Override
+  public String toString() {
+    return "DailyProductSales{" +
+        "date=" + date +
+        ", productId=" + productId +
+        ", units=" + units +
+        '}';
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DailyProductSales that = (DailyProductSales) o;
+    return units == that.units && Objects.equals(date, that.date)
+        && Objects.equals(productId, that.productId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(date, productId, units);
+  }
+
+  /**
+   * The id of a DailyProductSales, which is its day and Product.
+   */
+  public static class Key implements Serializable {
+
+    private LocalDate date;
+    private Long productId;
+
+    public Key() {
+    }
+
+    public Key(LocalDate date, Long productId) {
+      this.date = date;
+      this.productId = productId;
+    }
+
+    public LocalDate getDate() {
+      return date;
+    }
+
+    public Long getProductId() {
+      return productId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(date, key.date) && Objects.equals(productId, key.productId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(date, productId);
+    }
+  }
+}
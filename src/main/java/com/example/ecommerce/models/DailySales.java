@@ -0,0 +1,84 @@
+package com.example.ecommerce.models;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * This DailySales Entity holds the revenue and the number of Orders of one day, a rollup kept up to
+ * date whenever an Order is saved or deleted, so sales reports never read Orders. A day is the UTC
+ * date of its Orders, as their dates are written in JSON.
+ */
+@Entity
+@Table(name = "daily_sales")
+public class DailySales {
+
+  @Id
+  private LocalDate date;
+
+  private Money revenue;
+
+  private long orderCount;
+
+  public DailySales() {
+  }
+
+  public DailySales(LocalDate date, Money revenue, long orderCount) {
+    this.date = date;
+    this.revenue = revenue;
+    this.orderCount = orderCount;
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+
+  public void setDate(LocalDate date) {
+    this.date = date;
+  }
+
+  public Money getRevenue() {
+    return revenue;
+  }
+
+  public void setRevenue(Money revenue) {
+    this.revenue = revenue;
+  }
+
+  public long getOrderCount() {
+    return orderCount;
+  }
+
+  public void setOrderCount(long orderCount) {
+    this.orderCount = orderCount;
+  }
+
+  @Override
+  public String toString() {
+    return "DailySales{" +
+        "date=" + date +
+        ", revenue=" + revenue +
+        ", orderCount=" + orderCount +
+        '}';
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DailySales that = (DailySales) o;
+    return orderCount == that.orderCount && Objects.equals(date, that.date)
+        && Objects.equals(revenue, that.revenue);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(date, revenue, orderCount);
+  }
+}
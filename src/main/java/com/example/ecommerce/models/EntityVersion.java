@@ -0,0 +1,48 @@
+package com.example.ecommerce.models;
+
+import java.util.Date;
+
+/**
+ * This class holds only the id, version and last modification time of an Entity, which is all a
+ * conditional GET needs to be answered, so it can be read without loading the whole Entity.
+ */
+public class EntityVersion implements Versioned {
+
+  private final Long id;
+  private final Long version;
+  private final Date lastModified;
+
+  public EntityVersion(Long id, Long version, Date lastModified) {
+    this.id = id;
+    this.version = version;
+    this.lastModified = lastModified;
+  }
+
+  public static EntityVersion of(Versioned entity) {
+    return new EntityVersion(entity.getId(), entity.getVersion(), entity.getLastModified());
+  }
+
+  @Override
+  public Long getId() {
+    return id;
+  }
+
+  @Override
+  public Long getVersion() {
+    return version;
+  }
+
+  @Override
+  public Date getLastModified() {
+    return lastModified;
+  }
+
+  @Override
+  public String toString() {
+    return "EntityVersion{" +
+        "id=" + id +
+        ", version=" + version +
+        ", lastModified=" + lastModified +
+        '}';
+  }
+}
@@ -11,6 +11,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
@@ -24,7 +25,8 @@ import javax.validation.constraints.NotNull;
 public class Item {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+  @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
   private Long id;
 
   @Valid
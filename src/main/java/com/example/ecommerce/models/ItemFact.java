@@ -0,0 +1,47 @@
+package com.example.ecommerce.models;
+
+/**
+ * This class holds only the columns of an Item that analytics are run on, with the id of its Order
+ * in place of the Order itself, so Items can be read into the OrderColumnStore without loading
+ * their Orders.
+ */
+public class ItemFact {
+
+  private final Long id;
+  private final Long orderId;
+  private final Long productId;
+  private final Integer quantity;
+
+  public ItemFact(Long id, Long orderId, Long productId, Integer quantity) {
+    this.id = id;
+    this.orderId = orderId;
+    this.productId = productId;
+    this.quantity = quantity;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getOrderId() {
+    return orderId;
+  }
+
+  public Long getProductId() {
+    return productId;
+  }
+
+  public Integer getQuantity() {
+    return quantity;
+  }
+
+  @Override
+  public String toString() {
+    return "ItemFact{" +
+        "id=" + id +
+        ", orderId=" + orderId +
+        ", productId=" + productId +
+        ", quantity=" + quantity +
+        '}';
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.ecommerce.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * This is the row of the items table as read and written by the reactive stack over R2DBC. Unlike
+ * the Item Entity, it refers to its Order by id.
+ */
+@Table("items")
+public class ItemRecord implements Persistable<Long> {
+
+  @Id
+  private Long id;
+
+  private Long productId;
+
+  private Integer quantity;
+
+  private Long orderId;
+
+  @Transient
+  private boolean newRecord;
+
+  public ItemRecord() {
+  }
+
+  /**
+   * Copies the data of an Item into a new row.
+   *
+   * @param item    the Item to be copied.
+   * @param orderId the id of the Order the Item belongs to.
+   * @return a row that will be inserted, rather than updated, when saved.
+   */
+  public static ItemRecord from(Item item, Long orderId) {
+    ItemRecord record = new ItemRecord();
+    record.newRecord = true;
+    record.id = item.getId();
+    record.productId = item.getProductId();
+    record.quantity = item.getQuantity();
+    record.orderId = orderId;
+    return record;
+  }
+
+  public Item toItem() {
+    Item item = new Item(productId, quantity, null);
+    item.setId(id);
+    return item;
+  }
+
+  @Override
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getProductId() {
+    return productId;
+  }
+
+  public void setProductId(Long productId) {
+    this.productId = productId;
+  }
+
+  public Integer getQuantity() {
+    return quantity;
+  }
+
+  public void setQuantity(Integer quantity) {
+    this.quantity = quantity;
+  }
+
+  public Long getOrderId() {
+    return orderId;
+  }
+
+  public void setOrderId(Long orderId) {
+    this.orderId = orderId;
+  }
+
+  /**
+   * @return true if this row has not been inserted yet. Ids are taken from the items_seq sequence
+   * before saving, so an id alone does not tell a new row from an existing one.
+   */
+  @Override
+  public boolean isNew() {
+    return newRecord;
+  }
+}
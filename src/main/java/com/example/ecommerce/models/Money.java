@@ -0,0 +1,145 @@
+package com.example.ecommerce.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * An amount of money, i.e. a price or the total of an Order, held as a whole number of cents, so
+ * that adding up or multiplying amounts is plain long arithmetic that allocates nothing but its
+ * result. Amounts are stored in the database and written in JSON as decimal numbers with two
+ * places, i.e. 15.95, exactly as they were before; the MoneyConverter and the Jackson annotations
+ * below convert at those boundaries only. Arithmetic that overflows a long throws an
+ * ArithmeticException rather than wrapping around.
+ */
+@Immutable
+public final class Money implements Comparable<Money>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The number of decimal places of every amount, which is that of the DECIMAL columns amounts are
+   * stored in.
+   */
+  public static final int SCALE = 2;
+
+  public static final Money ZERO = new Money(0);
+
+  private final long minorUnits;
+
+  private Money(long minorUnits) {
+    this.minorUnits = minorUnits;
+  }
+
+  /**
+   * @param minorUnits the amount in cents, i.e. 1595.
+   * @return the amount, i.e. 15.95.
+   */
+  public static Money ofMinor(long minorUnits) {
+    return minorUnits == 0 ? ZERO : new Money(minorUnits);
+  }
+
+  /**
+   * Converts a decimal amount, rounding any fraction of a cent half up, as the database does when
+   * it stores one.
+   *
+   * @param amount the amount, i.e. 15.95.
+   * @return the amount, or null if it is null.
+   * @throws ArithmeticException if the amount does not fit in a long number of cents.
+   */
+  @JsonCreator
+  public static Money of(BigDecimal amount) {
+    return of(amount, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Converts a decimal amount, rounding any fraction of a cent the given way.
+   *
+   * @param amount   the amount, i.e. 15.955.
+   * @param rounding which way a fraction of a cent is rounded.
+   * @return the amount, or null if it is null.
+   * @throws ArithmeticException if the amount does not fit in a long number of cents.
+   */
+  public static Money of(BigDecimal amount, RoundingMode rounding) {
+    if (amount == null) {
+      return null;
+    }
+    return ofMinor(amount.setScale(SCALE, rounding).unscaledValue().longValueExact());
+  }
+
+  /**
+   * @param amount the amount as a decimal string, i.e. "15.95".
+   * @return the amount.
+   */
+  public static Money of(String amount) {
+    return of(new BigDecimal(amount));
+  }
+
+  /**
+   * @return the amount in cents, i.e. 1595 for 15.95.
+   */
+  public long getMinorUnits() {
+    return minorUnits;
+  }
+
+  /**
+   * @return the amount as a decimal number with two places, i.e. 15.95, as it is written in JSON.
+   */
+  @JsonValue
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  public Money plus(Money other) {
+    return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  public Money minus(Money other) {
+    return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+  }
+
+  /**
+   * @param quantity how many times the amount is taken, i.e. the quantity of an Item.
+   * @return the amount times the quantity.
+   */
+  public Money times(long quantity) {
+    return ofMinor(Math.multiplyExact(minorUnits, quantity));
+  }
+
+  public Money negate() {
+    return ofMinor(Math.negateExact(minorUnits));
+  }
+
+  public int signum() {
+    return Long.signum(minorUnits);
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return minorUnits == ((Money) o).minorUnits;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.ecommerce.models;
+
+import java.math.BigDecimal;
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * This converter stores every Money attribute of an Entity in the DECIMAL column a BigDecimal one
+ * would have, so the schema and the data in it are the same whichever way an amount is held.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+  @Override
+  public BigDecimal convertToDatabaseColumn(Money money) {
+    return money == null ? null : money.toBigDecimal();
+  }
+
+  @Override
+  public Money convertToEntityAttribute(BigDecimal amount) {
+    return Money.of(amount);
+  }
+}
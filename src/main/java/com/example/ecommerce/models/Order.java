@@ -2,10 +2,12 @@ package com.example.ecommerce.models;
 
 import static com.example.ecommerce.constants.StringConstants.REQUIRED_FIELD;
 
+import com.example.ecommerce.pagination.Cursors;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import com.fasterxml.jackson.annotation.OptBoolean;
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -15,23 +17,29 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.format.annotation.NumberFormat;
-import org.springframework.format.annotation.NumberFormat.Style;
 
 /**
- * This Order Entity contains all information and properties about an Order and its properties.
+ * This Order Entity contains all information and properties about an Order and its properties. The
+ * Items of every Order loaded into a session are initialized together, in a single query, the first
+ * time any one of them is accessed. The Orders of a Customer are read, newest first, from an index
+ * on their customer id, date and id.
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+    indexes = @Index(name = "idx_orders_customer_date", columnList = "customerId, date, id"))
 public class Order {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+  @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
   private Long id;
 
   @Valid
@@ -43,16 +51,18 @@ public class Order {
   private Date date;
 
   @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+  @BatchSize(size = Cursors.MAX_LIMIT)
   private List<Item> items = new ArrayList<>();
 
-  @NotNull(message = "order total " + REQUIRED_FIELD)
-  @NumberFormat(style = Style.CURRENCY)
-  private BigDecimal orderTotal;
+  // computed from the prices of the Items' Products whenever the Order is saved; any total sent in
+  // a request body is ignored
+  @JsonProperty(access = Access.READ_ONLY)
+  private Money orderTotal;
 
   public Order() {
   }
 
-  public Order(Long customerId, Date date, List<Item> items, BigDecimal orderTotal) {
+  public Order(Long customerId, Date date, List<Item> items, Money orderTotal) {
     this.customerId = customerId;
     this.date = date;
     this.items = items;
@@ -96,11 +106,11 @@ public class Order {
     this.items = items;
   }
 
-  public BigDecimal getOrderTotal() {
+  public Money getOrderTotal() {
     return orderTotal;
   }
 
-  public void setOrderTotal(BigDecimal orderTotal) {
+  public void setOrderTotal(Money orderTotal) {
     this.orderTotal = orderTotal;
   }
 
@@ -140,7 +150,7 @@ public class Order {
         Objects.isNull(id) &&
             Objects.isNull(customerId) &&
             Objects.isNull(date) &&
-            Objects.isNull(items) &&
+            (Objects.isNull(items) || items.isEmpty()) &&
             Objects.isNull(orderTotal);
   }
 }
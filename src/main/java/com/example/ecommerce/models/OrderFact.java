@@ -0,0 +1,48 @@
+package com.example.ecommerce.models;
+
+import java.util.Date;
+
+/**
+ * This class holds only the columns of an Order that analytics are run on, so Orders can be read
+ * into the OrderColumnStore without loading their Items.
+ */
+public class OrderFact {
+
+  private final Long id;
+  private final Long customerId;
+  private final Date date;
+  private final Money orderTotal;
+
+  public OrderFact(Long id, Long customerId, Date date, Money orderTotal) {
+    this.id = id;
+    this.customerId = customerId;
+    this.date = date;
+    this.orderTotal = orderTotal;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getCustomerId() {
+    return customerId;
+  }
+
+  public Date getDate() {
+    return date;
+  }
+
+  public Money getOrderTotal() {
+    return orderTotal;
+  }
+
+  @Override
+  public String toString() {
+    return "OrderFact{" +
+        "id=" + id +
+        ", customerId=" + customerId +
+        ", date=" + date +
+        ", orderTotal=" + orderTotal +
+        '}';
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.ecommerce.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * This is the row of the orders table as read and written by the reactive stack over R2DBC. Its
+ * Items are rows of their own, which are read and written separately. R2DBC drivers only know the
+ * java.time types, so the date of the Order is held as the LocalDateTime that JDBC would read from
+ * the timestamp column, in the default time zone.
+ */
+@Table("orders")
+public class OrderRecord implements Persistable<Long> {
+
+  @Id
+  private Long id;
+
+  private Long customerId;
+
+  private LocalDateTime date;
+
+  private BigDecimal orderTotal;
+
+  @Transient
+  private boolean newRecord;
+
+  public OrderRecord() {
+  }
+
+  /**
+   * Copies the data of an Order, without its Items, into a new row.
+   *
+   * @param order the Order to be copied.
+   * @return a row that will be inserted, rather than updated, when saved.
+   */
+  public static OrderRecord from(Order order) {
+    OrderRecord record = new OrderRecord();
+    record.newRecord = true;
+    record.id = order.getId();
+    record.copy(order);
+    return record;
+  }
+
+  /**
+   * Copies everything but the id and the Items of an Order into this row.
+   *
+   * @param order the Order to be copied.
+   */
+  public void copy(Order order) {
+    customerId = order.getCustomerId();
+    date = order.getDate() == null ? null
+        : LocalDateTime.ofInstant(order.getDate().toInstant(), ZoneId.systemDefault());
+    orderTotal = order.getOrderTotal() == null ? null : order.getOrderTotal().toBigDecimal();
+  }
+
+  /**
+   * @param items the Items of this Order, as stored.
+   * @return an Order with this row's data and the given Items.
+   */
+  public Order toOrder(List<ItemRecord> items) {
+    Order order = new Order();
+    order.setId(id);
+    order.setCustomerId(customerId);
+    order.setDate(date == null ? null
+        : Date.from(date.atZone(ZoneId.systemDefault()).toInstant()));
+    order.setOrderTotal(Money.of(orderTotal));
+    items.forEach(item -> order.getItems().add(item.toItem()));
+    return order;
+  }
+
+  @Override
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getCustomerId() {
+    return customerId;
+  }
+
+  public void setCustomerId(Long customerId) {
+    this.customerId = customerId;
+  }
+
+  public LocalDateTime getDate() {
+    return date;
+  }
+
+  public void setDate(LocalDateTime date) {
+    this.date = date;
+  }
+
+  public BigDecimal getOrderTotal() {
+    return orderTotal;
+  }
+
+  public void setOrderTotal(BigDecimal orderTotal) {
+    this.orderTotal = orderTotal;
+  }
+
+  /**
+   * @return true if this row has not been inserted yet. Ids are taken from the orders_seq sequence
+   * before saving, so an id alone does not tell a new row from an existing one.
+   */
+  @Override
+  public boolean isNew() {
+    return newRecord;
+  }
+}
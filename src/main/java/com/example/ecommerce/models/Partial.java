@@ -0,0 +1,108 @@
+package com.example.ecommerce.models;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class holds the fields of an Entity that were selected with the "fields" query parameter
+ * (i.e. "?fields=id,name,price"), and is serialized as a JSON Object containing only those fields.
+ * The id, version and last modification time are always read as well, so that the response still
+ * carries an ETag, but they are only serialized when they were asked for.
+ */
+public class Partial implements Versioned {
+
+  private final Long id;
+  private final Long version;
+  private final Date lastModified;
+  private final Map<String, Object> fields = new LinkedHashMap<>();
+
+  public Partial(Long id, Long version, Date lastModified) {
+    this.id = id;
+    this.version = version;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * Validates the fields supplied by the user, and drops any field that is repeated or that is
+   * part of an embedded Object which is selected as a whole.
+   *
+   * @param fields the names of the fields supplied by the user.
+   * @return the distinct fields, in the order they were first requested.
+   */
+  public static List<String> distinctFields(List<String> fields) {
+    if (fields == null || fields.isEmpty()) {
+      throw new BadDataResponse("fields must name at least one field");
+    }
+    Set<String> distinctFields = new LinkedHashSet<>();
+    for (String field : fields) {
+      if (field == null || field.isBlank()) {
+        throw new BadDataResponse("fields cannot be blank");
+      }
+      distinctFields.add(field.trim());
+    }
+    List<String> selected = new ArrayList<>(distinctFields.size());
+    for (String field : distinctFields) {
+      if (distinctFields.stream().noneMatch(other -> field.startsWith(other + "."))) {
+        selected.add(field);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Adds a selected field. The fields of an embedded Object (i.e. "address.city") are nested inside
+   * a JSON Object named after it.
+   *
+   * @param path  the name of the field, with the names of any embedded Objects before it.
+   * @param value the value of the field.
+   */
+  @SuppressWarnings("unchecked")
+  public void put(String path, Object value) {
+    Map<String, Object> parent = fields;
+    String[] names = path.split("\\.");
+    for (int i = 0; i < names.length - 1; i++) {
+      parent = (Map<String, Object>) parent.computeIfAbsent(names[i],
+          name -> new LinkedHashMap<>());
+    }
+    parent.put(names[names.length - 1], value);
+  }
+
+  @JsonAnyGetter
+  public Map<String, Object> getFields() {
+    return fields;
+  }
+
+  @JsonIgnore
+  @Override
+  public Long getId() {
+    return id;
+  }
+
+  @JsonIgnore
+  @Override
+  public Long getVersion() {
+    return version;
+  }
+
+  @JsonIgnore
+  @Override
+  public Date getLastModified() {
+    return lastModified;
+  }
+
+  @Override
+  public String toString() {
+    return "Partial{" +
+        "id=" + id +
+        ", fields=" + fields +
+        '}';
+  }
+}
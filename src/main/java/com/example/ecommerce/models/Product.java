@@ -3,26 +3,51 @@ package com.example.ecommerce.models;
 import static com.example.ecommerce.constants.StringConstants.REQUIRED_FIELD;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import java.math.BigDecimal;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import java.util.Date;
 import java.util.Objects;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
 /**
- * This Product Entity contains all information and properties about a Product Object.
+ * This Product Entity contains all information and properties about a Product Object. Products are
+ * held in the second-level cache, so loads by id only reach the database on a cache miss. Prices
+ * are indexed, for price ranges and listings sorted by price.
  */
 @Entity
-@Table(name = "products")
-public class Product {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
+@Table(name = "products",
+    uniqueConstraints = @UniqueConstraint(name = Product.SKU_UNIQUE, columnNames = "sku"),
+    indexes = @Index(name = "idx_products_price", columnList = "price"))
+public class Product implements Versioned {
+
+  /**
+   * Names the unique constraint on the sku, so that a duplicate sku can be told from the other
+   * integrity violations a save can fail with.
+   */
+  public static final String SKU_UNIQUE = "uk_products_sku";
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+  @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank(message = "sku " + REQUIRED_FIELD)
@@ -42,13 +67,23 @@ public class Product {
   private String manufacturer;
 
   @NotNull(message = "price " + REQUIRED_FIELD)
-  private BigDecimal price;
+  private Money price;
+
+  // raised by Hibernate on every update; any version sent in a request body is ignored
+  @Version
+  @JsonProperty(access = Access.READ_ONLY)
+  private Long version;
+
+  @UpdateTimestamp
+  @Temporal(TemporalType.TIMESTAMP)
+  @JsonProperty(access = Access.READ_ONLY)
+  private Date lastModified;
 
   public Product() {
   }
 
   public Product(String sku, String type, String name, String description, String manufacturer,
-      BigDecimal price) {
+      Money price) {
     this.sku = sku;
     this.type = type;
     this.name = name;
@@ -57,6 +92,7 @@ public class Product {
     this.price = price;
   }
 
+  @Override
   public Long getId() {
     return id;
   }
@@ -105,14 +141,32 @@ public class Product {
     this.manufacturer = manufacturer;
   }
 
-  public BigDecimal getPrice() {
+  public Money getPrice() {
     return price;
   }
 
-  public void setPrice(BigDecimal price) {
+  public void setPrice(Money price) {
     this.price = price;
   }
 
+  @Override
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  @Override
+  public Date getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(Date lastModified) {
+    this.lastModified = lastModified;
+  }
+
   @Override
   public String toString() {
     return "Product{" +
@@ -0,0 +1,33 @@
+package com.example.ecommerce.models;
+
+
+/**
+ * This class holds only the id and price of a Product, which is all totalling an Order needs, so
+ * the prices of many Products can be read without loading them.
+ */
+public class ProductPrice {
+
+  private final Long id;
+  private final Money price;
+
+  public ProductPrice(Long id, Money price) {
+    this.id = id;
+    this.price = price;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Money getPrice() {
+    return price;
+  }
+
+  @Override
+  public String toString() {
+    return "ProductPrice{" +
+        "id=" + id +
+        ", price=" + price +
+        '}';
+  }
+}
@@ -0,0 +1,181 @@
+package com.example.ecommerce.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * This is the row of the products table as read and written by the reactive stack over R2DBC. It
+ * maps the same columns as the Product Entity, which is what the reactive endpoints receive and
+ * return.
+ */
+@Table("products")
+public class ProductRecord implements Persistable<Long> {
+
+  @Id
+  private Long id;
+
+  private String sku;
+
+  private String type;
+
+  @Column("product_name")
+  private String name;
+
+  private String description;
+
+  private String manufacturer;
+
+  private BigDecimal price;
+
+  // raised by Spring Data on every update, as Hibernate does for the Product Entity
+  @Version
+  private Long version;
+
+  private LocalDateTime lastModified;
+
+  @Transient
+  private boolean newRecord;
+
+  public ProductRecord() {
+  }
+
+  /**
+   * Copies the data of a Product into a new row.
+   *
+   * @param product the Product to be copied.
+   * @return a row that will be inserted, rather than updated, when saved.
+   */
+  public static ProductRecord from(Product product) {
+    ProductRecord record = new ProductRecord();
+    record.newRecord = true;
+    record.id = product.getId();
+    record.copy(product);
+    return record;
+  }
+
+  /**
+   * Copies everything but the id of a Product into this row.
+   *
+   * @param product the Product to be copied.
+   */
+  public void copy(Product product) {
+    sku = product.getSku();
+    type = product.getType();
+    name = product.getName();
+    description = product.getDescription();
+    manufacturer = product.getManufacturer();
+    price = product.getPrice() == null ? null : product.getPrice().toBigDecimal();
+  }
+
+  /**
+   * Stamps this row with the current time before it is written, as Hibernate does for the Product
+   * Entity. It is not done by copy(), so that a row used as a query by Example matches any time.
+   *
+   * @return this row.
+   */
+  public ProductRecord modified() {
+    lastModified = LocalDateTime.now();
+    return this;
+  }
+
+  public Product toProduct() {
+    Product product = new Product(sku, type, name, description, manufacturer,
+        Money.of(price));
+    product.setId(id);
+    product.setVersion(version);
+    if (lastModified != null) {
+      product.setLastModified(Date.from(lastModified.atZone(ZoneId.systemDefault()).toInstant()));
+    }
+    return product;
+  }
+
+  @Override
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getSku() {
+    return sku;
+  }
+
+  public void setSku(String sku) {
+    this.sku = sku;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public String getManufacturer() {
+    return manufacturer;
+  }
+
+  public void setManufacturer(String manufacturer) {
+    this.manufacturer = manufacturer;
+  }
+
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public void setPrice(BigDecimal price) {
+    this.price = price;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  public LocalDateTime getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(LocalDateTime lastModified) {
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * @return true if this row has not been inserted yet. Ids are taken from the products_seq
+   * sequence before saving, so an id alone does not tell a new row from an existing one.
+   */
+  @Override
+  public boolean isNew() {
+    return newRecord;
+  }
+}
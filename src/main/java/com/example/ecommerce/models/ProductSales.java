@@ -0,0 +1,32 @@
+package com.example.ecommerce.models;
+
+/**
+ * This class holds the units of one Product ordered over a range of days, read from the
+ * DailyProductSales rollup.
+ */
+public class ProductSales {
+
+  private final Long productId;
+  private final Long units;
+
+  public ProductSales(Long productId, Long units) {
+    this.productId = productId;
+    this.units = units;
+  }
+
+  public Long getProductId() {
+    return productId;
+  }
+
+  public Long getUnits() {
+    return units;
+  }
+
+  @Override
+  public String toString() {
+    return "ProductSales{" +
+        "productId=" + productId +
+        ", units=" + units +
+        '}';
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.ecommerce.models;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * This class contains a sales report over a range of days: the revenue and number of Orders of
+ * every day with sales and of the whole range, and the Products ordered most in it, by units.
+ */
+public class SalesReport {
+
+  private final LocalDate from;
+  private final LocalDate to;
+  private final Money revenue;
+  private final long orderCount;
+  private final List<DailySales> days;
+  private final List<ProductSales> products;
+
+  public SalesReport(LocalDate from, LocalDate to, Money revenue, long orderCount,
+      List<DailySales> days, List<ProductSales> products) {
+    this.from = from;
+    this.to = to;
+    this.revenue = revenue;
+    this.orderCount = orderCount;
+    this.days = days;
+    this.products = products;
+  }
+
+  /**
+   * @return the first day of the report, or null if it starts with the first sale.
+   */
+  public LocalDate getFrom() {
+    return from;
+  }
+
+  /**
+   * @return the last day of the report, or null if it ends with the last sale.
+   */
+  public LocalDate getTo() {
+    return to;
+  }
+
+  public Money getRevenue() {
+    return revenue;
+  }
+
+  public long getOrderCount() {
+    return orderCount;
+  }
+
+  public List<DailySales> getDays() {
+    return days;
+  }
+
+  public List<ProductSales> getProducts() {
+    return products;
+  }
+}
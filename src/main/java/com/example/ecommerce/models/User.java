@@ -12,6 +12,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -21,9 +22,15 @@ import org.hibernate.validator.constraints.Length;
  * This User Entity contains all information and properties about a User Object.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+    uniqueConstraints = @UniqueConstraint(name = User.EMAIL_UNIQUE, columnNames = "email"))
 public class User {
 
+  /**
+   * The name of the unique constraint that keeps two Users from sharing an email.
+   */
+  public static final String EMAIL_UNIQUE = "uk_users_email";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -40,7 +47,6 @@ public class User {
 
   @NotBlank(message = "email " + REQUIRED_FIELD)
   @Email
-  @Column(unique = true)
   private String email;
 
   @NotBlank(message = "password " + REQUIRED_FIELD)
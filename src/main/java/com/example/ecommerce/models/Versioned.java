@@ -0,0 +1,17 @@
+package com.example.ecommerce.models;
+
+import java.util.Date;
+
+/**
+ * This interface is implemented by the Entities whose responses carry an ETag and a Last-Modified
+ * header. The version is raised by every committed write, so it identifies one state of the
+ * Entity.
+ */
+public interface Versioned {
+
+  Long getId();
+
+  Long getVersion();
+
+  Date getLastModified();
+}
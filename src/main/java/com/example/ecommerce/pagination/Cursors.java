@@ -0,0 +1,120 @@
+package com.example.ecommerce.pagination;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * This class encodes and decodes the opaque cursors used by keyset pagination, and validates the
+ * page limits supplied by the user. Cursors are url-safe, so they can be passed back as query
+ * parameters without further escaping.
+ */
+public final class Cursors {
+
+  public static final int DEFAULT_LIMIT = 100;
+  public static final int MAX_LIMIT = 1000;
+
+  private static final String ID_PREFIX = "id:";
+  private static final String DATE_ID_PREFIX = "date-id:";
+
+  private Cursors() {
+  }
+
+  public static String encodeId(Long id) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((ID_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor created by {@link #encodeId(Long)}.
+   *
+   * @param cursor the cursor supplied by the user, may be null or blank for the first page.
+   * @return the id to seek past, or zero if no cursor was supplied.
+   */
+  public static long decodeId(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0L;
+    }
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      if (decoded.startsWith(ID_PREFIX)) {
+        long id = Long.parseLong(decoded.substring(ID_PREFIX.length()));
+        if (id >= 0) {
+          return id;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // fall through to the bad data response below
+    }
+    throw new BadDataResponse("cursor is malformed or has expired");
+  }
+
+  public static String encodeDateAndId(Date date, Long id) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(
+        (DATE_ID_PREFIX + date.getTime() + ":" + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor created by {@link #encodeDateAndId(Date, Long)}.
+   *
+   * @param cursor the cursor supplied by the user, may be null or blank for the first page.
+   * @return the date and id to seek past, or null if no cursor was supplied.
+   */
+  public static DateAndId decodeDateAndId(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      if (decoded.startsWith(DATE_ID_PREFIX)) {
+        String[] keys = decoded.substring(DATE_ID_PREFIX.length()).split(":", -1);
+        if (keys.length == 2) {
+          long id = Long.parseLong(keys[1]);
+          if (id >= 0) {
+            return new DateAndId(new Date(Long.parseLong(keys[0])), id);
+          }
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // fall through to the bad data response below
+    }
+    throw new BadDataResponse("cursor is malformed or has expired");
+  }
+
+  /**
+   * @param limit the page limit supplied by the user, may be null.
+   * @return the limit to use, which is the default limit if none was supplied.
+   */
+  public static int checkLimit(Integer limit) {
+    if (limit == null) {
+      return DEFAULT_LIMIT;
+    }
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new BadDataResponse("limit must be between 1 and " + MAX_LIMIT);
+    }
+    return limit;
+  }
+
+  /**
+   * The position of a keyset query sorted by a date and then by id.
+   */
+  public static final class DateAndId {
+
+    private final Date date;
+    private final long id;
+
+    public DateAndId(Date date, long id) {
+      this.date = date;
+      this.id = id;
+    }
+
+    public Date getDate() {
+      return date;
+    }
+
+    public long getId() {
+      return id;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.ecommerce.pagination;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class contains a page of the results of a query (i.e. GET /products?facets=true), along
+ * with the facet counts of all its results, not only of the page: for every facet, the number of
+ * results that have each of its values.
+ *
+ * @param <T> the type of the Objects queried.
+ */
+public class Faceted<T> {
+
+  private final List<T> results;
+  private final Map<String, Map<String, Integer>> facets;
+
+  public Faceted(List<T> results, Map<String, Map<String, Integer>> facets) {
+    this.results = results;
+    this.facets = facets;
+  }
+
+  public List<T> getResults() {
+    return results;
+  }
+
+  public Map<String, Map<String, Integer>> getFacets() {
+    return facets;
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.ecommerce.pagination;
+
+import java.util.List;
+
+/**
+ * This class contains one page of results from a keyset (seek) query, along with the opaque cursor
+ * that the client sends back to retrieve the following page.
+ *
+ * @param <T> the type of the Objects contained in the page.
+ */
+public class KeysetPage<T> {
+
+  private final List<T> content;
+  private final String nextCursor;
+
+  public KeysetPage(List<T> content, String nextCursor) {
+    this.content = content;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  /**
+   * @return the cursor pointing past the last element of this page, or null if this is the last
+   * page.
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.ecommerce.pagination;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class contains the result of looking up many Objects by id at once (i.e. GET
+ * /products?ids=1,2,3). The Objects that were found are listed in the order their ids were
+ * requested, and the ids that matched nothing are listed separately, so that one missing id does
+ * not fail the whole request.
+ *
+ * @param <T> the type of the Objects looked up.
+ */
+public class MultiGet<T> {
+
+  public static final int MAX_IDS = Cursors.MAX_LIMIT;
+
+  private final List<T> results;
+  private final List<Long> missingIds;
+
+  public MultiGet(List<T> results, List<Long> missingIds) {
+    this.results = results;
+    this.missingIds = missingIds;
+  }
+
+  /**
+   * Validates the ids supplied by the user, and drops any repeated id.
+   *
+   * @param ids the ids supplied by the user.
+   * @return the distinct ids, in the order they were first requested.
+   */
+  public static List<Long> distinctIds(List<Long> ids) {
+    if (ids == null || ids.isEmpty()) {
+      throw new BadDataResponse("ids must contain at least one id");
+    }
+    Set<Long> distinctIds = new LinkedHashSet<>();
+    for (Long id : ids) {
+      if (id == null || id < 1) {
+        throw new BadDataResponse("ids must be positive and cannot be zero");
+      }
+      distinctIds.add(id);
+    }
+    if (distinctIds.size() > MAX_IDS) {
+      throw new BadDataResponse("ids cannot contain more than " + MAX_IDS + " ids");
+    }
+    return new ArrayList<>(distinctIds);
+  }
+
+  /**
+   * Puts the Objects found by one query back into the order of the requested ids.
+   *
+   * @param ids   the distinct ids that were requested.
+   * @param found the Objects that were found, in any order.
+   * @param idOf  reads the id of an Object.
+   * @param <T>   the type of the Objects looked up.
+   * @return the Objects in request order, along with the ids that matched nothing.
+   */
+  public static <T> MultiGet<T> of(List<Long> ids, Iterable<T> found, Function<T, Long> idOf) {
+    Map<Long, T> foundById = new HashMap<>();
+    for (T object : found) {
+      foundById.put(idOf.apply(object), object);
+    }
+    List<T> results = new ArrayList<>(foundById.size());
+    List<Long> missingIds = new ArrayList<>();
+    for (Long id : ids) {
+      T object = foundById.get(id);
+      if (object == null) {
+        missingIds.add(id);
+      } else {
+        results.add(object);
+      }
+    }
+    return new MultiGet<>(results, missingIds);
+  }
+
+  public List<T> getResults() {
+    return results;
+  }
+
+  public List<Long> getMissingIds() {
+    return missingIds;
+  }
+}
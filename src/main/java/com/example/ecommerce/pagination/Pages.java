@@ -0,0 +1,27 @@
+package com.example.ecommerce.pagination;
+
+import static com.example.ecommerce.constants.StringConstants.HAS_NEXT;
+import static com.example.ecommerce.constants.StringConstants.TOTAL_COUNT;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * This class builds the response headers that describe a page of results returned by the list
+ * endpoints. The total count is only known, and only sent, when the caller asked for it.
+ */
+public final class Pages {
+
+  private Pages() {
+  }
+
+  public static HttpHeaders headers(Slice<?> slice) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HAS_NEXT, String.valueOf(slice.hasNext()));
+    if (slice instanceof Page) {
+      headers.set(TOTAL_COUNT, String.valueOf(((Page<?>) slice).getTotalElements()));
+    }
+    return headers;
+  }
+}
@@ -1,9 +1,19 @@
 package com.example.ecommerce.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import com.example.ecommerce.models.Address;
 import com.example.ecommerce.models.Customer;
+import com.example.ecommerce.models.EntityVersion;
 import java.util.List;
+import java.util.Optional;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,11 +21,22 @@ import org.springframework.stereotype.Repository;
  * Customer Objects.
  */
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
-
-  boolean existsByEmail(String email);
+public interface CustomerRepository extends JpaRepository<Customer, Long>,
+    QueryByExampleSliceExecutor<Customer>, SparseFieldsetExecutor<Customer> {
 
   List<Customer> findByAddressIn(List<Address> address);
 
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   Customer findByEmail(String email);
+
+  Slice<Customer> findAllBy(Pageable pageable);
+
+  /**
+   * Reads the version of a Customer without loading it, to answer conditional GETs. The result is
+   * held in the query cache, which Hibernate invalidates on any write to the customers table.
+   */
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  @Query("select new com.example.ecommerce.models.EntityVersion(c.id, c.version, c.lastModified)"
+      + " from Customer c where c.id = :id")
+  Optional<EntityVersion> findVersionById(@Param("id") Long id);
 }
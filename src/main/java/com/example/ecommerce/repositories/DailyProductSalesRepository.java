@@ -0,0 +1,29 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.DailyProductSales;
+import com.example.ecommerce.models.ProductSales;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This repository is used for abstracting the storage and retrieval of the DailyProductSales
+ * rollup.
+ */
+@Repository
+public interface DailyProductSalesRepository extends
+    JpaRepository<DailyProductSales, DailyProductSales.Key> {
+
+  /**
+   * Sums the units of every Product ordered within the given days, most ordered first.
+   */
+  @Query("select new com.example.ecommerce.models.ProductSales(s.productId, sum(s.units))"
+      + " from DailyProductSales s where s.date between :from and :to group by s.productId"
+      + " having sum(s.units) <> 0 order by sum(s.units) desc, s.productId")
+  List<ProductSales> sumUnitsByProduct(@Param("from") LocalDate from, @Param("to") LocalDate to,
+      Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.DailySales;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This repository is used for abstracting the storage and retrieval of the DailySales rollup.
+ */
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate>,
+    SalesRollupExecutor {
+
+  /**
+   * Reads the days within the given range that have Orders, leaving out those whose Orders were
+   * all deleted.
+   */
+  @Query("select new com.example.ecommerce.models.DailySales(s.date, s.revenue, s.orderCount)"
+      + " from DailySales s where s.date between :from and :to and s.orderCount > 0"
+      + " order by s.date")
+  List<DailySales> findDaysWithOrders(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
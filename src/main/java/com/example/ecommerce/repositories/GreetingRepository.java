@@ -2,6 +2,8 @@ package com.example.ecommerce.repositories;
 
 
 import com.example.ecommerce.models.Greeting;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +12,8 @@ import org.springframework.stereotype.Repository;
  * Greeting Objects.
  */
 @Repository
-public interface GreetingRepository extends JpaRepository<Greeting, Long> {
+public interface GreetingRepository extends JpaRepository<Greeting, Long>,
+    QueryByExampleSliceExecutor<Greeting> {
 
+  Slice<Greeting> findAllBy(Pageable pageable);
 }
@@ -1,7 +1,12 @@
 package com.example.ecommerce.repositories;
 
 import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.ItemFact;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,4 +16,29 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+  /**
+   * Sums the quantities ordered of every Product that has been ordered at least once.
+   */
+  @Query("select i.productId as productId, sum(i.quantity) as quantity from Item i "
+      + "group by i.productId")
+  List<ProductQuantity> sumQuantityByProductId();
+
+  /**
+   * Reads the columns analytics are run on of the Items after the given id, in id order, for the
+   * OrderColumnStore to catch up with. The id of each Item's Order is read from its foreign key,
+   * without joining the orders table.
+   */
+  @Query("select new com.example.ecommerce.models.ItemFact(i.id, i.order.id, i.productId,"
+      + " i.quantity) from Item i where i.id > :id order by i.id")
+  List<ItemFact> findFactsAfter(@Param("id") Long id, Pageable pageable);
+
+  /**
+   * The total quantity ordered of one Product.
+   */
+  interface ProductQuantity {
+
+    Long getProductId();
+
+    Long getQuantity();
+  }
 }
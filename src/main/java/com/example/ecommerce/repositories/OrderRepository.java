@@ -1,7 +1,23 @@
 package com.example.ecommerce.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import com.example.ecommerce.models.Order;
+import com.example.ecommerce.models.OrderFact;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,6 +25,62 @@ import org.springframework.stereotype.Repository;
  * Order Objects.
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>,
+    QueryByExampleSliceExecutor<Order> {
+
+  int EXPORT_FETCH_SIZE = 500;
+
+  /**
+   * Seeks past the given id using the primary key index, so the cost of a page does not depend on
+   * how deep into the table it is.
+   */
+  Slice<Order> findByIdGreaterThan(Long id, Pageable pageable);
+
+  Slice<Order> findAllBy(Pageable pageable);
+
+  /**
+   * Reads an Order and locks its row until the end of the transaction, so that an update or delete
+   * of the Order subtracts from the sales rollups what the Order was when it was changed, and a
+   * concurrent change of the same Order waits for it rather than subtracting the same sales again.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select o from Order o where o.id = :id")
+  Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+  /**
+   * Reads the columns analytics are run on of the Orders after the given id, in id order, for the
+   * OrderColumnStore to catch up with.
+   */
+  @Query("select new com.example.ecommerce.models.OrderFact(o.id, o.customerId, o.date,"
+      + " o.orderTotal) from Order o where o.id > :id order by o.id")
+  List<OrderFact> findFactsAfter(@Param("id") Long id, Pageable pageable);
+
+  /**
+   * Reads the first page of a Customer's Orders, newest first, from the (customer_id, date, id)
+   * index.
+   */
+  Slice<Order> findByCustomerId(Long customerId, Pageable pageable);
+
+  /**
+   * Seeks past the given date and id within a Customer's Orders, newest first, using the
+   * (customer_id, date, id) index, so the cost of a page does not depend on how many Orders the
+   * Customer has placed.
+   */
+  @Query("select o from Order o where o.customerId = :customerId"
+      + " and (o.date < :date or o.date = :date and o.id < :id)")
+  Slice<Order> findByCustomerIdBefore(@Param("customerId") Long customerId,
+      @Param("date") Date date, @Param("id") Long id, Pageable pageable);
 
+  /**
+   * Streams every Order together with its Items, in id order, from a single forward-only cursor.
+   * The rows of one Order are adjacent, so each Order is emitted with all of its Items loaded and no
+   * further queries are issued while the cursor is open. Must be consumed inside a transaction, and
+   * closed afterwards.
+   */
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query("select o from Order o left join fetch o.items order by o.id")
+  Stream<Order> streamAllWithItems();
 }
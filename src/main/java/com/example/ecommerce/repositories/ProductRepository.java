@@ -1,7 +1,20 @@
 package com.example.ecommerce.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+import com.example.ecommerce.models.EntityVersion;
 import com.example.ecommerce.models.Product;
+import com.example.ecommerce.models.ProductPrice;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,9 +22,27 @@ import org.springframework.stereotype.Repository;
  * Product Objects.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-
-  boolean existsBySku(String sku);
+public interface ProductRepository extends JpaRepository<Product, Long>,
+    QueryByExampleSliceExecutor<Product>, SparseFieldsetExecutor<Product> {
 
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   Product findBySku(String sku);
+
+  Slice<Product> findAllBy(Pageable pageable);
+
+  /**
+   * Reads only the prices of the Products with the given ids, in one query, to total Orders.
+   */
+  @Query("select new com.example.ecommerce.models.ProductPrice(p.id, p.price) from Product p"
+      + " where p.id in :ids")
+  List<ProductPrice> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Reads the version of a Product without loading it, to answer conditional GETs. The result is
+   * held in the query cache, which Hibernate invalidates on any write to the products table.
+   */
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  @Query("select new com.example.ecommerce.models.EntityVersion(p.id, p.version, p.lastModified)"
+      + " from Product p where p.id = :id")
+  Optional<EntityVersion> findVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,26 @@
+package com.example.ecommerce.repositories;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * This repository fragment adds Query by Example lookups that return a Slice, so a page of matching
+ * Objects can be retrieved without the count query that findAll(Example, Pageable) always runs.
+ *
+ * @param <T> the type of the Objects stored in the repository.
+ */
+public interface QueryByExampleSliceExecutor<T> {
+
+  <S extends T> Slice<S> findSlice(Example<S> example, Pageable pageable);
+
+  /**
+   * Finds a page of the Objects that match both the example and the restriction, which holds the
+   * conditions an example cannot express, such as ranges.
+   */
+  <S extends T> Slice<S> findSlice(Example<S> example, Specification<S> restriction,
+      Pageable pageable);
+
+  <S extends T> long count(Example<S> example, Specification<S> restriction);
+}
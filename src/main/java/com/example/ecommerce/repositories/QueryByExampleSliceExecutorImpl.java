@@ -0,0 +1,86 @@
+package com.example.ecommerce.repositories;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This class implements the QueryByExampleSliceExecutor fragment. It builds the same predicate as
+ * findAll(Example), narrowed by an optional Specification, and reads one row past the end of the
+ * page to find out whether another page follows.
+ *
+ * @param <T> the type of the Objects stored in the repository.
+ */
+@Transactional(readOnly = true)
+public class QueryByExampleSliceExecutorImpl<T> implements QueryByExampleSliceExecutor<T> {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public <S extends T> Slice<S> findSlice(Example<S> example, Pageable pageable) {
+    return findSlice(example, null, pageable);
+  }
+
+  @Override
+  public <S extends T> Slice<S> findSlice(Example<S> example, Specification<S> restriction,
+      Pageable pageable) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<S> query = builder.createQuery(example.getProbeType());
+    Root<S> root = query.from(example.getProbeType());
+    Predicate predicate = toPredicate(example, restriction, root, query, builder);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+    TypedQuery<S> typedQuery = entityManager.createQuery(query);
+    if (pageable.isUnpaged()) {
+      return new SliceImpl<>(typedQuery.getResultList());
+    }
+    typedQuery.setFirstResult((int) pageable.getOffset());
+    typedQuery.setMaxResults(pageable.getPageSize() + 1);
+    List<S> content = typedQuery.getResultList();
+    boolean hasNext = content.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content,
+        pageable, hasNext);
+  }
+
+  @Override
+  public <S extends T> long count(Example<S> example, Specification<S> restriction) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = builder.createQuery(Long.class);
+    Root<S> root = query.from(example.getProbeType());
+    Predicate predicate = toPredicate(example, restriction, root, query, builder);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query.select(builder.count(root))).getSingleResult();
+  }
+
+  private static <S> Predicate toPredicate(Example<S> example, Specification<S> restriction,
+      Root<S> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+    Predicate predicate = QueryByExamplePredicateBuilder.getPredicate(root, builder, example,
+        EscapeCharacter.DEFAULT);
+    Predicate restricted = restriction == null ? null
+        : restriction.toPredicate(root, query, builder);
+    if (predicate == null || restricted == null) {
+      return predicate == null ? restricted : predicate;
+    }
+    return builder.and(predicate, restricted);
+  }
+}
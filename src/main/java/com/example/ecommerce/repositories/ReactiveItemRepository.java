@@ -0,0 +1,28 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.ItemRecord;
+import java.util.Collection;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This repository is used by the reactive stack to read and write the Items of Orders, which R2DBC
+ * does not load or save together with their Order.
+ */
+@Repository
+public interface ReactiveItemRepository extends R2dbcRepository<ItemRecord, Long> {
+
+  /**
+   * Reads the Items of several Orders in one query, so a page of Orders costs two queries however
+   * many Orders it holds.
+   */
+  Flux<ItemRecord> findByOrderIdInOrderById(Collection<Long> orderIds);
+
+  @Modifying
+  @Query("delete from items where order_id = :orderId")
+  Mono<Integer> deleteByOrderId(Long orderId);
+}
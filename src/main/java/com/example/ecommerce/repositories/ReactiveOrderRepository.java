@@ -0,0 +1,33 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.OrderRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This repository is the R2DBC counterpart of the OrderRepository, used by the reactive stack to
+ * read and write the orders table without blocking. The Items of the Orders are read and written
+ * through the ReactiveItemRepository.
+ */
+@Repository
+public interface ReactiveOrderRepository extends R2dbcRepository<OrderRecord, Long>,
+    ReactiveQueryByExampleSliceExecutor<OrderRecord> {
+
+  /**
+   * Seeks past the given id using the primary key index, so the cost of a page does not depend on
+   * how deep into the table it is.
+   */
+  Flux<OrderRecord> findByIdGreaterThan(Long id, Pageable pageable);
+
+  /**
+   * Reads an Order and locks its row until the end of the transaction, so that a concurrent update
+   * or delete of the same Order waits rather than subtracting the same sales from the rollups
+   * again.
+   */
+  @Query("select * from orders where id = :id for update")
+  Mono<OrderRecord> findByIdForUpdate(Long id);
+}
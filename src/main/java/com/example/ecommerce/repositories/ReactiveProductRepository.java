@@ -0,0 +1,17 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.ProductRecord;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * This repository is the R2DBC counterpart of the ProductRepository, used by the reactive stack to
+ * read and write the products table without blocking.
+ */
+@Repository
+public interface ReactiveProductRepository extends R2dbcRepository<ProductRecord, Long>,
+    ReactiveQueryByExampleSliceExecutor<ProductRecord> {
+
+  Mono<ProductRecord> findBySku(String sku);
+}
@@ -0,0 +1,17 @@
+package com.example.ecommerce.repositories;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Mono;
+
+/**
+ * This repository fragment is the reactive counterpart of QueryByExampleSliceExecutor: a page of
+ * the rows matching an Example, without counting every match.
+ *
+ * @param <T> the type of the rows stored in the repository.
+ */
+public interface ReactiveQueryByExampleSliceExecutor<T> {
+
+  <S extends T> Mono<Slice<S>> findSlice(Example<S> example, Pageable pageable);
+}
@@ -0,0 +1,58 @@
+package com.example.ecommerce.repositories;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.repository.query.RelationalExampleMapper;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class implements the ReactiveQueryByExampleSliceExecutor fragment. It builds the same query
+ * as findAll(Example), and reads one row past the end of the page to find out whether another page
+ * follows. Sorting by anything but a property of the rows is refused, as it is by JPA, rather than
+ * passed on to the database as a column name.
+ *
+ * @param <T> the type of the rows stored in the repository.
+ */
+public class ReactiveQueryByExampleSliceExecutorImpl<T>
+    implements ReactiveQueryByExampleSliceExecutor<T> {
+
+  private final R2dbcEntityOperations entityOperations;
+  private final RelationalExampleMapper exampleMapper;
+
+  public ReactiveQueryByExampleSliceExecutorImpl(R2dbcEntityOperations entityOperations) {
+    this.entityOperations = entityOperations;
+    this.exampleMapper = new RelationalExampleMapper(
+        entityOperations.getConverter().getMappingContext());
+  }
+
+  @Override
+  public <S extends T> Mono<Slice<S>> findSlice(Example<S> example, Pageable pageable) {
+    RelationalPersistentEntity<?> entity = entityOperations.getConverter().getMappingContext()
+        .getRequiredPersistentEntity(example.getProbeType());
+    for (Sort.Order order : pageable.getSort()) {
+      if (entity.getPersistentProperty(order.getProperty()) == null) {
+        return Mono.error(new InvalidDataAccessApiUsageException(
+            "No property " + order.getProperty() + " found for type " + entity.getName()));
+      }
+    }
+    Query query = exampleMapper.getMappedExample(example);
+    if (pageable.isUnpaged()) {
+      return entityOperations.select(query, example.getProbeType()).collectList()
+          .map(SliceImpl::new);
+    }
+    query = query.with(pageable).limit(pageable.getPageSize() + 1);
+    return entityOperations.select(query, example.getProbeType()).collectList()
+        .map(content -> {
+          boolean hasNext = content.size() > pageable.getPageSize();
+          return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content,
+              pageable, hasNext);
+        });
+  }
+}
@@ -0,0 +1,69 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.DailyProductSales;
+import com.example.ecommerce.models.DailySales;
+import com.example.ecommerce.services.SalesDelta;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * This repository applies the changes the reactive stack makes to Orders to the sales rollups, the
+ * tables of the DailySales and DailyProductSales Entities, as the ReportServiceImpl does for the
+ * servlet stack: every row is updated in place, or inserted when it does not exist yet, by a
+ * single upsert.
+ */
+@Repository
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveSalesRepository {
+
+  // another transaction inserted the row first, so it is found the second time
+  private static final Retry ONCE_ON_DUPLICATE = Retry.max(1)
+      .filter(DataIntegrityViolationException.class::isInstance);
+
+  private final DatabaseClient databaseClient;
+  private final SalesUpserts upserts;
+
+  public ReactiveSalesRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+    this.upserts = SalesUpserts.forDatabase(
+        databaseClient.getConnectionFactory().getMetadata().getName());
+  }
+
+  /**
+   * Applies the changes to the rollups, in the transaction of the caller, if there is one.
+   *
+   * @param delta the changes saving or deleting Orders made.
+   * @return completes once every row is written.
+   */
+  public Mono<Void> applySales(SalesDelta delta) {
+    return Flux.fromIterable(delta.getDays())
+        .concatMap(this::addToDay)
+        .thenMany(Flux.fromIterable(delta.getProductDays()))
+        .concatMap(this::addUnits)
+        .then();
+  }
+
+  private Mono<Integer> addToDay(DailySales day) {
+    return databaseClient.sql(upserts.addToDay())
+        .bind("date", day.getDate())
+        .bind("revenue", day.getRevenue().toBigDecimal())
+        .bind("orderCount", day.getOrderCount())
+        .fetch().rowsUpdated()
+        .retryWhen(ONCE_ON_DUPLICATE);
+  }
+
+  private Mono<Integer> addUnits(DailyProductSales productDay) {
+    return databaseClient.sql(upserts.addUnits())
+        .bind("date", productDay.getDate())
+        .bind("productId", productDay.getProductId())
+        .bind("units", productDay.getUnits())
+        .fetch().rowsUpdated()
+        .retryWhen(ONCE_ON_DUPLICATE);
+  }
+}
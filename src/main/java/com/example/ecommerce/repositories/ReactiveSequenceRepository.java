@@ -0,0 +1,73 @@
+package com.example.ecommerce.repositories;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This repository hands out ids to the rows the reactive stack inserts. The tables are created by
+ * Hibernate, whose ids come from pooled sequences of step ALLOCATION_SIZE that the database does
+ * not apply by itself, so the reactive stack draws from the same sequences. Every value drawn is
+ * the top of a block of ALLOCATION_SIZE ids that Hibernate will never use. On MySQL, which has no
+ * sequences, Hibernate keeps each sequence as a single row table, and the same block is claimed by
+ * bumping that row.
+ */
+@Repository
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveSequenceRepository {
+
+  /**
+   * The allocationSize of the @SequenceGenerator of every Entity.
+   */
+  public static final int ALLOCATION_SIZE = 50;
+
+  private final DatabaseClient databaseClient;
+  private final boolean tableSequences;
+
+  public ReactiveSequenceRepository(DatabaseClient databaseClient,
+      ConnectionFactory connectionFactory) {
+    this.databaseClient = databaseClient;
+    this.tableSequences = connectionFactory.getMetadata().getName().contains("MySQL");
+  }
+
+  /**
+   * Allocates ids from a sequence.
+   *
+   * @param sequence the name of the sequence, i.e. "products_seq".
+   * @param count    the number of ids needed.
+   * @return the ids, drawing one value from the sequence for every ALLOCATION_SIZE ids.
+   */
+  public Flux<Long> nextIds(String sequence, int count) {
+    int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+    return Flux.range(0, blocks)
+        .concatMap(block -> nextValue(sequence))
+        .concatMap(top -> Flux.range(0, ALLOCATION_SIZE)
+            .map(offset -> top - ALLOCATION_SIZE + 1 + offset)
+            .filter(id -> id > 0))
+        .take(count);
+  }
+
+  private Mono<Long> nextValue(String sequence) {
+    if (!tableSequences) {
+      return databaseClient.sql("select next value for " + sequence)
+          .map(row -> row.get(0, Long.class))
+          .one();
+    }
+    return databaseClient.inConnection(connection -> bumpTableSequence(connection, sequence));
+  }
+
+  private Mono<Long> bumpTableSequence(Connection connection, String sequence) {
+    return Mono.from(connection.createStatement("update " + sequence
+                + " set next_val = last_insert_id(next_val + " + ALLOCATION_SIZE + ")")
+            .execute())
+        .flatMap(result -> Mono.from(result.getRowsUpdated()))
+        .then(Mono.from(connection.createStatement("select last_insert_id()").execute()))
+        .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Long.class))))
+        .map(next -> next - ALLOCATION_SIZE);
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.services.SalesDelta;
+
+/**
+ * This repository fragment applies the changes saving or deleting Orders made to the sales
+ * rollups, the tables of the DailySales and DailyProductSales Entities, with one upsert per row.
+ */
+public interface SalesRollupExecutor {
+
+  /**
+   * Applies the changes to the rollups, in the transaction of the caller. Every row is updated in
+   * place, or inserted when it does not exist yet, by a single statement, in order of day and
+   * Product.
+   *
+   * @param delta the changes saving or deleting Orders made.
+   */
+  void applySales(SalesDelta delta);
+}
@@ -0,0 +1,71 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.DailyProductSales;
+import com.example.ecommerce.models.DailySales;
+import com.example.ecommerce.services.SalesDelta;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This class implements the SalesRollupExecutor fragment with native upserts, chosen for the
+ * database the first time they are run. They are run through JDBC, on the connection of the JPA
+ * transaction, so that a statement that fails does not mark the whole transaction for rollback
+ * the way a failed JPA query does, and can be run again.
+ */
+public class SalesRollupExecutorImpl implements SalesRollupExecutor {
+
+  @Autowired
+  private NamedParameterJdbcTemplate jdbcTemplate;
+
+  private volatile SalesUpserts upserts;
+
+  @Override
+  @Transactional
+  public void applySales(SalesDelta delta) {
+    SalesUpserts statements = upserts();
+    for (DailySales day : delta.getDays()) {
+      upsert(statements.addToDay(), Map.of(
+          "date", day.getDate(),
+          "revenue", day.getRevenue().toBigDecimal(),
+          "orderCount", day.getOrderCount()));
+    }
+    for (DailyProductSales productDay : delta.getProductDays()) {
+      upsert(statements.addUnits(), Map.of(
+          "date", productDay.getDate(),
+          "productId", productDay.getProductId(),
+          "units", productDay.getUnits()));
+    }
+  }
+
+  /**
+   * Runs an upsert, and runs it once more if another transaction inserted the same row between
+   * its check for the row and its own insert, which the MERGE of H2 does not guard against. By
+   * then the row exists, so the second run updates it.
+   */
+  private void upsert(String sql, Map<String, ?> parameters) {
+    try {
+      jdbcTemplate.update(sql, parameters);
+    } catch (DataIntegrityViolationException e) {
+      jdbcTemplate.update(sql, parameters);
+    }
+  }
+
+  private SalesUpserts upserts() {
+    if (upserts == null) {
+      DataSource dataSource = jdbcTemplate.getJdbcTemplate().getDataSource();
+      try {
+        upserts = SalesUpserts.forDatabase(JdbcUtils.extractDatabaseMetaData(dataSource,
+            metaData -> metaData.getDatabaseProductName()));
+      } catch (MetaDataAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return upserts;
+  }
+}
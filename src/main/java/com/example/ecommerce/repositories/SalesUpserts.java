@@ -0,0 +1,64 @@
+package com.example.ecommerce.repositories;
+
+/**
+ * The statements that add a change to one row of the sales rollups, and insert the row when it
+ * does not exist yet, as a single statement. Updating first and inserting when no row was updated
+ * lets two transactions that write the first sale of the same day both find no row and both
+ * insert, which on InnoDB deadlocks on the gap locks the updates took, or fails on the duplicate
+ * key. MySQL does it with INSERT ... ON DUPLICATE KEY UPDATE, and every other database, i.e. the H2
+ * database of the tests and benchmarks, with a standard MERGE, which H2 does not make atomic: a
+ * MERGE that fails on the duplicate key is run once more, and then finds the row. The parameters
+ * are named :date, :revenue and :orderCount for a day, and :date, :productId and :units for a
+ * Product's day.
+ */
+final class SalesUpserts {
+
+  private static final String MYSQL = "MySQL";
+
+  private final String addToDay;
+  private final String addUnits;
+
+  private SalesUpserts(String addToDay, String addUnits) {
+    this.addToDay = addToDay;
+    this.addUnits = addUnits;
+  }
+
+  /**
+   * @param databaseName the product name the driver reports for the database, i.e. "MySQL".
+   * @return the statements for that database.
+   */
+  static SalesUpserts forDatabase(String databaseName) {
+    if (MYSQL.equalsIgnoreCase(databaseName)) {
+      return new SalesUpserts(
+          "insert into daily_sales (date, revenue, order_count)"
+              + " values (:date, :revenue, :orderCount)"
+              + " on duplicate key update revenue = revenue + :revenue,"
+              + " order_count = order_count + :orderCount",
+          "insert into daily_product_sales (date, product_id, units)"
+              + " values (:date, :productId, :units)"
+              + " on duplicate key update units = units + :units");
+    }
+    return new SalesUpserts(
+        "merge into daily_sales s using (select cast(:date as date) sales_date,"
+            + " cast(:revenue as decimal(19, 2)) revenue, cast(:orderCount as bigint) order_count)"
+            + " v on (s.date = v.sales_date)"
+            + " when matched then update set revenue = s.revenue + v.revenue,"
+            + " order_count = s.order_count + v.order_count"
+            + " when not matched then insert (date, revenue, order_count)"
+            + " values (v.sales_date, v.revenue, v.order_count)",
+        "merge into daily_product_sales s using (select cast(:date as date) sales_date,"
+            + " cast(:productId as bigint) product_id, cast(:units as bigint) units)"
+            + " v on (s.date = v.sales_date and s.product_id = v.product_id)"
+            + " when matched then update set units = s.units + v.units"
+            + " when not matched then insert (date, product_id, units)"
+            + " values (v.sales_date, v.product_id, v.units)");
+  }
+
+  String addToDay() {
+    return addToDay;
+  }
+
+  String addUnits() {
+    return addUnits;
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.Partial;
+import com.example.ecommerce.models.Versioned;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * This repository fragment reads only some fields of the stored Objects. The selected fields are
+ * the only columns in the SQL select list, so neither the rest of the row nor the rest of the JSON
+ * is ever read.
+ *
+ * @param <T> the type of the Objects stored in the repository.
+ */
+public interface SparseFieldsetExecutor<T extends Versioned> {
+
+  /**
+   * Reads the given fields of a page of the Objects matching an Example.
+   *
+   * @param example  the Example to match, which matches every Object if its probe is empty.
+   * @param fields   the names of the fields to read, i.e. "name" or "address.city".
+   * @param pageable the page, size and sort order.
+   * @return a Slice of the selected fields of each matching Object.
+   * @throws org.springframework.data.mapping.PropertyReferenceException if a field or sort
+   *                                                                     property does not exist.
+   */
+  <S extends T> Slice<Partial> findPartialSlice(Example<S> example, List<String> fields,
+      Pageable pageable);
+
+  /**
+   * Reads the given fields of the Object with the given id.
+   *
+   * @param type   the type of the Object.
+   * @param id     the id of the Object.
+   * @param fields the names of the fields to read.
+   * @return the selected fields, or empty if there is no Object with that id.
+   */
+  Optional<Partial> findPartialById(Class<? extends T> type, Long id, List<String> fields);
+}
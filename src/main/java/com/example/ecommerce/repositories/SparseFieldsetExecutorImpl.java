@@ -0,0 +1,114 @@
+package com.example.ecommerce.repositories;
+
+import com.example.ecommerce.models.Partial;
+import com.example.ecommerce.models.Versioned;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This class implements the SparseFieldsetExecutor fragment with Criteria tuple queries. The id,
+ * version and last modification time head every select list, followed by the requested fields.
+ * Like QueryByExampleSliceExecutorImpl, it reads one row past the end of the page to find out
+ * whether another page follows.
+ *
+ * @param <T> the type of the Objects stored in the repository.
+ */
+@Transactional(readOnly = true)
+public class SparseFieldsetExecutorImpl<T extends Versioned> implements
+    SparseFieldsetExecutor<T> {
+
+  private static final List<String> VERSION_FIELDS = List.of("id", "version", "lastModified");
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public <S extends T> Slice<Partial> findPartialSlice(Example<S> example, List<String> fields,
+      Pageable pageable) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = builder.createTupleQuery();
+    Root<S> root = query.from(example.getProbeType());
+    Predicate predicate = QueryByExamplePredicateBuilder.getPredicate(root, builder, example,
+        EscapeCharacter.DEFAULT);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    query.multiselect(select(root, fields))
+        .orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+    TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+    if (pageable.isUnpaged()) {
+      return new SliceImpl<>(toPartials(typedQuery.getResultList(), fields));
+    }
+    typedQuery.setFirstResult((int) pageable.getOffset());
+    typedQuery.setMaxResults(pageable.getPageSize() + 1);
+    List<Partial> content = toPartials(typedQuery.getResultList(), fields);
+    boolean hasNext = content.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content,
+        pageable, hasNext);
+  }
+
+  @Override
+  public Optional<Partial> findPartialById(Class<? extends T> type, Long id,
+      List<String> fields) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = builder.createTupleQuery();
+    Root<? extends T> root = query.from(type);
+    query.multiselect(select(root, fields)).where(builder.equal(root.get("id"), id));
+    return toPartials(entityManager.createQuery(query).getResultList(), fields).stream()
+        .findFirst();
+  }
+
+  /**
+   * @throws org.springframework.data.mapping.PropertyReferenceException if a field does not exist.
+   */
+  private static List<Selection<?>> select(Root<?> root, List<String> fields) {
+    List<Selection<?>> selections = new ArrayList<>(VERSION_FIELDS.size() + fields.size());
+    for (String field : VERSION_FIELDS) {
+      selections.add(root.get(field));
+    }
+    for (String field : fields) {
+      Path<?> path = root;
+      for (PropertyPath property = PropertyPath.from(field, root.getJavaType()); property != null;
+          property = property.next()) {
+        path = path.get(property.getSegment());
+      }
+      selections.add(path);
+    }
+    return selections;
+  }
+
+  private static List<Partial> toPartials(List<Tuple> tuples, List<String> fields) {
+    List<Partial> partials = new ArrayList<>(tuples.size());
+    for (Tuple tuple : tuples) {
+      Partial partial = new Partial(tuple.get(0, Long.class), tuple.get(1, Long.class),
+          tuple.get(2, Date.class));
+      for (int i = 0; i < fields.size(); i++) {
+        partial.put(fields.get(i), tuple.get(VERSION_FIELDS.size() + i));
+      }
+      partials.add(partial);
+    }
+    return partials;
+  }
+}
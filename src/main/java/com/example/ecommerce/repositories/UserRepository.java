@@ -1,6 +1,8 @@
 package com.example.ecommerce.repositories;
 
 import com.example.ecommerce.models.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,9 +11,10 @@ import org.springframework.stereotype.Repository;
  * User Objects.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-
-  boolean existsByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>,
+    QueryByExampleSliceExecutor<User> {
 
   User findByEmail(String email);
+
+  Slice<User> findAllBy(Pageable pageable);
 }
@@ -0,0 +1,317 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Product;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * An in-memory index of the type, manufacturer and price bucket of every Product, which holds one
+ * compressed (Roaring) bitmap of Product ids per facet value. The facet counts of a large set of
+ * Products are the sizes of its intersections with those bitmaps; a set that is small next to the
+ * number of facet values is counted one Product at a time instead, through an array from id to
+ * value. Either way no GROUP BY is run. Product ids are sequence values, and are kept as ints.
+ */
+@Component
+public class ProductFacetIndex {
+
+  public static final String TYPE = "type";
+  public static final String MANUFACTURER = "manufacturer";
+  public static final String PRICE = "price";
+  private static final List<String> FACETS = List.of(TYPE, MANUFACTURER, PRICE);
+  // the exclusive upper bounds of the price buckets, in cents; the last bucket has none
+  private static final long[] PRICE_BOUNDS = {10_00, 25_00, 50_00, 100_00};
+  private static final List<String> PRICE_BUCKETS = List.of(
+      "0-10", "10-25", "25-50", "50-100", "100+");
+  private static final int REBUILD_PAGE_SIZE = 500;
+  // below this many Products per facet value, counting Products beats intersecting bitmaps
+  private static final int SCAN_FACTOR = 8;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final List<Facet> facets = new ArrayList<>(FACETS.size());
+  private final RoaringBitmap allIds = new RoaringBitmap();
+
+  public ProductFacetIndex() {
+    for (int i = 0; i < FACETS.size(); i++) {
+      facets.add(new Facet());
+    }
+  }
+
+  /**
+   * Adds the Product to the index, replacing the facet values it was indexed with before.
+   *
+   * @param product the Product as it was saved.
+   */
+  public void index(Product product) {
+    indexAll(List.of(product));
+  }
+
+  /**
+   * Adds the Products to the index, replacing the facet values they were indexed with before.
+   *
+   * @param products the Products as they were saved.
+   */
+  public void indexAll(Collection<Product> products) {
+    lock.writeLock().lock();
+    try {
+      for (Product product : products) {
+        add(product);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drops the Product with the given id from the index.
+   *
+   * @param id the id of the deleted Product.
+   */
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      remove(Math.toIntExact(id));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the whole index with the Products read page by page from the loader. Reads and writes
+   * wait until it is done, so that no write made meanwhile is lost.
+   *
+   * @param loader reads one page of Products from the database.
+   * @return the number of Products indexed.
+   */
+  public long rebuild(Function<Pageable, Slice<Product>> loader) {
+    long indexed = 0;
+    lock.writeLock().lock();
+    try {
+      facets.forEach(Facet::clear);
+      allIds.clear();
+      Slice<Product> products = loader.apply(
+          PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id")));
+      while (true) {
+        for (Product product : products) {
+          add(product);
+          indexed++;
+        }
+        if (!products.hasNext()) {
+          break;
+        }
+        products = loader.apply(products.nextPageable());
+      }
+      for (Facet facet : facets) {
+        facet.bitmaps.values().forEach(RoaringBitmap::runOptimize);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return indexed;
+  }
+
+  /**
+   * Finds the Products with the given type and manufacturer, from the index alone.
+   *
+   * @param type         the type, or null for any type.
+   * @param manufacturer the manufacturer, or null for any manufacturer.
+   * @return the ids of the matching Products, which the caller may modify.
+   */
+  public RoaringBitmap matching(String type, String manufacturer) {
+    lock.readLock().lock();
+    try {
+      RoaringBitmap matching = allIds.clone();
+      if (type != null) {
+        matching.and(facets.get(FACETS.indexOf(TYPE)).bitmapOf(type));
+      }
+      if (manufacturer != null) {
+        matching.and(facets.get(FACETS.indexOf(MANUFACTURER)).bitmapOf(manufacturer));
+      }
+      return matching;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Counts the given Products by each facet value.
+   *
+   * @param ids the ids of the Products to be counted, i.e. the results of a query.
+   * @return the number of Products with each type, manufacturer and price bucket, leaving out the
+   * values no Product has. Types and manufacturers are listed by descending count, and price
+   * buckets from the cheapest.
+   */
+  public Map<String, Map<String, Integer>> count(RoaringBitmap ids) {
+    List<Map<String, Integer>> tallies = new ArrayList<>(FACETS.size());
+    lock.readLock().lock();
+    try {
+      int values = 0;
+      for (Facet facet : facets) {
+        values += facet.bitmaps.size();
+      }
+      boolean scan = ids.getLongCardinality() < (long) values * SCAN_FACTOR;
+      for (Facet facet : facets) {
+        tallies.add(scan ? facet.scan(ids) : facet.intersect(ids));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+    for (int i = 0; i < FACETS.size(); i++) {
+      List<Entry<String, Integer>> valueCounts = new ArrayList<>(tallies.get(i).entrySet());
+      valueCounts.sort(PRICE.equals(FACETS.get(i))
+          ? Comparator.comparing(entry -> PRICE_BUCKETS.indexOf(entry.getKey()))
+          : Entry.<String, Integer>comparingByValue().reversed()
+              .thenComparing(Entry.comparingByKey()));
+      Map<String, Integer> facetCounts = new LinkedHashMap<>();
+      valueCounts.forEach(entry -> facetCounts.put(entry.getKey(), entry.getValue()));
+      counts.put(FACETS.get(i), facetCounts);
+    }
+    return counts;
+  }
+
+  /**
+   * Collects the given Product ids into a bitmap, to be counted.
+   *
+   * @param ids the ids of the Products.
+   * @return a bitmap of the ids.
+   */
+  public static RoaringBitmap bitmapOf(Collection<Long> ids) {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    for (Long id : ids) {
+      bitmap.add(Math.toIntExact(id));
+    }
+    return bitmap;
+  }
+
+  /**
+   * Names the price bucket a price falls into.
+   *
+   * @param price the price of a Product.
+   * @return the price bucket, i.e. "10-25" for 10.00 up to 24.99.
+   */
+  public static String priceBucket(Money price) {
+    for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+      if (price.getMinorUnits() < PRICE_BOUNDS[i]) {
+        return PRICE_BUCKETS.get(i);
+      }
+    }
+    return PRICE_BUCKETS.get(PRICE_BUCKETS.size() - 1);
+  }
+
+  private void add(Product product) {
+    int id = Math.toIntExact(product.getId());
+    remove(id);
+    facets.get(FACETS.indexOf(TYPE)).add(id, product.getType());
+    facets.get(FACETS.indexOf(MANUFACTURER)).add(id, product.getManufacturer());
+    facets.get(FACETS.indexOf(PRICE)).add(id,
+        product.getPrice() == null ? null : priceBucket(product.getPrice()));
+    allIds.add(id);
+  }
+
+  private void remove(int id) {
+    for (Facet facet : facets) {
+      facet.remove(id);
+    }
+    allIds.remove(id);
+  }
+
+  /**
+   * The values of one facet. Each value has a bitmap of the ids of the Products with it, and an
+   * ordinal, which the Products are mapped to by id.
+   */
+  private static final class Facet {
+
+    private final Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    // the ordinal of each Product's value plus one, so that 0 stands for no value
+    private int[] ordinalsById = new int[0];
+
+    void add(int id, String value) {
+      if (value == null) {
+        return;
+      }
+      bitmaps.computeIfAbsent(value, key -> new RoaringBitmap()).add(id);
+      Integer ordinal = ordinals.get(value);
+      if (ordinal == null) {
+        ordinal = values.size();
+        ordinals.put(value, ordinal);
+        values.add(value);
+      }
+      if (id >= ordinalsById.length) {
+        ordinalsById = Arrays.copyOf(ordinalsById, Math.max(id + 1, ordinalsById.length * 2));
+      }
+      ordinalsById[id] = ordinal + 1;
+    }
+
+    void remove(int id) {
+      if (id >= ordinalsById.length || ordinalsById[id] == 0) {
+        return;
+      }
+      String value = values.get(ordinalsById[id] - 1);
+      ordinalsById[id] = 0;
+      RoaringBitmap bitmap = bitmaps.get(value);
+      bitmap.remove(id);
+      if (bitmap.isEmpty()) {
+        // the ordinal is kept, for the value may well come back
+        bitmaps.remove(value);
+      }
+    }
+
+    void clear() {
+      bitmaps.clear();
+      ordinals.clear();
+      values.clear();
+      ordinalsById = new int[0];
+    }
+
+    RoaringBitmap bitmapOf(String value) {
+      return bitmaps.getOrDefault(value, new RoaringBitmap());
+    }
+
+    Map<String, Integer> intersect(RoaringBitmap ids) {
+      Map<String, Integer> tally = new HashMap<>();
+      for (Entry<String, RoaringBitmap> value : bitmaps.entrySet()) {
+        int count = RoaringBitmap.andCardinality(ids, value.getValue());
+        if (count > 0) {
+          tally.put(value.getKey(), count);
+        }
+      }
+      return tally;
+    }
+
+    Map<String, Integer> scan(RoaringBitmap ids) {
+      int[] counts = new int[values.size()];
+      ids.forEach((IntConsumer) id -> {
+        if (id < ordinalsById.length && ordinalsById[id] > 0) {
+          counts[ordinalsById[id] - 1]++;
+        }
+      });
+      Map<String, Integer> tally = new HashMap<>();
+      for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+        if (counts[ordinal] > 0) {
+          tally.put(values.get(ordinal), counts[ordinal]);
+        }
+      }
+      return tally;
+    }
+  }
+}
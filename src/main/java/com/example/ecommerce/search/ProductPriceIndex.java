@@ -0,0 +1,230 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Product;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.stereotype.Component;
+
+/**
+ * An in-memory index of the price of every Product, in cents, held in a sorted array of primitive
+ * prices next to an array of the ids of the Products with them (the postings). A price range is
+ * found by two binary searches, and a page of it, in either order, is read straight from the
+ * arrays, so neither a range query nor a listing sorted by price touches the rest of the catalog.
+ */
+@Component
+public class ProductPriceIndex {
+
+  private static final int REBUILD_PAGE_SIZE = 500;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // both sorted by price, then by id, and filled up to size
+  private long[] prices = new long[16];
+  private long[] ids = new long[16];
+  private int size;
+  private final Map<Long, Long> pricesById = new HashMap<>();
+
+  /**
+   * Adds the Product to the index, replacing the price it was indexed with before.
+   *
+   * @param product the Product as it was saved.
+   */
+  public void index(Product product) {
+    indexAll(List.of(product));
+  }
+
+  /**
+   * Adds the Products to the index, replacing the prices they were indexed with before.
+   *
+   * @param products the Products as they were saved.
+   */
+  public void indexAll(Collection<Product> products) {
+    lock.writeLock().lock();
+    try {
+      for (Product product : products) {
+        add(product);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drops the Product with the given id from the index.
+   *
+   * @param id the id of the deleted Product.
+   */
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      removeEntry(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the whole index with the Products read page by page from the loader, cheapest first,
+   * so that each one is appended rather than inserted. Reads and writes wait until it is done, so
+   * that no write made meanwhile is lost.
+   *
+   * @param loader reads one page of Products from the database.
+   * @return the number of Products indexed.
+   */
+  public long rebuild(Function<Pageable, Slice<Product>> loader) {
+    long indexed = 0;
+    lock.writeLock().lock();
+    try {
+      prices = new long[16];
+      ids = new long[16];
+      size = 0;
+      pricesById.clear();
+      Slice<Product> products = loader.apply(
+          PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("price", "id")));
+      while (true) {
+        for (Product product : products) {
+          add(product);
+          indexed++;
+        }
+        if (!products.hasNext()) {
+          break;
+        }
+        products = loader.apply(products.nextPageable());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return indexed;
+  }
+
+  /**
+   * Reads a page of the Products priced within the given range, sorted by price and then by id.
+   *
+   * @param minPrice  the lowest price, inclusive, or null for no lower bound.
+   * @param maxPrice  the highest price, inclusive, or null for no upper bound.
+   * @param direction whether the cheapest or the dearest Products come first.
+   * @param pageable  the page and size requested. Its sort order is ignored.
+   * @param count     whether the total number of Products in the range should be returned.
+   * @return a page of the ids of the Products in the range.
+   */
+  public Slice<Long> between(BigDecimal minPrice, BigDecimal maxPrice, Direction direction,
+      Pageable pageable, boolean count) {
+    lock.readLock().lock();
+    try {
+      int from = lowerBound(minPrice);
+      int to = upperBound(maxPrice);
+      long inRange = Math.max(0, to - from);
+      long offset = Math.min(pageable.getOffset(), inRange);
+      int pageSize = (int) Math.min(pageable.getPageSize(), inRange - offset);
+      List<Long> page = new ArrayList<>(pageSize);
+      for (int i = 0; i < pageSize; i++) {
+        page.add(direction.isAscending() ? ids[(int) (from + offset + i)]
+            : ids[(int) (to - 1 - offset - i)]);
+      }
+      if (count) {
+        return new PageImpl<>(page, pageable, inRange);
+      }
+      return new SliceImpl<>(page, pageable, offset + pageSize < inRange);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds every Product priced within the given range, to be counted by facet.
+   *
+   * @param minPrice the lowest price, inclusive, or null for no lower bound.
+   * @param maxPrice the highest price, inclusive, or null for no upper bound.
+   * @return the ids of the Products in the range.
+   */
+  public RoaringBitmap idsBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+    int[] matching;
+    lock.readLock().lock();
+    try {
+      int from = lowerBound(minPrice);
+      matching = new int[Math.max(0, upperBound(maxPrice) - from)];
+      for (int i = 0; i < matching.length; i++) {
+        matching[i] = Math.toIntExact(ids[from + i]);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    // the ids come in order of price, which a bitmap built from them all at once sorts far faster
+    // than one added to id by id
+    return RoaringBitmap.bitmapOfUnordered(matching);
+  }
+
+  private int lowerBound(BigDecimal minPrice) {
+    return minPrice == null ? 0
+        : position(Money.of(minPrice, RoundingMode.CEILING).getMinorUnits(), Long.MIN_VALUE);
+  }
+
+  private int upperBound(BigDecimal maxPrice) {
+    return maxPrice == null ? size
+        : position(Money.of(maxPrice, RoundingMode.FLOOR).getMinorUnits(), Long.MAX_VALUE);
+  }
+
+  /**
+   * Finds the first entry at or after the given price and id.
+   */
+  private int position(long price, long id) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (prices[middle] < price || prices[middle] == price && ids[middle] < id) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private void add(Product product) {
+    removeEntry(product.getId());
+    if (product.getPrice() == null) {
+      return;
+    }
+    long price = product.getPrice().getMinorUnits();
+    int at = position(price, product.getId());
+    if (size == prices.length) {
+      prices = Arrays.copyOf(prices, size * 2);
+      ids = Arrays.copyOf(ids, size * 2);
+    }
+    System.arraycopy(prices, at, prices, at + 1, size - at);
+    System.arraycopy(ids, at, ids, at + 1, size - at);
+    prices[at] = price;
+    ids[at] = product.getId();
+    size++;
+    pricesById.put(product.getId(), price);
+  }
+
+  private void removeEntry(Long id) {
+    Long price = pricesById.remove(id);
+    if (price == null) {
+      return;
+    }
+    int at = position(price, id);
+    System.arraycopy(prices, at + 1, prices, at, size - at - 1);
+    System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+    size--;
+  }
+}
@@ -0,0 +1,298 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.models.Product;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * An embedded Lucene index of the name, description, manufacturer and type of every Product, which
+ * answers free text searches with the ids of the matching Products, best match first (BM25). Only
+ * ids are stored; the Products themselves are still read through the ProductCache. The index lives
+ * in memory unless a directory is configured, and is rebuilt from the database at startup, so it
+ * never has to be committed for its own sake.
+ */
+@Component
+public class ProductSearchIndex {
+
+  private static final String ID = "id";
+  // a match in the name counts for more than one in the longer, wordier description
+  private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+      "name", 2.0f,
+      "type", 1.5f,
+      "manufacturer", 1.0f,
+      "description", 1.0f);
+  private static final int REBUILD_PAGE_SIZE = 500;
+
+  private final Analyzer analyzer = new EnglishAnalyzer();
+  private final Directory directory;
+  private final IndexWriter indexWriter;
+  private final SearcherManager searcherManager;
+
+  public ProductSearchIndex(
+      @Value("${ecommerce.search.products.index-dir:}") String indexDir) throws IOException {
+    directory = indexDir.isBlank() ? new ByteBuffersDirectory()
+        : FSDirectory.open(Paths.get(indexDir));
+    // both sides keep Lucene's default similarity, BM25
+    indexWriter = new IndexWriter(directory,
+        new IndexWriterConfig(analyzer).setOpenMode(OpenMode.CREATE));
+    searcherManager = new SearcherManager(indexWriter, null);
+  }
+
+  /**
+   * Adds the Product to the index, replacing whatever was indexed for its id before. Searches see
+   * the change as soon as this returns.
+   *
+   * @param product the Product as it was saved.
+   */
+  public void index(Product product) {
+    try {
+      indexWriter.updateDocument(new Term(ID, product.getId().toString()), toDocument(product));
+      searcherManager.maybeRefreshBlocking();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Adds the Products to the index, replacing whatever was indexed for their ids before.
+   *
+   * @param products the Products as they were saved.
+   */
+  public void indexAll(List<Product> products) {
+    try {
+      for (Product product : products) {
+        indexWriter.updateDocument(new Term(ID, product.getId().toString()),
+            toDocument(product));
+      }
+      searcherManager.maybeRefreshBlocking();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Drops the Product with the given id from the index.
+   *
+   * @param id the id of the deleted Product.
+   */
+  public void remove(Long id) {
+    try {
+      indexWriter.deleteDocuments(new Term(ID, id.toString()));
+      searcherManager.maybeRefreshBlocking();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Replaces the whole index with the Products read page by page from the loader. The old
+   * documents are deleted first, and an index or remove made meanwhile refreshes the searcher, so
+   * searches made during a rebuild can see an empty or partly rebuilt index. It is run once, at
+   * startup, when the index is empty anyway.
+   *
+   * @param loader reads one page of Products from the database.
+   * @return the number of Products indexed.
+   */
+  public long rebuild(Function<Pageable, Slice<Product>> loader) {
+    long indexed = 0;
+    try {
+      indexWriter.deleteAll();
+      Slice<Product> products = loader.apply(
+          PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by(ID)));
+      while (true) {
+        for (Product product : products) {
+          // a Product written meanwhile may already be indexed, and must not be indexed twice
+          indexWriter.updateDocument(new Term(ID, product.getId().toString()),
+              toDocument(product));
+          indexed++;
+        }
+        if (!products.hasNext()) {
+          break;
+        }
+        products = loader.apply(products.nextPageable());
+      }
+      indexWriter.commit();
+      searcherManager.maybeRefreshBlocking();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return indexed;
+  }
+
+  /**
+   * Searches the name, description, manufacturer and type of the Products for the words of the
+   * given text. Products matching more, rarer words rank first. The text is taken literally, so
+   * Lucene query syntax in it has no special meaning.
+   *
+   * @param text     the words to search for.
+   * @param pageable the page and size requested. Any sort order is ignored.
+   * @param count    whether the total number of matching Products should be returned.
+   * @return a page of the ids of the matching Products, in order of relevance.
+   */
+  public Slice<Long> search(String text, Pageable pageable, boolean count) {
+    Query query = parse(text);
+    int offset = Math.toIntExact(pageable.getOffset());
+    IndexSearcher searcher = acquire();
+    try {
+      // one hit past the end of the page tells whether another page follows
+      TopDocs topDocs = searcher.search(query, offset + pageable.getPageSize() + 1);
+      List<Long> ids = new ArrayList<>(pageable.getPageSize());
+      ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+      for (int i = offset; i < scoreDocs.length && ids.size() < pageable.getPageSize(); i++) {
+        ids.add(searcher.doc(scoreDocs[i].doc).getField(ID).numericValue().longValue());
+      }
+      if (count) {
+        return new PageImpl<>(ids, pageable, searcher.count(query));
+      }
+      return new SliceImpl<>(ids, pageable, scoreDocs.length > offset + ids.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      release(searcher);
+    }
+  }
+
+  /**
+   * Finds every Product that matches the words of the given text, in no particular order, reading
+   * the ids from doc values rather than from the stored documents.
+   *
+   * @param text the words to search for.
+   * @return the ids of all the matching Products.
+   */
+  public RoaringBitmap matchingIds(String text) {
+    Query query = parse(text);
+    RoaringBitmap ids = new RoaringBitmap();
+    IndexSearcher searcher = acquire();
+    try {
+      searcher.search(query, new SimpleCollector() {
+        private NumericDocValues idValues;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+          idValues = DocValues.getNumeric(context.reader(), ID);
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+          if (idValues.advanceExact(doc)) {
+            ids.add(Math.toIntExact(idValues.longValue()));
+          }
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+          return ScoreMode.COMPLETE_NO_SCORES;
+        }
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      release(searcher);
+    }
+    return ids;
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    searcherManager.close();
+    indexWriter.close();
+    directory.close();
+  }
+
+  /**
+   * @throws IllegalArgumentException if the text holds no words.
+   */
+  private Query parse(String text) {
+    if (text == null || text.isBlank()) {
+      throw new IllegalArgumentException("search text cannot be blank");
+    }
+    MultiFieldQueryParser parser = new MultiFieldQueryParser(
+        FIELD_BOOSTS.keySet().toArray(new String[0]), analyzer, FIELD_BOOSTS);
+    try {
+      // lower case keeps AND, OR and NOT from being read as operators
+      return parser.parse(QueryParser.escape(text.toLowerCase(Locale.ROOT)));
+    } catch (ParseException e) {
+      throw new IllegalArgumentException("search text cannot be parsed", e);
+    }
+  }
+
+  private IndexSearcher acquire() {
+    try {
+      return searcherManager.acquire();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void release(IndexSearcher searcher) {
+    try {
+      searcherManager.release(searcher);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Document toDocument(Product product) {
+    Document document = new Document();
+    // the id is indexed as a term to replace and delete by, stored to be read from a top hit, and
+    // kept in doc values to be read from every hit
+    document.add(new StringField(ID, product.getId().toString(), Store.NO));
+    document.add(new StoredField(ID, product.getId()));
+    document.add(new NumericDocValuesField(ID, product.getId()));
+    addText(document, "name", product.getName());
+    addText(document, "description", product.getDescription());
+    addText(document, "manufacturer", product.getManufacturer());
+    addText(document, "type", product.getType());
+    return document;
+  }
+
+  private static void addText(Document document, String field, String value) {
+    if (value != null) {
+      document.add(new TextField(field, value, Store.NO));
+    }
+  }
+}
@@ -0,0 +1,314 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.models.Product;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * An in-memory trie of the names and skus of every Product, case insensitive, which suggests the
+ * Products whose name or sku starts with a prefix. Every node keeps the best suggestions below it,
+ * so a lookup only walks the prefix, however many Products share it. Products are ranked by a
+ * weight, which is either the quantity of them ever ordered (units-ordered, the default) or nothing
+ * (none), then by name. Weights are read when the trie is rebuilt; a Product written later keeps
+ * the weight it had.
+ */
+@Component
+public class ProductSuggester {
+
+  public static final int MAX_SUGGESTIONS = 10;
+  private static final int REBUILD_PAGE_SIZE = 500;
+  private static final Comparator<Suggestion> RANKING = Comparator
+      .comparingLong(Suggestion::getWeight).reversed()
+      .thenComparing(Suggestion::getName, Comparator.nullsLast(Comparator.naturalOrder()))
+      .thenComparing(Suggestion::getId);
+
+  /**
+   * What Products are ranked by, set with ecommerce.search.suggest.weight.
+   */
+  public enum Weight {
+    UNITS_ORDERED, NONE
+  }
+
+  private final Weight weight;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Node root = new Node();
+  private final Map<Long, Suggestion> suggestionsById = new HashMap<>();
+
+  public ProductSuggester(
+      @Value("${ecommerce.search.suggest.weight:units-ordered}") String weight) {
+    this.weight = Weight.valueOf(weight.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Adds the Product to the trie, replacing the name and sku it was added with before.
+   *
+   * @param product the Product as it was saved.
+   */
+  public void index(Product product) {
+    indexAll(List.of(product));
+  }
+
+  /**
+   * Adds the Products to the trie, replacing the names and skus they were added with before.
+   *
+   * @param products the Products as they were saved.
+   */
+  public void indexAll(Collection<Product> products) {
+    lock.writeLock().lock();
+    try {
+      for (Product product : products) {
+        Suggestion previous = suggestionsById.get(product.getId());
+        add(product, previous == null ? 0 : previous.getWeight());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drops the Product with the given id from the trie.
+   *
+   * @param id the id of the deleted Product.
+   */
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      removeSuggestion(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the whole trie with the Products read page by page from the loader. Lookups and
+   * writes wait until it is done, so that no write made meanwhile is lost.
+   *
+   * @param loader  reads one page of Products from the database.
+   * @param weights reads the quantity ordered of every Product that has been ordered; only called
+   *                when Products are ranked by it.
+   * @return the number of Products added.
+   */
+  public long rebuild(Function<Pageable, Slice<Product>> loader,
+      Supplier<Map<Long, Long>> weights) {
+    long indexed = 0;
+    Map<Long, Long> weightsById = weight == Weight.UNITS_ORDERED ? weights.get() : Map.of();
+    lock.writeLock().lock();
+    try {
+      root = new Node();
+      suggestionsById.clear();
+      Slice<Product> products = loader.apply(
+          PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id")));
+      while (true) {
+        for (Product product : products) {
+          add(product, weightsById.getOrDefault(product.getId(), 0L));
+          indexed++;
+        }
+        if (!products.hasNext()) {
+          break;
+        }
+        products = loader.apply(products.nextPageable());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return indexed;
+  }
+
+  /**
+   * Suggests the Products whose name or sku starts with the given prefix, ignoring case.
+   *
+   * @param prefix the start of a name or sku, i.e. "VG8-" or "hydro".
+   * @param limit  the most suggestions to be returned, up to MAX_SUGGESTIONS.
+   * @return the matching Products, best ranked first.
+   */
+  public List<Suggestion> suggest(String prefix, int limit) {
+    String key = normalize(prefix);
+    Suggestion[] best;
+    lock.readLock().lock();
+    try {
+      Node node = root;
+      for (int i = 0; i < key.length() && node != null; i++) {
+        node = node.child(key.charAt(i));
+      }
+      if (node == null) {
+        return List.of();
+      }
+      best = node.best;
+    } finally {
+      lock.readLock().unlock();
+    }
+    return List.of(Arrays.copyOf(best, Math.min(limit, best.length)));
+  }
+
+  private void add(Product product, long productWeight) {
+    removeSuggestion(product.getId());
+    Suggestion suggestion = new Suggestion(product.getId(), product.getSku(), product.getName(),
+        productWeight);
+    suggestionsById.put(product.getId(), suggestion);
+    for (String key : keysOf(suggestion)) {
+      Node node = root;
+      node.offer(suggestion);
+      for (int i = 0; i < key.length(); i++) {
+        node = node.childOrNew(key.charAt(i));
+        node.offer(suggestion);
+      }
+      node.terminals.add(suggestion);
+    }
+  }
+
+  private void removeSuggestion(Long id) {
+    Suggestion suggestion = suggestionsById.remove(id);
+    if (suggestion == null) {
+      return;
+    }
+    for (String key : keysOf(suggestion)) {
+      Node[] path = new Node[key.length() + 1];
+      path[0] = root;
+      for (int i = 0; i < key.length(); i++) {
+        path[i + 1] = path[i].child(key.charAt(i));
+      }
+      path[key.length()].terminals.removeIf(terminal -> terminal.getId().equals(id));
+      // deepest first, so that every node is rebuilt from children that are already up to date
+      for (int i = key.length(); i >= 0; i--) {
+        Node node = path[i];
+        if (i > 0 && node.isEmpty()) {
+          path[i - 1].removeChild(key.charAt(i - 1));
+        } else if (node.holds(id)) {
+          node.recompute();
+        }
+      }
+    }
+  }
+
+  private static List<String> keysOf(Suggestion suggestion) {
+    List<String> keys = new ArrayList<>(2);
+    if (suggestion.getName() != null) {
+      keys.add(normalize(suggestion.getName()));
+    }
+    if (suggestion.getSku() != null && !keys.contains(normalize(suggestion.getSku()))) {
+      keys.add(normalize(suggestion.getSku()));
+    }
+    return keys;
+  }
+
+  private static String normalize(String text) {
+    return text.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * A node of the trie. Its children are kept in arrays sorted by their label, and looked up by
+   * binary search, which is more compact than a map per node.
+   */
+  private static final class Node {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+    private char[] labels = NO_LABELS;
+    private Node[] children = NO_CHILDREN;
+    // the suggestions whose name or sku ends at this node
+    private final List<Suggestion> terminals = new ArrayList<>(1);
+    // the best suggestions at or below this node, best first, replaced rather than changed, so
+    // that a lookup can return it after letting go of the lock
+    private Suggestion[] best = NO_SUGGESTIONS;
+
+    Node child(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      return i < 0 ? null : children[i];
+    }
+
+    Node childOrNew(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      if (i >= 0) {
+        return children[i];
+      }
+      int at = -i - 1;
+      Node child = new Node();
+      char[] newLabels = new char[labels.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(labels, 0, newLabels, 0, at);
+      System.arraycopy(children, 0, newChildren, 0, at);
+      newLabels[at] = label;
+      newChildren[at] = child;
+      System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+      System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+      labels = newLabels;
+      children = newChildren;
+      return child;
+    }
+
+    void removeChild(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      if (i < 0) {
+        return;
+      }
+      char[] newLabels = new char[labels.length - 1];
+      Node[] newChildren = new Node[children.length - 1];
+      System.arraycopy(labels, 0, newLabels, 0, i);
+      System.arraycopy(children, 0, newChildren, 0, i);
+      System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+      System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+      labels = newLabels;
+      children = newChildren;
+      recompute();
+    }
+
+    boolean isEmpty() {
+      return terminals.isEmpty() && children.length == 0;
+    }
+
+    boolean holds(Long id) {
+      for (Suggestion suggestion : best) {
+        if (suggestion.getId().equals(id)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    void offer(Suggestion suggestion) {
+      if (best.length == MAX_SUGGESTIONS
+          && RANKING.compare(suggestion, best[best.length - 1]) >= 0
+          || Arrays.asList(best).contains(suggestion)) {
+        return;
+      }
+      List<Suggestion> merged = new ArrayList<>(Arrays.asList(best));
+      merged.add(suggestion);
+      best = top(merged);
+    }
+
+    void recompute() {
+      List<Suggestion> candidates = new ArrayList<>(terminals);
+      for (Node child : children) {
+        candidates.addAll(Arrays.asList(child.best));
+      }
+      best = top(candidates);
+    }
+
+    /**
+     * Ranks the candidates, and keeps the best of them. A Product whose name and sku share a
+     * prefix reaches the node that ends it by both, but is kept once.
+     */
+    private static Suggestion[] top(List<Suggestion> candidates) {
+      return candidates.stream().distinct().sorted(RANKING).limit(MAX_SUGGESTIONS)
+          .toArray(Suggestion[]::new);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.ecommerce.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A Product suggested for a prefix of its name or sku, with the weight it is ranked by.
+ */
+public class Suggestion {
+
+  private final Long id;
+  private final String sku;
+  private final String name;
+  private final long weight;
+
+  public Suggestion(Long id, String sku, String name, long weight) {
+    this.id = id;
+    this.sku = sku;
+    this.name = name;
+    this.weight = weight;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getSku() {
+    return sku;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @JsonIgnore
+  public long getWeight() {
+    return weight;
+  }
+
+  @Override
+  public String toString() {
+    return "Suggestion{" +
+        "id=" + id +
+        ", sku='" + sku + '\'' +
+        ", name='" + name + '\'' +
+        ", weight=" + weight +
+        '}';
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.ecommerce.services;
+
+import com.example.ecommerce.analytics.OrderAnalytics;
+import java.time.LocalDate;
+
+/**
+ * This interface contains the methods which are implemented in the AnalyticsServiceImpl class.
+ */
+public interface AnalyticsService {
+
+  OrderAnalytics queryOrders(String groupBy, LocalDate from, LocalDate to, Long customerId,
+      Long productId, Integer limit);
+
+  void refresh();
+
+  void rebuild();
+
+}
@@ -0,0 +1,133 @@
+package com.example.ecommerce.services;
+
+import com.example.ecommerce.analytics.AnalyticsGroup;
+import com.example.ecommerce.analytics.OrderAnalytics;
+import com.example.ecommerce.analytics.OrderColumnStore;
+import com.example.ecommerce.analytics.OrderColumnStore.GroupBy;
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.example.ecommerce.models.ItemFact;
+import com.example.ecommerce.models.OrderFact;
+import com.example.ecommerce.pagination.Cursors;
+import com.example.ecommerce.repositories.ItemRepository;
+import com.example.ecommerce.repositories.OrderRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * This class contains the methods that are called by the AnalyticsController, and implemented from
+ * the AnalyticsService interface. Queries are answered from the OrderColumnStore alone, which is
+ * loaded from the database once the application is ready, catches up with the Orders and Items
+ * saved since every ecommerce.analytics.refresh-interval, and is read afresh every
+ * ecommerce.analytics.rebuild-interval, so that updated and deleted Orders are taken in.
+ */
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+  private static final int REFRESH_PAGE_SIZE = 5000;
+  private static final String GROUP_BY_VALUES = "none, day, month, customer or product";
+
+  private final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+  @Autowired
+  private OrderColumnStore orderColumnStore;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private ItemRepository itemRepository;
+
+  /**
+   * Groups and sums the Orders matching the given filters, i.e. the revenue of every month of a
+   * year, or the units of every Product bought by a Customer.
+   *
+   * @param groupBy    none (the default), day, month, customer or product.
+   * @param from       the first day of the Orders matched, or null for no lower bound.
+   * @param to         the last day of the Orders matched, or null for no upper bound.
+   * @param customerId the Customer whose Orders are matched, or null for every Customer.
+   * @param productId  the Product the Items matched are for, or null for every Product.
+   * @param limit      the most groups to return, or null for the default limit.
+   * @return the groups in order of day or month, or with the Customers of the highest revenue or
+   * the Products of the most units first.
+   */
+  @Override
+  public OrderAnalytics queryOrders(String groupBy, LocalDate from, LocalDate to, Long customerId,
+      Long productId, Integer limit) {
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new BadDataResponse("from must not be after to");
+    }
+    GroupBy grouping = parseGroupBy(groupBy);
+    int groupLimit = Cursors.checkLimit(limit);
+    OrderAnalytics analytics = orderColumnStore.query(grouping, from, to, customerId, productId);
+    List<AnalyticsGroup> groups = new ArrayList<>(analytics.getGroups());
+    if (grouping == GroupBy.CUSTOMER) {
+      groups.sort(Comparator.comparing(AnalyticsGroup::getRevenue).reversed());
+    } else if (grouping == GroupBy.PRODUCT) {
+      groups.sort(Comparator.comparingLong(AnalyticsGroup::getUnits).reversed());
+    }
+    return new OrderAnalytics(analytics.getOrderRows(), analytics.getItemRows(),
+        analytics.getGroupCount(), groups.subList(0, Math.min(groupLimit, groups.size())));
+  }
+
+  /**
+   * Appends the Orders and Items saved since the last refresh to the OrderColumnStore.
+   */
+  @Override
+  @Scheduled(fixedDelayString = "${ecommerce.analytics.refresh-interval:PT10S}",
+      initialDelayString = "${ecommerce.analytics.refresh-interval:PT10S}")
+  public void refresh() {
+    try {
+      long appended = orderColumnStore.refresh(this::readOrders, this::readItems);
+      logger.debug("Appended {} orders and items for analytics", appended);
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+    }
+  }
+
+  /**
+   * Reads every Order and Item into the OrderColumnStore afresh once the application, and the data
+   * loaded with it, is ready, and then every rebuild interval.
+   */
+  @Override
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${ecommerce.analytics.rebuild-interval:PT1H}",
+      initialDelayString = "${ecommerce.analytics.rebuild-interval:PT1H}")
+  public void rebuild() {
+    try {
+      long read = orderColumnStore.rebuild(this::readOrders, this::readItems);
+      logger.info("Loaded {} orders and items for analytics", read);
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+    }
+  }
+
+  private List<OrderFact> readOrders(Long after) {
+    return orderRepository.findFactsAfter(after, PageRequest.of(0, REFRESH_PAGE_SIZE));
+  }
+
+  private List<ItemFact> readItems(Long after) {
+    return itemRepository.findFactsAfter(after, PageRequest.of(0, REFRESH_PAGE_SIZE));
+  }
+
+  private static GroupBy parseGroupBy(String groupBy) {
+    if (groupBy == null || groupBy.isBlank()) {
+      return GroupBy.NONE;
+    }
+    try {
+      return GroupBy.valueOf(groupBy.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BadDataResponse("groupBy must be " + GROUP_BY_VALUES);
+    }
+  }
+}
@@ -1,19 +1,35 @@
 package com.example.ecommerce.services;
 
 import com.example.ecommerce.models.Customer;
+import com.example.ecommerce.models.EntityVersion;
+import com.example.ecommerce.models.Partial;
+import com.example.ecommerce.pagination.MultiGet;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * This interface contains the methods which are implemented in the CustomerServiceImpl class.
  */
 public interface CustomerService {
 
-  List<Customer> queryCustomers(Customer customer);
+  Slice<Customer> queryCustomers(Customer customer, Pageable pageable, boolean count);
+
+  Slice<Partial> queryCustomerFields(Customer customer, List<String> fields, Pageable pageable,
+      boolean count);
 
   Customer getCustomerById(Long id);
 
+  MultiGet<Customer> getCustomersByIds(List<Long> ids);
+
+  EntityVersion getCustomerVersionById(Long id);
+
+  Partial getCustomerFieldsById(Long id, List<String> fields);
+
   Customer addCustomer(Customer customer);
 
+  List<Customer> addCustomers(List<Customer> customers);
+
   Customer updateCustomerById(Long id, Customer customer);
 
   void deleteCustomerById(Long id);
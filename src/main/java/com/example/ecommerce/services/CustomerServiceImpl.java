@@ -1,20 +1,33 @@
 package com.example.ecommerce.services;
 
+import static com.example.ecommerce.constants.StringConstants.INVALID_SORT;
 import static com.example.ecommerce.constants.StringConstants.NOT_FOUND;
 
 import com.example.ecommerce.exceptions.BadDataResponse;
 import com.example.ecommerce.exceptions.Conflict;
 import com.example.ecommerce.exceptions.ResourceNotFound;
 import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.exceptions.UniqueConstraints;
 import com.example.ecommerce.models.Customer;
+import com.example.ecommerce.models.EntityVersion;
+import com.example.ecommerce.models.Partial;
+import com.example.ecommerce.pagination.MultiGet;
 import com.example.ecommerce.repositories.CustomerRepository;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class contains the methods that are called by the CustomerController, and implemented from
@@ -29,16 +42,38 @@ public class CustomerServiceImpl implements CustomerService {
   private CustomerRepository customerRepository;
 
   @Override
-  public List<Customer> queryCustomers(Customer customer) {
+  public Slice<Customer> queryCustomers(Customer customer, Pageable pageable, boolean count) {
     try {
       if (customer.isEmpty()) {
-        List<Customer> customers = customerRepository.findAll();
-        customers.sort(Comparator.comparing(Customer::getId));
-        return customers;
+        return count ? customerRepository.findAll(pageable)
+            : customerRepository.findAllBy(pageable);
       } else {
         Example<Customer> customerExample = Example.of(customer);
-        return customerRepository.findAll(customerExample);
+        return count ? customerRepository.findAll(customerExample, pageable)
+            : customerRepository.findSlice(customerExample, pageable);
       }
+    } catch (PropertyReferenceException | InvalidDataAccessApiUsageException e) {
+      throw new BadDataResponse(INVALID_SORT);
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  @Override
+  public Slice<Partial> queryCustomerFields(Customer customer, List<String> fields,
+      Pageable pageable, boolean count) {
+    List<String> selectedFields = Partial.distinctFields(fields);
+    try {
+      Example<Customer> customerExample = Example.of(customer);
+      Slice<Partial> partials = customerRepository.findPartialSlice(customerExample, selectedFields,
+          pageable);
+      return count ? new PageImpl<>(partials.getContent(), pageable,
+          customerRepository.count(customerExample)) : partials;
+    } catch (PropertyReferenceException e) {
+      throw new BadDataResponse(e.getMessage());
+    } catch (InvalidDataAccessApiUsageException e) {
+      throw new BadDataResponse(INVALID_SORT);
     } catch (Exception e) {
       logger.error(e.getMessage());
       throw new ServiceUnavailable(e);
@@ -62,39 +97,122 @@ public class CustomerServiceImpl implements CustomerService {
     throw new ResourceNotFound(NOT_FOUND + " customer with id " + id);
   }
 
+  @Override
+  public MultiGet<Customer> getCustomersByIds(List<Long> ids) {
+    List<Long> distinctIds = MultiGet.distinctIds(ids);
+    try {
+      return MultiGet.of(distinctIds, customerRepository.findAllById(distinctIds), Customer::getId);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+  }
+
+  @Override
+  public Partial getCustomerFieldsById(Long id, List<String> fields) {
+    if (id < 1) {
+      throw new BadDataResponse("id must be positive and cannot be zero");
+    }
+    List<String> selectedFields = Partial.distinctFields(fields);
+    Partial partialLookUpResult;
+    try {
+      partialLookUpResult = customerRepository.findPartialById(Customer.class, id, selectedFields)
+          .orElse(null);
+      if (partialLookUpResult != null) {
+        return partialLookUpResult;
+      }
+    } catch (PropertyReferenceException e) {
+      throw new BadDataResponse(e.getMessage());
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+    throw new ResourceNotFound(NOT_FOUND + " customer with id " + id);
+  }
+
+  @Override
+  public EntityVersion getCustomerVersionById(Long id) {
+    if (id < 1) {
+      throw new BadDataResponse("id must be positive and cannot be zero");
+    }
+    EntityVersion versionLookUpResult;
+    try {
+      versionLookUpResult = customerRepository.findVersionById(id).orElse(null);
+      if (versionLookUpResult != null) {
+        return versionLookUpResult;
+      }
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+    throw new ResourceNotFound(NOT_FOUND + " customer with id " + id);
+  }
+
   @Override
   public Customer addCustomer(Customer customer) {
-    boolean emailAlreadyExists = customerRepository.existsByEmail(customer.getEmail());
-    if (emailAlreadyExists) {
-      throw new Conflict(" Email already in use!");
+    try {
+      return customerRepository.saveAndFlush(customer);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, Customer.EMAIL_UNIQUE)) {
+        throw new Conflict(" Email already in use!");
+      }
+      throw new ServiceUnavailable(e);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  /**
+   * Saves a batch of new Customers in one transaction. The given Customers are the ones persisted,
+   * so the caller's list is changed: any id they carry is cleared, so that each is inserted rather
+   * than merged over an existing Customer, and they come back with their new ids and versions set.
+   */
+  @Override
+  public List<Customer> addCustomers(List<Customer> customers) {
+    Set<String> emails = new HashSet<>();
+    for (int i = 0; i < customers.size(); i++) {
+      customers.get(i).setId(null);
+      if (!emails.add(customers.get(i).getEmail())) {
+        throw new Conflict("Email of customers[" + i + "] is used more than once in the batch!");
+      }
     }
     try {
-      return customerRepository.save(customer);
+      return customerRepository.saveAllAndFlush(customers);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, Customer.EMAIL_UNIQUE)) {
+        throw new Conflict(" Email already in use!");
+      }
+      throw new ServiceUnavailable(e);
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
   }
 
   @Override
+  @Transactional
   public Customer updateCustomerById(Long id, Customer customer) {
     if (id < 1) {
       throw new BadDataResponse("id must be positive and cannot be zero");
     }
-    Customer updatedCustomer = null;
-    if (!customerRepository.existsById(id)) {
-      throw new ResourceNotFound(NOT_FOUND + "customer with id " + id);
+    Customer existingCustomer;
+    try {
+      existingCustomer = customerRepository.findById(id).orElse(null);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
-    boolean emailAlreadyExists = customerRepository.existsByEmail(customer.getEmail());
-    if (emailAlreadyExists) {
-      throw new Conflict(" Email already in use!");
+    if (existingCustomer == null) {
+      throw new ResourceNotFound(NOT_FOUND + "customer with id " + id);
     }
+    existingCustomer.setName(customer.getName());
+    existingCustomer.setEmail(customer.getEmail());
+    existingCustomer.setAddress(customer.getAddress());
     try {
-      customer.setId(id);
-      updatedCustomer = customerRepository.save(customer);
+      return customerRepository.saveAndFlush(existingCustomer);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, Customer.EMAIL_UNIQUE)) {
+        throw new Conflict(" Email already in use!");
+      }
+      throw new ServiceUnavailable(e);
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
-    return updatedCustomer;
   }
 
   @Override
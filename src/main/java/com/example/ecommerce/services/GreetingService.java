@@ -1,14 +1,15 @@
 package com.example.ecommerce.services;
 
 import com.example.ecommerce.models.Greeting;
-import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * This interface contains the CRUD methods which are implemented in the GreetingServiceImpl class.
  */
 public interface GreetingService {
 
-  List<Greeting> queryGreetings(Greeting greeting);
+  Slice<Greeting> queryGreetings(Greeting greeting, Pageable pageable, boolean count);
 
   Greeting getGreetingById(Long id);
 
@@ -1,5 +1,6 @@
 package com.example.ecommerce.services;
 
+import static com.example.ecommerce.constants.StringConstants.INVALID_SORT;
 import static com.example.ecommerce.constants.StringConstants.NOT_FOUND;
 
 import com.example.ecommerce.exceptions.BadDataResponse;
@@ -7,12 +8,14 @@ import com.example.ecommerce.exceptions.ResourceNotFound;
 import com.example.ecommerce.exceptions.ServiceUnavailable;
 import com.example.ecommerce.models.Greeting;
 import com.example.ecommerce.repositories.GreetingRepository;
-import java.util.Comparator;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.stereotype.Service;
 
 /**
@@ -31,20 +34,24 @@ public class GreetingServiceImpl implements GreetingService {
    * Retrieves greetings by the queries of the user.
    *
    * @param greeting the Greeting data to be queried through the database.
-   * @return a list of Greetings if the query parameter is not included, or a list with the
+   * @param pageable the page, page size and sort order to be applied by the database.
+   * @param count    whether the total number of matching Greetings should also be counted.
+   * @return a page of Greetings if the query parameter is not included, or a page with the
    * Greeting(s) that match the query.
    */
   @Override
-  public List<Greeting> queryGreetings(Greeting greeting) {
+  public Slice<Greeting> queryGreetings(Greeting greeting, Pageable pageable, boolean count) {
     try {
       if (greeting.isEmpty()) {
-        List<Greeting> greetings = greetingRepository.findAll();
-        greetings.sort(Comparator.comparing(Greeting::getId));
-        return greetings;
+        return count ? greetingRepository.findAll(pageable)
+            : greetingRepository.findAllBy(pageable);
       } else {
         Example<Greeting> greetingExample = Example.of(greeting);
-        return greetingRepository.findAll(greetingExample);
+        return count ? greetingRepository.findAll(greetingExample, pageable)
+            : greetingRepository.findSlice(greetingExample, pageable);
       }
+    } catch (PropertyReferenceException | InvalidDataAccessApiUsageException e) {
+      throw new BadDataResponse(INVALID_SORT);
     } catch (Exception e) {
       logger.error(e.getMessage());
       throw new ServiceUnavailable(e);
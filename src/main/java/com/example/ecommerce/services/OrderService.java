@@ -1,21 +1,37 @@
 package com.example.ecommerce.services;
 
 import com.example.ecommerce.models.Order;
+import com.example.ecommerce.pagination.KeysetPage;
+import com.example.ecommerce.pagination.MultiGet;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * This interface contains the methods which are implemented in the OrderServiceImpl class.
  */
 public interface OrderService {
 
-  List<Order> queryOrders(Order order);
+  KeysetPage<Order> queryOrdersAfter(String cursor, Integer limit);
+
+  KeysetPage<Order> queryOrdersByCustomer(Long customerId, String cursor, Integer limit);
+
+  Slice<Order> queryOrders(Order order, Pageable pageable, boolean count);
 
   Order getOrderById(Long id);
 
+  MultiGet<Order> getOrdersByIds(List<Long> ids);
+
   Order addOrder(Order order);
 
+  List<Order> addOrders(List<Order> orders);
+
   Order updateOrderById(Long id, Order order);
 
   void deleteOrderById(Long id);
 
+  void exportOrders(OutputStream outputStream) throws IOException;
+
 }
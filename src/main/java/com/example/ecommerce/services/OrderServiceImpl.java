@@ -1,19 +1,52 @@
 package com.example.ecommerce.services;
 
+import static com.example.ecommerce.constants.StringConstants.INVALID_SORT;
 import static com.example.ecommerce.constants.StringConstants.NOT_FOUND;
 
+import com.example.ecommerce.cache.ProductCache;
 import com.example.ecommerce.exceptions.BadDataResponse;
 import com.example.ecommerce.exceptions.ResourceNotFound;
 import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
 import com.example.ecommerce.models.Order;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.pagination.Cursors;
+import com.example.ecommerce.pagination.Cursors.DateAndId;
+import com.example.ecommerce.pagination.KeysetPage;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.repositories.CustomerRepository;
+import com.example.ecommerce.repositories.ItemRepository;
 import com.example.ecommerce.repositories.OrderRepository;
-import java.util.Comparator;
+import com.example.ecommerce.repositories.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class contains the methods that are called by the OrderController, and implemented from the
@@ -27,17 +60,108 @@ public class OrderServiceImpl implements OrderService {
   @Autowired
   private OrderRepository orderRepository;
 
+  @Autowired
+  private CustomerRepository customerRepository;
+
+  @Autowired
+  private ItemRepository itemRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private ProductCache productCache;
+
+  @Autowired
+  private ReportService reportService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Retrieves all Orders with keyset pagination over the primary key, so only one page of Orders is
+   * ever read from the database no matter how deep into the table the page is.
+   *
+   * @param cursor the cursor returned with the previous page, or null for the first page.
+   * @param limit  the maximum number of Orders to return, or null for the default limit.
+   * @return a page of Orders, along with the cursor of the next page if there is one.
+   */
+  @Override
+  public KeysetPage<Order> queryOrdersAfter(String cursor, Integer limit) {
+    long afterId = Cursors.decodeId(cursor);
+    int pageLimit = Cursors.checkLimit(limit);
+    try {
+      Slice<Order> orders = orderRepository.findByIdGreaterThan(afterId,
+          PageRequest.of(0, pageLimit, Sort.by("id")));
+      List<Order> content = orders.getContent();
+      String nextCursor = orders.hasNext()
+          ? Cursors.encodeId(content.get(content.size() - 1).getId()) : null;
+      return new KeysetPage<>(content, nextCursor);
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  /**
+   * Retrieves the Orders of a Customer, newest first, with keyset pagination over the
+   * (customer_id, date, id) index, so only one page of the Customer's Orders is ever read however
+   * many of them there are. The Items of every Order on the page are read together, in a single
+   * query.
+   *
+   * @param customerId the id of the Customer whose Orders are to be retrieved.
+   * @param cursor     the cursor returned with the previous page, or null for the first page.
+   * @param limit      the maximum number of Orders to return, or null for the default limit.
+   * @return a page of Orders, along with the cursor of the next page if there is one.
+   */
   @Override
-  public List<Order> queryOrders(Order order) {
+  @Transactional(readOnly = true)
+  public KeysetPage<Order> queryOrdersByCustomer(Long customerId, String cursor, Integer limit) {
+    if (customerId < 1) {
+      throw new BadDataResponse("id must be positive and cannot be zero");
+    }
+    DateAndId before = Cursors.decodeDateAndId(cursor);
+    int pageLimit = Cursors.checkLimit(limit);
+    if (before == null && !customerRepository.existsById(customerId)) {
+      throw new ResourceNotFound(NOT_FOUND + " customer with id " + customerId);
+    }
+    try {
+      Pageable pageable = PageRequest.of(0, pageLimit, Sort.by(Direction.DESC, "date", "id"));
+      Slice<Order> orders = before == null
+          ? orderRepository.findByCustomerId(customerId, pageable)
+          : orderRepository.findByCustomerIdBefore(customerId, before.getDate(), before.getId(),
+              pageable);
+      List<Order> content = orders.getContent();
+      if (content.isEmpty()) {
+        return new KeysetPage<>(content, null);
+      }
+      // the Items are batch fetched, so initializing those of one Order loads the whole page's
+      Hibernate.initialize(content.get(0).getItems());
+      Order last = content.get(content.size() - 1);
+      String nextCursor = orders.hasNext()
+          ? Cursors.encodeDateAndId(last.getDate(), last.getId()) : null;
+      return new KeysetPage<>(content, nextCursor);
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  @Override
+  public Slice<Order> queryOrders(Order order, Pageable pageable, boolean count) {
     try {
       if (order.isEmpty()) {
-        List<Order> orders = orderRepository.findAll();
-        orders.sort(Comparator.comparing(Order::getId));
-        return orders;
+        return count ? orderRepository.findAll(pageable) : orderRepository.findAllBy(pageable);
       } else {
         Example<Order> orderExample = Example.of(order);
-        return orderRepository.findAll(orderExample);
+        return count ? orderRepository.findAll(orderExample, pageable)
+            : orderRepository.findSlice(orderExample, pageable);
       }
+    } catch (PropertyReferenceException | InvalidDataAccessApiUsageException e) {
+      throw new BadDataResponse(INVALID_SORT);
     } catch (Exception e) {
       logger.error(e.getMessage());
       throw new ServiceUnavailable(e);
@@ -62,26 +186,115 @@ public class OrderServiceImpl implements OrderService {
   }
 
   @Override
+  public MultiGet<Order> getOrdersByIds(List<Long> ids) {
+    List<Long> distinctIds = MultiGet.distinctIds(ids);
+    try {
+      return MultiGet.of(distinctIds, orderRepository.findAllById(distinctIds), Order::getId);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+  }
+
+  @Override
+  @Transactional
   public Order addOrder(Order order) {
+    linkItems(order);
+    totalOrders(List.of(order));
     try {
-      return orderRepository.save(order);
+      Order savedOrder = orderRepository.save(order);
+      reportService.applySales(SalesDelta.of(List.of(savedOrder)));
+      return savedOrder;
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
   }
 
   @Override
+  @Transactional
+  public List<Order> addOrders(List<Order> orders) {
+    for (Order order : orders) {
+      order.setId(null);
+      linkItems(order);
+      if (order.getItems() != null) {
+        order.getItems().forEach(item -> item.setId(null));
+      }
+    }
+    totalOrders(orders);
+    try {
+      List<Order> savedOrders = orderRepository.saveAllAndFlush(orders);
+      reportService.applySales(SalesDelta.of(savedOrders));
+      return savedOrders;
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  /**
+   * Totals the given Orders from the current prices of their Products. Prices are taken from the
+   * Products held by the ProductCache, and those of all the others are read together, with a single
+   * IN query that selects only their ids and prices, so an Order, or a batch of them, costs at most
+   * one query however many Items it has.
+   */
+  private void totalOrders(List<Order> orders) {
+    Map<Long, Money> prices = new HashMap<>();
+    List<Long> uncachedIds = new ArrayList<>();
+    for (Long productId : OrderTotals.productIds(orders)) {
+      Product product = productCache.getIfPresent(productId);
+      if (product != null) {
+        prices.put(productId, product.getPrice());
+      } else {
+        uncachedIds.add(productId);
+      }
+    }
+    if (!uncachedIds.isEmpty()) {
+      try {
+        productRepository.findPricesByIdIn(uncachedIds)
+            .forEach(price -> prices.put(price.getId(), price.getPrice()));
+      } catch (Exception e) {
+        logger.error(e.getMessage());
+        throw new ServiceUnavailable(e);
+      }
+    }
+    OrderTotals.total(orders, prices);
+  }
+
+  /**
+   * Points the Items of a posted Order back at it, as the order of an Item is not part of its JSON,
+   * so that the Items are saved with the Order's id.
+   */
+  private void linkItems(Order order) {
+    if (order.getItems() != null) {
+      order.getItems().forEach(item -> item.setOrder(order));
+    }
+  }
+
+  /**
+   * Replaces the Order that has the given id, Items and all, and moves its sales in the rollups
+   * from what it was to what it is.
+   */
+  @Override
+  @Transactional
   public Order updateOrderById(Long id, Order order) {
     if (id < 1) {
       throw new BadDataResponse("id must be positive and cannot be zero");
     }
     Order updatedOrder = null;
-    if (!orderRepository.existsById(id)) {
+    Order existingOrder = orderRepository.findByIdForUpdate(id).orElse(null);
+    if (existingOrder == null) {
       throw new ResourceNotFound(NOT_FOUND + "order with id " + id);
     }
+    totalOrders(List.of(order));
     try {
+      SalesDelta delta = new SalesDelta().subtract(existingOrder);
+      List<Item> replacedItems = new ArrayList<>(existingOrder.getItems());
       order.setId(id);
+      linkItems(order);
+      if (order.getItems() != null) {
+        order.getItems().forEach(item -> item.setId(null));
+      }
       updatedOrder = orderRepository.save(order);
+      itemRepository.deleteAll(replacedItems);
+      reportService.applySales(delta.add(updatedOrder));
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
@@ -89,15 +302,54 @@ public class OrderServiceImpl implements OrderService {
   }
 
   @Override
+  @Transactional
   public void deleteOrderById(Long id) {
     if (id < 1) {
       throw new BadDataResponse("id must be positive and cannot be zero");
     }
-    getOrderById(id);
+    Order order = orderRepository.findByIdForUpdate(id)
+        .orElseThrow(() -> new ResourceNotFound(NOT_FOUND + " order with id " + id));
     try {
+      SalesDelta delta = new SalesDelta().subtract(order);
       orderRepository.deleteById(id);
+      reportService.applySales(delta);
     } catch (Exception e) {
       throw new ServiceUnavailable("Something went wrong");
     }
   }
+
+  /**
+   * Writes every Order, with its Items, to the given stream as newline delimited JSON. Orders are
+   * read from a database cursor and detached once written, and the output is flushed after every
+   * fetch, so memory use does not grow with the number of Orders.
+   *
+   * @param outputStream the stream the Orders are written to, which is left open.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void exportOrders(OutputStream outputStream) throws IOException {
+    ObjectWriter writer = objectMapper.writerFor(Order.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        .withRootValueSeparator("");
+    try (Stream<Order> orders = orderRepository.streamAllWithItems();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+      int written = 0;
+      Iterator<Order> iterator = orders.iterator();
+      while (iterator.hasNext()) {
+        Order order = iterator.next();
+        writer.writeValue(generator, order);
+        generator.writeRaw('\n');
+        entityManager.detach(order);
+        if (++written % OrderRepository.EXPORT_FETCH_SIZE == 0) {
+          generator.flush();
+        }
+      }
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+  }
 }
@@ -0,0 +1,75 @@
+package com.example.ecommerce.services;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class computes the totals of Orders from the prices of the Products of their Items, so that
+ * no total is ever taken from a client. The prices of every Product in a batch of Orders are looked
+ * up together by the caller, never one Item at a time.
+ */
+public final class OrderTotals {
+
+  private OrderTotals() {
+  }
+
+  /**
+   * Collects the ids of the Products the Items of the given Orders are for, whose prices are needed
+   * to total them.
+   *
+   * @param orders the Orders to be totalled.
+   * @return the distinct product ids, in the order they first appear.
+   * @throws BadDataResponse if an Item names no Product or no quantity.
+   */
+  public static Set<Long> productIds(Collection<Order> orders) {
+    Set<Long> productIds = new LinkedHashSet<>();
+    for (Order order : orders) {
+      if (order.getItems() == null) {
+        continue;
+      }
+      for (Item item : order.getItems()) {
+        if (item.getProductId() == null || item.getQuantity() == null) {
+          throw new BadDataResponse("productId and quantity of every item are required fields");
+        }
+        productIds.add(item.getProductId());
+      }
+    }
+    return productIds;
+  }
+
+  /**
+   * Sets the total of each Order to the sum of the price times the quantity of its Items. The sum
+   * is kept in cents, in a long, so totalling an Order allocates nothing but the total itself.
+   *
+   * @param orders the Orders to be totalled.
+   * @param prices the price of each Product, by id.
+   * @throws BadDataResponse if an Item is for a Product that does not exist, or a total is too
+   *                         large to be held.
+   */
+  public static void total(Collection<Order> orders, Map<Long, Money> prices) {
+    for (Order order : orders) {
+      long total = 0;
+      if (order.getItems() != null) {
+        for (Item item : order.getItems()) {
+          Money price = prices.get(item.getProductId());
+          if (price == null) {
+            throw new BadDataResponse("no product with id " + item.getProductId());
+          }
+          try {
+            total = Math.addExact(total,
+                Math.multiplyExact(price.getMinorUnits(), (long) item.getQuantity()));
+          } catch (ArithmeticException e) {
+            throw new BadDataResponse("the total of an order is too large");
+          }
+        }
+      }
+      order.setOrderTotal(Money.ofMinor(total));
+    }
+  }
+}
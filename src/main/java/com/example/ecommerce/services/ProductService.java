@@ -1,19 +1,54 @@
 package com.example.ecommerce.services;
 
+import com.example.ecommerce.models.EntityVersion;
+import com.example.ecommerce.models.Partial;
 import com.example.ecommerce.models.Product;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.search.Suggestion;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * This interface contains the methods which are implemented in the ProductServiceImpl class.
  */
 public interface ProductService {
 
-  List<Product> queryProducts(Product product);
+  Slice<Product> queryProducts(Product product, Pageable pageable, boolean count);
+
+  Slice<Product> queryProducts(Product product, BigDecimal minPrice, BigDecimal maxPrice,
+      Pageable pageable, boolean count);
+
+  Slice<Partial> queryProductFields(Product product, List<String> fields, Pageable pageable,
+      boolean count);
+
+  Map<String, Map<String, Integer>> countProductFacets(Product product);
+
+  Map<String, Map<String, Integer>> countProductFacets(Product product, BigDecimal minPrice,
+      BigDecimal maxPrice);
+
+  Slice<Product> searchProducts(String text, Pageable pageable, boolean count);
+
+  Map<String, Map<String, Integer>> countSearchFacets(String text);
+
+  List<Suggestion> suggestProducts(String prefix, int limit);
 
   Product getProductById(Long id);
 
+  MultiGet<Product> getProductsByIds(List<Long> ids);
+
+  EntityVersion getProductVersionById(Long id);
+
+  Partial getProductFieldsById(Long id, List<String> fields);
+
+  Product getProductBySku(String sku);
+
   Product addProduct(Product product);
 
+  List<Product> addProducts(List<Product> products);
+
   Product updateProductById(Long id, Product product);
 
   void deleteProductById(Long id);
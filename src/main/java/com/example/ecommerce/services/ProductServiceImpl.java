@@ -1,20 +1,57 @@
 package com.example.ecommerce.services;
 
+import static com.example.ecommerce.constants.StringConstants.INVALID_SORT;
 import static com.example.ecommerce.constants.StringConstants.NOT_FOUND;
 
+import com.example.ecommerce.cache.ProductCache;
 import com.example.ecommerce.exceptions.BadDataResponse;
 import com.example.ecommerce.exceptions.Conflict;
 import com.example.ecommerce.exceptions.ResourceNotFound;
 import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.exceptions.UniqueConstraints;
+import com.example.ecommerce.models.EntityVersion;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Partial;
 import com.example.ecommerce.models.Product;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.repositories.ItemRepository;
+import com.example.ecommerce.repositories.ItemRepository.ProductQuantity;
 import com.example.ecommerce.repositories.ProductRepository;
-import java.util.Comparator;
+import com.example.ecommerce.search.ProductFacetIndex;
+import com.example.ecommerce.search.ProductPriceIndex;
+import com.example.ecommerce.search.ProductSearchIndex;
+import com.example.ecommerce.search.ProductSuggester;
+import com.example.ecommerce.search.Suggestion;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * This class contains the methods that are called by the ProductController, and implemented from
@@ -23,28 +60,186 @@ import org.springframework.stereotype.Service;
 @Service
 public class ProductServiceImpl implements ProductService {
 
+  private static final String PRICE = "price";
+
   private final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
   @Autowired
   private ProductRepository productRepository;
 
+  @Autowired
+  private ProductCache productCache;
+
+  @Autowired
+  private ProductSearchIndex productSearchIndex;
+
+  @Autowired
+  private ProductFacetIndex productFacetIndex;
+
+  @Autowired
+  private ProductSuggester productSuggester;
+
+  @Autowired
+  private ProductPriceIndex productPriceIndex;
+
+  @Autowired
+  private ItemRepository itemRepository;
+
+  /**
+   * Indexes every Product for search, facet counts, suggestions and price ranges once the
+   * application, and the data loaded with it, is ready.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildSearchIndexes() {
+    long indexed = productSearchIndex.rebuild(productRepository::findAllBy);
+    logger.info("Indexed {} products for search", indexed);
+    indexed = productFacetIndex.rebuild(productRepository::findAllBy);
+    logger.info("Indexed {} products for facet counts", indexed);
+    indexed = productSuggester.rebuild(productRepository::findAllBy,
+        () -> itemRepository.sumQuantityByProductId().stream().collect(Collectors.toMap(
+            ProductQuantity::getProductId, ProductQuantity::getQuantity)));
+    logger.info("Indexed {} products for suggestions", indexed);
+    indexed = productPriceIndex.rebuild(productRepository::findAllBy);
+    logger.info("Indexed {} products for price ranges", indexed);
+  }
+
   @Override
-  public List<Product> queryProducts(Product product) {
+  public Slice<Product> queryProducts(Product product, Pageable pageable, boolean count) {
+    return queryProducts(product, null, null, pageable, count);
+  }
+
+  @Override
+  public Slice<Product> queryProducts(Product product, BigDecimal minPrice, BigDecimal maxPrice,
+      Pageable pageable, boolean count) {
+    checkPriceRange(minPrice, maxPrice);
+    Direction priceDirection = priceDirection(pageable.getSort());
+    if (product.isEmpty() && priceDirection != null) {
+      // a price range, or the whole catalog, sorted by price is read from the price index alone
+      Slice<Long> ids;
+      try {
+        ids = productPriceIndex.between(minPrice, maxPrice, priceDirection, pageable, count);
+      } catch (Exception e) {
+        logger.error(e.getMessage());
+        throw new ServiceUnavailable(e);
+      }
+      return loadInOrder(ids, pageable);
+    }
     try {
-      if (product.isEmpty()) {
-        List<Product> products = productRepository.findAll();
-        products.sort(Comparator.comparing(Product::getId));
-        return products;
+      if (minPrice != null || maxPrice != null) {
+        Example<Product> productExample = Example.of(product);
+        Specification<Product> priceRange = priceBetween(minPrice, maxPrice);
+        Slice<Product> products = productRepository.findSlice(productExample, priceRange,
+            pageable);
+        return count ? new PageImpl<>(products.getContent(), pageable,
+            productRepository.count(productExample, priceRange)) : products;
+      } else if (product.isEmpty()) {
+        return count ? productRepository.findAll(pageable) : productRepository.findAllBy(pageable);
       } else {
         Example<Product> productExample = Example.of(product);
-        return productRepository.findAll(productExample);
+        return count ? productRepository.findAll(productExample, pageable)
+            : productRepository.findSlice(productExample, pageable);
       }
+    } catch (PropertyReferenceException | InvalidDataAccessApiUsageException e) {
+      throw new BadDataResponse(INVALID_SORT);
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  @Override
+  public Slice<Partial> queryProductFields(Product product, List<String> fields, Pageable pageable,
+      boolean count) {
+    List<String> selectedFields = Partial.distinctFields(fields);
+    try {
+      Example<Product> productExample = Example.of(product);
+      Slice<Partial> partials = productRepository.findPartialSlice(productExample, selectedFields,
+          pageable);
+      return count ? new PageImpl<>(partials.getContent(), pageable,
+          productRepository.count(productExample)) : partials;
+    } catch (PropertyReferenceException e) {
+      throw new BadDataResponse(e.getMessage());
+    } catch (InvalidDataAccessApiUsageException e) {
+      throw new BadDataResponse(INVALID_SORT);
     } catch (Exception e) {
       logger.error(e.getMessage());
       throw new ServiceUnavailable(e);
     }
   }
 
+  @Override
+  public Map<String, Map<String, Integer>> countProductFacets(Product product) {
+    return countProductFacets(product, null, null);
+  }
+
+  @Override
+  public Map<String, Map<String, Integer>> countProductFacets(Product product,
+      BigDecimal minPrice, BigDecimal maxPrice) {
+    checkPriceRange(minPrice, maxPrice);
+    try {
+      RoaringBitmap ids;
+      if (filtersOnlyFacets(product)) {
+        ids = productFacetIndex.matching(product.getType(), product.getManufacturer());
+      } else {
+        // the other fields are not indexed, so the ids that match them are read from the database
+        ids = ProductFacetIndex.bitmapOf(productRepository
+            .findPartialSlice(Example.of(product), List.of(), Pageable.unpaged())
+            .map(Partial::getId).getContent());
+      }
+      if (minPrice != null || maxPrice != null) {
+        ids.and(productPriceIndex.idsBetween(minPrice, maxPrice));
+      }
+      return productFacetIndex.count(ids);
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  @Override
+  public Slice<Product> searchProducts(String text, Pageable pageable, boolean count) {
+    if (text.isBlank()) {
+      throw new BadDataResponse("search text cannot be blank");
+    }
+    Slice<Long> ids;
+    try {
+      ids = productSearchIndex.search(text, pageable, count);
+    } catch (IllegalArgumentException e) {
+      throw new BadDataResponse(e.getMessage());
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+    return loadInOrder(ids, pageable);
+  }
+
+  @Override
+  public Map<String, Map<String, Integer>> countSearchFacets(String text) {
+    if (text.isBlank()) {
+      throw new BadDataResponse("search text cannot be blank");
+    }
+    try {
+      return productFacetIndex.count(productSearchIndex.matchingIds(text));
+    } catch (IllegalArgumentException e) {
+      throw new BadDataResponse(e.getMessage());
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  @Override
+  public List<Suggestion> suggestProducts(String prefix, int limit) {
+    if (prefix.isBlank()) {
+      throw new BadDataResponse("prefix cannot be blank");
+    }
+    if (limit < 1 || limit > ProductSuggester.MAX_SUGGESTIONS) {
+      throw new BadDataResponse(
+          "limit must be between 1 and " + ProductSuggester.MAX_SUGGESTIONS);
+    }
+    return productSuggester.suggest(prefix, limit);
+  }
+
   @Override
   public Product getProductById(Long id) {
     if (id < 1) {
@@ -52,7 +247,8 @@ public class ProductServiceImpl implements ProductService {
     }
     Product productLookUpResult;
     try {
-      productLookUpResult = productRepository.findById(id).orElse(null);
+      productLookUpResult = productCache.getById(id,
+          key -> productRepository.findById(key).orElse(null));
       if (productLookUpResult != null) {
         return productLookUpResult;
       }
@@ -62,39 +258,167 @@ public class ProductServiceImpl implements ProductService {
     throw new ResourceNotFound(NOT_FOUND + " product with id " + id);
   }
 
+  @Override
+  public MultiGet<Product> getProductsByIds(List<Long> ids) {
+    List<Long> distinctIds = MultiGet.distinctIds(ids);
+    // cached Products are served from memory, and the rest are loaded with one IN query
+    try {
+      return MultiGet.of(distinctIds,
+          productCache.getAllById(distinctIds, productRepository::findAllById), Product::getId);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+  }
+
+  @Override
+  public Partial getProductFieldsById(Long id, List<String> fields) {
+    if (id < 1) {
+      throw new BadDataResponse("id must be positive and cannot be zero");
+    }
+    List<String> selectedFields = Partial.distinctFields(fields);
+    Partial partialLookUpResult;
+    try {
+      partialLookUpResult = productRepository.findPartialById(Product.class, id, selectedFields)
+          .orElse(null);
+      if (partialLookUpResult != null) {
+        return partialLookUpResult;
+      }
+    } catch (PropertyReferenceException e) {
+      throw new BadDataResponse(e.getMessage());
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+    throw new ResourceNotFound(NOT_FOUND + " product with id " + id);
+  }
+
+  @Override
+  public EntityVersion getProductVersionById(Long id) {
+    if (id < 1) {
+      throw new BadDataResponse("id must be positive and cannot be zero");
+    }
+    // a cached Product is as current as the body it would be served from, and costs no query
+    Product cachedProduct = productCache.getIfPresent(id);
+    if (cachedProduct != null) {
+      return EntityVersion.of(cachedProduct);
+    }
+    EntityVersion versionLookUpResult;
+    try {
+      versionLookUpResult = productRepository.findVersionById(id).orElse(null);
+      if (versionLookUpResult != null) {
+        return versionLookUpResult;
+      }
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+    throw new ResourceNotFound(NOT_FOUND + " product with id " + id);
+  }
+
+  @Override
+  public Product getProductBySku(String sku) {
+    Product productLookUpResult;
+    try {
+      productLookUpResult = productCache.getBySku(sku, productRepository::findBySku);
+      if (productLookUpResult != null) {
+        return productLookUpResult;
+      }
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+    throw new ResourceNotFound(NOT_FOUND + " product with sku " + sku);
+  }
+
   @Override
   public Product addProduct(Product product) {
-    boolean productWithMatchingSku = productRepository.existsBySku(product.getSku());
-    if (productWithMatchingSku) {
-      throw new Conflict("SKU is already in use by another product!");
+    Product savedProduct;
+    try {
+      savedProduct = productRepository.saveAndFlush(product);
+      productSearchIndex.index(savedProduct);
+      productFacetIndex.index(savedProduct);
+      productSuggester.index(savedProduct);
+      productPriceIndex.index(savedProduct);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, Product.SKU_UNIQUE)) {
+        throw new Conflict("SKU is already in use by another product!");
+      }
+      throw new ServiceUnavailable(e);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
+    }
+    productCache.evict(savedProduct.getId());
+    return savedProduct;
+  }
+
+  /**
+   * Saves a batch of new Products in one transaction. The given Products are the ones persisted, so
+   * the caller's list is changed: any id they carry is cleared, so that each is inserted rather
+   * than merged over an existing Product, and they come back with their new ids and versions set.
+   */
+  @Override
+  public List<Product> addProducts(List<Product> products) {
+    Set<String> skus = new HashSet<>();
+    for (int i = 0; i < products.size(); i++) {
+      products.get(i).setId(null);
+      if (!skus.add(products.get(i).getSku())) {
+        throw new Conflict("SKU of products[" + i + "] is used more than once in the batch!");
+      }
     }
     try {
-      return productRepository.save(product);
+      List<Product> savedProducts = productRepository.saveAllAndFlush(products);
+      productSearchIndex.indexAll(savedProducts);
+      productFacetIndex.indexAll(savedProducts);
+      productSuggester.indexAll(savedProducts);
+      productPriceIndex.indexAll(savedProducts);
+      return savedProducts;
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, Product.SKU_UNIQUE)) {
+        throw new Conflict("SKU is already in use by another product!");
+      }
+      throw new ServiceUnavailable(e);
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
   }
 
   @Override
+  @Transactional
   public Product updateProductById(Long id, Product product) {
     if (id < 1) {
       throw new BadDataResponse("id must be positive and cannot be zero");
     }
-    boolean productWithMatchingSku = productRepository.existsBySku(product.getSku());
-    if (productWithMatchingSku) {
-      throw new Conflict("SKU is already in use by another product!");
+    Product existingProduct;
+    try {
+      existingProduct = productRepository.findById(id).orElse(null);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
-    Product updatedProduct = null;
-    if (!productRepository.existsById(id)) {
+    if (existingProduct == null) {
       throw new ResourceNotFound(NOT_FOUND + "product with id " + id);
     }
+    existingProduct.setSku(product.getSku());
+    existingProduct.setType(product.getType());
+    existingProduct.setName(product.getName());
+    existingProduct.setDescription(product.getDescription());
+    existingProduct.setManufacturer(product.getManufacturer());
+    existingProduct.setPrice(product.getPrice());
+    Product savedProduct;
     try {
-      product.setId(id);
-      updatedProduct = productRepository.save(product);
+      savedProduct = productRepository.saveAndFlush(existingProduct);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, Product.SKU_UNIQUE)) {
+        throw new Conflict("SKU is already in use by another product!");
+      }
+      throw new ServiceUnavailable(e);
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
-    return updatedProduct;
+    afterCommit(() -> {
+      productCache.evict(id);
+      productSearchIndex.index(savedProduct);
+      productFacetIndex.index(savedProduct);
+      productSuggester.index(savedProduct);
+      productPriceIndex.index(savedProduct);
+    });
+    return savedProduct;
   }
 
   @Override
@@ -105,8 +429,98 @@ public class ProductServiceImpl implements ProductService {
     getProductById(id);
     try {
       productRepository.deleteById(id);
+      productSearchIndex.remove(id);
+      productFacetIndex.remove(id);
+      productSuggester.remove(id);
+      productPriceIndex.remove(id);
     } catch (Exception e) {
       throw new ServiceUnavailable("Something went wrong");
+    } finally {
+      productCache.evict(id);
     }
   }
+
+  /**
+   * Runs the given action once the current transaction has committed, so that no reader can put
+   * the row as it was before into the ProductCache after it was evicted, and the in-memory indexes
+   * never take in a write that was rolled back. Without a transaction, it runs at once.
+   */
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  /**
+   * Loads the Products with the given ids like a multi-get, and puts them back in the order of the
+   * ids, i.e. by relevance or by price.
+   */
+  private Slice<Product> loadInOrder(Slice<Long> ids, Pageable pageable) {
+    List<Product> products;
+    try {
+      products = MultiGet.of(ids.getContent(),
+          productCache.getAllById(ids.getContent(), productRepository::findAllById),
+          Product::getId).getResults();
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
+    }
+    if (ids instanceof Page) {
+      return new PageImpl<>(products, pageable, ((Page<Long>) ids).getTotalElements());
+    }
+    return new SliceImpl<>(products, pageable, ids.hasNext());
+  }
+
+  private static void checkPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+    if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+      throw new BadDataResponse("minPrice cannot be greater than maxPrice");
+    }
+  }
+
+  /**
+   * Tells the direction of a sort by price, alone or followed by id in the same direction, which is
+   * the order the price index keeps.
+   *
+   * @return the direction, or null for any other sort.
+   */
+  private static Direction priceDirection(Sort sort) {
+    List<Order> orders = sort.toList();
+    if (orders.isEmpty() || orders.size() > 2 || !PRICE.equals(orders.get(0).getProperty())) {
+      return null;
+    }
+    Direction direction = orders.get(0).getDirection();
+    if (orders.size() == 2 && (!"id".equals(orders.get(1).getProperty())
+        || orders.get(1).getDirection() != direction)) {
+      return null;
+    }
+    return direction;
+  }
+
+  /**
+   * Matches the Products priced within the given range. Prices are whole cents, so a bound with a
+   * fraction of a cent is rounded inwards, as the price index does.
+   */
+  private static Specification<Product> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+    Money min = Money.of(minPrice, RoundingMode.CEILING);
+    Money max = Money.of(maxPrice, RoundingMode.FLOOR);
+    return (root, query, builder) -> {
+      if (min == null) {
+        return builder.lessThanOrEqualTo(root.get(PRICE), max);
+      } else if (max == null) {
+        return builder.greaterThanOrEqualTo(root.get(PRICE), min);
+      }
+      return builder.between(root.get(PRICE), min, max);
+    };
+  }
+
+  private static boolean filtersOnlyFacets(Product product) {
+    return product.getId() == null && product.getSku() == null && product.getName() == null
+        && product.getDescription() == null && product.getPrice() == null;
+  }
 }
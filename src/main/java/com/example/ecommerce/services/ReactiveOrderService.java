@@ -0,0 +1,36 @@
+package com.example.ecommerce.services;
+
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.pagination.KeysetPage;
+import com.example.ecommerce.pagination.MultiGet;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This interface is the non-blocking counterpart of the OrderService, used by the reactive stack.
+ * Its methods behave as those of the OrderService, and signal the same exceptions as errors.
+ */
+public interface ReactiveOrderService {
+
+  Mono<KeysetPage<Order>> queryOrdersAfter(String cursor, Integer limit);
+
+  Mono<Slice<Order>> queryOrders(Order order, Pageable pageable, boolean count);
+
+  Mono<Order> getOrderById(Long id);
+
+  Mono<MultiGet<Order>> getOrdersByIds(List<Long> ids);
+
+  Mono<Order> addOrder(Order order);
+
+  Mono<List<Order>> addOrders(List<Order> orders);
+
+  Mono<Order> updateOrderById(Long id, Order order);
+
+  Mono<Void> deleteOrderById(Long id);
+
+  Flux<Order> exportOrders();
+
+}
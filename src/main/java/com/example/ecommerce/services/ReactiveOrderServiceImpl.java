@@ -0,0 +1,306 @@
+package com.example.ecommerce.services;
+
+import static com.example.ecommerce.constants.StringConstants.INVALID_SORT;
+import static com.example.ecommerce.constants.StringConstants.NOT_FOUND;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.example.ecommerce.exceptions.ResourceNotFound;
+import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.ItemRecord;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.models.OrderRecord;
+import com.example.ecommerce.models.ProductRecord;
+import com.example.ecommerce.pagination.Cursors;
+import com.example.ecommerce.pagination.KeysetPage;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.repositories.OrderRepository;
+import com.example.ecommerce.repositories.ReactiveItemRepository;
+import com.example.ecommerce.repositories.ReactiveOrderRepository;
+import com.example.ecommerce.repositories.ReactiveProductRepository;
+import com.example.ecommerce.repositories.ReactiveSalesRepository;
+import com.example.ecommerce.repositories.ReactiveSequenceRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class contains the methods that are called by the ReactiveOrderController, and implemented
+ * from the ReactiveOrderService interface. Orders and their Items are separate rows to R2DBC: the
+ * Items of a page of Orders are read with one further query, and an Order is written together with
+ * its Items in one transaction.
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveOrderServiceImpl implements ReactiveOrderService {
+
+  private static final String ORDERS_SEQUENCE = "orders_seq";
+  private static final String ITEMS_SEQUENCE = "items_seq";
+
+  @Autowired
+  private ReactiveOrderRepository orderRepository;
+
+  @Autowired
+  private ReactiveItemRepository itemRepository;
+
+  @Autowired
+  private ReactiveProductRepository productRepository;
+
+  @Autowired
+  private ReactiveSequenceRepository sequenceRepository;
+
+  @Autowired
+  private ReactiveSalesRepository salesRepository;
+
+  @Autowired
+  private TransactionalOperator transactionalOperator;
+
+  @Override
+  public Mono<KeysetPage<Order>> queryOrdersAfter(String cursor, Integer limit) {
+    long afterId;
+    int pageLimit;
+    try {
+      afterId = Cursors.decodeId(cursor);
+      pageLimit = Cursors.checkLimit(limit);
+    } catch (BadDataResponse e) {
+      return Mono.error(e);
+    }
+    return orderRepository.findByIdGreaterThan(afterId,
+            PageRequest.of(0, pageLimit + 1, Sort.by("id")))
+        .collectList()
+        .flatMap(records -> {
+          boolean hasNext = records.size() > pageLimit;
+          List<OrderRecord> content = hasNext ? records.subList(0, pageLimit) : records;
+          String nextCursor = hasNext
+              ? Cursors.encodeId(content.get(content.size() - 1).getId()) : null;
+          return withItems(content).map(orders -> new KeysetPage<>(orders, nextCursor));
+        })
+        .onErrorMap(ReactiveOrderServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Slice<Order>> queryOrders(Order order, Pageable pageable, boolean count) {
+    Example<OrderRecord> orderExample = Example.of(OrderRecord.from(order));
+    Mono<Slice<OrderRecord>> records = orderRepository.findSlice(orderExample, pageable);
+    if (count) {
+      records = records.zipWith(orderRepository.count(orderExample),
+          (slice, total) -> new PageImpl<>(slice.getContent(), pageable, total));
+    }
+    return records.flatMap(slice -> withItems(slice.getContent())
+            .map(orders -> withContent(slice, orders)))
+        .onErrorMap(InvalidDataAccessApiUsageException.class,
+            e -> new BadDataResponse(INVALID_SORT))
+        .onErrorMap(ReactiveOrderServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Order> getOrderById(Long id) {
+    if (id < 1) {
+      return Mono.error(new BadDataResponse("id must be positive and cannot be zero"));
+    }
+    return orderRepository.findById(id)
+        .flatMap(record -> withItems(Collections.singletonList(record)))
+        .map(orders -> orders.get(0))
+        .onErrorMap(ReactiveOrderServiceImpl::unavailable)
+        .switchIfEmpty(Mono.error(() -> new ResourceNotFound(NOT_FOUND + " order with id " + id)));
+  }
+
+  @Override
+  public Mono<MultiGet<Order>> getOrdersByIds(List<Long> ids) {
+    List<Long> distinctIds;
+    try {
+      distinctIds = MultiGet.distinctIds(ids);
+    } catch (BadDataResponse e) {
+      return Mono.error(e);
+    }
+    return orderRepository.findAllById(distinctIds)
+        .collectList()
+        .flatMap(this::withItems)
+        .map(orders -> MultiGet.of(distinctIds, orders, Order::getId))
+        .onErrorMap(ReactiveOrderServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Order> addOrder(Order order) {
+    return addOrders(Collections.singletonList(order)).map(orders -> orders.get(0));
+  }
+
+  @Override
+  public Mono<List<Order>> addOrders(List<Order> orders) {
+    return totalOrders(orders)
+        .flatMap(totalled -> Mono.zip(
+            sequenceRepository.nextIds(ORDERS_SEQUENCE, orders.size()).collectList(),
+            sequenceRepository.nextIds(ITEMS_SEQUENCE, countItems(orders)).collectList()))
+        .flatMap(ids -> {
+          List<OrderRecord> orderRecords = new ArrayList<>(orders.size());
+          List<ItemRecord> itemRecords = new ArrayList<>(ids.getT2().size());
+          for (int i = 0; i < orders.size(); i++) {
+            OrderRecord orderRecord = OrderRecord.from(orders.get(i));
+            orderRecord.setId(ids.getT1().get(i));
+            orderRecords.add(orderRecord);
+            itemRecords.addAll(itemRecords(orders.get(i), orderRecord.getId(),
+                ids.getT2().subList(itemRecords.size(), ids.getT2().size())));
+          }
+          return orderRepository.saveAll(orderRecords)
+              .thenMany(itemRepository.saveAll(itemRecords))
+              .then(salesRepository.applySales(SalesDelta.of(orders)))
+              .as(transactionalOperator::transactional)
+              .then(Mono.fromSupplier(() -> toOrders(orderRecords, itemRecords)));
+        })
+        .onErrorMap(ReactiveOrderServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Order> updateOrderById(Long id, Order order) {
+    if (id < 1) {
+      return Mono.error(new BadDataResponse("id must be positive and cannot be zero"));
+    }
+    return sequenceRepository.nextIds(ITEMS_SEQUENCE, countItems(List.of(order))).collectList()
+        .flatMap(itemIds -> orderRepository.findByIdForUpdate(id)
+            .switchIfEmpty(Mono.error(
+                () -> new ResourceNotFound(NOT_FOUND + "order with id " + id)))
+            .flatMap(existingOrder -> withItems(List.of(existingOrder))
+                .zipWith(totalOrders(List.of(order)))
+                .flatMap(existingAndTotalled -> {
+                  SalesDelta delta = new SalesDelta().subtract(existingAndTotalled.getT1().get(0));
+                  existingOrder.copy(order);
+                  List<ItemRecord> items = itemRecords(order, id, itemIds);
+                  Order updatedOrder = existingOrder.toOrder(items);
+                  return orderRepository.save(existingOrder)
+                      .then(itemRepository.deleteByOrderId(id))
+                      .thenMany(itemRepository.saveAll(items))
+                      .then(salesRepository.applySales(delta.add(updatedOrder)))
+                      .thenReturn(updatedOrder);
+                }))
+            .as(transactionalOperator::transactional))
+        .onErrorMap(ReactiveOrderServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Void> deleteOrderById(Long id) {
+    if (id < 1) {
+      return Mono.error(new BadDataResponse("id must be positive and cannot be zero"));
+    }
+    return orderRepository.findByIdForUpdate(id)
+        .switchIfEmpty(Mono.error(() -> new ResourceNotFound(NOT_FOUND + " order with id " + id)))
+        .flatMap(record -> withItems(List.of(record)))
+        .flatMap(orders -> itemRepository.deleteByOrderId(id)
+            .then(orderRepository.deleteById(id))
+            .then(salesRepository.applySales(new SalesDelta().subtract(orders.get(0)))))
+        .as(transactionalOperator::transactional)
+        .onErrorMap(ReactiveOrderServiceImpl::unavailable);
+  }
+
+  /**
+   * Totals the given Orders from the current prices of their Products, which are all read with one
+   * query.
+   */
+  private Mono<List<Order>> totalOrders(List<Order> orders) {
+    return Mono.fromCallable(() -> OrderTotals.productIds(orders))
+        .flatMap(productIds -> productIds.isEmpty() ? Mono.just(Map.<Long, Money>of())
+            : productRepository.findAllById(productIds)
+                .collectMap(ProductRecord::getId, product -> Money.of(product.getPrice())))
+        .map(prices -> {
+          OrderTotals.total(orders, prices);
+          return orders;
+        });
+  }
+
+  /**
+   * Streams every Order with its Items, in id order. The Orders are read as they are consumed, and
+   * the Items of every OrderRepository.EXPORT_FETCH_SIZE Orders are read together.
+   */
+  @Override
+  public Flux<Order> exportOrders() {
+    return orderRepository.findAll(Sort.by("id"))
+        .buffer(OrderRepository.EXPORT_FETCH_SIZE)
+        .concatMap(this::withItems)
+        .flatMapIterable(orders -> orders)
+        .onErrorMap(ReactiveOrderServiceImpl::unavailable);
+  }
+
+  /**
+   * Reads the Items of the given Orders in one query.
+   *
+   * @param records the Orders, without their Items.
+   * @return the Orders with their Items, in the same order.
+   */
+  private Mono<List<Order>> withItems(List<OrderRecord> records) {
+    if (records.isEmpty()) {
+      return Mono.just(Collections.emptyList());
+    }
+    List<Long> orderIds = records.stream().map(OrderRecord::getId).collect(Collectors.toList());
+    return itemRepository.findByOrderIdInOrderById(orderIds)
+        .collectList()
+        .map(items -> toOrders(records, items));
+  }
+
+  private static List<Order> toOrders(List<OrderRecord> records, List<ItemRecord> items) {
+    Map<Long, List<ItemRecord>> itemsByOrder = items.stream()
+        .collect(Collectors.groupingBy(ItemRecord::getOrderId));
+    return records.stream()
+        .map(record -> record.toOrder(
+            itemsByOrder.getOrDefault(record.getId(), Collections.emptyList())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return a Slice, or a Page if the given Slice is one, of the same page but with other content.
+   */
+  private static Slice<Order> withContent(Slice<OrderRecord> slice, List<Order> orders) {
+    if (slice instanceof Page) {
+      return new PageImpl<>(orders, slice.getPageable(), ((Page<?>) slice).getTotalElements());
+    }
+    return new SliceImpl<>(orders, slice.getPageable(), slice.hasNext());
+  }
+
+  private static List<ItemRecord> itemRecords(Order order, Long orderId, List<Long> ids) {
+    List<ItemRecord> records = new ArrayList<>();
+    if (order.getItems() != null) {
+      for (Item item : order.getItems()) {
+        ItemRecord record = ItemRecord.from(item, orderId);
+        record.setId(ids.get(records.size()));
+        records.add(record);
+      }
+    }
+    return records;
+  }
+
+  private static int countItems(Collection<Order> orders) {
+    return orders.stream()
+        .mapToInt(order -> order.getItems() == null ? 0 : order.getItems().size())
+        .sum();
+  }
+
+  /**
+   * Passes on the errors the ExceptionController answers on their own, and reports every other
+   * error, such as a failed query, as the service being unavailable.
+   */
+  private static Throwable unavailable(Throwable e) {
+    if (e instanceof BadDataResponse || e instanceof ResourceNotFound
+        || e instanceof ServiceUnavailable) {
+      return e;
+    }
+    return new ServiceUnavailable(e.getMessage());
+  }
+}
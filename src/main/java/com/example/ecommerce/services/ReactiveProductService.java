@@ -0,0 +1,32 @@
+package com.example.ecommerce.services;
+
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.pagination.MultiGet;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Mono;
+
+/**
+ * This interface is the non-blocking counterpart of the ProductService, used by the reactive stack.
+ * Its methods behave as those of the ProductService, and signal the same exceptions as errors.
+ */
+public interface ReactiveProductService {
+
+  Mono<Slice<Product>> queryProducts(Product product, Pageable pageable, boolean count);
+
+  Mono<Product> getProductById(Long id);
+
+  Mono<MultiGet<Product>> getProductsByIds(List<Long> ids);
+
+  Mono<Product> getProductBySku(String sku);
+
+  Mono<Product> addProduct(Product product);
+
+  Mono<List<Product>> addProducts(List<Product> products);
+
+  Mono<Product> updateProductById(Long id, Product product);
+
+  Mono<Void> deleteProductById(Long id);
+
+}
@@ -0,0 +1,181 @@
+package com.example.ecommerce.services;
+
+import static com.example.ecommerce.constants.StringConstants.INVALID_SORT;
+import static com.example.ecommerce.constants.StringConstants.NOT_FOUND;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.example.ecommerce.exceptions.Conflict;
+import com.example.ecommerce.exceptions.ResourceNotFound;
+import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.exceptions.UniqueConstraints;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.models.ProductRecord;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.repositories.ReactiveProductRepository;
+import com.example.ecommerce.repositories.ReactiveSequenceRepository;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class contains the methods that are called by the ReactiveProductController, and
+ * implemented from the ReactiveProductService interface. It reads and writes the products table
+ * over R2DBC, and bypasses the ProductCache and Hibernate's cache that sit in front of the servlet
+ * stack.
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+  private static final String PRODUCTS_SEQUENCE = "products_seq";
+
+  @Autowired
+  private ReactiveProductRepository productRepository;
+
+  @Autowired
+  private ReactiveSequenceRepository sequenceRepository;
+
+  @Autowired
+  private TransactionalOperator transactionalOperator;
+
+  @Override
+  public Mono<Slice<Product>> queryProducts(Product product, Pageable pageable, boolean count) {
+    Example<ProductRecord> productExample = Example.of(ProductRecord.from(product));
+    Mono<Slice<ProductRecord>> records = productRepository.findSlice(productExample, pageable);
+    if (count) {
+      records = records.zipWith(productRepository.count(productExample),
+          (slice, total) -> new PageImpl<>(slice.getContent(), pageable, total));
+    }
+    return records.map(slice -> slice.map(ProductRecord::toProduct))
+        .onErrorMap(InvalidDataAccessApiUsageException.class,
+            e -> new BadDataResponse(INVALID_SORT))
+        .onErrorMap(ReactiveProductServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Product> getProductById(Long id) {
+    if (id < 1) {
+      return Mono.error(new BadDataResponse("id must be positive and cannot be zero"));
+    }
+    return productRepository.findById(id)
+        .map(ProductRecord::toProduct)
+        .onErrorMap(ReactiveProductServiceImpl::unavailable)
+        .switchIfEmpty(Mono.error(
+            () -> new ResourceNotFound(NOT_FOUND + " product with id " + id)));
+  }
+
+  @Override
+  public Mono<MultiGet<Product>> getProductsByIds(List<Long> ids) {
+    List<Long> distinctIds;
+    try {
+      distinctIds = MultiGet.distinctIds(ids);
+    } catch (BadDataResponse e) {
+      return Mono.error(e);
+    }
+    return productRepository.findAllById(distinctIds)
+        .map(ProductRecord::toProduct)
+        .collectList()
+        .map(products -> MultiGet.of(distinctIds, products, Product::getId))
+        .onErrorMap(ReactiveProductServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Product> getProductBySku(String sku) {
+    return productRepository.findBySku(sku)
+        .map(ProductRecord::toProduct)
+        .onErrorMap(ReactiveProductServiceImpl::unavailable)
+        .switchIfEmpty(Mono.error(
+            () -> new ResourceNotFound(NOT_FOUND + " product with sku " + sku)));
+  }
+
+  @Override
+  public Mono<Product> addProduct(Product product) {
+    return sequenceRepository.nextIds(PRODUCTS_SEQUENCE, 1).next()
+        .flatMap(id -> {
+          ProductRecord record = ProductRecord.from(product).modified();
+          record.setId(id);
+          return productRepository.save(record);
+        })
+        .map(ProductRecord::toProduct)
+        .onErrorMap(e -> UniqueConstraints.isViolated(e, Product.SKU_UNIQUE),
+            e -> new Conflict("SKU is already in use by another product!"))
+        .onErrorMap(ReactiveProductServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<List<Product>> addProducts(List<Product> products) {
+    Set<String> skus = new HashSet<>();
+    for (int i = 0; i < products.size(); i++) {
+      if (!skus.add(products.get(i).getSku())) {
+        return Mono.error(
+            new Conflict("SKU of products[" + i + "] is used more than once in the batch!"));
+      }
+    }
+    return sequenceRepository.nextIds(PRODUCTS_SEQUENCE, products.size()).collectList()
+        .flatMap(ids -> {
+          List<ProductRecord> records = new ArrayList<>(products.size());
+          for (int i = 0; i < products.size(); i++) {
+            ProductRecord record = ProductRecord.from(products.get(i)).modified();
+            record.setId(ids.get(i));
+            records.add(record);
+          }
+          return productRepository.saveAll(records)
+              .map(ProductRecord::toProduct)
+              .collectList()
+              .as(transactionalOperator::transactional);
+        })
+        .onErrorMap(e -> UniqueConstraints.isViolated(e, Product.SKU_UNIQUE),
+            e -> new Conflict("SKU is already in use by another product!"))
+        .onErrorMap(ReactiveProductServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Product> updateProductById(Long id, Product product) {
+    if (id < 1) {
+      return Mono.error(new BadDataResponse("id must be positive and cannot be zero"));
+    }
+    return productRepository.findById(id)
+        .switchIfEmpty(Mono.error(
+            () -> new ResourceNotFound(NOT_FOUND + "product with id " + id)))
+        .flatMap(existingProduct -> {
+          existingProduct.copy(product);
+          return productRepository.save(existingProduct.modified());
+        })
+        .as(transactionalOperator::transactional)
+        .map(ProductRecord::toProduct)
+        .onErrorMap(e -> UniqueConstraints.isViolated(e, Product.SKU_UNIQUE),
+            e -> new Conflict("SKU is already in use by another product!"))
+        .onErrorMap(ReactiveProductServiceImpl::unavailable);
+  }
+
+  @Override
+  public Mono<Void> deleteProductById(Long id) {
+    return getProductById(id)
+        .flatMap(product -> productRepository.deleteById(id))
+        .onErrorMap(ReactiveProductServiceImpl::unavailable);
+  }
+
+  /**
+   * Passes on the errors the ExceptionController answers on their own, and reports every other
+   * error, such as a failed query, as the service being unavailable.
+   */
+  private static Throwable unavailable(Throwable e) {
+    if (e instanceof BadDataResponse || e instanceof ResourceNotFound || e instanceof Conflict
+        || e instanceof ServiceUnavailable) {
+      return e;
+    }
+    return new ServiceUnavailable(e.getMessage());
+  }
+}
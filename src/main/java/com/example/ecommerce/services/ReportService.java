@@ -0,0 +1,15 @@
+package com.example.ecommerce.services;
+
+import com.example.ecommerce.models.SalesReport;
+import java.time.LocalDate;
+
+/**
+ * This interface contains the methods which are implemented in the ReportServiceImpl class.
+ */
+public interface ReportService {
+
+  SalesReport getSalesReport(LocalDate from, LocalDate to, Integer limit);
+
+  void applySales(SalesDelta delta);
+
+}
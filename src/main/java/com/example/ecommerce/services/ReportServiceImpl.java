@@ -0,0 +1,91 @@
+package com.example.ecommerce.services;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.models.DailySales;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.ProductSales;
+import com.example.ecommerce.models.SalesReport;
+import com.example.ecommerce.pagination.Cursors;
+import com.example.ecommerce.repositories.DailyProductSalesRepository;
+import com.example.ecommerce.repositories.DailySalesRepository;
+import java.time.LocalDate;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This class contains the methods that are called by the ReportController, and implemented from
+ * the ReportService interface. Reports are read from the sales rollups, which the OrderServiceImpl
+ * keeps up to date in the transaction that saves or deletes each Order, so their cost depends on
+ * the number of days and Products reported on, not on the number of Orders.
+ */
+@Service
+public class ReportServiceImpl implements ReportService {
+
+  // the range of days reported on when the user gives no bound
+  private static final LocalDate FIRST_DAY = LocalDate.of(1, 1, 1);
+  private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+  private final Logger logger = LoggerFactory.getLogger(ReportService.class);
+
+  @Autowired
+  private DailySalesRepository dailySalesRepository;
+
+  @Autowired
+  private DailyProductSalesRepository dailyProductSalesRepository;
+
+  /**
+   * Reports the sales of the given days.
+   *
+   * @param from  the first day reported on, or null to start with the first sale.
+   * @param to    the last day reported on, or null to end with the last sale.
+   * @param limit the most Products to list, or null for the default limit.
+   * @return the revenue and number of Orders of every day and of the whole range, and the Products
+   * ordered most in it.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public SalesReport getSalesReport(LocalDate from, LocalDate to, Integer limit) {
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new BadDataResponse("from must not be after to");
+    }
+    int productLimit = Cursors.checkLimit(limit);
+    LocalDate first = from == null ? FIRST_DAY : from;
+    LocalDate last = to == null ? LAST_DAY : to;
+    try {
+      List<DailySales> days = dailySalesRepository
+          .findDaysWithOrders(first, last);
+      List<ProductSales> products = dailyProductSalesRepository.sumUnitsByProduct(first, last,
+          PageRequest.of(0, productLimit));
+      long revenue = 0;
+      long orderCount = 0;
+      for (DailySales day : days) {
+        revenue = Math.addExact(revenue, day.getRevenue().getMinorUnits());
+        orderCount += day.getOrderCount();
+      }
+      return new SalesReport(from, to, Money.ofMinor(revenue), orderCount, days, products);
+    } catch (Exception e) {
+      logger.error(e.getMessage());
+      throw new ServiceUnavailable(e);
+    }
+  }
+
+  /**
+   * Applies the changes saving or deleting Orders made to the sales rollups. Every row is updated
+   * in place, or inserted when its day, or its day and Product, has no sales yet, by a single
+   * upsert, so that two Orders writing the first sales of a day cannot both try to insert it. Joins
+   * the transaction that saves or deletes the Orders, so the rollups never disagree with them.
+   *
+   * @param delta the changes to the rollups.
+   */
+  @Override
+  @Transactional
+  public void applySales(SalesDelta delta) {
+    dailySalesRepository.applySales(delta);
+  }
+}
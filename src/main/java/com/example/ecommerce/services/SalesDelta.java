@@ -0,0 +1,125 @@
+package com.example.ecommerce.services;
+
+import com.example.ecommerce.models.DailyProductSales;
+import com.example.ecommerce.models.DailySales;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class collects the changes that saving or deleting Orders makes to the sales rollups: the
+ * revenue, number of Orders and units of each Product of every day they fall on. An Order that is
+ * saved is added, and one that is replaced or deleted is subtracted, so an update only writes what
+ * it changed. Days and Products are kept in order, so that every transaction updates the rollup
+ * rows in the same order, and none waits for a lock another one holds while waiting for its own.
+ */
+public final class SalesDelta {
+
+  private static final Comparator<DailyProductSales.Key> BY_DATE_AND_PRODUCT = Comparator
+      .comparing(DailyProductSales.Key::getDate)
+      .thenComparing(DailyProductSales.Key::getProductId);
+
+  private final Map<LocalDate, DailySales> days = new TreeMap<>();
+  private final Map<DailyProductSales.Key, Long> units = new TreeMap<>(BY_DATE_AND_PRODUCT);
+
+  /**
+   * @param orders the Orders that were saved.
+   * @return the changes that saving them makes.
+   */
+  public static SalesDelta of(Collection<Order> orders) {
+    SalesDelta delta = new SalesDelta();
+    orders.forEach(delta::add);
+    return delta;
+  }
+
+  /**
+   * Adds an Order that was saved.
+   *
+   * @param order the Order as it was saved, with its total and Items.
+   * @return this delta.
+   */
+  public SalesDelta add(Order order) {
+    apply(order, 1);
+    return this;
+  }
+
+  /**
+   * Subtracts an Order that was replaced or deleted.
+   *
+   * @param order the Order as it was before, with its total and Items.
+   * @return this delta.
+   */
+  public SalesDelta subtract(Order order) {
+    apply(order, -1);
+    return this;
+  }
+
+  /**
+   * @return the change to the revenue and number of Orders of every day whose sales changed, in
+   * order of day.
+   */
+  public List<DailySales> getDays() {
+    List<DailySales> changed = new ArrayList<>(days.size());
+    for (DailySales day : days.values()) {
+      if (day.getOrderCount() != 0 || day.getRevenue().signum() != 0) {
+        changed.add(day);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * @return the change to the units of every Product and day whose units changed, in order of day
+   * and Product.
+   */
+  public List<DailyProductSales> getProductDays() {
+    List<DailyProductSales> changed = new ArrayList<>(units.size());
+    units.forEach((key, change) -> {
+      if (change != 0) {
+        changed.add(new DailyProductSales(key.getDate(), key.getProductId(), change));
+      }
+    });
+    return changed;
+  }
+
+  public boolean isEmpty() {
+    return getDays().isEmpty() && getProductDays().isEmpty();
+  }
+
+  /**
+   * @param date the date of an Order.
+   * @return the day its sales are rolled up into.
+   */
+  public static LocalDate dayOf(Date date) {
+    return date.toInstant().atOffset(ZoneOffset.UTC).toLocalDate();
+  }
+
+  private void apply(Order order, int sign) {
+    if (order.getDate() == null) {
+      return;
+    }
+    LocalDate date = dayOf(order.getDate());
+    Money revenue = order.getOrderTotal() == null ? Money.ZERO : order.getOrderTotal();
+    DailySales day = days.computeIfAbsent(date, key -> new DailySales(key, Money.ZERO, 0));
+    day.setRevenue(sign > 0 ? day.getRevenue().plus(revenue) : day.getRevenue().minus(revenue));
+    day.setOrderCount(day.getOrderCount() + sign);
+    if (order.getItems() == null) {
+      return;
+    }
+    for (Item item : order.getItems()) {
+      if (item.getProductId() != null && item.getQuantity() != null) {
+        units.merge(new DailyProductSales.Key(date, item.getProductId()),
+            (long) sign * item.getQuantity(), Long::sum);
+      }
+    }
+  }
+}
@@ -1,17 +1,22 @@
 package com.example.ecommerce.services;
 
 import com.example.ecommerce.models.User;
+import com.example.ecommerce.pagination.MultiGet;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * This interface contains the methods which are implemented in the UserServiceImpl class.
  */
 public interface UserService {
 
-  List<User> queryUsers(User user);
+  Slice<User> queryUsers(User user, Pageable pageable, boolean count);
 
   User getUserById(Long id);
 
+  MultiGet<User> getUsersByIds(List<Long> ids);
+
   User addUser(User user);
 
   User updateUserById(Long id, User user);
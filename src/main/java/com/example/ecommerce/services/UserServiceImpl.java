@@ -1,20 +1,28 @@
 package com.example.ecommerce.services;
 
+import static com.example.ecommerce.constants.StringConstants.INVALID_SORT;
 import static com.example.ecommerce.constants.StringConstants.NOT_FOUND;
 
 import com.example.ecommerce.exceptions.BadDataResponse;
 import com.example.ecommerce.exceptions.Conflict;
 import com.example.ecommerce.exceptions.ResourceNotFound;
 import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.exceptions.UniqueConstraints;
 import com.example.ecommerce.models.User;
+import com.example.ecommerce.pagination.MultiGet;
 import com.example.ecommerce.repositories.UserRepository;
-import java.util.Comparator;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class contains the methods that are called by the UserController, and implemented from the
@@ -29,16 +37,17 @@ public class UserServiceImpl implements UserService {
   private UserRepository userRepository;
 
   @Override
-  public List<User> queryUsers(User user) {
+  public Slice<User> queryUsers(User user, Pageable pageable, boolean count) {
     try {
       if (user.isEmpty()) {
-        List<User> users = userRepository.findAll();
-        users.sort(Comparator.comparing(User::getId));
-        return users;
+        return count ? userRepository.findAll(pageable) : userRepository.findAllBy(pageable);
       } else {
         Example<User> userExample = Example.of(user);
-        return userRepository.findAll(userExample);
+        return count ? userRepository.findAll(userExample, pageable)
+            : userRepository.findSlice(userExample, pageable);
       }
+    } catch (PropertyReferenceException | InvalidDataAccessApiUsageException e) {
+      throw new BadDataResponse(INVALID_SORT);
     } catch (Exception e) {
       logger.error(e.getMessage());
       throw new ServiceUnavailable(e);
@@ -63,40 +72,59 @@ public class UserServiceImpl implements UserService {
   }
 
   @Override
-  public User addUser(User user) {
-
-    boolean emailAlreadyExists = userRepository.existsByEmail(user.getEmail());
-
-    if (emailAlreadyExists) {
-      throw new Conflict(" Email already in use!");
+  public MultiGet<User> getUsersByIds(List<Long> ids) {
+    List<Long> distinctIds = MultiGet.distinctIds(ids);
+    try {
+      return MultiGet.of(distinctIds, userRepository.findAllById(distinctIds), User::getId);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e.getMessage());
     }
+  }
+
+  @Override
+  public User addUser(User user) {
     try {
-      return userRepository.save(user);
+      return userRepository.saveAndFlush(user);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, User.EMAIL_UNIQUE)) {
+        throw new Conflict(" Email already in use!");
+      }
+      throw new ServiceUnavailable(e);
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
   }
 
   @Override
+  @Transactional
   public User updateUserById(Long id, User user) {
     if (id < 1) {
       throw new BadDataResponse("id must be positive and cannot be zero");
     }
-    User updatedUser = null;
-    if (!userRepository.existsById(id)) {
-      throw new ResourceNotFound(NOT_FOUND + "user with id " + id);
+    User existingUser;
+    try {
+      existingUser = userRepository.findById(id).orElse(null);
+    } catch (Exception e) {
+      throw new ServiceUnavailable(e);
     }
-    boolean emailAlreadyExists = userRepository.existsByEmail(user.getEmail());
-    if (emailAlreadyExists) {
-      throw new Conflict(" Email already in use!");
+    if (existingUser == null) {
+      throw new ResourceNotFound(NOT_FOUND + "user with id " + id);
     }
+    existingUser.setName(user.getName());
+    existingUser.setTitle(user.getTitle());
+    existingUser.setRoles(user.getRoles());
+    existingUser.setEmail(user.getEmail());
+    existingUser.setPassword(user.getPassword());
     try {
-      user.setId(id);
-      updatedUser = userRepository.save(user);
+      return userRepository.saveAndFlush(existingUser);
+    } catch (DataIntegrityViolationException e) {
+      if (UniqueConstraints.isViolated(e, User.EMAIL_UNIQUE)) {
+        throw new Conflict(" Email already in use!");
+      }
+      throw new ServiceUnavailable(e);
     } catch (Exception e) {
       throw new ServiceUnavailable(e);
     }
-    return updatedUser;
   }
 
   @Override
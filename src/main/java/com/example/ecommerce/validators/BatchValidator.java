@@ -0,0 +1,59 @@
+package com.example.ecommerce.validators;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.example.ecommerce.exceptions.InvalidBatch;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * BatchValidator validates every element of a batch of Objects posted to a "/batch" endpoint, so
+ * that all the problems of a batch are reported at once, each prefixed with the index of the
+ * element it belongs to (i.e. "products[3].sku: sku is a required field").
+ */
+@Component
+public class BatchValidator {
+
+  public static final int MAX_BATCH_SIZE = 1000;
+
+  @Autowired
+  private Validator validator;
+
+  /**
+   * Validates a batch, throwing if the batch is empty or too large, or if any element is invalid.
+   *
+   * @param name  the name of the batch, used as the prefix of each error.
+   * @param batch the Objects to be validated.
+   * @param <T>   the type of the Objects in the batch.
+   */
+  public <T> void validate(String name, List<T> batch) {
+    if (batch == null || batch.isEmpty()) {
+      throw new BadDataResponse(name + " must contain at least one element");
+    }
+    if (batch.size() > MAX_BATCH_SIZE) {
+      throw new BadDataResponse(name + " cannot contain more than " + MAX_BATCH_SIZE
+          + " elements");
+    }
+    List<String> errors = new ArrayList<>();
+    for (int i = 0; i < batch.size(); i++) {
+      String element = name + "[" + i + "]";
+      if (batch.get(i) == null) {
+        errors.add(element + " must not be null");
+        continue;
+      }
+      List<String> elementErrors = new ArrayList<>();
+      for (ConstraintViolation<T> violation : validator.validate(batch.get(i))) {
+        elementErrors.add(element + "." + violation.getPropertyPath() + ": "
+            + violation.getMessage());
+      }
+      elementErrors.sort(null);
+      errors.addAll(elementErrors);
+    }
+    if (!errors.isEmpty()) {
+      throw new InvalidBatch("One or more elements of " + name + " are invalid", errors);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.ecommerce.tests.controllers;
+
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_ANALYTICS;
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_ORDERS;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+import com.example.ecommerce.services.AnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+/**
+ * Contains the integration tests for the AnalyticsController.
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+class AnalyticsControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private AnalyticsService analyticsService;
+
+  ResultMatcher okStatus = MockMvcResultMatchers.status().isOk();
+  ResultMatcher badRequestStatus = MockMvcResultMatchers.status().isBadRequest();
+
+  @Test
+  public void getOrderAnalyticsByMonthSumsTheSeededOrdersOfEachMonth() throws Exception {
+    mockMvc.perform(get(CONTEXT_ANALYTICS + "/orders").param("groupBy", "month")
+            .param("from", "2020-12-01").param("to", "2021-12-31"))
+        .andExpect(okStatus)
+        .andExpect(jsonPath("$.groupCount").value(2))
+        .andExpect(jsonPath("$.groups[0].key").value("2020-12"))
+        .andExpect(jsonPath("$.groups[0].orders").value(1))
+        .andExpect(jsonPath("$.groups[0].units").value(5))
+        .andExpect(jsonPath("$.groups[0].revenue").value(13.95))
+        .andExpect(jsonPath("$.groups[1].key").value("2021-06"))
+        .andExpect(jsonPath("$.groups[1].units").value(13))
+        .andExpect(jsonPath("$.groups[1].revenue").value(649.87));
+  }
+
+  @Test
+  public void getOrderAnalyticsByProductListsTheMostOrderedProductsFirst() throws Exception {
+    mockMvc.perform(get(CONTEXT_ANALYTICS + "/orders").param("groupBy", "product")
+            .param("from", "2020-12-01").param("to", "2021-12-31").param("limit", "1"))
+        .andExpect(okStatus)
+        .andExpect(jsonPath("$.groupCount").value(2))
+        .andExpect(jsonPath("$.groups", hasSize(1)))
+        .andExpect(jsonPath("$.groups[0].key").value("2"))
+        .andExpect(jsonPath("$.groups[0].units").value(13))
+        .andExpect(jsonPath("$.groups[0].revenue").doesNotExist());
+  }
+
+  @Test
+  @DirtiesContext
+  public void postOrderIsAnalyzedOnceTheStoreIsRefreshed() throws Exception {
+    mockMvc.perform(post(CONTEXT_ORDERS).contentType(MediaType.APPLICATION_JSON).content("""
+        {
+                "customerId": 3,
+                "date": "2023-05-05",
+                "items": [
+                    {
+                        "productId": 3,
+                        "quantity": 2
+                    }
+                ]
+        }"""));
+
+    analyticsService.refresh();
+
+    mockMvc.perform(get(CONTEXT_ANALYTICS + "/orders").param("groupBy", "day")
+            .param("from", "2023-05-05").param("to", "2023-05-05"))
+        .andExpect(okStatus)
+        .andExpect(jsonPath("$.groups", hasSize(1)))
+        .andExpect(jsonPath("$.groups[0].key").value("2023-05-05"))
+        .andExpect(jsonPath("$.groups[0].orders").value(1))
+        .andExpect(jsonPath("$.groups[0].units").value(2))
+        .andExpect(jsonPath("$.groups[0].revenue").value(5.58));
+  }
+
+  @Test
+  public void getOrderAnalyticsByUnknownGroupingReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_ANALYTICS + "/orders").param("groupBy", "week"))
+        .andExpect(badRequestStatus);
+  }
+
+  @Test
+  public void getOrderAnalyticsWithFromAfterToReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_ANALYTICS + "/orders")
+            .param("from", "2022-02-01").param("to", "2022-01-01"))
+        .andExpect(badRequestStatus);
+  }
+}
@@ -1,20 +1,36 @@
 package com.example.ecommerce.tests.controllers;
 
 import static com.example.ecommerce.constants.StringConstants.CONTEXT_CUSTOMERS;
+import static com.example.ecommerce.constants.StringConstants.HAS_NEXT;
+import static com.example.ecommerce.constants.StringConstants.NEXT_CURSOR;
+import static com.example.ecommerce.constants.StringConstants.TOTAL_COUNT;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
+import com.example.ecommerce.data.DataLoader;
 import com.example.ecommerce.models.Customer;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.repositories.CustomerRepository;
+import com.example.ecommerce.repositories.OrderRepository;
+import java.util.ArrayList;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -36,6 +52,14 @@ class CustomerControllerTest {
   private WebApplicationContext webApplicationContext;
   @Autowired
   private MockMvc mockMvc;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private CustomerRepository customerRepository;
+  @Autowired
+  private OrderRepository orderRepository;
+  @Autowired
+  private DataLoader dataLoader;
 
   Customer customer;
 
@@ -47,12 +71,38 @@ class CustomerControllerTest {
       .contentType(MediaType.APPLICATION_JSON);
   ResultMatcher badRequestStatus = MockMvcResultMatchers.status().isBadRequest();
   ResultMatcher conflictStatus = MockMvcResultMatchers.status().isConflict();
+  ResultMatcher notModifiedStatus = MockMvcResultMatchers.status().isNotModified();
 
   @Before
   public void setup() throws Exception {
     this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext).build();
   }
 
+  @Test
+  public void customerLoadsAreServedFromTheSecondLevelCache() throws Exception {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    try {
+      mockMvc.perform(get(CONTEXT_CUSTOMERS + "/2")).andExpect(okStatus);
+      statistics.clear();
+      mockMvc.perform(get(CONTEXT_CUSTOMERS + "/2"))
+          .andExpect(jsonPath("$.address.city").exists())
+          .andExpect(okStatus);
+      assertEquals(0, statistics.getPrepareStatementCount());
+      assertTrue(statistics.getDomainDataRegionStatistics("customers")
+          .getHitCount() > 0);
+
+      Customer customer = customerRepository.findById(2L).orElseThrow();
+      customerRepository.findByEmail(customer.getEmail());
+      statistics.clear();
+      customerRepository.findByEmail(customer.getEmail());
+      assertEquals(1, statistics.getQueryCacheHitCount());
+      assertEquals(0, statistics.getPrepareStatementCount());
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+  }
+
   @Test
   public void getCustomersReturns200() throws Exception {
     mockMvc.perform(get(CONTEXT_CUSTOMERS))
@@ -60,6 +110,81 @@ class CustomerControllerTest {
         .andExpect(okStatus);
   }
 
+  @Test
+  public void getCustomersByExampleWithCountReturnsMatchingPage() throws Exception {
+    mockMvc.perform(get(CONTEXT_CUSTOMERS).param("name", "Arthur Reed").param("count", "true"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].email").value("a_reed@student.uml.edu"))
+        .andExpect(header().string(TOTAL_COUNT, "1"))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getCustomersByExampleWithInvalidSortReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_CUSTOMERS).param("name", "Arthur Reed").param("sort", "nope"))
+        .andExpect(badRequestStatus);
+  }
+
+  @Test
+  public void getCustomerByIdWithCurrentETagReturns304WithoutBody() throws Exception {
+    String eTag = mockMvc.perform(get(CONTEXT_CUSTOMERS + "/3"))
+        .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+        .andExpect(jsonPath("$.version").value(0))
+        .andExpect(okStatus)
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get(CONTEXT_CUSTOMERS + "/3").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(content().string(""))
+        .andExpect(notModifiedStatus);
+    mockMvc.perform(get(CONTEXT_CUSTOMERS + "/3").header(HttpHeaders.IF_NONE_MATCH, "\"99\""))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getCustomersWithCurrentETagReturns304() throws Exception {
+    String eTag = mockMvc.perform(get(CONTEXT_CUSTOMERS))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get(CONTEXT_CUSTOMERS).header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(notModifiedStatus);
+  }
+
+  @Test
+  public void getCustomersByIdsReturnsCustomersInRequestOrderAndMissingIds() throws Exception {
+    mockMvc.perform(get(CONTEXT_CUSTOMERS).param("ids", "3,2,999"))
+        .andExpect(jsonPath("$.results[0].id").value(3))
+        .andExpect(jsonPath("$.results[1].id").value(2))
+        .andExpect(jsonPath("$.missingIds[0]").value(999))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getCustomersWithFieldsNestsEmbeddedFields() throws Exception {
+    mockMvc.perform(get(CONTEXT_CUSTOMERS).param("fields", "name,address.city")
+            .param("size", "2").param("count", "true"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].name").exists())
+        .andExpect(jsonPath("$[0].address.city").exists())
+        .andExpect(jsonPath("$[0].address.street").doesNotExist())
+        .andExpect(jsonPath("$[0].email").doesNotExist())
+        .andExpect(header().exists(TOTAL_COUNT))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getCustomerByIdWithFieldsReturnsOnlyThoseFields() throws Exception {
+    mockMvc.perform(get(CONTEXT_CUSTOMERS + "/3").param("fields", "address"))
+        .andExpect(jsonPath("$.address.city").exists())
+        .andExpect(jsonPath("$.name").doesNotExist())
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getCustomerByIdWithFieldsThatDoesNotExistReturns404() throws Exception {
+    mockMvc.perform(get(CONTEXT_CUSTOMERS + "/999").param("fields", "name"))
+        .andExpect(notFoundStatus);
+  }
+
   @Test
   public void getCustomerByIdThatExistsReturnsCustomerWithCorrectTypeAnd200() throws Exception {
     mockMvc.perform(get(CONTEXT_CUSTOMERS + "/1"))
@@ -79,6 +204,46 @@ class CustomerControllerTest {
         .andExpect(badRequestStatus);
   }
 
+  @Test
+  @DirtiesContext
+  public void getCustomerOrdersPagesNewestFirstWithCursor() throws Exception {
+    Order older = orderRepository.save(
+        new Order(3L, dataLoader.createDate("2023-01-01"), new ArrayList<>(), null));
+    Order newer = orderRepository.save(
+        new Order(3L, dataLoader.createDate("2023-01-01"), new ArrayList<>(), null));
+    orderRepository.save(
+        new Order(2L, dataLoader.createDate("2024-01-01"), new ArrayList<>(), null));
+
+    String cursor = mockMvc.perform(get(CONTEXT_CUSTOMERS + "/3/orders").param("size", "2"))
+        .andExpect(okStatus)
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].id").value(newer.getId()))
+        .andExpect(jsonPath("$[1].id").value(older.getId()))
+        .andExpect(header().string(HAS_NEXT, "true"))
+        .andReturn().getResponse().getHeader(NEXT_CURSOR);
+
+    mockMvc.perform(get(CONTEXT_CUSTOMERS + "/3/orders").param("after", cursor))
+        .andExpect(okStatus)
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].id").value(3))
+        .andExpect(jsonPath("$[0].date").value("2020-12-09"))
+        .andExpect(jsonPath("$[0].items", hasSize(1)))
+        .andExpect(header().string(HAS_NEXT, "false"))
+        .andExpect(header().doesNotExist(NEXT_CURSOR));
+  }
+
+  @Test
+  public void getCustomerOrdersOfCustomerThatDoesNotExistReturns404() throws Exception {
+    mockMvc.perform(get(CONTEXT_CUSTOMERS + "/999/orders"))
+        .andExpect(notFoundStatus);
+  }
+
+  @Test
+  public void getCustomerOrdersWithMalformedCursorReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_CUSTOMERS + "/3/orders").param("after", "not-a-cursor"))
+        .andExpect(badRequestStatus);
+  }
+
   @Test
   public void postValidCustomerReturns201Created() throws Exception {
 
@@ -100,6 +265,74 @@ class CustomerControllerTest {
         .andExpect(createdStatus);
   }
 
+  @DirtiesContext
+  @Test
+  public void postCustomerBatchReturns201Created() throws Exception {
+
+    String json = """
+        [
+            {
+                "name": "Boppo the clown",
+                "email": "boppo@charter.net",
+                "address": {
+                    "street": "1258 N. Highland",
+                    "city": "Los Angeles",
+                    "state": "CA",
+                    "zipcode": "90055"
+                }
+            },
+            {
+                "name": "Bippo the clown",
+                "email": "bippo@charter.net",
+                "address": {
+                    "street": "1260 N. Highland",
+                    "city": "Los Angeles",
+                    "state": "CA",
+                    "zipcode": "90055"
+                }
+            }
+        ]""";
+
+    mockMvc.perform(post(CONTEXT_CUSTOMERS + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(createdStatus);
+  }
+
+  @Test
+  public void postCustomerBatchWithEmailInUseReturns409Conflict() throws Exception {
+
+    String json = """
+        [
+            {
+                "name": "Boppo the clown",
+                "email": "bippo@charter.org",
+                "address": {
+                    "street": "1258 N. Highland",
+                    "city": "Los Angeles",
+                    "state": "CA",
+                    "zipcode": "90055"
+                }
+            },
+            {
+                "name": "Bippo the clown",
+                "email": "bippo@charter.org",
+                "address": {
+                    "street": "1260 N. Highland",
+                    "city": "Los Angeles",
+                    "state": "CA",
+                    "zipcode": "90055"
+                }
+            }
+        ]""";
+
+    mockMvc.perform(post(CONTEXT_CUSTOMERS + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(conflictStatus);
+  }
+
   @DirtiesContext
   @Test
   public void postNonUniqueEmailCustomerThrows409Conflict() throws Exception {
@@ -1,14 +1,25 @@
 package com.example.ecommerce.tests.controllers;
 
 import static com.example.ecommerce.constants.StringConstants.CONTEXT_ORDERS;
+import static com.example.ecommerce.constants.StringConstants.NEXT_CURSOR;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 import com.example.ecommerce.models.Order;
+import com.jayway.jsonpath.JsonPath;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
@@ -19,6 +30,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -36,6 +48,8 @@ class OrderControllerTest {
   private WebApplicationContext webApplicationContext;
   @Autowired
   private MockMvc mockMvc;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
 
   Order order;
 
@@ -59,6 +73,98 @@ class OrderControllerTest {
         .andExpect(okStatus);
   }
 
+  @Test
+  public void getOrdersWithSizeReturnsPageAndNextCursor() throws Exception {
+    String cursor = mockMvc.perform(get(CONTEXT_ORDERS).param("size", "2"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(header().exists(NEXT_CURSOR))
+        .andExpect(okStatus)
+        .andReturn().getResponse().getHeader(NEXT_CURSOR);
+
+    mockMvc.perform(get(CONTEXT_ORDERS).param("after", cursor).param("size", "2"))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getOrdersSortedByDateReturnsOffsetPage() throws Exception {
+    mockMvc.perform(get(CONTEXT_ORDERS).param("size", "1").param("sort", "date,asc"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].date").value("2020-12-09"))
+        .andExpect(header().doesNotExist(NEXT_CURSOR))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getOrdersWithMalformedCursorReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_ORDERS).param("after", "not-a-cursor"))
+        .andExpect(badRequestStatus);
+  }
+
+  @Test
+  public void exportOrdersStreamsNewlineDelimitedJson() throws Exception {
+    MvcResult result = mockMvc.perform(get(CONTEXT_ORDERS + "/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(okStatus)
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string(containsString("\"date\":\"2020-12-09\"")))
+        .andExpect(content().string(containsString("}\n{")));
+  }
+
+  @Test
+  public void getOrdersLoadsItemsOfAllOrdersInOneQuery() throws Exception {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    try {
+      statistics.clear();
+      mockMvc.perform(get(CONTEXT_ORDERS))
+          .andExpect(jsonPath("$[0].items", hasSize(1)))
+          .andExpect(okStatus);
+      assertTrue(statistics.getPrepareStatementCount() <= 2,
+          statistics.getPrepareStatementCount() + " statements were prepared");
+
+      statistics.clear();
+      mockMvc.perform(get(CONTEXT_ORDERS).param("sort", "date,desc"))
+          .andExpect(jsonPath("$[0].items", hasSize(1)))
+          .andExpect(okStatus);
+      assertTrue(statistics.getPrepareStatementCount() <= 2,
+          statistics.getPrepareStatementCount() + " statements were prepared");
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+  }
+
+  @Test
+  public void getOrdersByIdsLoadsOrdersAndItemsInTwoQueries() throws Exception {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    try {
+      statistics.clear();
+      mockMvc.perform(get(CONTEXT_ORDERS).param("ids", "4,3,2,999"))
+          .andExpect(jsonPath("$.results", hasSize(3)))
+          .andExpect(jsonPath("$.results[0].id").value(4))
+          .andExpect(jsonPath("$.results[2].items", hasSize(1)))
+          .andExpect(jsonPath("$.missingIds[0]").value(999))
+          .andExpect(okStatus);
+      assertTrue(statistics.getPrepareStatementCount() <= 2,
+          statistics.getPrepareStatementCount() + " statements were prepared");
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+  }
+
+  @Test
+  public void getOrdersByTooManyIdsReturns400BadRequest() throws Exception {
+    StringBuilder ids = new StringBuilder("1");
+    for (int id = 2; id <= 1001; id++) {
+      ids.append(',').append(id);
+    }
+    mockMvc.perform(get(CONTEXT_ORDERS).param("ids", ids.toString()))
+        .andExpect(badRequestStatus);
+  }
+
   @Test
   public void getOrderByIdThatExistsReturnsOrderWithCorrectTypeAnd200() throws Exception {
     mockMvc.perform(get(CONTEXT_ORDERS + "/1"))
@@ -66,6 +172,14 @@ class OrderControllerTest {
         .andExpect(expectedType).andExpect(okStatus);
   }
 
+  @Test
+  public void getSeededOrderHasTotalOfItsProductPrices() throws Exception {
+    // 13 of VG8-771 at 49.99
+    mockMvc.perform(get(CONTEXT_ORDERS + "/2"))
+        .andExpect(jsonPath("$.orderTotal").value(649.87))
+        .andExpect(okStatus);
+  }
+
   @Test
   public void getOrderByIdThatDoesNotExistReturns404() throws Exception {
     mockMvc.perform(get(CONTEXT_ORDERS + "/999"))
@@ -89,7 +203,7 @@ class OrderControllerTest {
                 "items": [
                     {
                         "id": 1,
-                        "productId": 1,
+                        "productId": 4,
                         "quantity": 12
                     }
                 ],
@@ -99,9 +213,110 @@ class OrderControllerTest {
     mockMvc.perform(post(CONTEXT_ORDERS)
             .contentType(MediaType.APPLICATION_JSON)
             .content(json))
+        .andExpect(jsonPath("$.orderTotal").value(299.4))
         .andExpect(createdStatus);
   }
 
+  @Test
+  public void postOrderForProductThatDoesNotExistReturns400BadRequest() throws Exception {
+
+    String json = """
+        {
+                "customerId": 1,
+                "date": "2022-08-22",
+                "items": [
+                    {
+                        "productId": 4,
+                        "quantity": 1
+                    },
+                    {
+                        "productId": 999,
+                        "quantity": 1
+                    }
+                ]
+        }""";
+
+    mockMvc.perform(post(CONTEXT_ORDERS)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(badRequestStatus);
+  }
+
+  @DirtiesContext
+  @Test
+  public void postOrderBatchSavesOrdersWithTheirItems() throws Exception {
+
+    String json = """
+        [
+            {
+                "customerId": 1,
+                "date": "2022-08-22",
+                "items": [
+                    {
+                        "productId": 4,
+                        "quantity": 12
+                    }
+                ],
+                "orderTotal": 23.99
+            },
+            {
+                "customerId": 2,
+                "date": "2022-08-23",
+                "items": [
+                    {
+                        "productId": 2,
+                        "quantity": 1
+                    },
+                    {
+                        "productId": 3,
+                        "quantity": 4
+                    }
+                ],
+                "orderTotal": 61.15
+            }
+        ]""";
+
+    MvcResult result = mockMvc.perform(post(CONTEXT_ORDERS + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].orderTotal").value(299.4))
+        .andExpect(jsonPath("$[1].orderTotal").value(61.15))
+        .andExpect(createdStatus)
+        .andReturn();
+    Number id = JsonPath.read(result.getResponse().getContentAsString(), "$[1].id");
+
+    mockMvc.perform(get(CONTEXT_ORDERS + "/" + id))
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void postOrderBatchWithInvalidOrderReturns400WithErrorsPerElement() throws Exception {
+
+    String json = """
+        [
+            {
+                "customerId": 1,
+                "date": "2022-08-22",
+                "items": [],
+                "orderTotal": 23.99
+            },
+            {
+                "customerId": 1,
+                "items": [],
+                "orderTotal": 23.99
+            }
+        ]""";
+
+    mockMvc.perform(post(CONTEXT_ORDERS + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(jsonPath("$.validationErrors[0]")
+            .value("orders[1].date: Date is a required field"))
+        .andExpect(badRequestStatus);
+  }
+
   @Test
   public void postInvalidOrderJSONObjectReturns400BadRequest() throws Exception {
 
@@ -128,7 +343,7 @@ class OrderControllerTest {
                 "items": [
                     {
                         "id": 1,
-                        "productId": 1,
+                        "productId": 4,
                         "quantity": 10
                     }
                 ],
@@ -138,6 +353,7 @@ class OrderControllerTest {
     mockMvc.perform(put(CONTEXT_ORDERS + "/2")
             .contentType(MediaType.APPLICATION_JSON)
             .content(json))
+        .andExpect(jsonPath("$.orderTotal").value(249.5))
         .andExpect(okStatus);
   }
 
@@ -1,20 +1,36 @@
 package com.example.ecommerce.tests.controllers;
 
 import static com.example.ecommerce.constants.StringConstants.CONTEXT_PRODUCTS;
+import static com.example.ecommerce.constants.StringConstants.HAS_NEXT;
+import static com.example.ecommerce.constants.StringConstants.TOTAL_COUNT;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 import com.example.ecommerce.models.Product;
+import com.example.ecommerce.repositories.ProductRepository;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -36,6 +52,12 @@ class ProductControllerTest {
   private WebApplicationContext webApplicationContext;
   @Autowired
   private MockMvc mockMvc;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private ProductRepository productRepository;
+  @Autowired
+  private MeterRegistry meterRegistry;
 
   Product product;
 
@@ -47,6 +69,7 @@ class ProductControllerTest {
       .contentType(MediaType.APPLICATION_JSON);
   ResultMatcher badRequestStatus = MockMvcResultMatchers.status().isBadRequest();
   ResultMatcher conflictStatus = MockMvcResultMatchers.status().isConflict();
+  ResultMatcher notModifiedStatus = MockMvcResultMatchers.status().isNotModified();
 
   @Before
   public void setup() throws Exception {
@@ -60,6 +83,30 @@ class ProductControllerTest {
         .andExpect(okStatus);
   }
 
+  @Test
+  public void getProductsWithPageSizeAndSortReturnsSortedPage() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("size", "1").param("sort", "sku,desc"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sku").value("VG8-771"))
+        .andExpect(header().string(HAS_NEXT, "true"))
+        .andExpect(header().doesNotExist(TOTAL_COUNT))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsWithCountReturnsTotalCount() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("size", "2").param("count", "true"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(header().exists(TOTAL_COUNT))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsWithInvalidSortReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("sort", "nope,asc"))
+        .andExpect(badRequestStatus);
+  }
+
   @Test
   public void getProductByIdThatExistsReturnsProductWithCorrectTypeAnd200() throws Exception {
     mockMvc.perform(get(CONTEXT_PRODUCTS + "/4"))
@@ -67,12 +114,450 @@ class ProductControllerTest {
         .andExpect(expectedType).andExpect(okStatus);
   }
 
+  @Test
+  public void getProductByIdWithCurrentETagReturns304WithoutBody() throws Exception {
+    String eTag = mockMvc.perform(get(CONTEXT_PRODUCTS + "/2"))
+        .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+        .andExpect(okStatus)
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/2").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(content().string(""))
+        .andExpect(notModifiedStatus);
+  }
+
+  @Test
+  public void getProductByIdNotModifiedSinceLastModifiedReturns304() throws Exception {
+    String lastModified = mockMvc.perform(get(CONTEXT_PRODUCTS + "/2"))
+        .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/2")
+            .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+        .andExpect(notModifiedStatus);
+  }
+
+  @DirtiesContext
+  @Test
+  public void putProductChangesItsETag() throws Exception {
+    String eTag = mockMvc.perform(get(CONTEXT_PRODUCTS + "/1"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    String json = """
+        {
+                "sku": "MD5-355",
+                "type": "Women's Fashion",
+                "name": "Wide Brim Sunhat",
+                "description": "UPF 50+ Sun Hat to protect against UV rays",
+                "manufacturer": "Keeper's",
+                "price": 15.95,
+                "version": 42
+        }""";
+
+    mockMvc.perform(put(CONTEXT_PRODUCTS + "/1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(jsonPath("$.version").value(1))
+        .andExpect(okStatus);
+
+    String newETag = mockMvc.perform(get(CONTEXT_PRODUCTS + "/1")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(jsonPath("$.sku").value("MD5-355"))
+        .andExpect(okStatus)
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertNotEquals(eTag, newETag);
+  }
+
+  @Test
+  public void getProductsWithCurrentETagReturns304() throws Exception {
+    String eTag = mockMvc.perform(get(CONTEXT_PRODUCTS).param("size", "2"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("size", "2")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(header().string(HAS_NEXT, "true"))
+        .andExpect(notModifiedStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("size", "3")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsWithFieldsReturnsOnlyThoseFields() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("fields", "sku,price").param("sort", "sku"))
+        .andExpect(jsonPath("$", hasSize(4)))
+        .andExpect(jsonPath("$[0].sku").value("CS4-956"))
+        .andExpect(jsonPath("$[0].price").exists())
+        .andExpect(jsonPath("$[0].id").doesNotExist())
+        .andExpect(jsonPath("$[0].name").doesNotExist())
+        .andExpect(jsonPath("$[0].description").doesNotExist())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsWithUnknownFieldReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("fields", "id,nope"))
+        .andExpect(badRequestStatus);
+  }
+
+  @Test
+  public void getProductByIdWithFieldsReturnsOnlyThoseFieldsAndAnswersConditionalGets()
+      throws Exception {
+    String eTag = mockMvc.perform(get(CONTEXT_PRODUCTS + "/2").param("fields", "id,name"))
+        .andExpect(jsonPath("$.id").value(2))
+        .andExpect(jsonPath("$.name").exists())
+        .andExpect(jsonPath("$.sku").doesNotExist())
+        .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+        .andExpect(okStatus)
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/2").param("fields", "id,name")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(notModifiedStatus);
+  }
+
+  @Test
+  public void getProductsWithFacetsCountsAllMatchingProducts() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("facets", "true").param("size", "1"))
+        .andExpect(jsonPath("$.results", hasSize(1)))
+        .andExpect(jsonPath("$.facets.type['Kitchen Cookware']").value(1))
+        .andExpect(jsonPath("$.facets.price['0-10']").exists())
+        .andExpect(header().string(HAS_NEXT, "true"))
+        .andExpect(okStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("facets", "true")
+            .param("manufacturer", "Tinker Entertainment"))
+        .andExpect(jsonPath("$.results", hasSize(1)))
+        .andExpect(jsonPath("$.facets.type.length()").value(1))
+        .andExpect(jsonPath("$.facets.type['Video Game Consoles And Accessories']").value(1))
+        .andExpect(jsonPath("$.facets.price['25-50']").value(1))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsWithFacetsFilteredByOtherFieldsCountsMatchingProducts()
+      throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("facets", "true").param("sku", "FP-857"))
+        .andExpect(jsonPath("$.results[0].sku").value("FP-857"))
+        .andExpect(jsonPath("$.facets.manufacturer.length()").value(1))
+        .andExpect(jsonPath("$.facets.manufacturer['Chester Cereals INC']").value(1))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void searchProductsWithFacetsCountsAllHits() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/search").param("q", "deep breakfast")
+            .param("facets", "true").param("size", "1"))
+        .andExpect(jsonPath("$.results", hasSize(1)))
+        .andExpect(jsonPath("$.results[0].sku").value("VG8-771"))
+        .andExpect(jsonPath("$.facets.type.length()").value(2))
+        .andExpect(jsonPath("$.facets.type.Grocery").value(1))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void suggestProductsBySkuPrefixIgnoringCase() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", "vg8-"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sku").value("VG8-771"))
+        .andExpect(jsonPath("$[0].name").value("Deep, Dark Sea"))
+        .andExpect(jsonPath("$[0].weight").doesNotExist())
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void suggestProductsRanksByQuantityOrdered() throws Exception {
+    // Chester O's has been ordered 8 times, and the Hydro-dynamic Spatula (CS4-956) 5 times
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", "C"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].sku").value("FP-857"))
+        .andExpect(jsonPath("$[1].sku").value("CS4-956"))
+        .andExpect(okStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", "C").param("limit", "1"))
+        .andExpect(jsonPath("$", hasSize(1)));
+  }
+
+  @Test
+  public void suggestProductsWithBlankPrefixOrTooHighLimitReturns400BadRequest()
+      throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", " "))
+        .andExpect(badRequestStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", "C").param("limit", "11"))
+        .andExpect(badRequestStatus);
+  }
+
+  @Test
+  public void searchProductsRanksBestMatchFirst() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/search").param("q", "deep breakfast")
+            .param("count", "true"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].sku").value("VG8-771"))
+        .andExpect(jsonPath("$[1].sku").value("FP-857"))
+        .andExpect(header().string(TOTAL_COUNT, "2"))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void searchProductsMatchesWordStemsAndManufacturers() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/search").param("q", "attachment barg"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sku").value("CS4-956"))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void searchProductsWithBlankTextReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/search").param("q", " "))
+        .andExpect(badRequestStatus);
+  }
+
+  @DirtiesContext
+  @Test
+  public void searchIndexesFollowPostPutAndDelete() throws Exception {
+    String json = """
+        {
+                "sku": "TB-100",
+                "type": "Kitchen Appliances",
+                "name": "Turbo Blender",
+                "description": "Crushes ice in seconds",
+                "manufacturer": "Whirl",
+                "price": 39.99
+        }""";
+    String response = mockMvc.perform(post(CONTEXT_PRODUCTS)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(createdStatus)
+        .andReturn().getResponse().getContentAsString();
+    Number id = JsonPath.read(response, "$.id");
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/search").param("q", "blender"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sku").value("TB-100"));
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("facets", "true")
+            .param("type", "Kitchen Appliances"))
+        .andExpect(jsonPath("$.facets.price['25-50']").value(1));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", "turbo b"))
+        .andExpect(jsonPath("$[0].sku").value("TB-100"));
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("minPrice", "30").param("maxPrice", "45")
+            .param("sort", "price"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sku").value("TB-100"));
+
+    mockMvc.perform(put(CONTEXT_PRODUCTS + "/" + id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json.replace("Blender", "Mixer").replace("39.99", "89.99")))
+        .andExpect(okStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("minPrice", "30").param("maxPrice", "45")
+            .param("sort", "price"))
+        .andExpect(jsonPath("$", hasSize(0)));
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("minPrice", "80").param("sort", "price,desc"))
+        .andExpect(jsonPath("$[0].price").value(89.99));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/search").param("q", "blender"))
+        .andExpect(jsonPath("$", hasSize(0)));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/search").param("q", "mixer"))
+        .andExpect(jsonPath("$[0].name").value("Turbo Mixer"));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", "turbo b"))
+        .andExpect(jsonPath("$", hasSize(0)));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", "turbo"))
+        .andExpect(jsonPath("$[0].name").value("Turbo Mixer"));
+
+    mockMvc.perform(delete(CONTEXT_PRODUCTS + "/" + id))
+        .andExpect(deletedStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/search").param("q", "mixer"))
+        .andExpect(jsonPath("$", hasSize(0)));
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("facets", "true")
+            .param("type", "Kitchen Appliances"))
+        .andExpect(jsonPath("$.facets.price.length()").value(0));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/suggest").param("prefix", "tb-"))
+        .andExpect(jsonPath("$", hasSize(0)));
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("minPrice", "80").param("sort", "price"))
+        .andExpect(jsonPath("$", hasSize(0)));
+  }
+
+  @Test
+  public void getProductsInPriceRangeSortedByPrice() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("minPrice", "20").param("maxPrice", "60")
+            .param("sort", "price").param("count", "true"))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].sku").value("FP-857"))
+        .andExpect(jsonPath("$[1].sku").value("VG8-771"))
+        .andExpect(header().string(TOTAL_COUNT, "2"))
+        .andExpect(okStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("minPrice", "20").param("maxPrice", "60")
+            .param("sort", "price,desc").param("size", "1"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sku").value("VG8-771"))
+        .andExpect(header().string(HAS_NEXT, "true"))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsInPriceRangeFilteredByExample() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("type", "Grocery").param("maxPrice", "24.95")
+            .param("count", "true"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sku").value("FP-857"))
+        .andExpect(header().string(TOTAL_COUNT, "1"))
+        .andExpect(okStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("type", "Grocery").param("minPrice", "24.96"))
+        .andExpect(jsonPath("$", hasSize(0)))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsByExactPrice() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("price", "24.95"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sku").value("FP-857"))
+        .andExpect(jsonPath("$[0].price").value(24.95))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsWithFacetsInPriceRangeCountsOnlyThatRange() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("facets", "true").param("minPrice", "20")
+            .param("maxPrice", "60"))
+        .andExpect(jsonPath("$.results", hasSize(2)))
+        .andExpect(jsonPath("$.facets.type.Grocery").value(1))
+        .andExpect(jsonPath("$.facets.price['0-10']").doesNotExist())
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsWithInvalidPriceRangeReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("minPrice", "50").param("maxPrice", "20"))
+        .andExpect(badRequestStatus);
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("minPrice", "cheap"))
+        .andExpect(badRequestStatus);
+  }
+
+  @Test
+  public void getProductsByIdsReturnsProductsInRequestOrderAndMissingIds() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("ids", "4,999,2,4"))
+        .andExpect(jsonPath("$.results", hasSize(2)))
+        .andExpect(jsonPath("$.results[0].sku").value("FP-857"))
+        .andExpect(jsonPath("$.results[1].sku").value("VG8-771"))
+        .andExpect(jsonPath("$.missingIds", hasSize(1)))
+        .andExpect(jsonPath("$.missingIds[0]").value(999))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductsByNonPositiveIdsReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("ids", "2,0"))
+        .andExpect(badRequestStatus);
+  }
+
   @Test
   public void getProductByIdThatDoesNotExistReturns404() throws Exception {
     mockMvc.perform(get(CONTEXT_PRODUCTS + "/999"))
         .andExpect(notFoundStatus);
   }
 
+  @Test
+  public void getProductBySkuThatExistsReturnsProductAnd200() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/sku/VG8-771"))
+        .andExpect(jsonPath("$.name").exists())
+        .andExpect(jsonPath("$.sku").value("VG8-771"))
+        .andExpect(expectedType).andExpect(okStatus);
+  }
+
+  @Test
+  public void getProductBySkuThatDoesNotExistReturns404() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/sku/NOPE-000"))
+        .andExpect(notFoundStatus);
+  }
+
+  @DirtiesContext
+  @Test
+  public void putProductIsVisibleToCachedLookupsById() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/sku/CS4-956"))
+        .andExpect(jsonPath("$.id").value(3));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/3"))
+        .andExpect(jsonPath("$.sku").value("CS4-956"));
+
+    String json = """
+        {
+                "sku": "CS4-957",
+                "type": "Candy",
+                "name": "Peppermint Tin",
+                "description": "Mint Flavor",
+                "manufacturer": "Frisk Fresh",
+                "price": 2.99
+        }""";
+
+    mockMvc.perform(put(CONTEXT_PRODUCTS + "/3")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(okStatus);
+
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/3"))
+        .andExpect(jsonPath("$.sku").value("CS4-957"));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/sku/CS4-957"))
+        .andExpect(jsonPath("$.id").value(3));
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/sku/CS4-956"))
+        .andExpect(notFoundStatus);
+  }
+
+  @Test
+  public void productCacheMetricsArePublished() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/2"));
+    mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:products"))
+        .andExpect(jsonPath("$.availableTags[?(@.tag == 'result')]").exists())
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void droppedLogEventsAreCounted() throws Exception {
+    mockMvc.perform(get("/actuator/metrics/logging.events.dropped"))
+        .andExpect(jsonPath("$.measurements[0].statistic").value("COUNT"))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void productLoadsAreServedFromTheSecondLevelCache() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    try {
+      productRepository.findById(2L);
+      productRepository.findBySku("VG8-771");
+      statistics.clear();
+      productRepository.findById(2L);
+      productRepository.findBySku("VG8-771");
+      assertEquals(0, statistics.getPrepareStatementCount());
+      assertEquals(1, statistics.getQueryCacheHitCount());
+      // the cached query result only holds the id, so the Product behind it is a region hit too
+      assertEquals(2, statistics.getDomainDataRegionStatistics("products")
+          .getHitCount());
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+  }
+
+  @Test
+  public void requestTimersAreTaggedWithTheHandledExceptionAndHavePercentiles() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/998"))
+        .andExpect(notFoundStatus);
+
+    Timer timer = meterRegistry.find("http.server.requests")
+        .tags("uri", CONTEXT_PRODUCTS + "/{id}", "exception", "ResourceNotFound",
+            "outcome", "CLIENT_ERROR")
+        .timer();
+    assertNotNull(timer);
+    assertEquals(3, timer.takeSnapshot().percentileValues().length);
+  }
+
+  @Test
+  public void repositoryInvocationsAreTimed() throws Exception {
+    mockMvc.perform(get(CONTEXT_PRODUCTS).param("size", "2"))
+        .andExpect(okStatus);
+
+    Timer timer = meterRegistry.find("spring.data.repository.invocations")
+        .tags("repository", "ProductRepository", "method", "findAllBy", "state", "SUCCESS")
+        .timer();
+    assertNotNull(timer);
+    assertEquals(3, timer.takeSnapshot().percentileValues().length);
+  }
+
   @Test
   public void getProductWithNegativeIdReturns400BadRequest() throws Exception {
     mockMvc.perform(get(CONTEXT_PRODUCTS + "/-1"))
@@ -118,6 +603,104 @@ class ProductControllerTest {
         .andExpect(conflictStatus);
   }
 
+  @DirtiesContext
+  @Test
+  public void postProductBatchReturns201CreatedWithIds() throws Exception {
+
+    String json = """
+        [
+            {
+                "sku": "SB-RP12",
+                "type": "Candy",
+                "name": "Frisk Fresh Breath Spray",
+                "description": "Mint Flavor",
+                "manufacturer": "Frisk Fresh",
+                "price": 2.99
+            },
+            {
+                "sku": "SB-RP13",
+                "type": "Candy",
+                "name": "Frisk Fresh Breath Mints",
+                "description": "Cherry Flavor",
+                "manufacturer": "Frisk Fresh",
+                "price": 3.49
+            }
+        ]""";
+
+    mockMvc.perform(post(CONTEXT_PRODUCTS + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[1].id").exists())
+        .andExpect(createdStatus);
+
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/sku/SB-RP13"))
+        .andExpect(okStatus);
+  }
+
+  @Test
+  public void postProductBatchWithInvalidElementsReturns400WithErrorsPerElement()
+      throws Exception {
+
+    String json = """
+        [
+            {
+                "sku": "SB-RP22",
+                "type": "Candy",
+                "name": "Frisk Fresh Breath Spray",
+                "description": "Mint Flavor",
+                "manufacturer": "Frisk Fresh",
+                "price": 2.99
+            },
+            {
+                "sku": "SB-RP23",
+                "type": "Candy",
+                "description": "Cherry Flavor",
+                "manufacturer": "Frisk Fresh",
+                "price": 3.49
+            }
+        ]""";
+
+    mockMvc.perform(post(CONTEXT_PRODUCTS + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(jsonPath("$.validationErrors", hasSize(1)))
+        .andExpect(jsonPath("$.validationErrors[0]")
+            .value("products[1].name: name is a required field"))
+        .andExpect(badRequestStatus);
+
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/sku/SB-RP22"))
+        .andExpect(notFoundStatus);
+  }
+
+  @DirtiesContext
+  @Test
+  public void postProductBatchInsertsInJdbcBatches() throws Exception {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 120; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"sku\": \"BT-").append(i)
+          .append("\", \"type\": \"Candy\", \"name\": \"Mint\", \"description\": \"Mint\",")
+          .append(" \"manufacturer\": \"Frisk Fresh\", \"price\": 1.99}");
+    }
+    json.append("]");
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    try {
+      statistics.clear();
+      mockMvc.perform(post(CONTEXT_PRODUCTS + "/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(json.toString()))
+          .andExpect(jsonPath("$", hasSize(120)))
+          .andExpect(createdStatus);
+      assertEquals(120, statistics.getEntityInsertCount());
+      assertTrue(statistics.getPrepareStatementCount() <= 10,
+          statistics.getPrepareStatementCount() + " statements were prepared");
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+  }
+
   @Test
   public void postInvalidProductJSONObjectReturns400BadRequest() throws Exception {
 
@@ -172,6 +755,28 @@ class ProductControllerTest {
         .andExpect(notFoundStatus);
   }
 
+  @Test
+  public void putProductWithSkuOfAnotherProductReturns409Conflict() throws Exception {
+
+    String json = """
+        {
+                "sku": "FP-857",
+                "type": "Alien Technology",
+                "name": "Alien Blaster",
+                "description": "A strange piece of alien technology. Maybe you can make it work?",
+                "manufacturer": "Wastelands",
+                "price": 1999.99
+        }""";
+
+    mockMvc.perform(put(CONTEXT_PRODUCTS + "/2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json))
+        .andExpect(conflictStatus);
+
+    mockMvc.perform(get(CONTEXT_PRODUCTS + "/2"))
+        .andExpect(jsonPath("$.sku").value("VG8-771"));
+  }
+
   @Test
   public void putProductWithNegativeIdReturns400BadRequest() throws Exception {
 
@@ -0,0 +1,259 @@
+package com.example.ecommerce.tests.controllers;
+
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_ORDERS;
+import static com.example.ecommerce.constants.StringConstants.HAS_NEXT;
+import static com.example.ecommerce.constants.StringConstants.NEXT_CURSOR;
+import static com.example.ecommerce.constants.StringConstants.TOTAL_COUNT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.ecommerce.models.DailyProductSales;
+import com.example.ecommerce.models.DailySales;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.repositories.DailyProductSalesRepository;
+import com.example.ecommerce.repositories.DailySalesRepository;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Contains the integration tests for the ReactiveOrderController, which serves the order API when
+ * the application runs with the "reactive" profile.
+ */
+@SpringBootTest(properties = {
+    "spring.main.web-application-type=reactive",
+    "spring.jpa.database=H2",
+    "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password="
+})
+@ActiveProfiles("reactive")
+@RunWith(SpringRunner.class)
+@AutoConfigureWebTestClient
+class ReactiveOrderControllerTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+  @Autowired
+  private DailySalesRepository dailySalesRepository;
+  @Autowired
+  private DailyProductSalesRepository dailyProductSalesRepository;
+
+  private static final String ORDER = """
+      {
+        "customerId": 3,
+        "date": "2022-08-22",
+        "items": [
+          {"productId": 1, "quantity": 12},
+          {"productId": 2, "quantity": 1}
+        ],
+        "orderTotal": 23.99
+      }""";
+
+  @Test
+  public void getOrderByIdReturnsOrderWithItems() {
+    webTestClient.get().uri(CONTEXT_ORDERS + "/1").exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.customerId").isNumber()
+        .jsonPath("$.date").isNotEmpty()
+        .jsonPath("$.items.length()").isEqualTo(1)
+        .jsonPath("$.items[0].productId").isNumber();
+  }
+
+  @Test
+  public void getOrdersByIdsReturnsOrdersWithItemsInRequestOrder() {
+    webTestClient.get().uri(CONTEXT_ORDERS + "?ids=2,1,9999").exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.results.length()").isEqualTo(2)
+        .jsonPath("$.results[0].id").isEqualTo(2)
+        .jsonPath("$.results[0].items.length()").isEqualTo(1)
+        .jsonPath("$.results[1].id").isEqualTo(1)
+        .jsonPath("$.missingIds[0]").isEqualTo(9999);
+  }
+
+  @Test
+  public void getOrderByIdThatDoesNotExistReturns404() {
+    webTestClient.get().uri(CONTEXT_ORDERS + "/9999").exchange()
+        .expectStatus().isNotFound()
+        .expectBody().jsonPath("$.errorMessage").isNotEmpty();
+  }
+
+  @Test
+  public void getOrdersPagesThroughOrdersWithCursors() {
+    String cursor = webTestClient.get().uri(CONTEXT_ORDERS + "?size=2").exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HAS_NEXT, "true")
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(2)
+        .jsonPath("$[0].id").isEqualTo(1)
+        .returnResult().getResponseHeaders().getFirst(NEXT_CURSOR);
+
+    webTestClient.get().uri(CONTEXT_ORDERS + "?size=2&after=" + cursor).exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$[0].id").isEqualTo(3)
+        .jsonPath("$[0].items.length()").isEqualTo(1);
+  }
+
+  @Test
+  public void getOrdersWithInvalidCursorReturns400BadRequest() {
+    webTestClient.get().uri(CONTEXT_ORDERS + "?after=nope").exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  public void getOrdersByExampleWithCountReturnsMatchesAndTotalCount() {
+    webTestClient.get().uri(CONTEXT_ORDERS + "?id=2&count=true").exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(TOTAL_COUNT, "1")
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(1)
+        .jsonPath("$[0].items.length()").isEqualTo(1);
+  }
+
+  @Test
+  public void postOrderSavesOrderWithItems() {
+    Order order = webTestClient.post().uri(CONTEXT_ORDERS)
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(ORDER).exchange()
+        .expectStatus().isCreated()
+        .expectBody(Order.class).returnResult().getResponseBody();
+
+    webTestClient.get().uri(CONTEXT_ORDERS + "/" + order.getId()).exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.date").isEqualTo("2022-08-22")
+        .jsonPath("$.items.length()").isEqualTo(2)
+        .jsonPath("$.items[0].quantity").isEqualTo(12)
+        // 12 of MD5-354 at 15.95 and 1 of VG8-771 at 49.99, whatever total was sent
+        .jsonPath("$.orderTotal").isEqualTo(241.39);
+  }
+
+  @Test
+  public void postOrderWithoutDateReturns400WithValidationErrors() {
+    webTestClient.post().uri(CONTEXT_ORDERS)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(ORDER.replace("\"date\": \"2022-08-22\",", "")).exchange()
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.validationErrors[0]").isEqualTo("Date is a required field");
+  }
+
+  @Test
+  public void postOrderBatchSavesEveryOrder() {
+    webTestClient.post().uri(CONTEXT_ORDERS + "/batch")
+        .contentType(MediaType.APPLICATION_JSON).bodyValue("[" + ORDER + "," + ORDER + "]")
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(2)
+        .jsonPath("$[1].items.length()").isEqualTo(2)
+        .jsonPath("$[1].items[1].id").isNumber();
+  }
+
+  @Test
+  public void putOrderReplacesOrderAndItsItems() {
+    Order order = webTestClient.post().uri(CONTEXT_ORDERS)
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(ORDER).exchange()
+        .expectStatus().isCreated()
+        .expectBody(Order.class).returnResult().getResponseBody();
+    String update = """
+        {
+          "customerId": 4,
+          "date": "2022-09-01",
+          "items": [
+            {"productId": 3, "quantity": 7}
+          ],
+          "orderTotal": 70.00
+        }""";
+
+    webTestClient.put().uri(CONTEXT_ORDERS + "/" + order.getId())
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(update).exchange()
+        .expectStatus().isOk();
+    webTestClient.get().uri(CONTEXT_ORDERS + "/" + order.getId()).exchange()
+        .expectBody()
+        .jsonPath("$.customerId").isEqualTo(4)
+        .jsonPath("$.items.length()").isEqualTo(1)
+        .jsonPath("$.items[0].productId").isEqualTo(3);
+  }
+
+  @Test
+  public void deleteOrderReturns204ThenOrderIsGone() {
+    Order order = webTestClient.post().uri(CONTEXT_ORDERS)
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(ORDER).exchange()
+        .expectStatus().isCreated()
+        .expectBody(Order.class).returnResult().getResponseBody();
+
+    webTestClient.delete().uri(CONTEXT_ORDERS + "/" + order.getId()).exchange()
+        .expectStatus().isNoContent();
+    webTestClient.get().uri(CONTEXT_ORDERS + "/" + order.getId()).exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void postPutAndDeleteOrderKeepTheSalesRollupsInStep() {
+    LocalDate posted = LocalDate.of(2023, 7, 7);
+    LocalDate moved = LocalDate.of(2023, 7, 8);
+    Order order = webTestClient.post().uri(CONTEXT_ORDERS)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(ORDER.replace("2022-08-22", posted.toString())).exchange()
+        .expectStatus().isCreated()
+        .expectBody(Order.class).returnResult().getResponseBody();
+
+    assertEquals(new DailySales(posted, Money.of("241.39"), 1),
+        dailySalesRepository.findById(posted).orElseThrow());
+    assertEquals(12, dailyProductSalesRepository
+        .findById(new DailyProductSales.Key(posted, 1L)).orElseThrow().getUnits());
+
+    String update = """
+        {
+          "customerId": 3,
+          "date": "2023-07-08",
+          "items": [
+            {"productId": 3, "quantity": 7}
+          ]
+        }""";
+    webTestClient.put().uri(CONTEXT_ORDERS + "/" + order.getId())
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(update).exchange()
+        .expectStatus().isOk();
+
+    assertEquals(0, dailySalesRepository.findById(posted).orElseThrow().getOrderCount());
+    assertEquals(0, dailyProductSalesRepository
+        .findById(new DailyProductSales.Key(posted, 1L)).orElseThrow().getUnits());
+    assertEquals(new DailySales(moved, Money.of("19.53"), 1),
+        dailySalesRepository.findById(moved).orElseThrow());
+
+    webTestClient.delete().uri(CONTEXT_ORDERS + "/" + order.getId()).exchange()
+        .expectStatus().isNoContent();
+
+    assertEquals(new DailySales(moved, Money.of("0.00"), 0),
+        dailySalesRepository.findById(moved).orElseThrow());
+    assertEquals(0, dailyProductSalesRepository
+        .findById(new DailyProductSales.Key(moved, 3L)).orElseThrow().getUnits());
+  }
+
+  @Test
+  public void exportOrdersStreamsEveryOrderAsNdjson() {
+    List<Order> orders = webTestClient.get().uri(CONTEXT_ORDERS + "/export")
+        .accept(MediaType.APPLICATION_NDJSON).exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(Order.class).returnResult().getResponseBody();
+
+    assertTrue(orders.size() >= 4);
+    assertEquals(1L, orders.get(0).getId());
+    assertEquals(1, orders.get(0).getItems().size());
+  }
+}
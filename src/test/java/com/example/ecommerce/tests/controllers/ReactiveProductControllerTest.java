@@ -0,0 +1,267 @@
+package com.example.ecommerce.tests.controllers;
+
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_PRODUCTS;
+import static com.example.ecommerce.constants.StringConstants.HAS_NEXT;
+import static com.example.ecommerce.constants.StringConstants.TOTAL_COUNT;
+
+import com.example.ecommerce.models.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Contains the integration tests for the ReactiveProductController, which serves the product API
+ * when the application runs with the "reactive" profile.
+ */
+@SpringBootTest(properties = {
+    "spring.main.web-application-type=reactive",
+    "spring.jpa.database=H2",
+    "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password="
+})
+@ActiveProfiles("reactive")
+@RunWith(SpringRunner.class)
+@AutoConfigureWebTestClient
+class ReactiveProductControllerTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Test
+  public void getProductsWithPageSizeAndSortReturnsSortedPage() {
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "?size=1&sort=sku,desc").exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HAS_NEXT, "true")
+        .expectHeader().doesNotExist(TOTAL_COUNT)
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(1)
+        .jsonPath("$[0].sku").isEqualTo("VG8-771");
+  }
+
+  @Test
+  public void getProductsByExampleWithCountReturnsMatchesAndTotalCount() {
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "?sku=MD5-354&count=true").exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(TOTAL_COUNT, "1")
+        .expectBody()
+        .jsonPath("$[0].id").isEqualTo(1)
+        .jsonPath("$[0].name").isNotEmpty();
+  }
+
+  @Test
+  public void getProductsWithInvalidSortReturns400BadRequest() {
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "?sort=nope,asc").exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  public void getProductByIdThatExistsReturnsProductAnd200() {
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/4").exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(MediaType.APPLICATION_JSON)
+        .expectBody().jsonPath("$.sku").isEqualTo("FP-857");
+  }
+
+  @Test
+  public void getProductByIdWithCurrentETagReturns304() {
+    String eTag = webTestClient.get().uri(CONTEXT_PRODUCTS + "/2").exchange()
+        .expectStatus().isOk()
+        .expectHeader().exists(HttpHeaders.LAST_MODIFIED)
+        .expectBody(Product.class).returnResult()
+        .getResponseHeaders().getETag();
+
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/2").header(HttpHeaders.IF_NONE_MATCH, eTag)
+        .exchange()
+        .expectStatus().isNotModified()
+        .expectBody().isEmpty();
+  }
+
+  @Test
+  public void getProductsByIdsReturnsProductsInRequestOrderAndMissingIds() {
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "?ids=3,9999,2").exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.results.length()").isEqualTo(2)
+        .jsonPath("$.results[0].sku").isEqualTo("CS4-956")
+        .jsonPath("$.results[1].sku").isEqualTo("VG8-771")
+        .jsonPath("$.missingIds[0]").isEqualTo(9999);
+  }
+
+  @Test
+  public void getProductByIdThatDoesNotExistReturns404WithErrorMessage() {
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/9999").exchange()
+        .expectStatus().isNotFound()
+        .expectBody().jsonPath("$.errorMessage").isNotEmpty();
+  }
+
+  @Test
+  public void getProductByIdThatIsNotPositiveReturns400BadRequest() {
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/0").exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  public void getProductBySkuThatExistsReturnsProduct() {
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/sku/CS4-956").exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$.id").isEqualTo(3);
+  }
+
+  @Test
+  public void postAndDeleteProductReturns201Then204Then404() {
+    String json = """
+        {
+          "sku": "RX-101",
+          "type": "Sports",
+          "name": "Reactive Ball",
+          "description": "Bounces without blocking",
+          "manufacturer": "Reactor",
+          "price": 9.99
+        }""";
+    Long id = webTestClient.post().uri(CONTEXT_PRODUCTS)
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(json).exchange()
+        .expectStatus().isCreated()
+        .expectBody(Product.class).returnResult()
+        .getResponseBody().getId();
+
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/sku/RX-101").exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$.id").isEqualTo(id);
+    webTestClient.delete().uri(CONTEXT_PRODUCTS + "/" + id).exchange()
+        .expectStatus().isNoContent();
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/" + id).exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void postProductWithMissingFieldsReturns400WithValidationErrors() {
+    String json = """
+        {
+          "sku": "RX-102",
+          "type": "Sports",
+          "price": 9.99
+        }""";
+    webTestClient.post().uri(CONTEXT_PRODUCTS)
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(json).exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.validationErrors.length()").isEqualTo(3)
+        .jsonPath("$.errorMessage").isEqualTo(
+            "One or more validation errors occurred in:ReactiveProductController : postProduct");
+  }
+
+  @Test
+  public void postProductWithSkuInUseReturns409Conflict() {
+    String json = """
+        {
+          "sku": "MD5-354",
+          "type": "Sports",
+          "name": "Copy",
+          "description": "Same sku as product 1",
+          "manufacturer": "Reactor",
+          "price": 1.00
+        }""";
+    webTestClient.post().uri(CONTEXT_PRODUCTS)
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(json).exchange()
+        .expectStatus().isEqualTo(409);
+  }
+
+  @Test
+  public void postProductBatchSavesEveryProduct() {
+    String json = """
+        [
+          {"sku": "RX-201", "type": "Sports", "name": "One", "description": "First",
+           "manufacturer": "Reactor", "price": 1.00},
+          {"sku": "RX-202", "type": "Sports", "name": "Two", "description": "Second",
+           "manufacturer": "Reactor", "price": 2.00}
+        ]""";
+    webTestClient.post().uri(CONTEXT_PRODUCTS + "/batch")
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(json).exchange()
+        .expectStatus().isCreated()
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(2)
+        .jsonPath("$[1].id").isNumber();
+
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "?manufacturer=Reactor&sku=RX-202").exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$[0].name").isEqualTo("Two");
+  }
+
+  @Test
+  public void postProductBatchWithInvalidProductReturns400AndSavesNothing() {
+    String json = """
+        [
+          {"sku": "RX-301", "type": "Sports", "name": "One", "description": "First",
+           "manufacturer": "Reactor", "price": 1.00},
+          {"sku": "RX-302", "type": "Sports", "description": "No name",
+           "manufacturer": "Reactor", "price": 2.00}
+        ]""";
+    webTestClient.post().uri(CONTEXT_PRODUCTS + "/batch")
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(json).exchange()
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.validationErrors[0]").isEqualTo(
+            "products[1].name: name is a required field");
+
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/sku/RX-301").exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void putProductUpdatesProductAndReturns200() {
+    String json = """
+        {
+          "sku": "RX-401",
+          "type": "Sports",
+          "name": "Before",
+          "description": "To be updated",
+          "manufacturer": "Reactor",
+          "price": 3.00
+        }""";
+    Long id = webTestClient.post().uri(CONTEXT_PRODUCTS)
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(json).exchange()
+        .expectStatus().isCreated()
+        .expectHeader().doesNotExist(HttpHeaders.ETAG)
+        .expectBody(Product.class).returnResult()
+        .getResponseBody().getId();
+
+    webTestClient.put().uri(CONTEXT_PRODUCTS + "/" + id)
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(json.replace("Before", "After"))
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.name").isEqualTo("After")
+        .jsonPath("$.version").isEqualTo(1);
+    webTestClient.get().uri(CONTEXT_PRODUCTS + "/" + id)
+        .header(HttpHeaders.IF_NONE_MATCH, "\"0\"").exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+        .expectBody().jsonPath("$.name").isEqualTo("After");
+  }
+
+  @Test
+  public void putProductThatDoesNotExistReturns404() {
+    String json = """
+        {
+          "sku": "RX-501",
+          "type": "Sports",
+          "name": "Nobody",
+          "description": "Not there",
+          "manufacturer": "Reactor",
+          "price": 3.00
+        }""";
+    webTestClient.put().uri(CONTEXT_PRODUCTS + "/9999")
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(json).exchange()
+        .expectStatus().isNotFound();
+  }
+}
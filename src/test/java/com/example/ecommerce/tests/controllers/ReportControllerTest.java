@@ -0,0 +1,189 @@
+package com.example.ecommerce.tests.controllers;
+
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_ORDERS;
+import static com.example.ecommerce.constants.StringConstants.CONTEXT_REPORTS;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+import com.example.ecommerce.models.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+/**
+ * Contains the integration tests for the ReportController.
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+class ReportControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  ResultMatcher okStatus = MockMvcResultMatchers.status().isOk();
+  ResultMatcher badRequestStatus = MockMvcResultMatchers.status().isBadRequest();
+
+  @Test
+  public void getSalesReportOfSeededDaysReturnsDailyRevenueAndUnitsByProduct() throws Exception {
+    mockMvc.perform(get(CONTEXT_REPORTS + "/sales")
+            .param("from", "2020-12-01").param("to", "2021-12-31"))
+        .andExpect(okStatus)
+        .andExpect(jsonPath("$.from").value("2020-12-01"))
+        .andExpect(jsonPath("$.revenue").value(663.82))
+        .andExpect(jsonPath("$.orderCount").value(2))
+        .andExpect(jsonPath("$.days", hasSize(2)))
+        .andExpect(jsonPath("$.days[0].date").value("2020-12-09"))
+        .andExpect(jsonPath("$.days[0].revenue").value(13.95))
+        .andExpect(jsonPath("$.days[1].date").value("2021-06-12"))
+        .andExpect(jsonPath("$.days[1].orderCount").value(1))
+        .andExpect(jsonPath("$.products", hasSize(2)))
+        .andExpect(jsonPath("$.products[0].productId").value(2))
+        .andExpect(jsonPath("$.products[0].units").value(13))
+        .andExpect(jsonPath("$.products[1].productId").value(3))
+        .andExpect(jsonPath("$.products[1].units").value(5));
+  }
+
+  @Test
+  public void getSalesReportWithLimitListsTheMostOrderedProducts() throws Exception {
+    mockMvc.perform(get(CONTEXT_REPORTS + "/sales")
+            .param("from", "2020-12-01").param("to", "2021-12-31").param("limit", "1"))
+        .andExpect(okStatus)
+        .andExpect(jsonPath("$.products", hasSize(1)))
+        .andExpect(jsonPath("$.products[0].productId").value(2));
+  }
+
+  @Test
+  @DirtiesContext
+  public void concurrentFirstOrdersOfADayAreAllRolledUp() throws Exception {
+    String json = """
+        {
+                "customerId": 1,
+                "date": "2023-04-01",
+                "items": [
+                    {
+                        "productId": 3,
+                        "quantity": 1
+                    }
+                ]
+        }""";
+    int orders = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(orders);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> statuses = new ArrayList<>();
+    try {
+      for (int i = 0; i < orders; i++) {
+        statuses.add(executor.submit(() -> {
+          start.await();
+          return mockMvc.perform(post(CONTEXT_ORDERS)
+                  .contentType(MediaType.APPLICATION_JSON).content(json))
+              .andReturn().getResponse().getStatus();
+        }));
+      }
+      start.countDown();
+      for (Future<Integer> status : statuses) {
+        assertEquals(201, status.get(1, TimeUnit.MINUTES));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    mockMvc.perform(get(CONTEXT_REPORTS + "/sales").param("from", "2023-04-01"))
+        .andExpect(jsonPath("$.revenue").value(22.32))
+        .andExpect(jsonPath("$.orderCount").value(orders))
+        .andExpect(jsonPath("$.products[0].units").value(orders));
+  }
+
+  @Test
+  @DirtiesContext
+  public void postPutAndDeleteOrderKeepTheSalesReportInStep() throws Exception {
+    String json = """
+        {
+                "customerId": 3,
+                "date": "2023-03-01",
+                "items": [
+                    {
+                        "productId": 3,
+                        "quantity": 2
+                    }
+                ]
+        }""";
+    String posted = mockMvc.perform(post(CONTEXT_ORDERS)
+            .contentType(MediaType.APPLICATION_JSON).content(json))
+        .andReturn().getResponse().getContentAsString();
+    Long id = objectMapper.readValue(posted, Order.class).getId();
+
+    mockMvc.perform(get(CONTEXT_REPORTS + "/sales").param("from", "2023-03-01"))
+        .andExpect(jsonPath("$.revenue").value(5.58))
+        .andExpect(jsonPath("$.days", hasSize(1)))
+        .andExpect(jsonPath("$.products[0].productId").value(3))
+        .andExpect(jsonPath("$.products[0].units").value(2));
+
+    mockMvc.perform(put(CONTEXT_ORDERS + "/" + id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {
+                        "customerId": 3,
+                        "date": "2023-03-02",
+                        "items": [
+                            {
+                                "productId": 4,
+                                "quantity": 1
+                            }
+                        ]
+                }"""))
+        .andExpect(okStatus);
+
+    mockMvc.perform(get(CONTEXT_REPORTS + "/sales").param("from", "2023-03-01"))
+        .andExpect(jsonPath("$.revenue").value(24.95))
+        .andExpect(jsonPath("$.orderCount").value(1))
+        .andExpect(jsonPath("$.days", hasSize(1)))
+        .andExpect(jsonPath("$.days[0].date").value("2023-03-02"))
+        .andExpect(jsonPath("$.products", hasSize(1)))
+        .andExpect(jsonPath("$.products[0].productId").value(4));
+
+    mockMvc.perform(delete(CONTEXT_ORDERS + "/" + id));
+
+    mockMvc.perform(get(CONTEXT_REPORTS + "/sales").param("from", "2023-03-01"))
+        .andExpect(jsonPath("$.revenue").value(0))
+        .andExpect(jsonPath("$.orderCount").value(0))
+        .andExpect(jsonPath("$.days", hasSize(0)))
+        .andExpect(jsonPath("$.products", hasSize(0)));
+  }
+
+  @Test
+  public void getSalesReportWithFromAfterToReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_REPORTS + "/sales")
+            .param("from", "2022-02-01").param("to", "2022-01-01"))
+        .andExpect(badRequestStatus);
+  }
+
+  @Test
+  public void getSalesReportWithMalformedDayReturns400BadRequest() throws Exception {
+    mockMvc.perform(get(CONTEXT_REPORTS + "/sales").param("from", "01/02/2022"))
+        .andExpect(badRequestStatus);
+  }
+}
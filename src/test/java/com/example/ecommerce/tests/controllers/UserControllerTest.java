@@ -60,6 +60,15 @@ class UserControllerTest {
         .andExpect(okStatus);
   }
 
+  @Test
+  public void getUsersByIdsReturnsUsersInRequestOrderAndMissingIds() throws Exception {
+    mockMvc.perform(get(CONTEXT_USERS).param("ids", "999,3,2"))
+        .andExpect(jsonPath("$.results", hasSize(2)))
+        .andExpect(jsonPath("$.results[0].id").value(3))
+        .andExpect(jsonPath("$.missingIds[0]").value(999))
+        .andExpect(okStatus);
+  }
+
   @Test
   public void getUserByIdThatExistsReturnsUserWithCorrectTypeAnd200() throws Exception {
     mockMvc.perform(get(CONTEXT_USERS + "/1"))
@@ -0,0 +1,177 @@
+package com.example.ecommerce.tests.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.example.ecommerce.analytics.AnalyticsGroup;
+import com.example.ecommerce.analytics.OrderAnalytics;
+import com.example.ecommerce.analytics.OrderColumnStore;
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.example.ecommerce.models.ItemFact;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.OrderFact;
+import com.example.ecommerce.repositories.ItemRepository;
+import com.example.ecommerce.repositories.OrderRepository;
+import com.example.ecommerce.services.AnalyticsServiceImpl;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Contains the unit tests for the AnalyticsServiceImpl, run on a real OrderColumnStore.
+ */
+class AnalyticsServiceImplTest {
+
+  @Mock
+  private OrderRepository orderRepository;
+  @Mock
+  private ItemRepository itemRepository;
+  @Spy
+  private OrderColumnStore orderColumnStore = new OrderColumnStore();
+  private AutoCloseable closeable;
+
+  @InjectMocks
+  AnalyticsServiceImpl analyticsServiceImpl;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    closeable = MockitoAnnotations.openMocks(this);
+    when(orderRepository.findFactsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+        new OrderFact(1L, 1L, date("2022-04-22"), Money.of("366.85")),
+        new OrderFact(2L, 2L, date("2022-04-30"), Money.of("649.87")),
+        new OrderFact(3L, 1L, date("2022-05-01"), Money.of("13.95"))));
+    when(itemRepository.findFactsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+        new ItemFact(10L, 1L, 1L, 23),
+        new ItemFact(11L, 2L, 2L, 13),
+        new ItemFact(12L, 3L, 3L, 5),
+        new ItemFact(13L, 3L, 1L, 1)));
+    analyticsServiceImpl.rebuild();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  public void queryOrdersWithoutGroupingSumsEveryOrder() {
+    OrderAnalytics analytics = analyticsServiceImpl.queryOrders(null, null, null, null, null,
+        null);
+
+    assertEquals(3, analytics.getOrderRows());
+    assertEquals(4, analytics.getItemRows());
+    assertEquals(List.of("all"), keys(analytics));
+    AnalyticsGroup all = analytics.getGroups().get(0);
+    assertEquals(3, all.getOrders());
+    assertEquals(42, all.getUnits());
+    assertEquals(Money.of("1030.67"), all.getRevenue());
+  }
+
+  @Test
+  public void queryOrdersByMonthWithinRangeSumsEachMonth() {
+    OrderAnalytics analytics = analyticsServiceImpl.queryOrders("month",
+        LocalDate.of(2022, 4, 25), LocalDate.of(2022, 5, 31), null, null, null);
+
+    assertEquals(List.of("2022-04", "2022-05"), keys(analytics));
+    assertEquals(Money.of("649.87"), analytics.getGroups().get(0).getRevenue());
+    assertEquals(6, analytics.getGroups().get(1).getUnits());
+  }
+
+  @Test
+  public void queryOrdersByCustomerListsTheHighestRevenueFirst() {
+    OrderAnalytics analytics = analyticsServiceImpl.queryOrders("CUSTOMER", null, null, null,
+        null, null);
+
+    assertEquals(List.of("2", "1"), keys(analytics));
+    assertEquals(2, analytics.getGroups().get(1).getOrders());
+    assertEquals(Money.of("380.80"), analytics.getGroups().get(1).getRevenue());
+  }
+
+  @Test
+  public void queryOrdersByProductOfCustomerCountsItsItems() {
+    OrderAnalytics analytics = analyticsServiceImpl.queryOrders("product", null, null, 1L, null,
+        1);
+
+    assertEquals(2, analytics.getGroupCount());
+    assertEquals(List.of("1"), keys(analytics));
+    assertEquals(2, analytics.getGroups().get(0).getOrders());
+    assertEquals(24, analytics.getGroups().get(0).getUnits());
+    assertNull(analytics.getGroups().get(0).getRevenue());
+  }
+
+  @Test
+  public void refreshAppendsOnlyTheOrdersAndItemsSavedSince() {
+    when(orderRepository.findFactsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of(
+        new OrderFact(4L, 2L, date("2022-05-01"), Money.of("24.95"))));
+    // the Item of Order 5 is read before its Order is, so it waits for the next refresh
+    when(itemRepository.findFactsAfter(eq(13L), any(Pageable.class))).thenReturn(List.of(
+        new ItemFact(14L, 4L, 4L, 1), new ItemFact(15L, 5L, 4L, 2)));
+
+    analyticsServiceImpl.refresh();
+    OrderAnalytics analytics = analyticsServiceImpl.queryOrders("day", null, null, null, 4L,
+        null);
+
+    assertEquals(4, analytics.getOrderRows());
+    assertEquals(5, analytics.getItemRows());
+    assertEquals(List.of("2022-05-01"), keys(analytics));
+    assertEquals(1, analytics.getGroups().get(0).getUnits());
+  }
+
+  @Test
+  public void queryOrdersSplitAcrossParallelScansSumsEveryRow() {
+    List<OrderFact> orders = new ArrayList<>();
+    List<ItemFact> items = new ArrayList<>();
+    for (long id = 1; id <= 100000; id++) {
+      orders.add(new OrderFact(id, id % 7, date("2022-01-01"), Money.of("1.25")));
+      items.add(new ItemFact(id, id, id % 3, 2));
+    }
+    when(orderRepository.findFactsAfter(eq(0L), any(Pageable.class))).thenReturn(orders);
+    when(itemRepository.findFactsAfter(eq(0L), any(Pageable.class))).thenReturn(items);
+    analyticsServiceImpl.rebuild();
+
+    AnalyticsGroup all = analyticsServiceImpl.queryOrders(null, null, null, null, null, null)
+        .getGroups().get(0);
+
+    assertEquals(100000, all.getOrders());
+    assertEquals(200000, all.getUnits());
+    assertEquals(Money.of("125000.00"), all.getRevenue());
+    assertEquals(7, analyticsServiceImpl.queryOrders("customer", null, null, null, null, null)
+        .getGroupCount());
+  }
+
+  @Test
+  public void queryOrdersByUnknownGroupingThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class,
+        () -> analyticsServiceImpl.queryOrders("week", null, null, null, null, null));
+  }
+
+  @Test
+  public void queryOrdersWithFromAfterToThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class, () -> analyticsServiceImpl.queryOrders(null,
+        LocalDate.of(2022, 2, 1), LocalDate.of(2022, 1, 1), null, null, null));
+  }
+
+  private static List<String> keys(OrderAnalytics analytics) {
+    List<String> keys = new ArrayList<>();
+    analytics.getGroups().forEach(group -> keys.add(group.getKey()));
+    return keys;
+  }
+
+  private static Date date(String day) {
+    return Date.from(LocalDate.parse(day).atStartOfDay().toInstant(ZoneOffset.UTC));
+  }
+}
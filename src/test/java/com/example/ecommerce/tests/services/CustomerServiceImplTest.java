@@ -2,7 +2,9 @@ package com.example.ecommerce.tests.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -13,6 +15,9 @@ import com.example.ecommerce.exceptions.ResourceNotFound;
 import com.example.ecommerce.exceptions.ServiceUnavailable;
 import com.example.ecommerce.models.Address;
 import com.example.ecommerce.models.Customer;
+import com.example.ecommerce.models.EntityVersion;
+import com.example.ecommerce.models.Partial;
+import com.example.ecommerce.pagination.MultiGet;
 import com.example.ecommerce.repositories.CustomerRepository;
 import com.example.ecommerce.services.CustomerService;
 import com.example.ecommerce.services.CustomerServiceImpl;
@@ -25,7 +30,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 /**
  * Contains the unit tests for the CustomerServiceImpl.
@@ -44,6 +57,7 @@ class CustomerServiceImplTest {
   Customer customer;
   Address address;
   List<Customer> customerList = new ArrayList<>();
+  Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
 
   @BeforeEach
   public void setUp() throws Exception {
@@ -59,23 +73,48 @@ class CustomerServiceImplTest {
 
   @Test
   public void queryCustomersReturnsCorrectCustomers() {
-    when(customerRepository.findAll()).thenReturn(customerList);
-    List<Customer> result = customerServiceImpl.queryCustomers(new Customer());
-    assertEquals(customerList, result);
+    when(customerRepository.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<>(customerList));
+    Slice<Customer> result = customerServiceImpl.queryCustomers(new Customer(), pageable, false);
+    assertEquals(customerList, result.getContent());
+  }
+
+  @Test
+  public void queryCustomersWithCountReturnsPage() {
+    when(customerRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(customerList));
+    Slice<Customer> result = customerServiceImpl.queryCustomers(new Customer(), pageable, true);
+    assertEquals(customerList, result.getContent());
+    assertTrue(result instanceof Page);
   }
 
   @Test
   public void queryCustomersByExample() {
-    when(customerRepository.findAll(any(Example.class))).thenReturn(customerList);
-    List<Customer> result = customerServiceImpl.queryCustomers(customer);
-    assertEquals(customerList, result);
+    when(customerRepository.findSlice(any(Example.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(customerList));
+    Slice<Customer> result = customerServiceImpl.queryCustomers(customer, pageable, false);
+    assertEquals(customerList, result.getContent());
+  }
+
+  @Test
+  public void queryCustomersByExampleWithCountReturnsPage() {
+    when(customerRepository.findAll(any(Example.class), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(customerList));
+    Slice<Customer> result = customerServiceImpl.queryCustomers(customer, pageable, true);
+    assertEquals(customerList, result.getContent());
+  }
+
+  @Test
+  public void queryCustomersWithInvalidSortThrowsBadDataResponse() {
+    doThrow(InvalidDataAccessApiUsageException.class).when(customerRepository)
+        .findAllBy(any(Pageable.class));
+    assertThrows(BadDataResponse.class,
+        () -> customerServiceImpl.queryCustomers(new Customer(), PageRequest.of(0, 10, Sort.by("nope")), false));
   }
 
   @Test
   public void queryCustomersThrowsServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(customerRepository).findAll();
+    doThrow(ServiceUnavailable.class).when(customerRepository).findAllBy(any(Pageable.class));
     assertThrows(ServiceUnavailable.class,
-        () -> customerServiceImpl.queryCustomers(new Customer()));
+        () -> customerServiceImpl.queryCustomers(new Customer(), pageable, false));
   }
 
   @Test
@@ -103,38 +142,128 @@ class CustomerServiceImplTest {
     assertThrows(ServiceUnavailable.class, () -> customerServiceImpl.getCustomerById(1L));
   }
 
+  @Test
+  public void getCustomersByIdsReturnsCustomersInRequestOrder() {
+    customer.setId(2L);
+    when(customerRepository.findAllById(List.of(2L, 5L))).thenReturn(List.of(customer));
+    MultiGet<Customer> result = customerServiceImpl.getCustomersByIds(List.of(2L, 5L));
+    assertEquals(List.of(customer), result.getResults());
+    assertEquals(List.of(5L), result.getMissingIds());
+  }
+
+  @Test
+  public void getCustomersByIdsThrowsServiceUnavailable() {
+    doThrow(RuntimeException.class).when(customerRepository).findAllById(any());
+    assertThrows(ServiceUnavailable.class,
+        () -> customerServiceImpl.getCustomersByIds(List.of(1L)));
+  }
+
+  @Test
+  public void queryCustomerFieldsSelectsEachFieldOnce() {
+    Partial partial = new Partial(2L, 0L, null);
+    when(customerRepository.findPartialSlice(any(Example.class), any(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(partial)));
+    Slice<Partial> result = customerServiceImpl.queryCustomerFields(customer,
+        List.of("name", "address", "address.city", "name"), pageable, false);
+    assertEquals(List.of(partial), result.getContent());
+    verify(customerRepository).findPartialSlice(any(Example.class),
+        eq(List.of("name", "address")), any(Pageable.class));
+  }
+
+  @Test
+  public void queryCustomerFieldsWithBlankFieldThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class, () -> customerServiceImpl.queryCustomerFields(customer,
+        List.of("name", " "), pageable, false));
+  }
+
+  @Test
+  public void getCustomerFieldsByNonExistentIdThrowsNotFound() {
+    when(customerRepository.findPartialById(Customer.class, 999L, List.of("name")))
+        .thenReturn(Optional.empty());
+    assertThrows(ResourceNotFound.class,
+        () -> customerServiceImpl.getCustomerFieldsById(999L, List.of("name")));
+  }
+
+  @Test
+  public void getCustomerVersionByIdReadsOnlyTheVersion() {
+    EntityVersion version = new EntityVersion(1L, 3L, null);
+    when(customerRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+    assertEquals(version, customerServiceImpl.getCustomerVersionById(1L));
+  }
+
+  @Test
+  public void getCustomerVersionByNonExistentIdThrowsNotFound() {
+    when(customerRepository.findVersionById(any(Long.class))).thenReturn(Optional.empty());
+    assertThrows(ResourceNotFound.class, () -> customerServiceImpl.getCustomerVersionById(999L));
+  }
+
+  @Test
+  public void getCustomerVersionByIdThrowsServiceUnavailable() {
+    doThrow(RuntimeException.class).when(customerRepository).findVersionById(any(Long.class));
+    assertThrows(ServiceUnavailable.class, () -> customerServiceImpl.getCustomerVersionById(1L));
+  }
+
   @Test
   public void postCustomerWithValidBodyCreatesSuccessfully() {
-    when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+    when(customerRepository.saveAndFlush(any(Customer.class))).thenReturn(customer);
     Customer result = customerServiceImpl.addCustomer(new Customer());
     assertEquals(customer, result);
   }
 
   @Test
   void postCustomerWithExistingEmailThrowsConflict409() {
-    when(customerRepository.existsByEmail(any(String.class))).thenReturn(true);
+    doThrow(IntegrityViolations.of(Customer.EMAIL_UNIQUE)).when(customerRepository)
+        .saveAndFlush(any(Customer.class));
     assertThrows(Conflict.class, () -> customerServiceImpl.addCustomer(customer));
   }
 
+  @Test
+  public void postCustomerWithNullColumnThrowsServiceUnavailableNotConflict() {
+    doThrow(IntegrityViolations.of(null)).when(customerRepository)
+        .saveAndFlush(any(Customer.class));
+    assertThrows(ServiceUnavailable.class, () -> customerServiceImpl.addCustomer(customer));
+  }
+
   @Test
   public void postCustomerThrowsServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(customerRepository).save(any(Customer.class));
+    doThrow(ServiceUnavailable.class).when(customerRepository).saveAndFlush(any(Customer.class));
     assertThrows(ServiceUnavailable.class,
         () -> customerServiceImpl.addCustomer(new Customer()));
   }
 
+  @Test
+  public void postCustomersSavesTheWholeBatchAtOnce() {
+    List<Customer> batch = List.of(customer,
+        new Customer("Other Testerton", "other@test.com", address));
+    when(customerRepository.saveAllAndFlush(batch)).thenReturn(batch);
+    assertEquals(batch, customerServiceImpl.addCustomers(batch));
+  }
+
+  @Test
+  public void postCustomersWithRepeatedEmailThrowsConflict409() {
+    List<Customer> batch = List.of(customer,
+        new Customer("Other Testerton", "test@test.com", address));
+    assertThrows(Conflict.class, () -> customerServiceImpl.addCustomers(batch));
+  }
+
+  @Test
+  public void postCustomersWithEmailInUseThrowsConflict409() {
+    doThrow(IntegrityViolations.of(Customer.EMAIL_UNIQUE)).when(customerRepository)
+        .saveAllAndFlush(any());
+    assertThrows(Conflict.class, () -> customerServiceImpl.addCustomers(List.of(customer)));
+  }
+
   @Test
   public void updateCustomerWithValidIdAndBodyReturnsCustomerSuccessfully() {
-    when(customerRepository.existsById(any(Long.class))).thenReturn(true);
     when(customerRepository.findById(any(Long.class))).thenReturn(Optional.of(customer));
-    when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+    when(customerRepository.saveAndFlush(any(Customer.class))).thenReturn(customer);
     Customer result = customerServiceImpl.updateCustomerById(1L, new Customer());
     assertEquals(customer, result);
   }
 
   @Test
   public void updateCustomerWithNonExistentIdThrowsNotFound() {
-    when(customerRepository.existsById(any(Long.class))).thenReturn(false);
+    when(customerRepository.findById(any(Long.class))).thenReturn(Optional.empty());
     assertThrows(ResourceNotFound.class,
         () -> customerServiceImpl.updateCustomerById(999L, new Customer()));
   }
@@ -147,17 +276,17 @@ class CustomerServiceImplTest {
 
   @Test
   public void updateCustomerThrowsServiceUnavailable() {
-    when(customerRepository.existsById(any(Long.class))).thenReturn(true);
     when(customerRepository.findById(any(Long.class))).thenReturn(Optional.of(customer));
-    doThrow(ServiceUnavailable.class).when(customerRepository).save(any(Customer.class));
+    doThrow(ServiceUnavailable.class).when(customerRepository).saveAndFlush(any(Customer.class));
     assertThrows(ServiceUnavailable.class,
         () -> customerServiceImpl.updateCustomerById(1L, new Customer()));
   }
 
   @Test
   public void updateCustomerWithEmailThatAlreadyExistsThrowsConflict409() {
-    when(customerRepository.existsById(any(Long.class))).thenReturn(true);
-    when(customerRepository.existsByEmail(any(String.class))).thenReturn(true);
+    when(customerRepository.findById(any(Long.class))).thenReturn(Optional.of(customer));
+    doThrow(IntegrityViolations.of(Customer.EMAIL_UNIQUE)).when(customerRepository)
+        .saveAndFlush(any(Customer.class));
     assertThrows(Conflict.class, () -> customerServiceImpl.updateCustomerById(1L, customer));
   }
 
@@ -192,4 +321,4 @@ class CustomerServiceImplTest {
     when(customerRepository.findById(any(Long.class))).thenReturn(Optional.empty());
     assertThrows(ResourceNotFound.class, () -> customerServiceImpl.deleteCustomerById(40L));
   }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.example.ecommerce.tests.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
@@ -23,7 +24,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 /**
  * Contains the unit tests for the GreetingServiceImpl.
@@ -41,6 +50,7 @@ class GreetingServiceImplTest {
 
   Greeting greeting;
   List<Greeting> greetingList = new ArrayList<>();
+  Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
 
   @BeforeEach
   public void setUp() throws Exception {
@@ -55,23 +65,48 @@ class GreetingServiceImplTest {
 
   @Test
   public void queryGreetingsReturnsCorrectGreetings() {
-    when(greetingRepository.findAll()).thenReturn(greetingList);
-    List<Greeting> result = greetingServiceImpl.queryGreetings(new Greeting());
-    assertEquals(greetingList, result);
+    when(greetingRepository.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<>(greetingList));
+    Slice<Greeting> result = greetingServiceImpl.queryGreetings(new Greeting(), pageable, false);
+    assertEquals(greetingList, result.getContent());
+  }
+
+  @Test
+  public void queryGreetingsWithCountReturnsPage() {
+    when(greetingRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(greetingList));
+    Slice<Greeting> result = greetingServiceImpl.queryGreetings(new Greeting(), pageable, true);
+    assertEquals(greetingList, result.getContent());
+    assertTrue(result instanceof Page);
   }
 
   @Test
   public void queryGreetingsByExample() {
-    when(greetingRepository.findAll(any(Example.class))).thenReturn(greetingList);
-    List<Greeting> result = greetingServiceImpl.queryGreetings(greeting);
-    assertEquals(greetingList, result);
+    when(greetingRepository.findSlice(any(Example.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(greetingList));
+    Slice<Greeting> result = greetingServiceImpl.queryGreetings(greeting, pageable, false);
+    assertEquals(greetingList, result.getContent());
+  }
+
+  @Test
+  public void queryGreetingsByExampleWithCountReturnsPage() {
+    when(greetingRepository.findAll(any(Example.class), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(greetingList));
+    Slice<Greeting> result = greetingServiceImpl.queryGreetings(greeting, pageable, true);
+    assertEquals(greetingList, result.getContent());
+  }
+
+  @Test
+  public void queryGreetingsWithInvalidSortThrowsBadDataResponse() {
+    doThrow(InvalidDataAccessApiUsageException.class).when(greetingRepository)
+        .findAllBy(any(Pageable.class));
+    assertThrows(BadDataResponse.class,
+        () -> greetingServiceImpl.queryGreetings(new Greeting(), PageRequest.of(0, 10, Sort.by("nope")), false));
   }
 
   @Test
   public void queryGreetingsThrowsServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(greetingRepository).findAll();
+    doThrow(ServiceUnavailable.class).when(greetingRepository).findAllBy(any(Pageable.class));
     assertThrows(ServiceUnavailable.class,
-        () -> greetingServiceImpl.queryGreetings(new Greeting()));
+        () -> greetingServiceImpl.queryGreetings(new Greeting(), pageable, false));
   }
 
   @Test
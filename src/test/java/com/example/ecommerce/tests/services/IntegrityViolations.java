@@ -0,0 +1,25 @@
+package com.example.ecommerce.tests.services;
+
+import java.sql.SQLException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Builds the exceptions a repository save fails with on an integrity violation, as Spring
+ * translates them from Hibernate, for the service tests that check how each is answered.
+ */
+final class IntegrityViolations {
+
+  private IntegrityViolations() {
+  }
+
+  /**
+   * @param constraintName the name of the violated constraint, or null for a violation the
+   *                       database does not name, such as a NOT NULL column.
+   */
+  static DataIntegrityViolationException of(String constraintName) {
+    return new DataIntegrityViolationException("could not execute statement",
+        new ConstraintViolationException("could not execute statement",
+            new SQLException("Integrity constraint violation"), constraintName));
+  }
+}
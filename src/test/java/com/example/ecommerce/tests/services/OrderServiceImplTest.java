@@ -2,32 +2,67 @@ package com.example.ecommerce.tests.services;
 
 import static java.util.Optional.empty;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.ecommerce.models.DailyProductSales;
+import com.example.ecommerce.models.DailySales;
+import com.example.ecommerce.services.SalesDelta;
+import java.time.LocalDate;
+import org.mockito.ArgumentCaptor;
+
+import com.example.ecommerce.cache.ProductCache;
 import com.example.ecommerce.data.DataLoader;
 import com.example.ecommerce.exceptions.BadDataResponse;
 import com.example.ecommerce.exceptions.ResourceNotFound;
 import com.example.ecommerce.exceptions.ServiceUnavailable;
 import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
 import com.example.ecommerce.models.Order;
+import com.example.ecommerce.models.Product;
+import com.example.ecommerce.models.ProductPrice;
+import com.example.ecommerce.pagination.Cursors;
+import com.example.ecommerce.pagination.KeysetPage;
+import com.example.ecommerce.repositories.CustomerRepository;
+import com.example.ecommerce.repositories.ItemRepository;
 import com.example.ecommerce.repositories.OrderRepository;
+import com.example.ecommerce.repositories.ProductRepository;
 import com.example.ecommerce.services.OrderService;
 import com.example.ecommerce.services.OrderServiceImpl;
-import java.math.BigDecimal;
+import com.example.ecommerce.services.ReportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 
 /**
  * Contains the unit tests for the OrderServiceImpl.
@@ -38,6 +73,20 @@ class OrderServiceImplTest {
   private OrderRepository orderRepository;
   @Mock
   private OrderService orderService;
+  @Mock
+  private EntityManager entityManager;
+  @Mock
+  private ProductRepository productRepository;
+  @Mock
+  private CustomerRepository customerRepository;
+  @Mock
+  private ItemRepository itemRepository;
+  @Mock
+  private ReportService reportService;
+  @Spy
+  private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(10));
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
   private AutoCloseable closeable;
   private DataLoader dataLoader;
 
@@ -46,6 +95,7 @@ class OrderServiceImplTest {
   Item item;
   Order order;
   List<Order> orderList = new ArrayList<>();
+  Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
 
   @BeforeEach
   public void setUp() throws Exception {
@@ -54,8 +104,11 @@ class OrderServiceImplTest {
     item = new Item(1L, 23,
         order);
     order = new Order(1L, dataLoader.createDate("2022-04-22"), new ArrayList<>(),
-        new BigDecimal("23.99"));
+        Money.of("23.99"));
     order.addItemToOrder(item);
+    when(productRepository.findPricesByIdIn(any())).thenReturn(List.of(
+        new ProductPrice(1L, Money.of("15.95")),
+        new ProductPrice(3L, Money.of("2.79"))));
   }
 
   @AfterEach
@@ -63,33 +116,139 @@ class OrderServiceImplTest {
     closeable.close();
   }
 
+  @Test
+  public void queryOrdersAfterReturnsCorrectOrders() {
+    when(orderRepository.findByIdGreaterThan(any(Long.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(orderList));
+    KeysetPage<Order> result = orderServiceImpl.queryOrdersAfter(null, null);
+    assertEquals(orderList, result.getContent());
+    assertNull(result.getNextCursor());
+  }
+
+  @Test
+  public void queryOrdersAfterWithMorePagesReturnsNextCursor() {
+    order.setId(7L);
+    when(orderRepository.findByIdGreaterThan(5L, PageRequest.of(0, 1, Sort.by("id"))))
+        .thenReturn(new SliceImpl<>(List.of(order), PageRequest.of(0, 1), true));
+    KeysetPage<Order> result = orderServiceImpl.queryOrdersAfter(Cursors.encodeId(5L), 1);
+    assertEquals(List.of(order), result.getContent());
+    assertEquals(7L, Cursors.decodeId(result.getNextCursor()));
+  }
+
+  @Test
+  public void queryOrdersAfterWithMalformedCursorThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class,
+        () -> orderServiceImpl.queryOrdersAfter("not-a-cursor", null));
+  }
+
+  @Test
+  public void queryOrdersAfterWithLimitOutOfRangeThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class,
+        () -> orderServiceImpl.queryOrdersAfter(null, Cursors.MAX_LIMIT + 1));
+  }
+
+  @Test
+  public void queryOrdersAfterThrowsServiceUnavailable() {
+    doThrow(ServiceUnavailable.class).when(orderRepository)
+        .findByIdGreaterThan(any(Long.class), any(Pageable.class));
+    assertThrows(ServiceUnavailable.class,
+        () -> orderServiceImpl.queryOrdersAfter(null, null));
+  }
+
+  @Test
+  public void queryOrdersByCustomerWithMorePagesReturnsNextCursor() {
+    order.setId(7L);
+    Pageable newestFirst = PageRequest.of(0, 1, Sort.by(Direction.DESC, "date", "id"));
+    when(customerRepository.existsById(1L)).thenReturn(true);
+    when(orderRepository.findByCustomerId(1L, newestFirst))
+        .thenReturn(new SliceImpl<>(List.of(order), newestFirst, true));
+    KeysetPage<Order> result = orderServiceImpl.queryOrdersByCustomer(1L, null, 1);
+    assertEquals(List.of(order), result.getContent());
+
+    when(orderRepository.findByCustomerIdBefore(1L, order.getDate(), 7L, newestFirst))
+        .thenReturn(new SliceImpl<>(List.of(), newestFirst, false));
+    KeysetPage<Order> next = orderServiceImpl.queryOrdersByCustomer(1L,
+        result.getNextCursor(), 1);
+    assertTrue(next.getContent().isEmpty());
+    assertNull(next.getNextCursor());
+    verify(customerRepository, times(1)).existsById(1L);
+  }
+
+  @Test
+  public void queryOrdersByCustomerThatDoesNotExistThrowsResourceNotFound() {
+    when(customerRepository.existsById(999L)).thenReturn(false);
+    assertThrows(ResourceNotFound.class,
+        () -> orderServiceImpl.queryOrdersByCustomer(999L, null, null));
+  }
+
+  @Test
+  public void queryOrdersByCustomerWithMalformedCursorThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class,
+        () -> orderServiceImpl.queryOrdersByCustomer(1L, Cursors.encodeId(5L), null));
+  }
+
+  @Test
+  public void queryOrdersByCustomerThrowsServiceUnavailable() {
+    when(customerRepository.existsById(1L)).thenReturn(true);
+    doThrow(ServiceUnavailable.class).when(orderRepository)
+        .findByCustomerId(any(Long.class), any(Pageable.class));
+    assertThrows(ServiceUnavailable.class,
+        () -> orderServiceImpl.queryOrdersByCustomer(1L, null, null));
+  }
+
   @Test
   public void queryOrdersReturnsCorrectOrders() {
-    when(orderRepository.findAll()).thenReturn(orderList);
-    List<Order> result = orderServiceImpl.queryOrders(new Order());
-    assertEquals(orderList, result);
+    when(orderRepository.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<>(orderList));
+    Slice<Order> result = orderServiceImpl.queryOrders(new Order(), pageable, false);
+    assertEquals(orderList, result.getContent());
   }
 
   @Test
   public void queryOrdersEmptyOrderReturnsCorrectOrders() {
-    when(orderRepository.findAll()).thenReturn(orderList);
+    when(orderRepository.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<>(orderList));
     Order emptyOrder = new Order(null, null, null, null);
-    List<Order> result = orderServiceImpl.queryOrders(emptyOrder);
-    assertEquals(orderList, result);
+    Slice<Order> result = orderServiceImpl.queryOrders(emptyOrder, pageable, false);
+    assertEquals(orderList, result.getContent());
+  }
+
+  @Test
+  public void queryOrdersWithCountReturnsPage() {
+    when(orderRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(orderList));
+    Slice<Order> result = orderServiceImpl.queryOrders(new Order(), pageable, true);
+    assertEquals(orderList, result.getContent());
+    assertTrue(result instanceof Page);
   }
 
   @Test
   public void queryOrdersByExample() {
-    when(orderRepository.findAll(any(Example.class))).thenReturn(orderList);
-    List<Order> result = orderServiceImpl.queryOrders(order);
-    assertEquals(orderList, result);
+    when(orderRepository.findSlice(any(Example.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(orderList));
+    Slice<Order> result = orderServiceImpl.queryOrders(order, pageable, false);
+    assertEquals(orderList, result.getContent());
+  }
+
+  @Test
+  public void queryOrdersByExampleWithCountReturnsPage() {
+    when(orderRepository.findAll(any(Example.class), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(orderList));
+    Slice<Order> result = orderServiceImpl.queryOrders(order, pageable, true);
+    assertEquals(orderList, result.getContent());
+  }
+
+  @Test
+  public void queryOrdersWithInvalidSortThrowsBadDataResponse() {
+    doThrow(InvalidDataAccessApiUsageException.class).when(orderRepository)
+        .findAllBy(any(Pageable.class));
+    assertThrows(BadDataResponse.class,
+        () -> orderServiceImpl.queryOrders(new Order(), PageRequest.of(0, 10, Sort.by("nope")),
+            false));
   }
 
   @Test
   public void queryOrdersThrowsServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(orderRepository).findAll(any(Example.class));
+    doThrow(ServiceUnavailable.class).when(orderRepository).findAllBy(any(Pageable.class));
     assertThrows(ServiceUnavailable.class,
-        () -> orderServiceImpl.queryOrders(new Order()));
+        () -> orderServiceImpl.queryOrders(new Order(), pageable, false));
   }
 
   @Test
@@ -124,6 +283,66 @@ class OrderServiceImplTest {
     assertEquals(order, result);
   }
 
+  @Test
+  public void postOrderTotalsItemsWithOnePriceLookup() {
+    Order posted = new Order(2L, dataLoader.createDate("2022-05-01"), new ArrayList<>(),
+        Money.of("9.99"));
+    posted.addItemToOrder(new Item(1L, 2, null));
+    posted.addItemToOrder(new Item(3L, 4, null));
+    posted.addItemToOrder(new Item(1L, 1, null));
+    when(orderRepository.save(posted)).thenReturn(posted);
+    orderServiceImpl.addOrder(posted);
+    // 3 at 15.95 and 4 at 2.79, not the 9.99 that was sent
+    assertEquals(Money.of("59.01"), posted.getOrderTotal());
+    verify(productRepository, times(1)).findPricesByIdIn(any());
+  }
+
+  @Test
+  public void postOrderAddsItsSalesToTheRollups() {
+    Order posted = new Order(2L, dataLoader.createDate("2022-05-01"), new ArrayList<>(), null);
+    posted.addItemToOrder(new Item(1L, 2, null));
+    posted.addItemToOrder(new Item(3L, 4, null));
+    posted.addItemToOrder(new Item(1L, 1, null));
+    when(orderRepository.save(posted)).thenReturn(posted);
+    orderServiceImpl.addOrder(posted);
+    ArgumentCaptor<SalesDelta> delta = ArgumentCaptor.forClass(SalesDelta.class);
+    verify(reportService).applySales(delta.capture());
+    LocalDate day = SalesDelta.dayOf(posted.getDate());
+    assertEquals(List.of(new DailySales(day, Money.of("59.01"), 1)),
+        delta.getValue().getDays());
+    assertEquals(List.of(new DailyProductSales(day, 1L, 3), new DailyProductSales(day, 3L, 4)),
+        delta.getValue().getProductDays());
+  }
+
+  @Test
+  public void postOrderReadsCachedPricesWithoutQuerying() {
+    Product product = new Product();
+    product.setId(1L);
+    product.setPrice(Money.of("15.00"));
+    productCache.getById(1L, id -> product);
+    when(orderRepository.save(any(Order.class))).thenReturn(order);
+    orderServiceImpl.addOrder(order);
+    verify(productRepository, times(0)).findPricesByIdIn(any());
+    assertEquals(Money.of("345.00"), order.getOrderTotal());
+  }
+
+  @Test
+  public void postOrderForUnknownProductThrowsBadDataResponse() {
+    order.addItemToOrder(new Item(99L, 1, null));
+    assertThrows(BadDataResponse.class, () -> orderServiceImpl.addOrder(order));
+    verify(orderRepository, times(0)).save(any(Order.class));
+  }
+
+  @Test
+  public void postOrderWhoseTotalOverflowsThrowsBadDataResponse() {
+    Product product = new Product();
+    product.setId(1L);
+    product.setPrice(Money.ofMinor(Long.MAX_VALUE / 10));
+    productCache.getById(1L, id -> product);
+    assertThrows(BadDataResponse.class, () -> orderServiceImpl.addOrder(order));
+    verify(orderRepository, times(0)).save(any(Order.class));
+  }
+
   @Test
   public void postOrderThrowsServiceUnavailable() {
     doThrow(ServiceUnavailable.class).when(orderRepository).save(any(Order.class));
@@ -131,18 +350,67 @@ class OrderServiceImplTest {
         () -> orderServiceImpl.addOrder(new Order()));
   }
 
+  @Test
+  public void postOrdersLinksItemsAndSavesTheWholeBatchAtOnce() {
+    Order posted = new Order(2L, dataLoader.createDate("2022-05-01"), new ArrayList<>(),
+        Money.of("9.99"));
+    Item postedItem = new Item(3L, 2, null);
+    posted.getItems().add(postedItem);
+    List<Order> batch = List.of(posted);
+    when(orderRepository.saveAllAndFlush(batch)).thenReturn(batch);
+    assertEquals(batch, orderServiceImpl.addOrders(batch));
+    assertSame(posted, postedItem.getOrder());
+    assertEquals(Money.of("5.58"), posted.getOrderTotal());
+  }
+
+  @Test
+  public void postOrdersLooksUpPricesOnceForTheWholeBatch() {
+    Order other = new Order(2L, dataLoader.createDate("2022-05-01"), new ArrayList<>(), null);
+    other.addItemToOrder(new Item(3L, 1, null));
+    List<Order> batch = List.of(order, other);
+    when(orderRepository.saveAllAndFlush(batch)).thenReturn(batch);
+    orderServiceImpl.addOrders(batch);
+    verify(productRepository, times(1)).findPricesByIdIn(any());
+    assertEquals(Money.of("2.79"), other.getOrderTotal());
+  }
+
+  @Test
+  public void postOrdersThrowsServiceUnavailable() {
+    doThrow(ServiceUnavailable.class).when(orderRepository).saveAllAndFlush(any());
+    assertThrows(ServiceUnavailable.class, () -> orderServiceImpl.addOrders(List.of(order)));
+  }
+
   @Test
   public void updateOrderWithValidIdAndBodyReturnsOrderSuccessfully() {
-    when(orderRepository.existsById(any(Long.class))).thenReturn(true);
-    when(orderRepository.findById(any(Long.class))).thenReturn(Optional.of(order));
+    when(orderRepository.findByIdForUpdate(any(Long.class))).thenReturn(Optional.of(order));
     when(orderRepository.save(any(Order.class))).thenReturn(order);
-    Order result = orderServiceImpl.updateOrderById(1L, new Order());
+    Order result = orderServiceImpl.updateOrderById(1L, order);
     assertEquals(order, result);
+    assertEquals(Money.of("366.85"), order.getOrderTotal());
+  }
+
+  @Test
+  public void updateOrderReplacesItemsAndMovesSalesToTheNewDay() {
+    Order updated = new Order(1L, dataLoader.createDate("2022-04-23"), new ArrayList<>(), null);
+    updated.addItemToOrder(new Item(3L, 2, null));
+    List<Item> replacedItems = List.copyOf(order.getItems());
+    when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+    when(orderRepository.save(any(Order.class))).thenReturn(updated);
+    orderServiceImpl.updateOrderById(1L, updated);
+    verify(itemRepository).deleteAll(replacedItems);
+    ArgumentCaptor<SalesDelta> delta = ArgumentCaptor.forClass(SalesDelta.class);
+    verify(reportService).applySales(delta.capture());
+    LocalDate oldDay = SalesDelta.dayOf(order.getDate());
+    LocalDate newDay = SalesDelta.dayOf(updated.getDate());
+    assertEquals(List.of(new DailySales(oldDay, Money.of("-23.99"), -1),
+        new DailySales(newDay, Money.of("5.58"), 1)), delta.getValue().getDays());
+    assertEquals(List.of(new DailyProductSales(oldDay, 1L, -23),
+        new DailyProductSales(newDay, 3L, 2)), delta.getValue().getProductDays());
   }
 
   @Test
   public void updateOrderWithNonExistentIdThrowsNotFound() {
-    when(orderRepository.existsById(any(Long.class))).thenReturn(false);
+    when(orderRepository.findByIdForUpdate(any(Long.class))).thenReturn(empty());
     assertThrows(ResourceNotFound.class,
         () -> orderServiceImpl.updateOrderById(999L, new Order()));
   }
@@ -155,8 +423,7 @@ class OrderServiceImplTest {
 
   @Test
   public void updateOrderThrowsServiceUnavailable() {
-    when(orderRepository.existsById(any(Long.class))).thenReturn(true);
-    when(orderRepository.findById(any(Long.class))).thenReturn(Optional.of(order));
+    when(orderRepository.findByIdForUpdate(any(Long.class))).thenReturn(Optional.of(order));
     doThrow(ServiceUnavailable.class).when(orderRepository).save(any(Order.class));
     assertThrows(ServiceUnavailable.class,
         () -> orderServiceImpl.updateOrderById(1L, new Order()));
@@ -164,14 +431,28 @@ class OrderServiceImplTest {
 
   @Test
   public void deleteOrderByExistentIdReturns204NoContent() {
-    when(orderRepository.findById(any(Long.class))).thenReturn(Optional.of(order));
+    when(orderRepository.findByIdForUpdate(any(Long.class))).thenReturn(Optional.of(order));
     orderServiceImpl.deleteOrderById(1L);
     verify(orderRepository).deleteById(any());
   }
 
+  @Test
+  public void deleteOrderSubtractsItsSales() {
+    order.setOrderTotal(Money.of("366.85"));
+    when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(order));
+    orderServiceImpl.deleteOrderById(1L);
+    ArgumentCaptor<SalesDelta> delta = ArgumentCaptor.forClass(SalesDelta.class);
+    verify(reportService).applySales(delta.capture());
+    LocalDate day = SalesDelta.dayOf(order.getDate());
+    assertEquals(List.of(new DailySales(day, Money.of("-366.85"), -1)),
+        delta.getValue().getDays());
+    assertEquals(List.of(new DailyProductSales(day, 1L, -23)),
+        delta.getValue().getProductDays());
+  }
+
   @Test
   public void deleteOrderByNonExistentIdThrows404NotFound() {
-    when(orderRepository.findById(any(Long.class))).thenReturn(empty());
+    when(orderRepository.findByIdForUpdate(any(Long.class))).thenReturn(empty());
     assertThrows(ResourceNotFound.class, () -> orderServiceImpl.deleteOrderById(999L));
   }
 
@@ -183,14 +464,36 @@ class OrderServiceImplTest {
   @Test
   public void deleteOrderThrowsServiceUnavailable() {
     when(orderRepository.existsById(any(Long.class))).thenReturn(true);
-    when(orderRepository.findById(any(Long.class))).thenReturn(Optional.of(order));
+    when(orderRepository.findByIdForUpdate(any(Long.class))).thenReturn(Optional.of(order));
     doThrow(ServiceUnavailable.class).when(orderRepository).deleteById(any(Long.class));
     assertThrows(ServiceUnavailable.class, () -> orderServiceImpl.deleteOrderById(1L));
   }
 
   @Test
   public void deleteEmptyOrderThrowsResourceNotFound() {
-    when(orderRepository.findById(any(Long.class))).thenReturn(empty());
+    when(orderRepository.findByIdForUpdate(any(Long.class))).thenReturn(empty());
     assertThrows(ResourceNotFound.class, () -> orderServiceImpl.deleteOrderById(40L));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void exportOrdersWritesOneLinePerOrderAndDetachesEach() throws Exception {
+    Order orderTwo = new Order(2L, dataLoader.createDate("2021-06-12"), new ArrayList<>(),
+        Money.of("23.99"));
+    when(orderRepository.streamAllWithItems()).thenReturn(Stream.of(order, orderTwo));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    orderServiceImpl.exportOrders(outputStream);
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertEquals(order.getCustomerId(),
+        objectMapper.readValue(lines[0], Order.class).getCustomerId());
+    assertEquals("2021-06-12", objectMapper.readTree(lines[1]).get("date").asText());
+    verify(entityManager, times(2)).detach(any(Order.class));
+  }
+
+  @Test
+  public void exportOrdersThrowsServiceUnavailable() {
+    doThrow(ServiceUnavailable.class).when(orderRepository).streamAllWithItems();
+    assertThrows(ServiceUnavailable.class,
+        () -> orderServiceImpl.exportOrders(new ByteArrayOutputStream()));
+  }
+}
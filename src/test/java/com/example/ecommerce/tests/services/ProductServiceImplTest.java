@@ -1,23 +1,42 @@
 package com.example.ecommerce.tests.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.example.ecommerce.cache.ProductCache;
 import com.example.ecommerce.exceptions.BadDataResponse;
 import com.example.ecommerce.exceptions.Conflict;
 import com.example.ecommerce.exceptions.ResourceNotFound;
 import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.models.EntityVersion;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Partial;
 import com.example.ecommerce.models.Product;
+import com.example.ecommerce.pagination.MultiGet;
+import com.example.ecommerce.repositories.ItemRepository;
 import com.example.ecommerce.repositories.ProductRepository;
+import com.example.ecommerce.search.ProductFacetIndex;
+import com.example.ecommerce.search.ProductPriceIndex;
+import com.example.ecommerce.search.ProductSearchIndex;
+import com.example.ecommerce.search.ProductSuggester;
+import com.example.ecommerce.search.Suggestion;
 import com.example.ecommerce.services.ProductService;
 import com.example.ecommerce.services.ProductServiceImpl;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,7 +44,21 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Contains the unit tests for the ProductServiceImpl.
@@ -36,6 +69,18 @@ class ProductServiceImplTest {
   private ProductRepository productRepository;
   @Mock
   private ProductService productService;
+  @Spy
+  private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(10));
+  @Mock
+  private ProductSearchIndex productSearchIndex;
+  @Mock
+  private ProductFacetIndex productFacetIndex;
+  @Mock
+  private ProductSuggester productSuggester;
+  @Mock
+  private ItemRepository itemRepository;
+  @Mock
+  private ProductPriceIndex productPriceIndex;
   private AutoCloseable closeable;
 
   @InjectMocks
@@ -43,12 +88,13 @@ class ProductServiceImplTest {
 
   Product product;
   List<Product> productList = new ArrayList<>();
+  Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
 
   @BeforeEach
   public void setUp() throws Exception {
     closeable = MockitoAnnotations.openMocks(this);
     product = new Product("MD5-354", "Women's Fashion", "Wide Brim Sunhat",
-        "UPF 50+ Sun Hat to protect against UV rays", "Keeper's", new BigDecimal("15.95"));
+        "UPF 50+ Sun Hat to protect against UV rays", "Keeper's", Money.of("15.95"));
   }
 
   @AfterEach
@@ -58,23 +104,81 @@ class ProductServiceImplTest {
 
   @Test
   public void queryProductsReturnsCorrectProducts() {
-    when(productRepository.findAll()).thenReturn(productList);
-    List<Product> result = productServiceImpl.queryProducts(new Product());
-    assertEquals(productList, result);
+    when(productRepository.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<>(productList));
+    Slice<Product> result = productServiceImpl.queryProducts(new Product(), pageable, false);
+    assertEquals(productList, result.getContent());
+  }
+
+  @Test
+  public void queryProductsWithCountReturnsPage() {
+    when(productRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(productList));
+    Slice<Product> result = productServiceImpl.queryProducts(new Product(), pageable, true);
+    assertEquals(productList, result.getContent());
+    assertTrue(result instanceof Page);
   }
 
   @Test
   public void queryProductsByExample() {
-    when(productRepository.findAll(any(Example.class))).thenReturn(productList);
-    List<Product> result = productServiceImpl.queryProducts(product);
-    assertEquals(productList, result);
+    when(productRepository.findSlice(any(Example.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(productList));
+    Slice<Product> result = productServiceImpl.queryProducts(product, pageable, false);
+    assertEquals(productList, result.getContent());
+  }
+
+  @Test
+  public void queryProductsByExampleWithCountReturnsPage() {
+    when(productRepository.findAll(any(Example.class), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(productList));
+    Slice<Product> result = productServiceImpl.queryProducts(product, pageable, true);
+    assertEquals(productList, result.getContent());
+  }
+
+  @Test
+  public void queryProductsWithInvalidSortThrowsBadDataResponse() {
+    doThrow(InvalidDataAccessApiUsageException.class).when(productRepository)
+        .findAllBy(any(Pageable.class));
+    assertThrows(BadDataResponse.class,
+        () -> productServiceImpl.queryProducts(new Product(), PageRequest.of(0, 10, Sort.by("nope")), false));
   }
 
   @Test
   public void queryProductsThrowsServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(productRepository).findAll();
+    doThrow(ServiceUnavailable.class).when(productRepository).findAllBy(any(Pageable.class));
     assertThrows(ServiceUnavailable.class,
-        () -> productServiceImpl.queryProducts(new Product()));
+        () -> productServiceImpl.queryProducts(new Product(), pageable, false));
+  }
+
+  @Test
+  public void queryProductsSortedByPriceReadsPriceIndex() {
+    Pageable byPrice = PageRequest.of(0, 10, Sort.by(Direction.DESC, "price"));
+    BigDecimal minPrice = BigDecimal.TEN;
+    product.setId(3L);
+    Product other = new Product();
+    other.setId(2L);
+    when(productPriceIndex.between(minPrice, null, Direction.DESC, byPrice, false))
+        .thenReturn(new SliceImpl<>(List.of(3L, 2L), byPrice, false));
+    when(productRepository.findAllById(any())).thenReturn(List.of(other, product));
+    Slice<Product> result = productServiceImpl.queryProducts(new Product(), minPrice, null,
+        byPrice, false);
+    assertEquals(List.of(product, other), result.getContent());
+    verify(productRepository, never()).findAllBy(any(Pageable.class));
+  }
+
+  @Test
+  public void queryProductsByExampleInPriceRangeReadsDatabase() {
+    when(productRepository.findSlice(any(Example.class), any(Specification.class),
+        any(Pageable.class))).thenReturn(new SliceImpl<>(productList));
+    when(productRepository.count(any(Example.class), any(Specification.class))).thenReturn(2L);
+    Slice<Product> result = productServiceImpl.queryProducts(product, BigDecimal.ONE,
+        BigDecimal.TEN, pageable, true);
+    assertEquals(2L, ((Page<Product>) result).getTotalElements());
+    verifyNoInteractions(productPriceIndex);
+  }
+
+  @Test
+  public void queryProductsWithMinPriceAboveMaxPriceThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class, () -> productServiceImpl.queryProducts(new Product(),
+        BigDecimal.TEN, BigDecimal.ONE, pageable, false));
   }
 
   @Test
@@ -102,38 +206,320 @@ class ProductServiceImplTest {
     assertThrows(ServiceUnavailable.class, () -> productServiceImpl.getProductById(1L));
   }
 
+  @Test
+  public void getProductByIdTwiceOnlyQueriesRepositoryOnce() {
+    product.setId(1L);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    productServiceImpl.getProductById(1L);
+    Product result = productServiceImpl.getProductById(1L);
+    assertEquals(product, result);
+    verify(productRepository, times(1)).findById(1L);
+    assertEquals(1, productCache.byIdStats().hitCount());
+  }
+
+  @Test
+  public void getProductsByIdsLoadsOnlyUncachedProductsInOneQuery() {
+    product.setId(1L);
+    Product other = new Product("VG8-771", "Video Game", "Halo", "Shooter", "Bungie",
+        Money.of("59.99"));
+    other.setId(2L);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    productServiceImpl.getProductById(1L);
+    when(productRepository.findAllById(any())).thenReturn(List.of(other));
+
+    MultiGet<Product> result = productServiceImpl.getProductsByIds(List.of(2L, 1L, 3L, 2L));
+    assertEquals(List.of(other, product), result.getResults());
+    assertEquals(List.of(3L), result.getMissingIds());
+    verify(productRepository, times(1)).findAllById(any());
+  }
+
+  @Test
+  public void getProductsByIdsWithoutIdsThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class, () -> productServiceImpl.getProductsByIds(List.of()));
+  }
+
+  @Test
+  public void getProductVersionByIdReadsOnlyTheVersion() {
+    EntityVersion version = new EntityVersion(1L, 3L, null);
+    when(productRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+    assertEquals(version, productServiceImpl.getProductVersionById(1L));
+    verify(productRepository, never()).findById(any(Long.class));
+  }
+
+  @Test
+  public void getProductVersionByIdOfCachedProductDoesNotQueryRepository() {
+    product.setId(1L);
+    product.setVersion(3L);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    productServiceImpl.getProductById(1L);
+    assertEquals(3L, productServiceImpl.getProductVersionById(1L).getVersion());
+    verify(productRepository, never()).findVersionById(any(Long.class));
+  }
+
+  @Test
+  public void getProductVersionByNonExistentIdThrowsNotFound() {
+    when(productRepository.findVersionById(any(Long.class))).thenReturn(Optional.empty());
+    assertThrows(ResourceNotFound.class, () -> productServiceImpl.getProductVersionById(999L));
+  }
+
+  @Test
+  public void getProductVersionByNegativeIdThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class, () -> productServiceImpl.getProductVersionById(-18L));
+  }
+
+  @Test
+  public void getProductBySkuReturnsProduct() {
+    product.setId(1L);
+    when(productRepository.findBySku("MD5-354")).thenReturn(product);
+    Product result = productServiceImpl.getProductBySku("MD5-354");
+    assertEquals(product, result);
+  }
+
+  @Test
+  public void getProductBySkuAfterLookupByIdIsServedFromCache() {
+    product.setId(1L);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    productServiceImpl.getProductById(1L);
+    Product result = productServiceImpl.getProductBySku("MD5-354");
+    assertEquals(product, result);
+    verify(productRepository, times(0)).findBySku(any(String.class));
+  }
+
+  @Test
+  public void getProductByNonExistentSkuThrowsNotFound() {
+    when(productRepository.findBySku(any(String.class))).thenReturn(null);
+    assertThrows(ResourceNotFound.class, () -> productServiceImpl.getProductBySku("NOPE-1"));
+  }
+
+  @Test
+  public void getProductBySkuThrowsServiceUnavailable() {
+    doThrow(ServiceUnavailable.class).when(productRepository).findBySku(any(String.class));
+    assertThrows(ServiceUnavailable.class, () -> productServiceImpl.getProductBySku("MD5-354"));
+  }
+
+  @Test
+  public void searchProductsReturnsProductsInOrderOfRelevance() {
+    product.setId(3L);
+    Product other = new Product();
+    other.setId(2L);
+    when(productSearchIndex.search("sun hat", pageable, false))
+        .thenReturn(new SliceImpl<>(List.of(3L, 2L), pageable, true));
+    when(productRepository.findAllById(any())).thenReturn(List.of(other, product));
+    Slice<Product> result = productServiceImpl.searchProducts("sun hat", pageable, false);
+    assertEquals(List.of(product, other), result.getContent());
+    assertTrue(result.hasNext());
+  }
+
+  @Test
+  public void searchProductsWithBlankTextThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class,
+        () -> productServiceImpl.searchProducts(" ", pageable, false));
+  }
+
+  @Test
+  public void rebuildSearchIndexesReadsEveryProduct() {
+    productServiceImpl.rebuildSearchIndexes();
+    verify(productSearchIndex).rebuild(any());
+    verify(productFacetIndex).rebuild(any());
+    verify(productSuggester).rebuild(any(), any());
+    verify(productPriceIndex).rebuild(any());
+  }
+
+  @Test
+  public void suggestProductsReturnsSuggestions() {
+    List<Suggestion> suggestions = List.of(new Suggestion(2L, "VG8-771", "Deep, Dark Sea", 13));
+    when(productSuggester.suggest("VG8", 5)).thenReturn(suggestions);
+    assertEquals(suggestions, productServiceImpl.suggestProducts("VG8", 5));
+  }
+
+  @Test
+  public void suggestProductsWithInvalidLimitThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class, () -> productServiceImpl.suggestProducts("VG8", 0));
+    assertThrows(BadDataResponse.class, () -> productServiceImpl.suggestProducts("VG8", 11));
+    verifyNoInteractions(productSuggester);
+  }
+
+  @Test
+  public void countProductFacetsByTypeUsesOnlyTheFacetIndex() {
+    Product probe = new Product();
+    probe.setType("Grocery");
+    RoaringBitmap ids = RoaringBitmap.bitmapOf(4);
+    Map<String, Map<String, Integer>> counts = Map.of("type", Map.of("Grocery", 1));
+    when(productFacetIndex.matching("Grocery", null)).thenReturn(ids);
+    when(productFacetIndex.count(ids)).thenReturn(counts);
+    assertEquals(counts, productServiceImpl.countProductFacets(probe));
+    verifyNoInteractions(productRepository);
+  }
+
+  @Test
+  public void countProductFacetsByNameReadsMatchingIds() {
+    Product probe = new Product();
+    probe.setName("Chester O's");
+    when(productRepository.findPartialSlice(any(Example.class), any(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(new Partial(4L, 0L, null))));
+    productServiceImpl.countProductFacets(probe);
+    verify(productFacetIndex).count(RoaringBitmap.bitmapOf(4));
+  }
+
+  @Test
+  public void countProductFacetsInPriceRangeIntersectsPriceIndex() {
+    Product probe = new Product();
+    probe.setType("Grocery");
+    when(productFacetIndex.matching("Grocery", null)).thenReturn(RoaringBitmap.bitmapOf(3, 4));
+    when(productPriceIndex.idsBetween(BigDecimal.TEN, null)).thenReturn(RoaringBitmap.bitmapOf(4));
+    productServiceImpl.countProductFacets(probe, BigDecimal.TEN, null);
+    verify(productFacetIndex).count(RoaringBitmap.bitmapOf(4));
+  }
+
+  @Test
+  public void postProductIndexesSavedProduct() {
+    when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
+    productServiceImpl.addProduct(new Product());
+    verify(productSearchIndex).index(product);
+    verify(productFacetIndex).index(product);
+    verify(productSuggester).index(product);
+    verify(productPriceIndex).index(product);
+  }
+
+  @Test
+  public void deleteProductRemovesItFromSearchIndexes() {
+    product.setId(2L);
+    when(productRepository.findById(2L)).thenReturn(Optional.of(product));
+    productServiceImpl.deleteProductById(2L);
+    verify(productSearchIndex).remove(2L);
+    verify(productFacetIndex).remove(2L);
+    verify(productSuggester).remove(2L);
+    verify(productPriceIndex).remove(2L);
+  }
+
+  @Test
+  public void updateProductEvictsCachedProduct() {
+    product.setId(1L);
+    Product updated = new Product("MD5-355", "Women's Fashion", "Wide Brim Sunhat",
+        "UPF 50+ Sun Hat to protect against UV rays", "Keeper's", Money.of("17.95"));
+    updated.setId(1L);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    when(productRepository.findBySku("MD5-354")).thenReturn(null);
+    productServiceImpl.getProductById(1L);
+    when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updated);
+    productServiceImpl.updateProductById(1L, updated);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(updated));
+    assertEquals(updated, productServiceImpl.getProductById(1L));
+    assertThrows(ResourceNotFound.class, () -> productServiceImpl.getProductBySku("MD5-354"));
+  }
+
+  @Test
+  public void updateProductEvictsAndIndexesOnlyAfterCommit() {
+    product.setId(1L);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    productServiceImpl.getProductById(1L);
+    when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      productServiceImpl.updateProductById(1L, new Product());
+      verify(productPriceIndex, never()).index(any(Product.class));
+      assertSame(product, productCache.getIfPresent(1L));
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    verify(productPriceIndex).index(product);
+    assertNull(productCache.getIfPresent(1L));
+  }
+
+  @Test
+  public void deleteProductEvictsCachedProduct() {
+    product.setId(1L);
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    productServiceImpl.deleteProductById(1L);
+    when(productRepository.findById(1L)).thenReturn(Optional.empty());
+    assertThrows(ResourceNotFound.class, () -> productServiceImpl.getProductById(1L));
+  }
+
   @Test
   public void postProductWithValidBodyCreatesSuccessfully() {
-    when(productRepository.save(any(Product.class))).thenReturn(product);
+    when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
     Product result = productServiceImpl.addProduct(new Product());
     assertEquals(product, result);
   }
 
   @Test
   void postProductWithExistingEmailThrowsConflict409() {
-    when(productRepository.existsBySku(any(String.class))).thenReturn(true);
+    doThrow(IntegrityViolations.of(Product.SKU_UNIQUE)).when(productRepository)
+        .saveAndFlush(any(Product.class));
     assertThrows(Conflict.class, () -> productServiceImpl.addProduct(product));
   }
 
+  @Test
+  public void postProductWithNullColumnThrowsServiceUnavailableNotConflict() {
+    doThrow(IntegrityViolations.of(null)).when(productRepository).saveAndFlush(any(Product.class));
+    assertThrows(ServiceUnavailable.class, () -> productServiceImpl.addProduct(product));
+  }
+
   @Test
   public void postProductThrowsServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(productRepository).save(any(Product.class));
+    doThrow(ServiceUnavailable.class).when(productRepository).saveAndFlush(any(Product.class));
     assertThrows(ServiceUnavailable.class,
         () -> productServiceImpl.addProduct(new Product()));
   }
 
+  @Test
+  public void postProductsSavesTheWholeBatchAtOnce() {
+    List<Product> batch = List.of(product, new Product("VG8-771", "Electronics", "Headset",
+        "Wireless headset", "Sony", Money.of("49.99")));
+    when(productRepository.saveAllAndFlush(batch)).thenReturn(batch);
+    assertEquals(batch, productServiceImpl.addProducts(batch));
+    verify(productRepository, never()).saveAndFlush(any(Product.class));
+  }
+
+  @Test
+  public void postProductsWithRepeatedSkuThrowsConflict409() {
+    List<Product> batch = List.of(product, new Product("MD5-354", "Electronics", "Headset",
+        "Wireless headset", "Sony", Money.of("49.99")));
+    assertThrows(Conflict.class, () -> productServiceImpl.addProducts(batch));
+    verify(productRepository, never()).saveAllAndFlush(any());
+  }
+
+  @Test
+  public void postProductsWithSkuInUseThrowsConflict409() {
+    doThrow(IntegrityViolations.of(Product.SKU_UNIQUE)).when(productRepository)
+        .saveAllAndFlush(any());
+    assertThrows(Conflict.class, () -> productServiceImpl.addProducts(List.of(product)));
+  }
+
+  @Test
+  public void postProductsThrowsServiceUnavailable() {
+    doThrow(ServiceUnavailable.class).when(productRepository).saveAllAndFlush(any());
+    assertThrows(ServiceUnavailable.class,
+        () -> productServiceImpl.addProducts(List.of(product)));
+  }
+
   @Test
   public void updateProductWithValidIdAndBodyReturnsProductSuccessfully() {
-    when(productRepository.existsById(any(Long.class))).thenReturn(true);
     when(productRepository.findById(any(Long.class))).thenReturn(Optional.of(product));
-    when(productRepository.save(any(Product.class))).thenReturn(product);
+    when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
     Product result = productServiceImpl.updateProductById(1L, new Product());
     assertEquals(product, result);
   }
 
+  @Test
+  public void updateProductCopiesRequestOntoLoadedProductWithoutPreChecks() {
+    product.setId(1L);
+    Product request = new Product("MD5-355", "Women's Fashion", "Wide Brim Sunhat",
+        "UPF 50+ Sun Hat to protect against UV rays", "Keeper's", Money.of("17.95"));
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    when(productRepository.saveAndFlush(product)).thenReturn(product);
+    Product result = productServiceImpl.updateProductById(1L, request);
+    assertEquals(1L, result.getId());
+    assertEquals("MD5-355", result.getSku());
+    assertEquals(Money.of("17.95"), result.getPrice());
+    verify(productRepository, never()).existsById(any(Long.class));
+  }
+
   @Test
   public void updateProductWithNonExistentIdThrowsNotFound() {
-    when(productRepository.existsById(any(Long.class))).thenReturn(false);
+    when(productRepository.findById(any(Long.class))).thenReturn(Optional.empty());
     assertThrows(ResourceNotFound.class,
         () -> productServiceImpl.updateProductById(999L, new Product()));
   }
@@ -146,17 +532,17 @@ class ProductServiceImplTest {
 
   @Test
   public void updateProductThrowsServiceUnavailable() {
-    when(productRepository.existsById(any(Long.class))).thenReturn(true);
     when(productRepository.findById(any(Long.class))).thenReturn(Optional.of(product));
-    doThrow(ServiceUnavailable.class).when(productRepository).save(any(Product.class));
+    doThrow(ServiceUnavailable.class).when(productRepository).saveAndFlush(any(Product.class));
     assertThrows(ServiceUnavailable.class,
         () -> productServiceImpl.updateProductById(1L, new Product()));
   }
 
   @Test
   public void updateProductWithEmailThatAlreadyExistsThrowsConflict409() {
-    when(productRepository.existsById(any(Long.class))).thenReturn(true);
-    when(productRepository.existsBySku(any(String.class))).thenReturn(true);
+    when(productRepository.findById(any(Long.class))).thenReturn(Optional.of(product));
+    doThrow(IntegrityViolations.of(Product.SKU_UNIQUE)).when(productRepository)
+        .saveAndFlush(any(Product.class));
     assertThrows(Conflict.class, () -> productServiceImpl.updateProductById(1L, product));
   }
 
@@ -191,4 +577,4 @@ class ProductServiceImplTest {
     when(productRepository.findById(any(Long.class))).thenReturn(Optional.empty());
     assertThrows(ResourceNotFound.class, () -> productServiceImpl.deleteProductById(40L));
   }
-}
\ No newline at end of file
+}
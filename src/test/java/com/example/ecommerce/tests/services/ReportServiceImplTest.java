@@ -0,0 +1,141 @@
+package com.example.ecommerce.tests.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.ecommerce.exceptions.BadDataResponse;
+import com.example.ecommerce.exceptions.ServiceUnavailable;
+import com.example.ecommerce.models.DailyProductSales;
+import com.example.ecommerce.models.DailySales;
+import com.example.ecommerce.models.Item;
+import com.example.ecommerce.models.Money;
+import com.example.ecommerce.models.Order;
+import com.example.ecommerce.models.ProductSales;
+import com.example.ecommerce.models.SalesReport;
+import com.example.ecommerce.repositories.DailyProductSalesRepository;
+import com.example.ecommerce.repositories.DailySalesRepository;
+import com.example.ecommerce.services.ReportServiceImpl;
+import com.example.ecommerce.services.SalesDelta;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Contains the unit tests for the ReportServiceImpl.
+ */
+class ReportServiceImplTest {
+
+  @Mock
+  private DailySalesRepository dailySalesRepository;
+  @Mock
+  private DailyProductSalesRepository dailyProductSalesRepository;
+  private AutoCloseable closeable;
+
+  @InjectMocks
+  ReportServiceImpl reportServiceImpl;
+
+  LocalDate from = LocalDate.of(2022, 8, 1);
+  LocalDate to = LocalDate.of(2022, 8, 31);
+  Order order;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    closeable = MockitoAnnotations.openMocks(this);
+    order = new Order(1L, Date.from(Instant.parse("2022-08-22T00:00:00Z")), new ArrayList<>(),
+        Money.of("59.01"));
+    order.addItemToOrder(new Item(1L, 3, null));
+    order.addItemToOrder(new Item(3L, 4, null));
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  public void getSalesReportSumsTheRevenueAndOrdersOfItsDays() {
+    List<DailySales> days = List.of(
+        new DailySales(LocalDate.of(2022, 8, 2), Money.of("15.95"), 1),
+        new DailySales(LocalDate.of(2022, 8, 22), Money.of("59.01"), 2));
+    List<ProductSales> products = List.of(new ProductSales(1L, 4L));
+    when(dailySalesRepository.findDaysWithOrders(from, to))
+        .thenReturn(days);
+    when(dailyProductSalesRepository.sumUnitsByProduct(from, to, PageRequest.of(0, 5)))
+        .thenReturn(products);
+
+    SalesReport report = reportServiceImpl.getSalesReport(from, to, 5);
+
+    assertEquals(Money.of("74.96"), report.getRevenue());
+    assertEquals(3, report.getOrderCount());
+    assertEquals(days, report.getDays());
+    assertEquals(products, report.getProducts());
+  }
+
+  @Test
+  public void getSalesReportWithoutBoundsReportsEveryDay() {
+    reportServiceImpl.getSalesReport(null, null, null);
+
+    verify(dailySalesRepository).findDaysWithOrders(LocalDate.of(1, 1, 1),
+        LocalDate.of(9999, 12, 31));
+  }
+
+  @Test
+  public void getSalesReportWithFromAfterToThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class, () -> reportServiceImpl.getSalesReport(to, from, null));
+  }
+
+  @Test
+  public void getSalesReportWithInvalidLimitThrowsBadDataResponse() {
+    assertThrows(BadDataResponse.class, () -> reportServiceImpl.getSalesReport(from, to, 0));
+  }
+
+  @Test
+  public void getSalesReportThrowsServiceUnavailable() {
+    doThrow(IllegalStateException.class).when(dailyProductSalesRepository)
+        .sumUnitsByProduct(any(LocalDate.class), any(LocalDate.class), any(Pageable.class));
+
+    assertThrows(ServiceUnavailable.class,
+        () -> reportServiceImpl.getSalesReport(from, to, null));
+  }
+
+  @Test
+  public void applySalesUpsertsEveryChangedDayAndProductDay() {
+    LocalDate day = LocalDate.of(2022, 8, 22);
+
+    reportServiceImpl.applySales(SalesDelta.of(List.of(order)));
+
+    ArgumentCaptor<SalesDelta> delta = ArgumentCaptor.forClass(SalesDelta.class);
+    verify(dailySalesRepository).applySales(delta.capture());
+    assertEquals(List.of(new DailySales(day, Money.of("59.01"), 1)), delta.getValue().getDays());
+    assertEquals(List.of(new DailyProductSales(day, 1L, 3), new DailyProductSales(day, 3L, 4)),
+        delta.getValue().getProductDays());
+    verify(dailySalesRepository, never()).save(any(DailySales.class));
+    verify(dailyProductSalesRepository, never()).save(any(DailyProductSales.class));
+  }
+
+  @Test
+  public void applySalesOfAnOrderReplacedByItselfWritesNothing() {
+    reportServiceImpl.applySales(SalesDelta.of(List.of(order)).subtract(order));
+
+    ArgumentCaptor<SalesDelta> delta = ArgumentCaptor.forClass(SalesDelta.class);
+    verify(dailySalesRepository).applySales(delta.capture());
+    assertTrue(delta.getValue().isEmpty());
+  }
+}
@@ -3,6 +3,7 @@ package com.example.ecommerce.tests.services;
 import static com.example.ecommerce.constants.StringConstants.EMPLOYEE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
@@ -25,7 +26,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 /**
  * Contains the unit tests for the UserServiceImpl.
@@ -43,6 +52,7 @@ class UserServiceImplTest {
 
   User user;
   List<User> userList = new ArrayList<>();
+  Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
 
   @BeforeEach
   public void setUp() throws Exception {
@@ -59,23 +69,48 @@ class UserServiceImplTest {
 
   @Test
   public void queryUsersReturnsCorrectUsers() {
-    when(userRepository.findAll()).thenReturn(userList);
-    List<User> result = userServiceImpl.queryUsers(new User());
-    assertEquals(userList, result);
+    when(userRepository.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<>(userList));
+    Slice<User> result = userServiceImpl.queryUsers(new User(), pageable, false);
+    assertEquals(userList, result.getContent());
+  }
+
+  @Test
+  public void queryUsersWithCountReturnsPage() {
+    when(userRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(userList));
+    Slice<User> result = userServiceImpl.queryUsers(new User(), pageable, true);
+    assertEquals(userList, result.getContent());
+    assertTrue(result instanceof Page);
   }
 
   @Test
   public void queryUsersByExample() {
-    when(userRepository.findAll(any(Example.class))).thenReturn(userList);
-    List<User> result = userServiceImpl.queryUsers(user);
-    assertEquals(userList, result);
+    when(userRepository.findSlice(any(Example.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(userList));
+    Slice<User> result = userServiceImpl.queryUsers(user, pageable, false);
+    assertEquals(userList, result.getContent());
+  }
+
+  @Test
+  public void queryUsersByExampleWithCountReturnsPage() {
+    when(userRepository.findAll(any(Example.class), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(userList));
+    Slice<User> result = userServiceImpl.queryUsers(user, pageable, true);
+    assertEquals(userList, result.getContent());
+  }
+
+  @Test
+  public void queryUsersWithInvalidSortThrowsBadDataResponse() {
+    doThrow(InvalidDataAccessApiUsageException.class).when(userRepository)
+        .findAllBy(any(Pageable.class));
+    assertThrows(BadDataResponse.class,
+        () -> userServiceImpl.queryUsers(new User(), PageRequest.of(0, 10, Sort.by("nope")), false));
   }
 
   @Test
   public void queryUsersThrowsServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(userRepository).findAll();
+    doThrow(ServiceUnavailable.class).when(userRepository).findAllBy(any(Pageable.class));
     assertThrows(ServiceUnavailable.class,
-        () -> userServiceImpl.queryUsers(new User()));
+        () -> userServiceImpl.queryUsers(new User(), pageable, false));
   }
 
   @Test
@@ -105,36 +140,42 @@ class UserServiceImplTest {
 
   @Test
   public void postUserWithValidBodyCreatesSuccessfully() {
-    when(userRepository.save(any(User.class))).thenReturn(user);
+    when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
     User result = userServiceImpl.addUser(new User());
     assertEquals(user, result);
   }
 
   @Test
   void postUserWithExistingEmailThrowsConflict409() {
-    when(userRepository.existsByEmail(any(String.class))).thenReturn(true);
+    doThrow(IntegrityViolations.of(User.EMAIL_UNIQUE)).when(userRepository)
+        .saveAndFlush(any(User.class));
     assertThrows(Conflict.class, () -> userServiceImpl.addUser(user));
   }
 
+  @Test
+  public void postUserWithNullColumnThrowsServiceUnavailableNotConflict() {
+    doThrow(IntegrityViolations.of(null)).when(userRepository).saveAndFlush(any(User.class));
+    assertThrows(ServiceUnavailable.class, () -> userServiceImpl.addUser(user));
+  }
+
   @Test
   public void postUserThrowsServiceUnavailable() {
-    doThrow(ServiceUnavailable.class).when(userRepository).save(any(User.class));
+    doThrow(ServiceUnavailable.class).when(userRepository).saveAndFlush(any(User.class));
     assertThrows(ServiceUnavailable.class,
         () -> userServiceImpl.addUser(new User()));
   }
 
   @Test
   public void updateUserWithValidIdAndBodyReturnsUserSuccessfully() {
-    when(userRepository.existsById(any(Long.class))).thenReturn(true);
     when(userRepository.findById(any(Long.class))).thenReturn(Optional.of(user));
-    when(userRepository.save(any(User.class))).thenReturn(user);
+    when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
     User result = userServiceImpl.updateUserById(1L, new User());
     assertEquals(user, result);
   }
 
   @Test
   public void updateUserWithNonExistentIdThrowsNotFound() {
-    when(userRepository.existsById(any(Long.class))).thenReturn(false);
+    when(userRepository.findById(any(Long.class))).thenReturn(Optional.empty());
     assertThrows(ResourceNotFound.class,
         () -> userServiceImpl.updateUserById(999L, new User()));
   }
@@ -147,17 +188,17 @@ class UserServiceImplTest {
 
   @Test
   public void updateUserThrowsServiceUnavailable() {
-    when(userRepository.existsById(any(Long.class))).thenReturn(true);
     when(userRepository.findById(any(Long.class))).thenReturn(Optional.of(user));
-    doThrow(ServiceUnavailable.class).when(userRepository).save(any(User.class));
+    doThrow(ServiceUnavailable.class).when(userRepository).saveAndFlush(any(User.class));
     assertThrows(ServiceUnavailable.class,
         () -> userServiceImpl.updateUserById(1L, new User()));
   }
 
   @Test
   public void updateUserWithEmailThatAlreadyExistsThrowsConflict409() {
-    when(userRepository.existsById(any(Long.class))).thenReturn(true);
-    when(userRepository.existsByEmail(any(String.class))).thenReturn(true);
+    when(userRepository.findById(any(Long.class))).thenReturn(Optional.of(user));
+    doThrow(IntegrityViolations.of(User.EMAIL_UNIQUE)).when(userRepository)
+        .saveAndFlush(any(User.class));
     assertThrows(Conflict.class, () -> userServiceImpl.updateUserById(1L, user));
   }
 
@@ -192,4 +233,4 @@ class UserServiceImplTest {
     when(userRepository.findById(any(Long.class))).thenReturn(Optional.empty());
     assertThrows(ResourceNotFound.class, () -> userServiceImpl.deleteUserById(40L));
   }
-}
\ No newline at end of file
+}